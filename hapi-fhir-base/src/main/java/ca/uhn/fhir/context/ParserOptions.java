@@ -42,6 +42,41 @@ public class ParserOptions {
 	private Set<String> myDontStripVersionsFromReferencesAtPaths = Collections.emptySet();
 	private boolean myOverrideResourceIdWithBundleEntryFullUrl = true;
 	private boolean myAutoContainReferenceTargetsWithNoId = true;
+	private boolean myStreamingJsonParsingEnabled = false;
+
+	/**
+	 * If set to {@literal true} (default is {@literal false}), the JSON parser will parse resources
+	 * directly from the underlying token stream instead of first loading the entire document into
+	 * an in-memory JSON tree. This considerably reduces the memory allocated when parsing large
+	 * resources such as Bundles, and produces the same resource model as the default mode.
+	 * <p>
+	 * Note that when parsing invalid content in this mode, the order in which problems are reported
+	 * to the {@link ca.uhn.fhir.parser.IParserErrorHandler} may differ from the default mode.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public boolean isStreamingJsonParsingEnabled() {
+		return myStreamingJsonParsingEnabled;
+	}
+
+	/**
+	 * If set to {@literal true} (default is {@literal false}), the JSON parser will parse resources
+	 * directly from the underlying token stream instead of first loading the entire document into
+	 * an in-memory JSON tree. This considerably reduces the memory allocated when parsing large
+	 * resources such as Bundles, and produces the same resource model as the default mode.
+	 * <p>
+	 * Note that when parsing invalid content in this mode, the order in which problems are reported
+	 * to the {@link ca.uhn.fhir.parser.IParserErrorHandler} may differ from the default mode.
+	 * </p>
+	 *
+	 * @return Returns a reference to <code>this</code> parser so that method calls can be chained together
+	 * @since 7.2.0
+	 */
+	public ParserOptions setStreamingJsonParsingEnabled(boolean theStreamingJsonParsingEnabled) {
+		myStreamingJsonParsingEnabled = theStreamingJsonParsingEnabled;
+		return this;
+	}
 
 	/**
 	 * If set to {@literal true} (which is the default), contained resources may be specified by
@@ -328,6 +328,74 @@ public interface IValidationSupport {
 		return null;
 	}
 
+	/**
+	 * Validates a batch of codes. This is equivalent to calling
+	 * {@link #validateCode(ValidationSupportContext, ConceptValidationOptions, String, String, String, String)}
+	 * once for each request, but implementations which are able to validate several codes at once (e.g.
+	 * using a single database query or a single network round trip) should override this method.
+	 *
+	 * @param theValidationSupportContext The validation support module will be passed in to this method. This is convenient in cases where the operation needs to make calls to
+	 *                                    other method in the support chain, so that they can be passed through the entire chain. Implementations of this interface may always safely ignore this parameter.
+	 * @param theOptions                  Provides options controlling the validation
+	 * @param theRequests                 The codes to validate
+	 * @param theValueSetUrl              The ValueSet URL to validate against, or <code>null</code>
+	 * @return Returns a list containing one validation result per request, in the same order as the requests. An
+	 * entry is <code>null</code> if this validation support module can not handle that request.
+	 * @since 7.2.0
+	 */
+	@Nonnull
+	default List<CodeValidationResult> validateCodeBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			String theValueSetUrl) {
+		List<CodeValidationResult> retVal = new ArrayList<>(theRequests.size());
+		for (CodeValidationRequest next : theRequests) {
+			retVal.add(validateCode(
+					theValidationSupportContext,
+					theOptions,
+					next.getSystem(),
+					next.getCode(),
+					next.getDisplay(),
+					theValueSetUrl));
+		}
+		return retVal;
+	}
+
+	/**
+	 * Validates a batch of codes against a ValueSet. This is equivalent to calling
+	 * {@link #validateCodeInValueSet(ValidationSupportContext, ConceptValidationOptions, String, String, String, IBaseResource)}
+	 * once for each request, but implementations which are able to validate several codes at once (e.g.
+	 * using a single database query or a single network round trip) should override this method.
+	 *
+	 * @param theValidationSupportContext The validation support module will be passed in to this method. This is convenient in cases where the operation needs to make calls to
+	 *                                    other method in the support chain, so that they can be passed through the entire chain. Implementations of this interface may always safely ignore this parameter.
+	 * @param theOptions                  Provides options controlling the validation
+	 * @param theRequests                 The codes to validate
+	 * @param theValueSet                 The ValueSet to validate against. Must not be null, and must be a ValueSet resource.
+	 * @return Returns a list containing one validation result per request, in the same order as the requests. An
+	 * entry is <code>null</code> if this validation support module can not handle that request.
+	 * @since 7.2.0
+	 */
+	@Nonnull
+	default List<CodeValidationResult> validateCodeInValueSetBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			@Nonnull IBaseResource theValueSet) {
+		List<CodeValidationResult> retVal = new ArrayList<>(theRequests.size());
+		for (CodeValidationRequest next : theRequests) {
+			retVal.add(validateCodeInValueSet(
+					theValidationSupportContext,
+					theOptions,
+					next.getSystem(),
+					next.getCode(),
+					next.getDisplay(),
+					theValueSet));
+		}
+		return retVal;
+	}
+
 	/**
 	 * Look up a code using the system and code value.
 	 * @deprecated This method has been deprecated in HAPI FHIR 7.0.0. Use {@link IValidationSupport#lookupCode(ValidationSupportContext, LookupCodeRequest)} instead.
@@ -589,6 +657,53 @@ public interface IValidationSupport {
 		}
 	}
 
+	/**
+	 * A single code to be validated by
+	 * {@link #validateCodeBatch(ValidationSupportContext, ConceptValidationOptions, List, String)} or
+	 * {@link #validateCodeInValueSetBatch(ValidationSupportContext, ConceptValidationOptions, List, IBaseResource)}.
+	 *
+	 * @since 7.2.0
+	 */
+	class CodeValidationRequest {
+		private final String mySystem;
+		private final String myCode;
+		private final String myDisplay;
+
+		/**
+		 * Constructor
+		 *
+		 * @param theSystem  The code system, e.g. "<code>http://loinc.org</code>"
+		 * @param theCode    The code, e.g. "<code>1234-5</code>"
+		 * @param theDisplay The display name, if it should also be validated
+		 */
+		public CodeValidationRequest(String theSystem, String theCode, String theDisplay) {
+			mySystem = theSystem;
+			myCode = theCode;
+			myDisplay = theDisplay;
+		}
+
+		public String getSystem() {
+			return mySystem;
+		}
+
+		public String getCode() {
+			return myCode;
+		}
+
+		public String getDisplay() {
+			return myDisplay;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringBuilder(this)
+					.append("system", mySystem)
+					.append("code", myCode)
+					.append("display", myDisplay)
+					.toString();
+		}
+	}
+
 	class CodeValidationResult {
 		public static final String SOURCE_DETAILS = "sourceDetails";
 		public static final String RESULT = "result";
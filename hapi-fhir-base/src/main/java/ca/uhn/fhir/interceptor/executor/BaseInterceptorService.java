@@ -19,6 +19,7 @@
  */
 package ca.uhn.fhir.interceptor.executor;
 
+import ca.uhn.fhir.context.ConfigurationException;
 import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.interceptor.api.HookParams;
 import ca.uhn.fhir.interceptor.api.IBaseInterceptorBroadcaster;
@@ -41,14 +42,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AnnotatedElement;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -63,12 +68,30 @@ import java.util.stream.Collectors;
 public abstract class BaseInterceptorService<POINTCUT extends Enum<POINTCUT> & IPointcut>
 		implements IBaseInterceptorService<POINTCUT>, IBaseInterceptorBroadcaster<POINTCUT> {
 	private static final Logger ourLog = LoggerFactory.getLogger(BaseInterceptorService.class);
+	private static final MethodHandle HOOK_PARAMS_GET;
+
+	static {
+		try {
+			HOOK_PARAMS_GET = MethodHandles.lookup()
+					.findVirtual(HookParams.class, "get", MethodType.methodType(Object.class, Class.class, int.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new ConfigurationException(Msg.code(2487) + "Unable to resolve HookParams#get", e);
+		}
+	}
+
 	private final List<Object> myInterceptors = new ArrayList<>();
 	private final ListMultimap<POINTCUT, BaseInvoker> myGlobalInvokers = ArrayListMultimap.create();
 	private final ListMultimap<POINTCUT, BaseInvoker> myAnonymousInvokers = ArrayListMultimap.create();
 	private final Object myRegistryMutex = new Object();
 	private final Class<POINTCUT> myPointcutType;
 	private volatile EnumSet<POINTCUT> myRegisteredPointcuts;
+	/**
+	 * Sorted invokers for each pointcut with at least one hook. This is an immutable
+	 * snapshot which is replaced whenever the registry changes, so that hooks can be
+	 * called without locking or copying the invoker lists.
+	 */
+	private volatile Map<POINTCUT, BaseInvoker[]> myPointcutToInvokers;
+
 	private String myName;
 	private boolean myWarnOnInterceptorWithNoHooks = true;
 
@@ -212,6 +235,15 @@ public abstract class BaseInterceptorService<POINTCUT extends Enum<POINTCUT> & I
 		EnumSet<POINTCUT> registeredPointcuts = EnumSet.noneOf(myPointcutType);
 		registeredPointcuts.addAll(myAnonymousInvokers.keySet());
 		registeredPointcuts.addAll(myGlobalInvokers.keySet());
+
+		Map<POINTCUT, BaseInvoker[]> pointcutToInvokers = new EnumMap<>(myPointcutType);
+		for (POINTCUT nextPointcut : registeredPointcuts) {
+			List<BaseInvoker> invokers =
+					union(myGlobalInvokers.get(nextPointcut), myAnonymousInvokers.get(nextPointcut));
+			pointcutToInvokers.put(nextPointcut, invokers.toArray(new BaseInvoker[0]));
+		}
+
+		myPointcutToInvokers = pointcutToInvokers;
 		myRegisteredPointcuts = registeredPointcuts;
 	}
 
@@ -277,15 +309,19 @@ public abstract class BaseInterceptorService<POINTCUT extends Enum<POINTCUT> & I
 	}
 
 	private Object doCallHooks(POINTCUT thePointcut, HookParams theParams, Object theRetVal) {
-		// use new list for loop to avoid ConcurrentModificationException in case invoker gets added while looping
-		List<BaseInvoker> invokers = new ArrayList<>(getInvokersForPointcut(thePointcut));
+		// this array is never modified, so there is no risk of ConcurrentModificationException
+		// if an invoker gets added while looping
+		BaseInvoker[] invokers = myPointcutToInvokers.get(thePointcut);
+		if (invokers == null) {
+			return theRetVal;
+		}
 
 		/*
 		 * Call each hook in order
 		 */
+		Class<?> pointcutReturnType = thePointcut.getReturnType();
 		for (BaseInvoker nextInvoker : invokers) {
 			Object nextOutcome = nextInvoker.invoke(theParams);
-			Class<?> pointcutReturnType = thePointcut.getReturnType();
 			if (pointcutReturnType.equals(getBooleanReturnType())) {
 				Boolean nextOutcomeAsBoolean = (Boolean) nextOutcome;
 				if (Boolean.FALSE.equals(nextOutcomeAsBoolean)) {
@@ -318,16 +354,11 @@ public abstract class BaseInterceptorService<POINTCUT extends Enum<POINTCUT> & I
 	 * a new and stable list is returned to.. do whatever you want with it.
 	 */
 	private List<BaseInvoker> getInvokersForPointcut(POINTCUT thePointcut) {
-		List<BaseInvoker> invokers;
-
-		synchronized (myRegistryMutex) {
-			List<BaseInvoker> globalInvokers = myGlobalInvokers.get(thePointcut);
-			List<BaseInvoker> anonymousInvokers = myAnonymousInvokers.get(thePointcut);
-			List<BaseInvoker> threadLocalInvokers = null;
-			invokers = union(globalInvokers, anonymousInvokers, threadLocalInvokers);
+		BaseInvoker[] invokers = myPointcutToInvokers.get(thePointcut);
+		if (invokers == null) {
+			return Collections.emptyList();
 		}
-
-		return invokers;
+		return Arrays.asList(invokers);
 	}
 
 	/**
@@ -479,6 +510,11 @@ public abstract class BaseInterceptorService<POINTCUT extends Enum<POINTCUT> & I
 		private final Class<?>[] myParameterTypes;
 		private final int[] myParameterIndexes;
 		private final POINTCUT myPointcut;
+		/**
+		 * A handle of type <code>(HookParams)Object</code> which extracts the hook method
+		 * arguments from the {@link HookParams} and invokes the hook method on the interceptor
+		 */
+		private final MethodHandle myInvoker;
 
 		/**
 		 * Constructor
@@ -514,6 +550,46 @@ public abstract class BaseInterceptorService<POINTCUT extends Enum<POINTCUT> & I
 			}
 
 			myMethod.setAccessible(true);
+			myInvoker = createInvoker(theInterceptor);
+		}
+
+		/**
+		 * Adapts the hook method into a handle which takes the {@link HookParams} directly, so
+		 * that no argument array needs to be created (or unpacked reflectively) per invocation.
+		 */
+		private MethodHandle createInvoker(Object theInterceptor) {
+			MethodHandle retVal;
+			try {
+				retVal = MethodHandles.lookup().unreflect(myMethod);
+			} catch (IllegalAccessException e) {
+				throw new InternalErrorException(Msg.code(2484) + "Unable to access hook method " + myMethod, e);
+			}
+			if (!Modifier.isStatic(myMethod.getModifiers())) {
+				retVal = retVal.bindTo(theInterceptor);
+			}
+
+			MethodHandle[] argumentExtractors = new MethodHandle[myParameterTypes.length];
+			for (int i = 0; i < myParameterTypes.length; i++) {
+				Class<?> nextParamType = myParameterTypes[i];
+				MethodHandle nextExtractor;
+				if (nextParamType.equals(Pointcut.class)) {
+					nextExtractor = MethodHandles.constant(nextParamType, myPointcut);
+					nextExtractor = MethodHandles.dropArguments(nextExtractor, 0, HookParams.class);
+				} else {
+					nextExtractor =
+							MethodHandles.insertArguments(HOOK_PARAMS_GET, 1, nextParamType, myParameterIndexes[i]);
+					nextExtractor = nextExtractor.asType(MethodType.methodType(nextParamType, HookParams.class));
+				}
+				argumentExtractors[i] = nextExtractor;
+			}
+			retVal = MethodHandles.filterArguments(retVal, 0, argumentExtractors);
+
+			// Every argument is extracted from the same HookParams instance
+			MethodType invokerType = MethodType.methodType(myMethod.getReturnType(), HookParams.class);
+			retVal = MethodHandles.permuteArguments(retVal, invokerType, new int[myParameterTypes.length]);
+
+			// A void hook method produces null here, as it did with Method#invoke
+			return retVal.asType(MethodType.methodType(Object.class, HookParams.class));
 		}
 
 		@Override
@@ -532,24 +608,9 @@ public abstract class BaseInterceptorService<POINTCUT extends Enum<POINTCUT> & I
 		 */
 		@Override
 		Object invoke(HookParams theParams) {
-
-			Object[] args = new Object[myParameterTypes.length];
-			for (int i = 0; i < myParameterTypes.length; i++) {
-				Class<?> nextParamType = myParameterTypes[i];
-				if (nextParamType.equals(Pointcut.class)) {
-					args[i] = myPointcut;
-				} else {
-					int nextParamIndex = myParameterIndexes[i];
-					Object nextParamValue = theParams.get(nextParamType, nextParamIndex);
-					args[i] = nextParamValue;
-				}
-			}
-
-			// Invoke the method
 			try {
-				return myMethod.invoke(getInterceptor(), args);
-			} catch (InvocationTargetException e) {
-				Throwable targetException = e.getTargetException();
+				return (Object) myInvoker.invokeExact(theParams);
+			} catch (Throwable targetException) {
 				if (myPointcut.isShouldLogAndSwallowException(targetException)) {
 					ourLog.error("Exception thrown by interceptor: " + targetException.toString(), targetException);
 					return null;
@@ -562,8 +623,6 @@ public abstract class BaseInterceptorService<POINTCUT extends Enum<POINTCUT> & I
 							Msg.code(1910) + "Failure invoking interceptor for pointcut(s) " + getPointcut(),
 							targetException);
 				}
-			} catch (Exception e) {
-				throw new InternalErrorException(Msg.code(1911) + e);
 			}
 		}
 	}
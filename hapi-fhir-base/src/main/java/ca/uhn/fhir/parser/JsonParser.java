@@ -236,6 +236,10 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 
 	@Override
 	public <T extends IBaseResource> T doParseResource(Class<T> theResourceType, Reader theReader) {
+		if (getContext().getParserOptions().isStreamingJsonParsingEnabled()) {
+			return new JsonStreamingReader(this).parseResource(theResourceType, theReader);
+		}
+
 		JsonLikeStructure jsonStructure = new JacksonStructure();
 		jsonStructure.load(theReader);
 
@@ -795,7 +799,7 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 		}
 	}
 
-	private boolean isSupportsFhirComment() {
+	boolean isSupportsFhirComment() {
 		if (myIsSupportsFhirComment == null) {
 			myIsSupportsFhirComment = isFhirVersionLessThanOrEqualTo(FhirVersionEnum.DSTU2_1);
 		}
@@ -1241,7 +1245,7 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 		return object.getAsArray();
 	}
 
-	private void parseAlternates(
+	void parseAlternates(
 			BaseJsonLikeValue theAlternateVal,
 			ParserState<?> theState,
 			String theElementName,
@@ -1303,7 +1307,7 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 		}
 	}
 
-	private void parseChildren(BaseJsonLikeObject theObject, ParserState<?> theState) {
+	void parseChildren(BaseJsonLikeObject theObject, ParserState<?> theState) {
 		int allUnderscoreNames = 0;
 		int handledUnderscoreNames = 0;
 
@@ -1378,7 +1382,7 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 		}
 	}
 
-	private void parseChildren(
+	void parseChildren(
 			ParserState<?> theState,
 			String theName,
 			BaseJsonLikeValue theJsonVal,
@@ -1455,7 +1459,7 @@ public class JsonParser extends BaseParser implements IJsonLikeParser {
 		}
 	}
 
-	private void parseExtension(ParserState<?> theState, BaseJsonLikeArray theValues, boolean theIsModifier) {
+	void parseExtension(ParserState<?> theState, BaseJsonLikeArray theValues, boolean theIsModifier) {
 		int allUnderscoreNames = 0;
 		int handledUnderscoreNames = 0;
 
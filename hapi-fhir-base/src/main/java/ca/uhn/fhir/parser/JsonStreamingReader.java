@@ -0,0 +1,569 @@
+/*-
+ * #%L
+ * HAPI FHIR - Core Library
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.parser;
+
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.parser.json.BaseJsonLikeValue;
+import ca.uhn.fhir.parser.json.BaseJsonLikeValue.ScalarType;
+import ca.uhn.fhir.parser.json.BaseJsonLikeValue.ValueType;
+import ca.uhn.fhir.parser.json.jackson.JacksonStructure;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Parses FHIR JSON directly from a Jackson token stream into a {@link ParserState}, without
+ * first materializing the whole document as a tree. This is used by
+ * {@link ca.uhn.fhir.parser.JsonParser} when
+ * {@link ca.uhn.fhir.context.ParserOptions#isStreamingJsonParsingEnabled()} is set.
+ * <p>
+ * Complex elements are pushed into the parser state as soon as they are read. Primitive
+ * elements are held until the end of their enclosing object, since FHIR JSON allows the
+ * corresponding <code>_element</code> property (holding the element id and extensions) to
+ * appear anywhere in the same object. Only these small values (and the rare JSON structures
+ * which can't be streamed, such as a resource whose <code>resourceType</code> is not its first
+ * property) are read as trees, and those are processed by the regular tree parsing logic, so
+ * the resulting model is the same as when parsing in tree mode.
+ * </p>
+ * <p>
+ * An <code>_element</code> property is only applied to a complex element if it appears before
+ * the element itself. HAPI FHIR never produces <code>_element</code> properties for complex
+ * elements, so this only affects hand-written content.
+ * </p>
+ * <p>
+ * Instances of this class are not thread safe and are intended to be used for a single parse.
+ * </p>
+ */
+final class JsonStreamingReader {
+
+	private static final String RESOURCE_TYPE = "resourceType";
+
+	private final ca.uhn.fhir.parser.JsonParser myParser;
+	private final ArrayList<ObjectEntry> myEntries = new ArrayList<>();
+
+	JsonStreamingReader(ca.uhn.fhir.parser.JsonParser theParser) {
+		myParser = theParser;
+	}
+
+	<T extends IBaseResource> T parseResource(Class<T> theResourceType, Reader theReader) {
+		JsonParser json = JacksonStructure.createStreamingParser(theReader);
+		try {
+			T retVal = parseRootObject(theResourceType, json);
+			if (json.nextToken() != null) {
+				throw new DataFormatException(Msg.code(2477)
+						+ "Failed to parse JSON encoded FHIR content: Unexpected content after the end of the resource at "
+						+ json.currentLocation().offsetDescription());
+			}
+			return retVal;
+		} catch (IOException e) {
+			throw JacksonStructure.toDataFormatException(e);
+		} finally {
+			try {
+				json.close();
+			} catch (IOException e) {
+				// ignore, the underlying reader is not closed by the parser anyhow
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends IBaseResource> T parseRootObject(Class<T> theResourceType, JsonParser theJson)
+			throws IOException {
+		// JacksonStructure has already verified that the content starts with an object
+		theJson.nextToken();
+
+		String firstName = theJson.nextFieldName();
+		if (RESOURCE_TYPE.equals(firstName)) {
+			JsonToken token = theJson.nextToken();
+			if (token == JsonToken.VALUE_STRING && isNotBlank(theJson.getText())) {
+				ParserState<? extends IBaseResource> state = ParserState.getPreResourceInstance(
+						myParser, theResourceType, myParser.getContext(), true, myParser.getErrorHandler());
+				state.enteringNewElement(null, theJson.getText());
+
+				parseObjectBody(state, theJson, false);
+
+				state.endingElement();
+				state.endingElement();
+
+				return (T) state.getObject();
+			}
+		} else if (firstName != null) {
+			theJson.nextToken();
+		}
+
+		/*
+		 * The resource type isn't the first property, so let the tree parser deal
+		 * with this (it also produces the error if the resource type is missing)
+		 */
+		JacksonStructure structure = new JacksonStructure();
+		structure.setNativeObject(readObjectRemainder(theJson, firstName));
+		return myParser.doParseResource(theResourceType, structure);
+	}
+
+	/**
+	 * Streams the properties of the current JSON object into the given state. The parser
+	 * must be positioned on the START_OBJECT token, and is left on the matching END_OBJECT.
+	 */
+	private void parseObjectBody(ParserState<?> theState, JsonParser theJson, boolean theExtension) throws IOException {
+		int frameStart = myEntries.size();
+
+		for (String name = theJson.nextFieldName(); name != null; name = theJson.nextFieldName()) {
+			JsonToken token = theJson.nextToken();
+
+			if (theExtension) {
+				if ("url".equals(name)) {
+					theJson.skipChildren();
+					addSeen(name);
+					continue;
+				}
+			} else if (RESOURCE_TYPE.equals(name)) {
+				if (theState.isToplevelResourceElement()) {
+					theJson.skipChildren();
+					addSeen(name);
+					continue;
+				}
+			} else if ("fhir_comments".equals(name)) {
+				parseFhirComments(theState, theJson, token);
+				addSeen(name);
+				continue;
+			}
+
+			if ("extension".equals(name)) {
+				parseExtensionArray(theState, theJson, token, name, false);
+				addSeen(name);
+			} else if ("modifierExtension".equals(name)) {
+				parseExtensionArray(theState, theJson, token, name, true);
+				addSeen(name);
+			} else if (name.charAt(0) == '_') {
+				ObjectEntry entry = new ObjectEntry(name);
+				entry.myAlternate = true;
+				entry.myNode = JacksonStructure.readTree(theJson);
+				myEntries.add(entry);
+			} else if (token == JsonToken.START_OBJECT) {
+				JsonNode alternate = takeAlternate(frameStart, name);
+				parseComplexElement(theState, theJson, name, alternate, false);
+				addSeen(name);
+			} else if (token == JsonToken.START_ARRAY) {
+				token = theJson.nextToken();
+				if (token == JsonToken.START_OBJECT) {
+					JsonNode alternate = takeAlternate(frameStart, name);
+					parseComplexArray(theState, theJson, name, alternate);
+					addSeen(name);
+				} else if (token == JsonToken.END_ARRAY) {
+					addSeen(name);
+				} else {
+					ObjectEntry entry = new ObjectEntry(name);
+					entry.myDeferred = true;
+					entry.myNode = readArrayRemainder(theJson);
+					myEntries.add(entry);
+				}
+			} else {
+				ObjectEntry entry = new ObjectEntry(name);
+				entry.myDeferred = true;
+				if (token == JsonToken.VALUE_NULL) {
+					entry.myNode = JsonNodeFactory.instance.nullNode();
+				} else {
+					entry.myScalar = getScalarText(theJson, token);
+					entry.myScalarType = getScalarType(token);
+				}
+				myEntries.add(entry);
+			}
+		}
+
+		parseDeferredEntries(theState, frameStart);
+
+		myEntries.subList(frameStart, myEntries.size()).clear();
+	}
+
+	/**
+	 * Processes the primitive values and alternates which were held while reading the
+	 * current object, mirroring the tree parser
+	 */
+	private void parseDeferredEntries(ParserState<?> theState, int theFrameStart) {
+		int frameEnd = myEntries.size();
+		boolean haveUnusedAlternates = false;
+
+		for (int i = theFrameStart; i < frameEnd; i++) {
+			ObjectEntry next = myEntries.get(i);
+			if (!next.myDeferred) {
+				if (next.myAlternate) {
+					haveUnusedAlternates = true;
+				}
+				continue;
+			}
+
+			String alternateName = '_' + next.myName;
+			JsonNode alternate = takeAlternate(theFrameStart, next.myName);
+			BaseJsonLikeValue alternateVal = alternate != null ? JacksonStructure.toJsonLikeValue(alternate) : null;
+
+			if (next.myNode != null) {
+				myParser.parseChildren(
+						theState,
+						next.myName,
+						JacksonStructure.toJsonLikeValue(next.myNode),
+						alternateVal,
+						alternateName,
+						false);
+				continue;
+			}
+
+			if (next.myName.equals("id") && next.myScalarType != ScalarType.STRING) {
+				myParser.getErrorHandler()
+						.incorrectJsonType(
+								null, "id", ValueType.SCALAR, ScalarType.STRING, ValueType.SCALAR, next.myScalarType);
+			}
+			theState.enteringNewElement(null, next.myName);
+			theState.attributeValue("value", next.myScalar);
+			if (alternateVal != null) {
+				myParser.parseAlternates(alternateVal, theState, alternateName, alternateName);
+			}
+			theState.endingElement();
+		}
+
+		/*
+		 * This happens if an element has an extension but no actual value. I.e.
+		 * if a resource has a "_status" element but no corresponding "status"
+		 * element.
+		 */
+		if (haveUnusedAlternates) {
+			for (int i = theFrameStart; i < frameEnd; i++) {
+				ObjectEntry next = myEntries.get(i);
+				if (!next.myAlternate || next.myUsed || next.myName.length() == 1) {
+					continue;
+				}
+				String elementName = next.myName.substring(1);
+				if (hasEntry(theFrameStart, elementName)) {
+					continue;
+				}
+				if (next.myNode.isObject()) {
+					theState.enteringNewElement(null, elementName);
+					myParser.parseAlternates(
+							JacksonStructure.toJsonLikeValue(next.myNode), theState, next.myName, next.myName);
+					theState.endingElement();
+				} else {
+					myParser.getErrorHandler()
+							.incorrectJsonType(
+									null,
+									next.myName,
+									ValueType.OBJECT,
+									null,
+									JacksonStructure.toJsonLikeValue(next.myNode)
+											.getJsonType(),
+									null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The parser must be positioned on the START_OBJECT token of the element, and is left
+	 * on the matching END_OBJECT
+	 */
+	private void parseComplexElement(
+			ParserState<?> theState, JsonParser theJson, String theName, JsonNode theAlternate, boolean theInArray)
+			throws IOException {
+		if (theName.equals("id")) {
+			myParser.getErrorHandler()
+					.incorrectJsonType(null, "id", ValueType.SCALAR, ScalarType.STRING, ValueType.OBJECT, null);
+		}
+		if (!theInArray && theState.elementIsRepeating(theName)) {
+			myParser.getErrorHandler().incorrectJsonType(null, theName, ValueType.ARRAY, null, ValueType.OBJECT, null);
+		}
+
+		theState.enteringNewElement(null, theName);
+		if (theAlternate != null) {
+			String alternateName = '_' + theName;
+			myParser.parseAlternates(
+					JacksonStructure.toJsonLikeValue(theAlternate), theState, alternateName, alternateName);
+		}
+
+		if (theState.isPreResource()) {
+			parseContainedResource(theState, theJson);
+		} else {
+			parseObjectBody(theState, theJson, false);
+		}
+
+		theState.endingElement();
+	}
+
+	private void parseContainedResource(ParserState<?> theState, JsonParser theJson) throws IOException {
+		String firstName = theJson.nextFieldName();
+		if (RESOURCE_TYPE.equals(firstName)) {
+			JsonToken token = theJson.nextToken();
+			if (token == JsonToken.VALUE_STRING) {
+				theState.enteringNewElement(null, theJson.getText());
+				parseObjectBody(theState, theJson, false);
+				theState.endingElement();
+				return;
+			}
+		} else if (firstName != null) {
+			theJson.nextToken();
+		}
+
+		ObjectNode object = readObjectRemainder(theJson, firstName);
+		JsonNode resourceType = object.get(RESOURCE_TYPE);
+		if (resourceType == null || !resourceType.isTextual()) {
+			throw new DataFormatException(Msg.code(2485)
+					+ "Missing required element 'resourceType' from JSON resource object, unable to parse");
+		}
+		theState.enteringNewElement(null, resourceType.asText());
+		myParser.parseChildren(JacksonStructure.toJsonLikeValue(object).getAsObject(), theState);
+		theState.endingElement();
+	}
+
+	/**
+	 * The parser must be positioned on the first element of the array (which is an object),
+	 * and is left on the END_ARRAY token
+	 */
+	private void parseComplexArray(ParserState<?> theState, JsonParser theJson, String theName, JsonNode theAlternate)
+			throws IOException {
+		String alternateName = '_' + theName;
+		if (theName.equals("id")) {
+			myParser.getErrorHandler()
+					.incorrectJsonType(null, "id", ValueType.SCALAR, ScalarType.STRING, ValueType.ARRAY, null);
+		}
+
+		JsonNode alternate = theAlternate;
+		if (alternate != null && !alternate.isArray()) {
+			myParser.getErrorHandler()
+					.incorrectJsonType(
+							null,
+							alternateName,
+							ValueType.ARRAY,
+							null,
+							JacksonStructure.toJsonLikeValue(alternate).getJsonType(),
+							null);
+			alternate = null;
+		}
+
+		int index = 0;
+		for (JsonToken token = theJson.currentToken(); token != JsonToken.END_ARRAY; token = theJson.nextToken()) {
+			JsonNode nextAlternate = alternate != null ? alternate.get(index) : null;
+			if (token == JsonToken.START_OBJECT) {
+				parseComplexElement(theState, theJson, theName, nextAlternate, true);
+			} else {
+				BaseJsonLikeValue nextAlternateVal =
+						nextAlternate != null ? JacksonStructure.toJsonLikeValue(nextAlternate) : null;
+				myParser.parseChildren(
+						theState,
+						theName,
+						JacksonStructure.toJsonLikeValue(JacksonStructure.readTree(theJson)),
+						nextAlternateVal,
+						alternateName,
+						true);
+			}
+			index++;
+		}
+	}
+
+	/**
+	 * The parser must be positioned on the value of the extension property, and is left on
+	 * the last token of that value
+	 */
+	private void parseExtensionArray(
+			ParserState<?> theState, JsonParser theJson, JsonToken theToken, String theName, boolean theIsModifier)
+			throws IOException {
+		if (theToken == JsonToken.VALUE_NULL) {
+			return;
+		}
+		if (theToken != JsonToken.START_ARRAY) {
+			throw new DataFormatException(
+					Msg.code(2486) + "Syntax error parsing JSON FHIR structure: Expected ARRAY at element '" + theName
+							+ "', found '" + getValueType(theToken) + "'");
+		}
+
+		for (JsonToken token = theJson.nextToken(); token != JsonToken.END_ARRAY; token = theJson.nextToken()) {
+			if (token != JsonToken.START_OBJECT) {
+				throw new DataFormatException(
+						Msg.code(2478) + "Syntax error parsing JSON FHIR structure: Expected OBJECT in array '"
+								+ theName + "', found '" + getValueType(token) + "'");
+			}
+			parseExtension(theState, theJson, theIsModifier);
+		}
+	}
+
+	private void parseExtension(ParserState<?> theState, JsonParser theJson, boolean theIsModifier) throws IOException {
+		String firstName = theJson.nextFieldName();
+		if (firstName != null) {
+			JsonToken token = theJson.nextToken();
+			if ("url".equals(firstName) && getScalarType(token) != null) {
+				String url = myParser.getExtensionUrl(getScalarText(theJson, token));
+				theState.enteringNewElementExtension(null, url, theIsModifier, myParser.getServerBaseUrl());
+				parseObjectBody(theState, theJson, true);
+				theState.endingElement();
+				return;
+			}
+		}
+
+		/*
+		 * The URL isn't the first property, so buffer this extension and let the
+		 * tree parser handle it
+		 */
+		ObjectNode extension = readObjectRemainder(theJson, firstName);
+		BaseJsonLikeValue array = JacksonStructure.toJsonLikeValue(
+				JsonNodeFactory.instance.arrayNode().add(extension));
+		myParser.parseExtension(theState, array.getAsArray(), theIsModifier);
+	}
+
+	private void parseFhirComments(ParserState<?> theState, JsonParser theJson, JsonToken theToken) throws IOException {
+		if (theToken != JsonToken.START_ARRAY || !myParser.isSupportsFhirComment()) {
+			theJson.skipChildren();
+			return;
+		}
+		for (JsonToken token = theJson.nextToken(); token != JsonToken.END_ARRAY; token = theJson.nextToken()) {
+			if (token == JsonToken.VALUE_STRING) {
+				theState.commentPre(theJson.getText());
+			} else {
+				theJson.skipChildren();
+			}
+		}
+	}
+
+	private void addSeen(String theName) {
+		myEntries.add(new ObjectEntry(theName));
+	}
+
+	private boolean hasEntry(int theFrameStart, String theName) {
+		for (int i = theFrameStart; i < myEntries.size(); i++) {
+			ObjectEntry next = myEntries.get(i);
+			if (!next.myAlternate && next.myName.equals(theName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the (not yet used) <code>_name</code> alternate for the given element name
+	 * within the current object, marking it as used
+	 */
+	private JsonNode takeAlternate(int theFrameStart, String theName) {
+		for (int i = theFrameStart; i < myEntries.size(); i++) {
+			ObjectEntry next = myEntries.get(i);
+			if (next.myAlternate
+					&& !next.myUsed
+					&& next.myName.length() == theName.length() + 1
+					&& next.myName.regionMatches(1, theName, 0, theName.length())) {
+				next.myUsed = true;
+				return next.myNode;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the rest of the current object into a tree. If <code>theCurrentName</code> is
+	 * not null, the parser must be positioned on the value of that property, otherwise it
+	 * must be positioned on the END_OBJECT token.
+	 */
+	private static ObjectNode readObjectRemainder(JsonParser theJson, String theCurrentName) throws IOException {
+		ObjectNode retVal = JsonNodeFactory.instance.objectNode();
+		String name = theCurrentName;
+		while (name != null) {
+			retVal.set(name, JacksonStructure.readTree(theJson));
+			name = theJson.nextFieldName();
+			if (name != null) {
+				theJson.nextToken();
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Reads the rest of the current array into a tree. The parser must be positioned on the
+	 * first element of the array.
+	 */
+	private static JsonNode readArrayRemainder(JsonParser theJson) throws IOException {
+		ArrayNode retVal = JsonNodeFactory.instance.arrayNode();
+		for (JsonToken token = theJson.currentToken(); token != JsonToken.END_ARRAY; token = theJson.nextToken()) {
+			retVal.add(JacksonStructure.readTree(theJson));
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the text of a scalar token, formatted the same way as the tree parser does
+	 */
+	private static String getScalarText(JsonParser theJson, JsonToken theToken) throws IOException {
+		switch (theToken) {
+			case VALUE_NUMBER_FLOAT:
+				return theJson.getDecimalValue().toPlainString();
+			case VALUE_NUMBER_INT:
+				return theJson.getNumberValue().toString();
+			default:
+				return theJson.getText();
+		}
+	}
+
+	private static ScalarType getScalarType(JsonToken theToken) {
+		switch (theToken) {
+			case VALUE_STRING:
+				return ScalarType.STRING;
+			case VALUE_NUMBER_INT:
+			case VALUE_NUMBER_FLOAT:
+				return ScalarType.NUMBER;
+			case VALUE_TRUE:
+			case VALUE_FALSE:
+				return ScalarType.BOOLEAN;
+			default:
+				return null;
+		}
+	}
+
+	private static ValueType getValueType(JsonToken theToken) {
+		switch (theToken) {
+			case START_OBJECT:
+				return ValueType.OBJECT;
+			case START_ARRAY:
+				return ValueType.ARRAY;
+			case VALUE_NULL:
+				return ValueType.NULL;
+			default:
+				return ValueType.SCALAR;
+		}
+	}
+
+	/**
+	 * A property which has been seen in the object currently being read
+	 */
+	private static final class ObjectEntry {
+		private final String myName;
+		private boolean myAlternate;
+		private boolean myDeferred;
+		private boolean myUsed;
+		private JsonNode myNode;
+		private String myScalar;
+		private ScalarType myScalarType;
+
+		private ObjectEntry(String theName) {
+			myName = theName;
+		}
+	}
+}
@@ -258,6 +258,48 @@ public class FhirValidator {
 		return doValidate(validationContext, theOptions, callback);
 	}
 
+	/**
+	 * Validates a list of independent resources (e.g. the lines of an NDJSON file), returning one
+	 * {@link ValidationResult} per resource in the same order as the input list.
+	 * <p>
+	 * If {@link #setConcurrentBundleValidation(boolean) concurrent validation} is enabled and an
+	 * {@link #setExecutorService(ExecutorService) executor} has been supplied, the resources are validated
+	 * in parallel using that executor. Otherwise they are validated one at a time in the calling thread.
+	 * Either way, {@link Pointcut#VALIDATION_COMPLETED} hooks are invoked in the calling thread, in input order.
+	 * </p>
+	 *
+	 * @param theResources the resources to validate
+	 * @param theOptions   Optionally provides options to the validator
+	 * @return the results of validation, one for each resource
+	 * @since 7.2.0
+	 */
+	public List<ValidationResult> validateWithResults(
+			List<? extends IBaseResource> theResources, ValidationOptions theOptions) {
+		Validate.notNull(theResources, "theResources must not be null");
+		applyDefaultValidators();
+
+		List<ValidationResult> results;
+		if (myConcurrentBundleValidation && myExecutorService != null && theResources.size() > 1) {
+			List<Future<ValidationResult>> futures = theResources.stream()
+					.map(next -> myExecutorService.submit(() -> validateResource(next, theOptions)))
+					.collect(Collectors.toList());
+			results = new ArrayList<>(futures.size());
+			for (Future<ValidationResult> next : futures) {
+				results.add(getResult(next));
+			}
+		} else {
+			results = theResources.stream()
+					.map(next -> validateResource(next, theOptions))
+					.collect(Collectors.toList());
+		}
+
+		List<ValidationResult> retVal = new ArrayList<>(results.size());
+		for (int i = 0; i < results.size(); i++) {
+			retVal.add(invokeValidationCompletedHooks(theResources.get(i), null, results.get(i)));
+		}
+		return retVal;
+	}
+
 	private ValidationResult doValidate(
 			IValidationContext<IBaseResource> theValidationContext,
 			ValidationOptions theOptions,
@@ -352,6 +394,24 @@ public class FhirValidator {
 		return retval;
 	}
 
+	private ValidationResult validateResource(IBaseResource theResource, ValidationOptions theOptions) {
+		Validate.notNull(theResource, "theResources must not contain null entries");
+		return validateResource(ValidationContext.forResource(myContext, theResource, theOptions));
+	}
+
+	private static ValidationResult getResult(Future<ValidationResult> theFuture) {
+		try {
+			return theFuture.get();
+		} catch (InterruptedException | ExecutionException e) {
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new InternalErrorException(Msg.code(2491) + "Failed to validate resource: " + e, e);
+		}
+	}
+
 	private ValidationResult validateResource(IValidationContext<IBaseResource> theValidationContext) {
 		for (IValidatorModule next : myValidators) {
 			next.validateResource(theValidationContext);
@@ -386,6 +446,12 @@ public class FhirValidator {
 		myInterceptorBroadcaster = theInterceptorBraodcaster;
 	}
 
+	/**
+	 * Supplies the executor used when {@link #setConcurrentBundleValidation(boolean) concurrent validation}
+	 * is enabled. Validation is mostly CPU-bound, so an executor with roughly one thread per core (such as a
+	 * {@link java.util.concurrent.ForkJoinPool}) is a good choice. The executor must be able to run tasks while
+	 * the submitting thread waits for them, so it should not be the same executor the validator is called from.
+	 */
 	public FhirValidator setExecutorService(ExecutorService theExecutorService) {
 		myExecutorService = theExecutorService;
 		return this;
@@ -401,7 +467,8 @@ public class FhirValidator {
 
 	/**
 	 * If this is true, bundles will be validated in parallel threads.  The bundle structure itself will not be validated,
-	 * only the resources in its entries.
+	 * only the resources in its entries. This also applies to lists of resources passed to
+	 * {@link #validateWithResults(List, ValidationOptions)}. Requires an {@link #setExecutorService(ExecutorService) executor}.
 	 */
 	public FhirValidator setConcurrentBundleValidation(boolean theConcurrentBundleValidation) {
 		myConcurrentBundleValidation = theConcurrentBundleValidation;
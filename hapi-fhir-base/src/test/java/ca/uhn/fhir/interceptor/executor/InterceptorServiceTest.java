@@ -372,6 +372,33 @@ public class InterceptorServiceTest {
 
 	}
 
+	@Test
+	public void testInvokeHookWithPointcutParameter() {
+		InterceptorService svc = new InterceptorService();
+
+		class PointcutParameterInterceptor {
+			private final List<Object> myArguments = new ArrayList<>();
+
+			@Hook(Pointcut.TEST_RB)
+			boolean hook(String theValue0, Pointcut thePointcut, String theValue1) {
+				myArguments.add(theValue0);
+				myArguments.add(thePointcut);
+				myArguments.add(theValue1);
+				return false;
+			}
+		}
+		PointcutParameterInterceptor interceptor = new PointcutParameterInterceptor();
+		svc.registerInterceptor(interceptor);
+
+		assertFalse(svc.callHooks(Pointcut.TEST_RB, new HookParams("A", "B")));
+		assertThat(interceptor.myArguments, contains("A", Pointcut.TEST_RB, "B"));
+
+		// Unregistering must be reflected by the cached invokers
+		svc.unregisterInterceptor(interceptor);
+		assertTrue(svc.callHooks(Pointcut.TEST_RB, new HookParams("C", "D")));
+		assertEquals(3, interceptor.myArguments.size());
+	}
+
 	@Test
 	public void testCallHooksLogAndSwallowException() {
 		InterceptorService svc = new InterceptorService();
@@ -0,0 +1,214 @@
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.benchmark;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.Condition;
+import org.hl7.fhir.r4.model.ContactPoint;
+import org.hl7.fhir.r4.model.DateTimeType;
+import org.hl7.fhir.r4.model.DateType;
+import org.hl7.fhir.r4.model.Encounter;
+import org.hl7.fhir.r4.model.Enumerations;
+import org.hl7.fhir.r4.model.HumanName;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Period;
+import org.hl7.fhir.r4.model.Quantity;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Resource;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Builds deterministic, reasonably realistic R4 content for the benchmarks. The
+ * generated bundles resemble what a typical EHR feed sends: a patient with a
+ * handful of encounters, conditions and a long tail of vital-sign observations.
+ */
+public class BenchmarkData {
+
+	public static final String LOINC = "http://loinc.org";
+	public static final String SNOMED = "http://snomed.info/sct";
+	public static final String UCUM = "http://unitsofmeasure.org";
+	public static final String MRN_SYSTEM = "http://example.org/mrn";
+
+	private static final String[][] VITAL_SIGNS = {
+		{"8867-4", "Heart rate", "/min", "/min"},
+		{"9279-1", "Respiratory rate", "/min", "/min"},
+		{"8310-5", "Body temperature", "Cel", "C"},
+		{"29463-7", "Body weight", "kg", "kg"},
+		{"8302-2", "Body height", "cm", "cm"},
+		{"59408-5", "Oxygen saturation in Arterial blood by Pulse oximetry", "%", "%"}
+	};
+
+	private static final String[][] CONDITIONS = {
+		{"38341003", "Hypertensive disorder"},
+		{"44054006", "Diabetes mellitus type 2"},
+		{"195967001", "Asthma"}
+	};
+
+	/**
+	 * Non instantiable
+	 */
+	private BenchmarkData() {
+		// nothing
+	}
+
+	/**
+	 * Creates a transaction bundle containing one patient and the given number of
+	 * observations, plus a proportional number of encounters and conditions. All
+	 * references use <code>urn:uuid:</code> full URLs, as a client-generated
+	 * transaction would.
+	 */
+	public static Bundle createTransactionBundle(int theObservationCount) {
+		Bundle bundle = new Bundle();
+		bundle.setType(Bundle.BundleType.TRANSACTION);
+
+		Patient patient = createPatient(0);
+		String patientUrl = addEntry(bundle, patient, "urn:uuid:patient-0", "Patient");
+
+		int encounterCount = Math.max(1, theObservationCount / 20);
+		String[] encounterUrls = new String[encounterCount];
+		for (int i = 0; i < encounterCount; i++) {
+			Encounter encounter = createEncounter(patientUrl, i);
+			encounterUrls[i] = addEntry(bundle, encounter, "urn:uuid:encounter-" + i, "Encounter");
+		}
+
+		for (int i = 0; i < CONDITIONS.length; i++) {
+			Condition condition = createCondition(patientUrl, encounterUrls[i % encounterCount], i);
+			addEntry(bundle, condition, "urn:uuid:condition-" + i, "Condition");
+		}
+
+		for (int i = 0; i < theObservationCount; i++) {
+			Observation observation = createObservation(patientUrl, encounterUrls[i % encounterCount], i);
+			addEntry(bundle, observation, "urn:uuid:observation-" + i, "Observation");
+		}
+
+		return bundle;
+	}
+
+	public static Patient createPatient(int theIndex) {
+		Patient patient = new Patient();
+		patient.getMeta().addProfile("http://hl7.org/fhir/us/core/StructureDefinition/us-core-patient");
+		patient.addIdentifier()
+				.setUse(Identifier.IdentifierUse.USUAL)
+				.setSystem(MRN_SYSTEM)
+				.setValue("MRN" + (1000000 + theIndex));
+		patient.addName().setFamily("Simpson" + theIndex).addGiven("Homer").addGiven("Jay");
+		patient.addName().setUse(HumanName.NameUse.NICKNAME).addGiven("Homie");
+		patient.setGender(Enumerations.AdministrativeGender.MALE);
+		patient.setBirthDateElement(new DateType("1956-05-12"));
+		patient.addTelecom()
+				.setSystem(ContactPoint.ContactPointSystem.PHONE)
+				.setValue("555-555-" + String.format("%04d", theIndex % 10000));
+		patient.addAddress()
+				.addLine("742 Evergreen Terrace")
+				.setCity("Springfield")
+				.setState("OR")
+				.setPostalCode("97475")
+				.setCountry("US");
+		patient.setActive(true);
+		return patient;
+	}
+
+	public static Encounter createEncounter(String thePatientReference, int theIndex) {
+		Encounter encounter = new Encounter();
+		encounter.setStatus(Encounter.EncounterStatus.FINISHED);
+		encounter
+				.getClass_()
+				.setSystem("http://terminology.hl7.org/CodeSystem/v3-ActCode")
+				.setCode("AMB");
+		encounter.addType().addCoding().setSystem(SNOMED).setCode("185349003").setDisplay("Encounter for check up");
+		encounter.setSubject(new Reference(thePatientReference));
+		Period period = new Period();
+		period.setStart(date(theIndex, 9));
+		period.setEnd(date(theIndex, 10));
+		encounter.setPeriod(period);
+		return encounter;
+	}
+
+	public static Condition createCondition(String thePatientReference, String theEncounterReference, int theIndex) {
+		String[] code = CONDITIONS[theIndex % CONDITIONS.length];
+		Condition condition = new Condition();
+		condition
+				.getClinicalStatus()
+				.addCoding()
+				.setSystem("http://terminology.hl7.org/CodeSystem/condition-clinical")
+				.setCode("active");
+		condition.setCode(new CodeableConcept()
+				.addCoding(new Coding(SNOMED, code[0], code[1]))
+				.setText(code[1]));
+		condition.setSubject(new Reference(thePatientReference));
+		condition.setEncounter(new Reference(theEncounterReference));
+		condition.setOnset(new DateTimeType(date(theIndex, 8)));
+		return condition;
+	}
+
+	public static Observation createObservation(
+			String thePatientReference, String theEncounterReference, int theIndex) {
+		String[] vitalSign = VITAL_SIGNS[theIndex % VITAL_SIGNS.length];
+		Observation observation = new Observation();
+		observation.getMeta().addProfile("http://hl7.org/fhir/StructureDefinition/vitalsigns");
+		observation.setStatus(Observation.ObservationStatus.FINAL);
+		observation
+				.addCategory()
+				.addCoding()
+				.setSystem("http://terminology.hl7.org/CodeSystem/observation-category")
+				.setCode("vital-signs")
+				.setDisplay("Vital Signs");
+		observation.setCode(new CodeableConcept()
+				.addCoding(new Coding(LOINC, vitalSign[0], vitalSign[1]))
+				.setText(vitalSign[1]));
+		observation.setSubject(new Reference(thePatientReference));
+		observation.setEncounter(new Reference(theEncounterReference));
+		observation.setEffective(new DateTimeType(date(theIndex, 9)));
+		observation.setIssued(date(theIndex, 11));
+		observation.setValue(new Quantity()
+				.setValue(50 + (theIndex % 50))
+				.setUnit(vitalSign[3])
+				.setSystem(UCUM)
+				.setCode(vitalSign[2]));
+		return observation;
+	}
+
+	private static String addEntry(Bundle theBundle, Resource theResource, String theFullUrl, String theResourceType) {
+		theBundle
+				.addEntry()
+				.setFullUrl(theFullUrl)
+				.setResource(theResource)
+				.getRequest()
+				.setMethod(Bundle.HTTPVerb.POST)
+				.setUrl(theResourceType);
+		return theFullUrl;
+	}
+
+	private static Date date(int theDayOffset, int theHour) {
+		GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		calendar.clear();
+		calendar.set(2020, Calendar.JANUARY, 1, theHour, 0, 0);
+		calendar.add(Calendar.DAY_OF_YEAR, theDayOffset);
+		return calendar.getTime();
+	}
+}
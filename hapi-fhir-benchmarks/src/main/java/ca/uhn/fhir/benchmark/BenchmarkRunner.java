@@ -0,0 +1,72 @@
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for running the HAPI FHIR benchmark suite.
+ * <p>
+ * Unlike the stock JMH <code>Main</code>, this runner defaults to writing a JSON
+ * report (<code>target/jmh-result.json</code>) and to enabling the GC profiler, so that
+ * throughput and allocation rate (<code>gc.alloc.rate.norm</code>) can be compared
+ * release-over-release. Any standard JMH command line arguments may be supplied and
+ * take precedence over these defaults.
+ * </p>
+ */
+public class BenchmarkRunner {
+
+	public static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+	/**
+	 * Non instantiable
+	 */
+	private BenchmarkRunner() {
+		// nothing
+	}
+
+	public static void main(String[] theArgs) throws CommandLineOptionException, RunnerException {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(theArgs);
+
+		OptionsBuilder builder = new OptionsBuilder();
+		if (commandLineOptions.getIncludes().isEmpty()) {
+			builder.include(BenchmarkRunner.class.getPackageName() + ".*");
+		}
+		if (commandLineOptions.getProfilers().isEmpty()) {
+			builder.addProfiler(GCProfiler.class);
+		}
+		if (commandLineOptions.getResultFormat().hasValue() == false) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		if (commandLineOptions.getResult().hasValue() == false) {
+			builder.result(DEFAULT_RESULT_FILE);
+		}
+
+		Options options = builder.parent(commandLineOptions).build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.benchmark;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.util.FhirTerser;
+import org.hl7.fhir.instance.model.api.IBase;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Reference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exercises {@link FhirTerser#getValues(IBase, String)} with the kinds of paths
+ * that are used heavily by the server (reference scanning, coding lookups).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FhirTerserBenchmark {
+
+	private FhirTerser myTerser;
+	private Observation myObservation;
+	private Bundle myBundle;
+
+	@Setup
+	public void setup() {
+		FhirContext fhirContext = FhirContext.forR4Cached();
+		myTerser = fhirContext.newTerser();
+		myBundle = BenchmarkData.createTransactionBundle(100);
+		myObservation = (Observation)
+				myBundle.getEntry().get(myBundle.getEntry().size() - 1).getResource();
+	}
+
+	@Benchmark
+	public List<IBase> getValuesSimplePath() {
+		return myTerser.getValues(myObservation, "Observation.code.coding.code");
+	}
+
+	@Benchmark
+	public List<Coding> getValuesTyped() {
+		return myTerser.getValues(myObservation, "Observation.category.coding", Coding.class);
+	}
+
+	@Benchmark
+	public List<Reference> getAllReferencesInBundle() {
+		return myTerser.getAllPopulatedChildElementsOfType(myBundle, Reference.class);
+	}
+}
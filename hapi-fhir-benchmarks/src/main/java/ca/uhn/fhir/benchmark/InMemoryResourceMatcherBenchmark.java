@@ -0,0 +1,168 @@
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.benchmark;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.api.IInterceptorBroadcaster;
+import ca.uhn.fhir.interceptor.executor.InterceptorService;
+import ca.uhn.fhir.jpa.model.config.PartitionSettings;
+import ca.uhn.fhir.jpa.model.entity.StorageSettings;
+import ca.uhn.fhir.jpa.searchparam.MatchUrlService;
+import ca.uhn.fhir.jpa.searchparam.extractor.ISearchParamExtractor;
+import ca.uhn.fhir.jpa.searchparam.extractor.ResourceIndexedSearchParams;
+import ca.uhn.fhir.jpa.searchparam.extractor.SearchParamExtractorR4;
+import ca.uhn.fhir.jpa.searchparam.extractor.SearchParamExtractorService;
+import ca.uhn.fhir.jpa.searchparam.matcher.InMemoryMatchResult;
+import ca.uhn.fhir.jpa.searchparam.matcher.InMemoryResourceMatcher;
+import ca.uhn.fhir.jpa.searchparam.matcher.IndexedSearchParamExtractor;
+import ca.uhn.fhir.rest.api.server.SystemRequestDetails;
+import ca.uhn.fhir.rest.server.util.FhirContextSearchParamRegistry;
+import ca.uhn.fhir.rest.server.util.ISearchParamRegistry;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Observation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link InMemoryResourceMatcher#match(String, org.hl7.fhir.instance.model.api.IBaseResource, ResourceIndexedSearchParams, ca.uhn.fhir.rest.api.server.RequestDetails)}
+ * the way it is used by the subscription matcher, both with indexes that have already been
+ * extracted and with indexes calculated on the fly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InMemoryResourceMatcherBenchmark {
+
+	@Param({
+		"Observation?code=http://loinc.org|8867-4",
+		"Observation?status=final&category=vital-signs&date=ge2019-01-01",
+		"Observation?code=http://loinc.org|8867-4,http://loinc.org|9279-1&status=final"
+	})
+	public String myCriteria;
+
+	private AnnotationConfigApplicationContext myAppCtx;
+	private InMemoryResourceMatcher myMatcher;
+	private Observation myObservation;
+	private ResourceIndexedSearchParams myIndexedSearchParams;
+	private SystemRequestDetails myRequestDetails;
+
+	@Setup
+	public void setup() {
+		myAppCtx = new AnnotationConfigApplicationContext(MatcherConfig.class);
+		myMatcher = myAppCtx.getBean(InMemoryResourceMatcher.class);
+
+		Bundle bundle = BenchmarkData.createTransactionBundle(10);
+		myObservation = (Observation)
+				bundle.getEntry().get(bundle.getEntry().size() - 1).getResource();
+		myRequestDetails = new SystemRequestDetails();
+		myIndexedSearchParams = myAppCtx.getBean(IndexedSearchParamExtractor.class)
+				.extractIndexedSearchParams(myObservation, myRequestDetails);
+	}
+
+	@TearDown
+	public void tearDown() {
+		myAppCtx.close();
+	}
+
+	@Benchmark
+	public InMemoryMatchResult matchWithPrecalculatedIndexes() {
+		return myMatcher.match(myCriteria, myObservation, myIndexedSearchParams, myRequestDetails);
+	}
+
+	@Benchmark
+	public InMemoryMatchResult matchWithExtraction() {
+		return myMatcher.match(myCriteria, myObservation, null, myRequestDetails);
+	}
+
+	/**
+	 * The minimal set of beans needed by the matcher, without any JPA infrastructure
+	 */
+	@Configuration
+	public static class MatcherConfig {
+
+		@Bean
+		public FhirContext fhirContext() {
+			return FhirContext.forR4Cached();
+		}
+
+		@Bean
+		public StorageSettings storageSettings() {
+			return new StorageSettings();
+		}
+
+		@Bean
+		public PartitionSettings partitionSettings() {
+			return new PartitionSettings();
+		}
+
+		@Bean
+		public ISearchParamRegistry searchParamRegistry(FhirContext theFhirContext) {
+			return new FhirContextSearchParamRegistry(theFhirContext);
+		}
+
+		@Bean
+		public IInterceptorBroadcaster interceptorBroadcaster() {
+			return new InterceptorService();
+		}
+
+		@Bean
+		public ISearchParamExtractor searchParamExtractor() {
+			return new SearchParamExtractorR4();
+		}
+
+		@Bean
+		public SearchParamExtractorService searchParamExtractorService() {
+			return new SearchParamExtractorService();
+		}
+
+		@Bean
+		public IndexedSearchParamExtractor indexedSearchParamExtractor() {
+			return new IndexedSearchParamExtractor();
+		}
+
+		@Bean
+		public MatchUrlService matchUrlService() {
+			return new MatchUrlService();
+		}
+
+		@Bean
+		public InMemoryResourceMatcher inMemoryResourceMatcher() {
+			return new InMemoryResourceMatcher();
+		}
+	}
+}
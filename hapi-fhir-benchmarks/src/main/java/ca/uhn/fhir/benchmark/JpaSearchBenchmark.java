@@ -0,0 +1,162 @@
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.benchmark;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.RuntimeResourceDefinition;
+import ca.uhn.fhir.interceptor.model.RequestPartitionId;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.jpa.api.dao.DaoRegistry;
+import ca.uhn.fhir.jpa.api.dao.IFhirResourceDao;
+import ca.uhn.fhir.jpa.config.HibernatePropertiesProvider;
+import ca.uhn.fhir.jpa.model.config.PartitionSettings;
+import ca.uhn.fhir.jpa.search.builder.QueryStack;
+import ca.uhn.fhir.jpa.search.builder.sql.GeneratedSql;
+import ca.uhn.fhir.jpa.search.builder.sql.SearchQueryBuilder;
+import ca.uhn.fhir.jpa.search.builder.sql.SqlObjectFactory;
+import ca.uhn.fhir.jpa.searchparam.MatchUrlService;
+import ca.uhn.fhir.jpa.searchparam.SearchParameterMap;
+import ca.uhn.fhir.jpa.test.config.TestHSearchAddInConfig;
+import ca.uhn.fhir.jpa.test.config.TestR4Config;
+import ca.uhn.fhir.model.api.IQueryParameterType;
+import ca.uhn.fhir.rest.api.server.SystemRequestDetails;
+import ca.uhn.fhir.rest.server.util.ISearchParamRegistry;
+import com.healthmarketscience.sqlbuilder.Condition;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static ca.uhn.fhir.jpa.search.builder.QueryStack.SearchForIdsParams.with;
+
+/**
+ * Measures JPA search query generation ({@link SearchQueryBuilder} / {@link QueryStack})
+ * on its own, as well as the full <code>searchForIds</code> path executed against an
+ * embedded H2 database seeded with a few hundred resources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JpaSearchBenchmark {
+
+	private static final int SEED_BUNDLE_COUNT = 5;
+
+	@Param({
+		"Observation?code=http://loinc.org|8867-4",
+		"Observation?code=http://loinc.org|8867-4,http://loinc.org|9279-1&date=ge2020-01-05&status=final",
+		"Observation?subject.identifier=http://example.org/mrn|MRN1000002&_sort=-date",
+		"Patient?_has:Observation:subject:code=http://loinc.org|8867-4"
+	})
+	public String myMatchUrl;
+
+	private AnnotationConfigApplicationContext myAppCtx;
+	private FhirContext myFhirContext;
+	private JpaStorageSettings myStorageSettings;
+	private PartitionSettings myPartitionSettings;
+	private ISearchParamRegistry mySearchParamRegistry;
+	private SqlObjectFactory mySqlObjectFactory;
+	private HibernatePropertiesProvider myDialectProvider;
+	private IFhirResourceDao<?> myDao;
+	private String myResourceType;
+	private SearchParameterMap myParams;
+
+	@Setup
+	public void setup() {
+		myAppCtx = new AnnotationConfigApplicationContext(TestR4Config.class, TestHSearchAddInConfig.NoFT.class);
+		myFhirContext = myAppCtx.getBean(FhirContext.class);
+		myStorageSettings = myAppCtx.getBean(JpaStorageSettings.class);
+		myPartitionSettings = myAppCtx.getBean(PartitionSettings.class);
+		mySearchParamRegistry = myAppCtx.getBean(ISearchParamRegistry.class);
+		mySqlObjectFactory = myAppCtx.getBean(SqlObjectFactory.class);
+		myDialectProvider = myAppCtx.getBean(HibernatePropertiesProvider.class);
+		DaoRegistry daoRegistry = myAppCtx.getBean(DaoRegistry.class);
+
+		for (int i = 0; i < SEED_BUNDLE_COUNT; i++) {
+			Bundle bundle = BenchmarkData.createTransactionBundle(100);
+			Patient patient = (Patient) bundle.getEntry().get(0).getResource();
+			patient.getIdentifierFirstRep().setValue("MRN" + (1000000 + i));
+			daoRegistry.getSystemDao().transaction(new SystemRequestDetails(), bundle);
+		}
+
+		String resourceType = myMatchUrl.substring(0, myMatchUrl.indexOf('?'));
+		RuntimeResourceDefinition resourceDef = myFhirContext.getResourceDefinition(resourceType);
+		myResourceType = resourceDef.getName();
+		myDao = daoRegistry.getResourceDao(myResourceType);
+		myParams = myAppCtx.getBean(MatchUrlService.class).translateMatchUrl(myMatchUrl, resourceDef);
+		myParams.setLoadSynchronous(true);
+	}
+
+	@TearDown
+	public void tearDown() {
+		myAppCtx.close();
+	}
+
+	@Benchmark
+	public GeneratedSql generateSql() {
+		SearchQueryBuilder sqlBuilder = new SearchQueryBuilder(
+				myFhirContext,
+				myStorageSettings,
+				myPartitionSettings,
+				RequestPartitionId.allPartitions(),
+				myResourceType,
+				mySqlObjectFactory,
+				myDialectProvider,
+				false);
+		QueryStack queryStack = new QueryStack(
+				myParams, myStorageSettings, myFhirContext, sqlBuilder, mySearchParamRegistry, myPartitionSettings);
+
+		SystemRequestDetails requestDetails = new SystemRequestDetails();
+		for (Map.Entry<String, List<List<IQueryParameterType>>> next : myParams.entrySet()) {
+			Condition predicate = queryStack.searchForIdsWithAndOr(with().setResourceName(myResourceType)
+					.setParamName(next.getKey())
+					.setAndOrParams(next.getValue())
+					.setRequest(requestDetails)
+					.setRequestPartitionId(RequestPartitionId.allPartitions()));
+			if (predicate != null) {
+				sqlBuilder.addPredicate(predicate);
+			}
+		}
+
+		return sqlBuilder.generate(null, null);
+	}
+
+	@Benchmark
+	public List<?> searchForIds() {
+		return myDao.searchForIds(myParams, new SystemRequestDetails());
+	}
+}
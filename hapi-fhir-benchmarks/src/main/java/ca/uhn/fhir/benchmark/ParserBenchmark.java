@@ -0,0 +1,95 @@
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.benchmark;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import org.hl7.fhir.r4.model.Bundle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and parses R4 transaction bundles using the JSON and XML parsers. The
+ * <code>JSON_STREAMING</code> encoding uses the JSON parser with
+ * {@link ca.uhn.fhir.context.ParserOptions#setStreamingJsonParsingEnabled(boolean) streaming parsing}
+ * enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParserBenchmark {
+
+	@Param({"JSON", "JSON_STREAMING", "XML"})
+	public String myEncoding;
+
+	@Param({"10", "500"})
+	public int myObservationCount;
+
+	private FhirContext myFhirContext;
+	private Bundle myBundle;
+	private String myEncodedBundle;
+
+	@Setup
+	public void setup() {
+		if ("JSON_STREAMING".equals(myEncoding)) {
+			myFhirContext = FhirContext.forR4();
+			myFhirContext.getParserOptions().setStreamingJsonParsingEnabled(true);
+		} else {
+			myFhirContext = FhirContext.forR4Cached();
+		}
+		myBundle = BenchmarkData.createTransactionBundle(myObservationCount);
+		myEncodedBundle = newParser().encodeResourceToString(myBundle);
+	}
+
+	@Benchmark
+	public String encode() {
+		return newParser().encodeResourceToString(myBundle);
+	}
+
+	@Benchmark
+	public Bundle parse() {
+		return newParser().parseResource(Bundle.class, myEncodedBundle);
+	}
+
+	private IParser newParser() {
+		switch (myEncoding) {
+			case "XML":
+				return myFhirContext.newXmlParser();
+			case "JSON":
+			case "JSON_STREAMING":
+			default:
+				return myFhirContext.newJsonParser();
+		}
+	}
+}
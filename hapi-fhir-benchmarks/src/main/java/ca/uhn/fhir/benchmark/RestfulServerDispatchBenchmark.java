@@ -0,0 +1,232 @@
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.benchmark;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.annotation.Create;
+import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.Operation;
+import ca.uhn.fhir.rest.annotation.OperationParam;
+import ca.uhn.fhir.rest.annotation.OptionalParam;
+import ca.uhn.fhir.rest.annotation.Read;
+import ca.uhn.fhir.rest.annotation.RequiredParam;
+import ca.uhn.fhir.rest.annotation.ResourceParam;
+import ca.uhn.fhir.rest.annotation.Search;
+import ca.uhn.fhir.rest.annotation.Update;
+import ca.uhn.fhir.rest.api.MethodOutcome;
+import ca.uhn.fhir.rest.api.RequestTypeEnum;
+import ca.uhn.fhir.rest.param.DateParam;
+import ca.uhn.fhir.rest.param.StringParam;
+import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.IResourceProvider;
+import ca.uhn.fhir.rest.server.RestfulServer;
+import ca.uhn.fhir.rest.server.method.BaseMethodBinding;
+import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
+import jakarta.servlet.ServletException;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Parameters;
+import org.hl7.fhir.r4.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request cost of {@link RestfulServer#determineResourceMethod(ca.uhn.fhir.rest.api.server.RequestDetails, String)}
+ * against a resource type with a realistic number of search methods and custom operations
+ * registered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RestfulServerDispatchBenchmark {
+
+	@Param({"read", "search", "create", "operation"})
+	public String myRequestKind;
+
+	private RestfulServer myServer;
+	private ServletRequestDetails myRequest;
+
+	@Setup
+	public void setup() throws ServletException {
+		myServer = new RestfulServer(FhirContext.forR4Cached());
+		myServer.setResourceProviders(new PatientProvider());
+		myServer.init();
+
+		myRequest = new ServletRequestDetails();
+		myRequest.setServer(myServer);
+		myRequest.setResourceName("Patient");
+		Map<String, String[]> parameters = new HashMap<>();
+		switch (myRequestKind) {
+			case "read":
+				myRequest.setRequestType(RequestTypeEnum.GET);
+				myRequest.setId(new IdType("Patient/123"));
+				break;
+			case "search":
+				myRequest.setRequestType(RequestTypeEnum.GET);
+				parameters.put("family", new String[] {"SIMPSON"});
+				parameters.put("birthdate", new String[] {"ge2000-01-01"});
+				break;
+			case "create":
+				myRequest.setRequestType(RequestTypeEnum.POST);
+				break;
+			case "operation":
+				myRequest.setRequestType(RequestTypeEnum.POST);
+				myRequest.setOperation("$op9");
+				break;
+			default:
+				throw new IllegalStateException(myRequestKind);
+		}
+		myRequest.setParameters(parameters);
+	}
+
+	@Benchmark
+	public BaseMethodBinding determineResourceMethod() {
+		return myServer.determineResourceMethod(myRequest, "Patient");
+	}
+
+	public static class PatientProvider implements IResourceProvider {
+
+		@Override
+		public Class<? extends IBaseResource> getResourceType() {
+			return Patient.class;
+		}
+
+		@Read
+		public Patient read(@IdParam IdType theId) {
+			return null;
+		}
+
+		@Create
+		public MethodOutcome create(@ResourceParam Patient thePatient) {
+			return null;
+		}
+
+		@Update
+		public MethodOutcome update(@IdParam IdType theId, @ResourceParam Patient thePatient) {
+			return null;
+		}
+
+		@Search
+		public List<Patient> searchAll() {
+			return null;
+		}
+
+		@Search
+		public List<Patient> searchByIdentifier(@RequiredParam(name = Patient.SP_IDENTIFIER) TokenParam theIdentifier) {
+			return null;
+		}
+
+		@Search
+		public List<Patient> searchByName(
+				@RequiredParam(name = Patient.SP_FAMILY) StringParam theFamily,
+				@OptionalParam(name = Patient.SP_GIVEN) StringParam theGiven) {
+			return null;
+		}
+
+		@Search
+		public List<Patient> searchByNameAndBirthdate(
+				@RequiredParam(name = Patient.SP_FAMILY) StringParam theFamily,
+				@RequiredParam(name = Patient.SP_BIRTHDATE) DateParam theBirthdate) {
+			return null;
+		}
+
+		@Search
+		public List<Patient> searchByGender(@RequiredParam(name = Patient.SP_GENDER) TokenParam theGender) {
+			return null;
+		}
+
+		@Operation(name = "$op0")
+		public Parameters op0(@OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op1")
+		public Parameters op1(@OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op2")
+		public Parameters op2(@OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op3")
+		public Parameters op3(@OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op4")
+		public Parameters op4(@OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op5")
+		public Parameters op5(@OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op6")
+		public Parameters op6(@OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op7")
+		public Parameters op7(@OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op8")
+		public Parameters op8(@OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op9")
+		public Parameters op9(@OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op10")
+		public Parameters op10(@IdParam IdType theId, @OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+
+		@Operation(name = "$op11")
+		public Parameters op11(@IdParam IdType theId, @OperationParam(name = "p") StringParam theParam) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * HAPI FHIR - Benchmarks
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.benchmark;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.jpa.model.config.PartitionSettings;
+import ca.uhn.fhir.jpa.model.entity.StorageSettings;
+import ca.uhn.fhir.jpa.searchparam.extractor.ISearchParamExtractor;
+import ca.uhn.fhir.jpa.searchparam.extractor.SearchParamExtractorR4;
+import ca.uhn.fhir.rest.server.util.FhirContextSearchParamRegistry;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-resource cost of extracting every search parameter index
+ * type using the R4 {@link ISearchParamExtractor}, i.e. the work that is done
+ * for every resource create, update and reindex.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SearchParamExtractorBenchmark {
+
+	@Param({"Patient", "Observation"})
+	public String myResourceType;
+
+	private ISearchParamExtractor myExtractor;
+	private IBaseResource myResource;
+
+	@Setup
+	public void setup() {
+		FhirContext fhirContext = FhirContext.forR4Cached();
+		myExtractor = new SearchParamExtractorR4(
+				new StorageSettings(),
+				new PartitionSettings(),
+				fhirContext,
+				new FhirContextSearchParamRegistry(fhirContext));
+
+		Bundle bundle = BenchmarkData.createTransactionBundle(10);
+		myResource = bundle.getEntry().stream()
+				.map(Bundle.BundleEntryComponent::getResource)
+				.filter(t -> t.fhirType().equals(myResourceType))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	@Benchmark
+	public void extractAll(Blackhole theBlackhole) {
+		theBlackhole.consume(myExtractor.extractSearchParamStrings(myResource));
+		theBlackhole.consume(myExtractor.extractSearchParamTokens(myResource));
+		theBlackhole.consume(myExtractor.extractSearchParamDates(myResource));
+		theBlackhole.consume(myExtractor.extractSearchParamNumber(myResource));
+		theBlackhole.consume(myExtractor.extractSearchParamQuantity(myResource));
+		theBlackhole.consume(myExtractor.extractSearchParamQuantityNormalized(myResource));
+		theBlackhole.consume(myExtractor.extractSearchParamUri(myResource));
+		theBlackhole.consume(myExtractor.extractSearchParamComposites(myResource));
+		theBlackhole.consume(myExtractor.extractSearchParamSpecial(myResource, ISearchParamExtractor.ALL_PARAMS));
+		theBlackhole.consume(myExtractor.extractResourceLinks(myResource, false));
+	}
+
+	@Benchmark
+	public Object extractTokens() {
+		return myExtractor.extractSearchParamTokens(myResource);
+	}
+}
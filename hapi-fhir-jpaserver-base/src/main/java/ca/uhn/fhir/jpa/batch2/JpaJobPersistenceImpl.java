@@ -77,6 +77,7 @@ import java.util.stream.Stream;
 
 import static ca.uhn.fhir.batch2.coordinator.WorkChunkProcessor.MAX_CHUNK_ERROR_COUNT;
 import static ca.uhn.fhir.jpa.entity.Batch2WorkChunkEntity.ERROR_MSG_MAX_LENGTH;
+import static org.apache.commons.lang3.ObjectUtils.defaultIfNull;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 public class JpaJobPersistenceImpl implements IJobPersistence {
@@ -131,15 +132,27 @@ public class JpaJobPersistenceImpl implements IJobPersistence {
 	@Override
 	@Transactional(propagation = Propagation.REQUIRED)
 	public Optional<WorkChunk> onWorkChunkDequeue(String theChunkId) {
+		return onWorkChunkDequeue(theChunkId, null);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.REQUIRED)
+	public Optional<WorkChunk> onWorkChunkDequeue(String theChunkId, @Nullable WorkChunk theInMemoryChunk) {
 		// NOTE: Ideally, IN_PROGRESS wouldn't be allowed here.  On chunk failure, we probably shouldn't be allowed.
 		// But how does re-run happen if k8s kills a processor mid run?
 		List<WorkChunkStatusEnum> priorStates =
 				List.of(WorkChunkStatusEnum.QUEUED, WorkChunkStatusEnum.ERRORED, WorkChunkStatusEnum.IN_PROGRESS);
+		Date startTime = new Date();
 		int rowsModified = myWorkChunkRepository.updateChunkStatusForStart(
-				theChunkId, new Date(), WorkChunkStatusEnum.IN_PROGRESS, priorStates);
+				theChunkId, startTime, WorkChunkStatusEnum.IN_PROGRESS, priorStates);
 		if (rowsModified == 0) {
 			ourLog.info("Attempting to start chunk {} but it was already started.", theChunkId);
 			return Optional.empty();
+		} else if (theInMemoryChunk != null && theChunkId.equals(theInMemoryChunk.getId())) {
+			// The chunk data can't have changed since it was created, so there is no need to load it again
+			theInMemoryChunk.setStatus(WorkChunkStatusEnum.IN_PROGRESS);
+			theInMemoryChunk.setStartTime(startTime);
+			return Optional.of(theInMemoryChunk);
 		} else {
 			Optional<Batch2WorkChunkEntity> chunk = myWorkChunkRepository.findById(theChunkId);
 			return chunk.map(this::toChunk);
@@ -349,13 +362,32 @@ public class JpaJobPersistenceImpl implements IJobPersistence {
 				.withSystemRequestOnDefaultPartition()
 				.execute(() -> myWorkChunkRepository.updateChunkStatusAndClearDataForEndSuccess(
 						theEvent.getChunkId(),
-						new Date(),
+						defaultIfNull(theEvent.getCompletionTime(), new Date()),
 						theEvent.getRecordsProcessed(),
 						theEvent.getRecoveredErrorCount(),
 						WorkChunkStatusEnum.COMPLETED,
 						theEvent.getRecoveredWarningMessage()));
 	}
 
+	@Override
+	public void onWorkChunkCompletions(List<WorkChunkCompletionEvent> theEvents) {
+		if (theEvents.isEmpty()) {
+			return;
+		}
+		Date flushTime = new Date();
+		myTransactionService.withSystemRequestOnDefaultPartition().execute(() -> {
+			for (WorkChunkCompletionEvent event : theEvents) {
+				myWorkChunkRepository.updateChunkStatusAndClearDataForEndSuccess(
+						event.getChunkId(),
+						defaultIfNull(event.getCompletionTime(), flushTime),
+						event.getRecordsProcessed(),
+						event.getRecoveredErrorCount(),
+						WorkChunkStatusEnum.COMPLETED,
+						event.getRecoveredWarningMessage());
+			}
+		});
+	}
+
 	@Nullable
 	private static String truncateErrorMessage(String theErrorMessage) {
 		String errorMessage;
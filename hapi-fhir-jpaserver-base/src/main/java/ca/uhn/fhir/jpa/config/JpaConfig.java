@@ -51,8 +51,10 @@ import ca.uhn.fhir.jpa.dao.IJpaStorageResourceParser;
 import ca.uhn.fhir.jpa.dao.ISearchBuilder;
 import ca.uhn.fhir.jpa.dao.JpaStorageResourceParser;
 import ca.uhn.fhir.jpa.dao.MatchResourceUrlService;
+import ca.uhn.fhir.jpa.dao.ParsedResourceCache;
 import ca.uhn.fhir.jpa.dao.SearchBuilderFactory;
 import ca.uhn.fhir.jpa.dao.TransactionProcessor;
+import ca.uhn.fhir.jpa.dao.compression.ResourceCompressionCodecRegistry;
 import ca.uhn.fhir.jpa.dao.data.IResourceModifiedDao;
 import ca.uhn.fhir.jpa.dao.data.IResourceSearchUrlDao;
 import ca.uhn.fhir.jpa.dao.expunge.ExpungeEverythingService;
@@ -98,6 +100,7 @@ import ca.uhn.fhir.jpa.provider.SubscriptionTriggeringProvider;
 import ca.uhn.fhir.jpa.provider.TerminologyUploaderProvider;
 import ca.uhn.fhir.jpa.provider.ValueSetOperationProvider;
 import ca.uhn.fhir.jpa.provider.ValueSetOperationProviderDstu2;
+import ca.uhn.fhir.jpa.reindex.ReindexPipelineSvc;
 import ca.uhn.fhir.jpa.sched.AutowiringSpringBeanJobFactory;
 import ca.uhn.fhir.jpa.sched.HapiSchedulerServiceImpl;
 import ca.uhn.fhir.jpa.search.ISynchronousSearchSvc;
@@ -129,6 +132,7 @@ import ca.uhn.fhir.jpa.search.builder.sql.GeneratedSql;
 import ca.uhn.fhir.jpa.search.builder.sql.SearchQueryBuilder;
 import ca.uhn.fhir.jpa.search.builder.sql.SearchQueryExecutor;
 import ca.uhn.fhir.jpa.search.builder.sql.SqlObjectFactory;
+import ca.uhn.fhir.jpa.search.builder.tasks.IncludeQueryExecutorSvc;
 import ca.uhn.fhir.jpa.search.builder.tasks.SearchTask;
 import ca.uhn.fhir.jpa.search.cache.DatabaseSearchCacheSvcImpl;
 import ca.uhn.fhir.jpa.search.cache.DatabaseSearchResultCacheSvcImpl;
@@ -149,6 +153,7 @@ import ca.uhn.fhir.jpa.searchparam.registry.ISearchParamProvider;
 import ca.uhn.fhir.jpa.sp.ISearchParamPresenceSvc;
 import ca.uhn.fhir.jpa.sp.SearchParamPresenceSvcImpl;
 import ca.uhn.fhir.jpa.subscription.ResourceModifiedMessagePersistenceSvcImpl;
+import ca.uhn.fhir.jpa.term.PreExpandedValueSetIndexSvc;
 import ca.uhn.fhir.jpa.term.TermCodeSystemStorageSvcImpl;
 import ca.uhn.fhir.jpa.term.TermConceptMappingSvcImpl;
 import ca.uhn.fhir.jpa.term.TermReadSvcImpl;
@@ -158,8 +163,10 @@ import ca.uhn.fhir.jpa.term.api.ITermConceptMappingSvc;
 import ca.uhn.fhir.jpa.term.api.ITermReadSvc;
 import ca.uhn.fhir.jpa.term.api.ITermReindexingSvc;
 import ca.uhn.fhir.jpa.term.config.TermCodeSystemConfig;
+import ca.uhn.fhir.jpa.util.ICacheMetricsRegistry;
 import ca.uhn.fhir.jpa.util.JpaHapiTransactionService;
 import ca.uhn.fhir.jpa.util.MemoryCacheService;
+import ca.uhn.fhir.jpa.util.NoOpCacheMetricsRegistry;
 import ca.uhn.fhir.jpa.util.PersistenceContextProvider;
 import ca.uhn.fhir.jpa.validation.ResourceLoaderImpl;
 import ca.uhn.fhir.jpa.validation.ValidationSettings;
@@ -249,6 +256,26 @@ public class JpaConfig {
 		return new ExternallyStoredResourceServiceRegistry();
 	}
 
+	@Bean
+	public ResourceCompressionCodecRegistry resourceCompressionCodecRegistry() {
+		return new ResourceCompressionCodecRegistry();
+	}
+
+	@Bean
+	public ParsedResourceCache parsedResourceCache(JpaStorageSettings theStorageSettings) {
+		return new ParsedResourceCache(theStorageSettings);
+	}
+
+	@Bean
+	public ReindexPipelineSvc reindexPipelineSvc() {
+		return new ReindexPipelineSvc();
+	}
+
+	@Bean
+	public IncludeQueryExecutorSvc includeQueryExecutorSvc() {
+		return new IncludeQueryExecutorSvc();
+	}
+
 	@Lazy
 	@Bean
 	public ThreadSafeResourceDeleterSvc safeDeleter(
@@ -330,8 +357,13 @@ public class JpaConfig {
 	}
 
 	@Bean
-	public MemoryCacheService memoryCacheService(JpaStorageSettings theStorageSettings) {
-		return new MemoryCacheService(theStorageSettings);
+	public MemoryCacheService memoryCacheService(
+			JpaStorageSettings theStorageSettings,
+			@Autowired(required = false) ICacheMetricsRegistry theCacheMetricsRegistry) {
+		if (theCacheMetricsRegistry == null) {
+			theCacheMetricsRegistry = new NoOpCacheMetricsRegistry();
+		}
+		return new MemoryCacheService(theStorageSettings, theCacheMetricsRegistry);
 	}
 
 	@Bean
@@ -821,6 +853,11 @@ public class JpaConfig {
 		return new TermReadSvcImpl();
 	}
 
+	@Bean
+	public PreExpandedValueSetIndexSvc preExpandedValueSetIndexSvc() {
+		return new PreExpandedValueSetIndexSvc();
+	}
+
 	@Bean
 	public ITermCodeSystemStorageSvc termCodeSystemStorageSvc() {
 		return new TermCodeSystemStorageSvcImpl();
@@ -37,6 +37,7 @@ import ca.uhn.fhir.jpa.api.dao.IJpaDao;
 import ca.uhn.fhir.jpa.api.model.DaoMethodOutcome;
 import ca.uhn.fhir.jpa.api.svc.IIdHelperService;
 import ca.uhn.fhir.jpa.api.svc.ISearchCoordinatorSvc;
+import ca.uhn.fhir.jpa.dao.compression.ResourceCompressionCodecRegistry;
 import ca.uhn.fhir.jpa.dao.data.IForcedIdDao;
 import ca.uhn.fhir.jpa.dao.data.IResourceHistoryTableDao;
 import ca.uhn.fhir.jpa.dao.data.IResourceLinkDao;
@@ -188,6 +189,8 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 	public static final String NS_JPA_PROFILE = "https://github.com/hapifhir/hapi-fhir/ns/jpa/profile";
 	// total attempts to do a tag transaction
 	private static final int TOTAL_TAG_READ_ATTEMPTS = 10;
+	private static final String XACT_USERDATA_KEY_PRE_EXTRACTED_SEARCH_PARAMS =
+			BaseHapiFhirDao.class.getName() + "_PRE_EXTRACTED_SEARCH_PARAMS";
 	private static final Logger ourLog = LoggerFactory.getLogger(BaseHapiFhirDao.class);
 	private static boolean ourValidationDisabledForUnitTest;
 	private static boolean ourDisableIncrementOnUpdateForUnitTest = false;
@@ -234,6 +237,12 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 	@Autowired
 	protected PartitionSettings myPartitionSettings;
 
+	@Autowired
+	protected ResourceCompressionCodecRegistry myResourceCompressionCodecRegistry;
+
+	@Autowired
+	private ParsedResourceCache myParsedResourceCache;
+
 	@Autowired
 	ExpungeService myExpungeService;
 
@@ -737,7 +746,7 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 				if (currentHistoryVersion == null || !currentHistoryVersion.hasResource()) {
 					changed = true;
 				} else {
-					changed = !StringUtils.equals(currentHistoryVersion.getResourceTextVc(), resourceText);
+					changed = !StringUtils.equals(getResourceText(currentHistoryVersion), resourceText);
 				}
 			}
 		}
@@ -1105,30 +1114,24 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 			// TODO: is this IF statement always true? Try removing it
 			if (thePerformIndexing || theEntity.getVersion() == 1) {
 
-				newParams = ResourceIndexedSearchParams.withSets();
-
-				RequestPartitionId requestPartitionId;
-				if (!myPartitionSettings.isPartitioningEnabled()) {
-					requestPartitionId = RequestPartitionId.allPartitions();
-				} else if (entity.getPartitionId() != null) {
-					requestPartitionId = entity.getPartitionId().toPartitionId();
-				} else {
-					requestPartitionId = RequestPartitionId.defaultPartition();
+				newParams = takePreExtractedSearchParams(theTransactionDetails, entity);
+				if (newParams == null) {
+					newParams = ResourceIndexedSearchParams.withSets();
+
+					failIfPartitionMismatch(theRequest, entity);
+
+					// Extract search params for resource
+					mySearchParamWithInlineReferencesExtractor.populateFromResource(
+							getIndexingPartitionId(entity),
+							newParams,
+							theTransactionDetails,
+							entity,
+							theResource,
+							existingParams,
+							theRequest,
+							thePerformIndexing);
 				}
 
-				failIfPartitionMismatch(theRequest, entity);
-
-				// Extract search params for resource
-				mySearchParamWithInlineReferencesExtractor.populateFromResource(
-						requestPartitionId,
-						newParams,
-						theTransactionDetails,
-						entity,
-						theResource,
-						existingParams,
-						theRequest,
-						thePerformIndexing);
-
 				// Actually persist the ResourceTable and ResourceHistoryTable entities
 				changed = populateResourceIntoEntity(theTransactionDetails, theRequest, theResource, entity, true);
 
@@ -1244,6 +1247,9 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 		 * Indexing
 		 */
 		if (thePerformIndexing) {
+			// The stored digest no longer describes the index rows, see extractSearchParamsForDigest(..)
+			entity.setSearchParamIndexDigest(null);
+
 			if (newParams == null) {
 				myExpungeService.deleteAllSearchParams(JpaPid.fromId(entity.getId()));
 				entity.clearAllParamsPopulated();
@@ -1288,6 +1294,76 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 		return entity;
 	}
 
+	/**
+	 * Extracts the search parameter index rows which indexing the given resource would produce, without
+	 * loading the existing index rows (other than the resource links, so that references which are already
+	 * indexed are not resolved again), so that their {@link ResourceIndexedSearchParams#computeIndexDigest() digest}
+	 * can be compared with the stored one. If the resource is then reindexed, the returned params should be
+	 * passed to {@link #putPreExtractedSearchParams(TransactionDetails, ResourceTable, ResourceIndexedSearchParams)}
+	 * so that they are not extracted a second time.
+	 * <p>
+	 * The digest is only stored on the entity by reindexing (see {@link ResourceTable#getSearchParamIndexDigest()}),
+	 * and any other write which changes the index rows clears it. This means that a stored digest always
+	 * describes the index rows which are currently stored.
+	 * </p>
+	 */
+	protected ResourceIndexedSearchParams extractSearchParamsForDigest(
+			RequestDetails theRequest,
+			IBaseResource theResource,
+			ResourceTable theEntity,
+			TransactionDetails theTransactionDetails) {
+		failIfPartitionMismatch(theRequest, theEntity);
+
+		ResourceIndexedSearchParams existingLinks = ResourceIndexedSearchParams.withSets();
+		if (theEntity.isHasLinks()) {
+			existingLinks.getResourceLinks().addAll(theEntity.getResourceLinks());
+		}
+
+		ResourceIndexedSearchParams newParams = ResourceIndexedSearchParams.withSets();
+		mySearchParamWithInlineReferencesExtractor.populateFromResource(
+				getIndexingPartitionId(theEntity),
+				newParams,
+				theTransactionDetails,
+				theEntity,
+				theResource,
+				existingLinks,
+				theRequest,
+				true);
+		return newParams;
+	}
+
+	/**
+	 * Registers search params which were already extracted for the given entity in this transaction, so that
+	 * the next {@link #updateEntity update} of the entity uses them instead of extracting them again.
+	 */
+	protected void putPreExtractedSearchParams(
+			TransactionDetails theTransactionDetails,
+			ResourceTable theEntity,
+			ResourceIndexedSearchParams theSearchParams) {
+		IdentityHashMap<ResourceTable, ResourceIndexedSearchParams> preExtracted =
+				theTransactionDetails.getOrCreateUserData(
+						XACT_USERDATA_KEY_PRE_EXTRACTED_SEARCH_PARAMS, IdentityHashMap::new);
+		preExtracted.put(theEntity, theSearchParams);
+	}
+
+	@Nullable
+	private static ResourceIndexedSearchParams takePreExtractedSearchParams(
+			TransactionDetails theTransactionDetails, ResourceTable theEntity) {
+		IdentityHashMap<ResourceTable, ResourceIndexedSearchParams> preExtracted =
+				theTransactionDetails.getUserData(XACT_USERDATA_KEY_PRE_EXTRACTED_SEARCH_PARAMS);
+		return preExtracted != null ? preExtracted.remove(theEntity) : null;
+	}
+
+	private RequestPartitionId getIndexingPartitionId(ResourceTable theEntity) {
+		if (!myPartitionSettings.isPartitioningEnabled()) {
+			return RequestPartitionId.allPartitions();
+		} else if (theEntity.getPartitionId() != null) {
+			return theEntity.getPartitionId().toPartitionId();
+		} else {
+			return RequestPartitionId.defaultPartition();
+		}
+	}
+
 	/**
 	 * Make sure that the match URL was actually appropriate for the supplied
 	 * resource, if so configured, or do it only for first version, since technically it
@@ -1394,7 +1470,7 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 			List<String> excludeElements = new ArrayList<>(8);
 			getExcludedElements(historyEntity.getResourceType(), excludeElements, theResource.getMeta());
 			String encodedResourceString = encodeResource(theResource, encoding, excludeElements, myContext);
-			boolean changed = !StringUtils.equals(historyEntity.getResourceTextVc(), encodedResourceString);
+			boolean changed = !StringUtils.equals(getResourceText(historyEntity), encodedResourceString);
 
 			historyEntity.setUpdated(theTransactionDetails.getTransactionDate());
 
@@ -1413,8 +1489,9 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 		 * Save the resource itself to the resourceHistoryTable
 		 */
 		historyEntity = myEntityManager.merge(historyEntity);
-		historyEntity.setEncoding(encodedResource.getEncoding());
-		historyEntity.setResourceTextVc(encodedResource.getResourceText());
+		// The body of an existing version is being replaced, so any previously parsed copy is stale
+		myParsedResourceCache.invalidate(historyEntity.getResourceId(), historyEntity.getVersion());
+		populateHistoryEntityResource(historyEntity, encodedResource);
 		myResourceHistoryTableDao.save(historyEntity);
 
 		myJpaStorageResourceParser.updateResourceMetadata(historyEntity, theResource);
@@ -1428,6 +1505,35 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 		encodedResource.setEncoding(theEncoding);
 	}
 
+	/**
+	 * Stores the encoded resource text in the history entity, compressing it if a
+	 * compression codec has been configured
+	 */
+	private void populateHistoryEntityResource(ResourceHistoryTable theHistoryEntity, EncodedResource theEncoded) {
+		String codecId = myStorageSettings.getResourceCompressionCodecId();
+		if (isNotBlank(codecId)
+				&& theEncoded.getEncoding() == ResourceEncodingEnum.JSON
+				&& theEncoded.getResourceText() != null) {
+			theHistoryEntity.setEncoding(ResourceEncodingEnum.JSONZ);
+			theHistoryEntity.setResource(
+					myResourceCompressionCodecRegistry.compress(codecId, theEncoded.getResourceText()));
+		} else {
+			theHistoryEntity.setEncoding(theEncoded.getEncoding());
+			theHistoryEntity.setResourceTextVc(theEncoded.getResourceText());
+		}
+	}
+
+	/**
+	 * Returns the stored (uncompressed) resource text for the given history entity
+	 */
+	protected String getResourceText(ResourceHistoryTable theHistoryEntity) {
+		if (theHistoryEntity.getResourceTextVc() != null || theHistoryEntity.getResource() == null) {
+			return theHistoryEntity.getResourceTextVc();
+		}
+		return decodeResource(
+				theHistoryEntity.getResource(), theHistoryEntity.getEncoding(), myResourceCompressionCodecRegistry);
+	}
+
 	/**
 	 * TODO eventually consider refactoring this to be part of an interceptor.
 	 * <p>
@@ -1488,8 +1594,7 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 			historyEntry = theEntity.toHistory(versionedTags);
 		}
 
-		historyEntry.setEncoding(theChanged.getEncoding());
-		historyEntry.setResourceTextVc(theChanged.getResourceText());
+		populateHistoryEntityResource(historyEntry, theChanged);
 
 		ourLog.debug("Saving history entry ID[{}] for RES_ID[{}]", historyEntry.getId(), historyEntry.getResourceId());
 		myResourceHistoryTableDao.save(historyEntry);
@@ -1911,6 +2016,20 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 	}
 
 	public static String decodeResource(byte[] theResourceBytes, ResourceEncodingEnum theResourceEncoding) {
+		return decodeResource(theResourceBytes, theResourceEncoding, null);
+	}
+
+	/**
+	 * Decodes stored resource bytes
+	 *
+	 * @param theCodecRegistry The codec registry, which is required in order to decode
+	 *                         {@link ResourceEncodingEnum#JSONZ} content
+	 * @since 7.2.0
+	 */
+	public static String decodeResource(
+			byte[] theResourceBytes,
+			ResourceEncodingEnum theResourceEncoding,
+			@Nullable ResourceCompressionCodecRegistry theCodecRegistry) {
 		String resourceText = null;
 		switch (theResourceEncoding) {
 			case JSON:
@@ -1919,6 +2038,13 @@ public abstract class BaseHapiFhirDao<T extends IBaseResource> extends BaseStora
 			case JSONC:
 				resourceText = GZipUtil.decompress(theResourceBytes);
 				break;
+			case JSONZ:
+				if (theCodecRegistry == null) {
+					throw new InternalErrorException(
+							Msg.code(2483) + "No compression codec registry available to decode resource");
+				}
+				resourceText = theCodecRegistry.decompress(theResourceBytes);
+				break;
 			case DEL:
 			case ESR:
 				break;
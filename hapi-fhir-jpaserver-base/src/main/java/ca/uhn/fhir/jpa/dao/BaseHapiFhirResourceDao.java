@@ -45,6 +45,7 @@ import ca.uhn.fhir.jpa.api.model.ExpungeOptions;
 import ca.uhn.fhir.jpa.api.model.ExpungeOutcome;
 import ca.uhn.fhir.jpa.api.model.LazyDaoMethodOutcome;
 import ca.uhn.fhir.jpa.api.svc.IIdHelperService;
+import ca.uhn.fhir.jpa.dao.compression.ResourceCompressionCodecRegistry;
 import ca.uhn.fhir.jpa.dao.index.IdHelperService;
 import ca.uhn.fhir.jpa.dao.tx.HapiTransactionService;
 import ca.uhn.fhir.jpa.delete.DeleteConflictUtil;
@@ -62,6 +63,7 @@ import ca.uhn.fhir.jpa.model.entity.TagTypeEnum;
 import ca.uhn.fhir.jpa.model.search.SearchRuntimeDetails;
 import ca.uhn.fhir.jpa.model.util.JpaConstants;
 import ca.uhn.fhir.jpa.partition.IRequestPartitionHelperSvc;
+import ca.uhn.fhir.jpa.reindex.ReindexPipelineSvc;
 import ca.uhn.fhir.jpa.search.PersistedJpaBundleProvider;
 import ca.uhn.fhir.jpa.search.PersistedJpaBundleProviderFactory;
 import ca.uhn.fhir.jpa.search.ResourceSearchUrlSvc;
@@ -70,6 +72,7 @@ import ca.uhn.fhir.jpa.search.cache.SearchCacheStatusEnum;
 import ca.uhn.fhir.jpa.searchparam.MatchUrlService;
 import ca.uhn.fhir.jpa.searchparam.ResourceSearch;
 import ca.uhn.fhir.jpa.searchparam.SearchParameterMap;
+import ca.uhn.fhir.jpa.searchparam.extractor.ResourceIndexedSearchParams;
 import ca.uhn.fhir.jpa.util.MemoryCacheService;
 import ca.uhn.fhir.jpa.util.QueryChunker;
 import ca.uhn.fhir.model.api.IQueryParameterType;
@@ -100,6 +103,7 @@ import ca.uhn.fhir.rest.param.HistorySearchDateRangeParam;
 import ca.uhn.fhir.rest.server.IPagingProvider;
 import ca.uhn.fhir.rest.server.IRestfulServerDefaults;
 import ca.uhn.fhir.rest.server.RestfulServerUtils;
+import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import ca.uhn.fhir.rest.server.exceptions.MethodNotAllowedException;
 import ca.uhn.fhir.rest.server.exceptions.PreconditionFailedException;
@@ -225,6 +229,9 @@ public abstract class BaseHapiFhirResourceDao<T extends IBaseResource> extends B
 	@Autowired
 	private IFhirSystemDao<?, ?> mySystemDao;
 
+	@Autowired
+	private ReindexPipelineSvc myReindexPipelineSvc;
+
 	@Nullable
 	public static <T extends IBaseResource> T invokeStoragePreShowResources(
 			IInterceptorBroadcaster theInterceptorBroadcaster, RequestDetails theRequest, T retVal) {
@@ -1634,7 +1641,8 @@ public abstract class BaseHapiFhirResourceDao<T extends IBaseResource> extends B
 		}
 
 		if (theReindexParameters.getReindexSearchParameters() == ReindexParameters.ReindexSearchParametersEnum.ALL) {
-			reindexSearchParameters(entity, retVal, theTransactionDetails);
+			reindexSearchParameters(
+					entity, retVal, theReindexParameters.isSkipUnchangedIndexes(), theTransactionDetails);
 		}
 		if (theReindexParameters.getOptimizeStorage() != ReindexParameters.OptimizeStorageModeEnum.NONE) {
 			reindexOptimizeStorage(entity, theReindexParameters.getOptimizeStorage());
@@ -1645,10 +1653,40 @@ public abstract class BaseHapiFhirResourceDao<T extends IBaseResource> extends B
 
 	@SuppressWarnings("unchecked")
 	private void reindexSearchParameters(
-			ResourceTable entity, ReindexOutcome theReindexOutcome, TransactionDetails theTransactionDetails) {
+			ResourceTable entity,
+			ReindexOutcome theReindexOutcome,
+			boolean theSkipUnchangedIndexes,
+			TransactionDetails theTransactionDetails) {
 		try {
-			T resource = (T) myJpaStorageResourceParser.toResource(entity, false);
+			T resource = (T) myReindexPipelineSvc.takePreparedResource(entity, theTransactionDetails);
+			if (resource == null) {
+				resource = (T) myJpaStorageResourceParser.toResource(entity, false);
+			}
+			if (!theSkipUnchangedIndexes || entity.getDeleted() != null) {
+				reindexSearchParameters(resource, entity, theTransactionDetails);
+				return;
+			}
+
+			ResourceIndexedSearchParams newParams;
+			try {
+				newParams = extractSearchParamsForDigest(
+						newReindexRequestDetails(), resource, entity, theTransactionDetails);
+			} catch (BaseServerResponseException e) {
+				// E.g. a reference which can't be resolved, so let the normal path handle (and report) it
+				ourLog.debug("Unable to compute index digest for resource {}: {}", entity.getIdDt(), e.toString());
+				reindexSearchParameters(resource, entity, theTransactionDetails);
+				return;
+			}
+			long digest = newParams.computeIndexDigest();
+			if (entity.getSearchParamIndexDigest() != null
+					&& entity.getSearchParamIndexDigest() == digest
+					&& Long.valueOf(INDEX_STATUS_INDEXED).equals(entity.getIndexStatus())) {
+				ourLog.debug("Skipping resource {} since its indexes have not changed", entity.getIdDt());
+				return;
+			}
+			putPreExtractedSearchParams(theTransactionDetails, entity, newParams);
 			reindexSearchParameters(resource, entity, theTransactionDetails);
+			entity.setSearchParamIndexDigest(digest);
 		} catch (Exception e) {
 			theReindexOutcome.addWarning("Failed to reindex resource " + entity.getIdDt() + ": " + e);
 			myResourceTableDao.updateIndexStatus(entity.getId(), INDEX_STATUS_INDEXING_FAILED);
@@ -1675,19 +1713,35 @@ public abstract class BaseHapiFhirResourceDao<T extends IBaseResource> extends B
 			CURRENTLY_REINDEXING.put(theResource, Boolean.TRUE);
 		}
 
-		SystemRequestDetails request = new SystemRequestDetails();
-		request.getUserData().put(JpaConstants.SKIP_REINDEX_ON_UPDATE, Boolean.TRUE);
-
 		updateEntity(
-				request, theResource, theEntity, theEntity.getDeleted(), true, false, transactionDetails, true, false);
+				newReindexRequestDetails(),
+				theResource,
+				theEntity,
+				theEntity.getDeleted(),
+				true,
+				false,
+				transactionDetails,
+				true,
+				false);
 		if (theResource != null) {
 			CURRENTLY_REINDEXING.put(theResource, null);
 		}
 	}
 
+	private static SystemRequestDetails newReindexRequestDetails() {
+		SystemRequestDetails retVal = new SystemRequestDetails();
+		retVal.getUserData().put(JpaConstants.SKIP_REINDEX_ON_UPDATE, Boolean.TRUE);
+		return retVal;
+	}
+
 	private void reindexOptimizeStorage(
 			ResourceTable entity, ReindexParameters.OptimizeStorageModeEnum theOptimizeStorageMode) {
 		ResourceHistoryTable historyEntity = entity.getCurrentVersionEntity();
+		if (historyEntity == null) {
+			// The current version is only pre-fetched when reindexing more than one resource at a time
+			historyEntity = myResourceHistoryTableDao.findForIdAndVersionAndFetchProvenance(
+					entity.getId(), entity.getVersion());
+		}
 		if (historyEntity != null) {
 			reindexOptimizeStorageHistoryEntity(entity, historyEntity);
 			if (theOptimizeStorageMode == ReindexParameters.OptimizeStorageModeEnum.ALL_VERSIONS) {
@@ -1706,13 +1760,31 @@ public abstract class BaseHapiFhirResourceDao<T extends IBaseResource> extends B
 
 	private void reindexOptimizeStorageHistoryEntity(ResourceTable entity, ResourceHistoryTable historyEntity) {
 		boolean changed = false;
-		if (historyEntity.getEncoding() == ResourceEncodingEnum.JSONC
-				|| historyEntity.getEncoding() == ResourceEncodingEnum.JSON) {
+		String codecId = myStorageSettings.getResourceCompressionCodecId();
+		if (isNotBlank(codecId)) {
+
+			// Compress anything which isn't already compressed using the configured codec
+			if (isRecompressionRequired(historyEntity, codecId)) {
+				String resourceText = getResourceText(historyEntity);
+				ourLog.debug(
+						"Storing text of resource {} version {} compressed using codec {}",
+						entity.getResourceId(),
+						historyEntity.getVersion(),
+						codecId);
+				historyEntity.setResource(myResourceCompressionCodecRegistry.compress(codecId, resourceText));
+				historyEntity.setEncoding(ResourceEncodingEnum.JSONZ);
+				changed = true;
+			}
+
+		} else if (historyEntity.getEncoding() == ResourceEncodingEnum.JSONC
+				|| historyEntity.getEncoding() == ResourceEncodingEnum.JSON
+				|| historyEntity.getEncoding() == ResourceEncodingEnum.JSONZ) {
 			byte[] resourceBytes = historyEntity.getResource();
 
 			// Always migrate data out of the bytes column
 			if (resourceBytes != null) {
-				String resourceText = decodeResource(resourceBytes, historyEntity.getEncoding());
+				String resourceText =
+						decodeResource(resourceBytes, historyEntity.getEncoding(), myResourceCompressionCodecRegistry);
 				ourLog.debug(
 						"Storing text of resource {} version {} as inline VARCHAR",
 						entity.getResourceId(),
@@ -1734,6 +1806,20 @@ public abstract class BaseHapiFhirResourceDao<T extends IBaseResource> extends B
 		}
 	}
 
+	private static boolean isRecompressionRequired(ResourceHistoryTable theHistoryEntity, String theCodecId) {
+		switch (theHistoryEntity.getEncoding()) {
+			case JSON:
+			case JSONC:
+				return theHistoryEntity.hasResource();
+			case JSONZ:
+				return !theCodecId.equals(ResourceCompressionCodecRegistry.getCodecId(theHistoryEntity.getResource()));
+			case DEL:
+			case ESR:
+			default:
+				return false;
+		}
+	}
+
 	private BaseHasResource readEntity(
 			IIdType theId,
 			boolean theCheckForForcedId,
@@ -38,6 +38,7 @@ import ca.uhn.fhir.jpa.model.entity.BaseHasResource;
 import ca.uhn.fhir.jpa.model.entity.ResourceHistoryTable;
 import ca.uhn.fhir.jpa.model.entity.ResourceTable;
 import ca.uhn.fhir.jpa.partition.IRequestPartitionHelperSvc;
+import ca.uhn.fhir.jpa.reindex.ReindexPipelineSvc;
 import ca.uhn.fhir.jpa.search.PersistedJpaBundleProviderFactory;
 import ca.uhn.fhir.jpa.search.builder.SearchBuilder;
 import ca.uhn.fhir.jpa.util.QueryChunker;
@@ -45,6 +46,7 @@ import ca.uhn.fhir.jpa.util.ResourceCountCache;
 import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.api.server.storage.IResourcePersistentId;
+import ca.uhn.fhir.rest.api.server.storage.TransactionDetails;
 import ca.uhn.fhir.rest.server.exceptions.MethodNotAllowedException;
 import ca.uhn.fhir.util.StopWatch;
 import com.google.common.annotations.VisibleForTesting;
@@ -108,6 +110,9 @@ public abstract class BaseHapiFhirSystemDao<T extends IBaseBundle, MT> extends B
 	@Autowired
 	private IHapiTransactionService myTransactionService;
 
+	@Autowired
+	private ReindexPipelineSvc myReindexPipelineSvc;
+
 	@VisibleForTesting
 	public void setTransactionProcessorForUnitTest(TransactionProcessor theTransactionProcessor) {
 		myTransactionProcessor = theTransactionProcessor;
@@ -185,6 +190,12 @@ public abstract class BaseHapiFhirSystemDao<T extends IBaseBundle, MT> extends B
 	@Override
 	public <P extends IResourcePersistentId> void preFetchResources(
 			List<P> theResolvedIds, boolean thePreFetchIndexes) {
+		preFetchResources(theResolvedIds, thePreFetchIndexes, thePreFetchIndexes);
+	}
+
+	@Override
+	public <P extends IResourcePersistentId> void preFetchResources(
+			List<P> theResolvedIds, boolean thePreFetchIndexes, boolean thePreFetchResourceLinks) {
 		HapiTransactionService.requireTransaction();
 		List<Long> pids = theResolvedIds.stream().map(t -> ((JpaPid) t).getId()).collect(Collectors.toList());
 
@@ -207,6 +218,16 @@ public abstract class BaseHapiFhirSystemDao<T extends IBaseBundle, MT> extends B
 
 				List<Long> entityIds;
 
+				if (thePreFetchIndexes || thePreFetchResourceLinks) {
+					entityIds = loadedResourceTableEntries.stream()
+							.filter(ResourceTable::isHasLinks)
+							.map(ResourceTable::getId)
+							.collect(Collectors.toList());
+					if (entityIds.size() > 0) {
+						preFetchIndexes(entityIds, "resourceLinks", "myResourceLinks", null);
+					}
+				}
+
 				if (thePreFetchIndexes) {
 					entityIds = loadedResourceTableEntries.stream()
 							.filter(ResourceTable::isParamsStringPopulated)
@@ -240,14 +261,6 @@ public abstract class BaseHapiFhirSystemDao<T extends IBaseBundle, MT> extends B
 						preFetchIndexes(entityIds, "quantity", "myParamsQuantity", null);
 					}
 
-					entityIds = loadedResourceTableEntries.stream()
-							.filter(ResourceTable::isHasLinks)
-							.map(ResourceTable::getId)
-							.collect(Collectors.toList());
-					if (entityIds.size() > 0) {
-						preFetchIndexes(entityIds, "resourceLinks", "myResourceLinks", null);
-					}
-
 					entityIds = loadedResourceTableEntries.stream()
 							.filter(BaseHasResource::isHasTags)
 							.map(ResourceTable::getId)
@@ -296,6 +309,25 @@ public abstract class BaseHapiFhirSystemDao<T extends IBaseBundle, MT> extends B
 		});
 	}
 
+	@Override
+	public <P extends IResourcePersistentId> void prepareResourcesForReindex(
+			List<P> theResolvedIds, RequestDetails theRequestDetails, TransactionDetails theTransactionDetails) {
+		HapiTransactionService.requireTransaction();
+		if (!myReindexPipelineSvc.isEnabled()) {
+			return;
+		}
+
+		// The entities are normally already in the persistence context, since they have been pre-fetched
+		List<ResourceTable> entities = new ArrayList<>(theResolvedIds.size());
+		for (P next : theResolvedIds) {
+			ResourceTable entity = myEntityManager.find(ResourceTable.class, ((JpaPid) next).getId());
+			if (entity != null) {
+				entities.add(entity);
+			}
+		}
+		myReindexPipelineSvc.prepare(entities, theRequestDetails, theTransactionDetails);
+	}
+
 	private void preFetchIndexes(
 			List<Long> theIds,
 			String typeDesc,
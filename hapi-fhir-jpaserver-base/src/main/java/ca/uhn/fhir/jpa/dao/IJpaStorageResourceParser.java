@@ -19,13 +19,16 @@
  */
 package ca.uhn.fhir.jpa.dao;
 
+import ca.uhn.fhir.jpa.model.cross.IBasePersistedResource;
 import ca.uhn.fhir.jpa.model.entity.BaseTag;
 import ca.uhn.fhir.jpa.model.entity.IBaseResourceEntity;
+import ca.uhn.fhir.jpa.model.entity.ResourceTable;
 import ca.uhn.fhir.jpa.model.entity.ResourceTag;
 import jakarta.annotation.Nullable;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 
 import java.util.Collection;
+import java.util.concurrent.Callable;
 
 public interface IJpaStorageResourceParser extends IStorageResourceParser {
 
@@ -39,6 +42,30 @@ public interface IJpaStorageResourceParser extends IStorageResourceParser {
 			Collection<ResourceTag> theTagList,
 			boolean theForHistoryOperation);
 
+	/**
+	 * Returns a task which decodes and parses the stored body of the current version of the given entity. The
+	 * task only uses data which is copied from the entity when this method is called, so it can be run on
+	 * any thread. The resulting resource has no metadata, and must be passed to
+	 * {@link #toResource(ResourceTable, IBaseResource)} in the original transaction before it is used.
+	 * <p>
+	 * Returns <code>null</code> if the current version hasn't been loaded yet (see
+	 * {@link ResourceTable#getCurrentVersionEntity()}), or if the body can't be parsed independently of the
+	 * transaction.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	@Nullable
+	Callable<IBaseResource> newParseTask(ResourceTable theEntity);
+
+	/**
+	 * Completes a resource returned by a task from {@link #newParseTask(ResourceTable)}, producing the
+	 * same resource that {@link #toResource(IBasePersistedResource, boolean)} would have returned
+	 *
+	 * @since 7.2.0
+	 */
+	<R extends IBaseResource> R toResource(ResourceTable theEntity, R theParsedResource);
+
 	/**
 	 * Populate the metadata (Resource.meta.*) from a storage entity and other related
 	 * objects pulled from the database
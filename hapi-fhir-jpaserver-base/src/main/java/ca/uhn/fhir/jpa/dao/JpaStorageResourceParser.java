@@ -26,6 +26,7 @@ import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.interceptor.model.RequestPartitionId;
 import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.api.dao.IDao;
+import ca.uhn.fhir.jpa.dao.compression.ResourceCompressionCodecRegistry;
 import ca.uhn.fhir.jpa.dao.data.IResourceHistoryTableDao;
 import ca.uhn.fhir.jpa.entity.PartitionEntity;
 import ca.uhn.fhir.jpa.entity.ResourceSearchView;
@@ -73,6 +74,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import static ca.uhn.fhir.jpa.dao.BaseHapiFhirDao.decodeResource;
 import static java.util.Objects.nonNull;
@@ -100,6 +102,12 @@ public class JpaStorageResourceParser implements IJpaStorageResourceParser {
 	@Autowired
 	private ExternallyStoredResourceServiceRegistry myExternallyStoredResourceServiceRegistry;
 
+	@Autowired
+	private ResourceCompressionCodecRegistry myResourceCompressionCodecRegistry;
+
+	@Autowired
+	private ParsedResourceCache myParsedResourceCache;
+
 	@Autowired
 	IMetaTagSorter myMetaTagSorter;
 
@@ -175,17 +183,7 @@ public class JpaStorageResourceParser implements IJpaStorageResourceParser {
 			resourceBytes = history.getResource();
 			resourceEncoding = history.getEncoding();
 			resourceText = history.getResourceTextVc();
-			switch (myStorageSettings.getTagStorageMode()) {
-				case VERSIONED:
-				case NON_VERSIONED:
-					if (resource.isHasTags()) {
-						tagList = resource.getTags();
-					}
-					break;
-				case INLINE:
-					tagList = null;
-					break;
-			}
+			tagList = getTagList(resource);
 			version = history.getVersion();
 			if (history.getProvenance() != null) {
 				provenanceRequestId = history.getProvenance().getRequestId();
@@ -216,20 +214,99 @@ public class JpaStorageResourceParser implements IJpaStorageResourceParser {
 			return null;
 		}
 
-		// 2. get The text
-		String decodedResourceText = decodedResourceText(resourceBytes, resourceText, resourceEncoding);
-
-		// 3. Use the appropriate custom type if one is specified in the context
+		// 2. Use the appropriate custom type if one is specified in the context
 		Class<R> resourceType = determineTypeToParse(theResourceType, tagList);
 
-		// 4. parse the text to FHIR
-		R retVal = parseResource(theEntity, resourceEncoding, decodedResourceText, resourceType);
+		// 3. Reuse a previously parsed copy of this version if we have one
+		boolean cacheable = isParsedResourceCacheable(theEntity, resourceEncoding, resourceType);
+		FhirContext context = null;
+		R retVal = null;
+		if (cacheable) {
+			context = getContext(theEntity.getFhirVersion());
+			retVal = myParsedResourceCache.getIfPresent(context, theEntity.getResourceId(), version, resourceType);
+		}
+
+		// 4. get the text and parse it to FHIR
+		if (retVal == null) {
+			String decodedResourceText = decodedResourceText(resourceBytes, resourceText, resourceEncoding);
+			retVal = parseResource(theEntity, resourceEncoding, decodedResourceText, resourceType);
+			if (cacheable) {
+				myParsedResourceCache.putAfterCommit(
+						context, theEntity.getResourceId(), version, retVal, decodedResourceText.length());
+			}
+		}
+
+		return populateParsedResource(
+				theEntity, theForHistoryOperation, tagList, version, provenanceSourceUri, provenanceRequestId, retVal);
+	}
+
+	@Nullable
+	@Override
+	public Callable<IBaseResource> newParseTask(ResourceTable theEntity) {
+		ResourceHistoryTable history = theEntity.getCurrentVersionEntity();
+		if (history == null || history.getVersion() != theEntity.getVersion()) {
+			return null;
+		}
+		ResourceEncodingEnum resourceEncoding = history.getEncoding();
+		if (resourceEncoding == ResourceEncodingEnum.ESR || resourceEncoding == ResourceEncodingEnum.DEL) {
+			return null;
+		}
+		if (myFhirContext.hasDefaultTypeForProfile()) {
+			// The type to parse depends on the tags, which are only available in the transaction
+			return null;
+		}
+
+		byte[] resourceBytes = history.getResource();
+		String resourceText = history.getResourceTextVc();
+		FhirVersionEnum fhirVersion = theEntity.getFhirVersion();
+		Long pid = theEntity.getId();
+		String idPart = theEntity.getIdDt().getIdPart();
+		Class<? extends IBaseResource> resourceType = getContext(fhirVersion)
+				.getResourceDefinition(theEntity.getResourceType())
+				.getImplementingClass();
+
+		return () -> {
+			String decodedResourceText = decodedResourceText(resourceBytes, resourceText, resourceEncoding);
+			return parseResourceText(fhirVersion, pid, idPart, decodedResourceText, resourceType);
+		};
+	}
+
+	@Override
+	public <R extends IBaseResource> R toResource(ResourceTable theEntity, R theParsedResource) {
+		ResourceHistoryTable history = theEntity.getCurrentVersionEntity();
+		Validate.notNull(history, "Current version of resource PID[%s] has not been loaded", theEntity.getId());
+
+		String provenanceSourceUri = null;
+		String provenanceRequestId = null;
+		if (history.getProvenance() != null) {
+			provenanceRequestId = history.getProvenance().getRequestId();
+			provenanceSourceUri = history.getProvenance().getSourceUri();
+		}
+
+		return populateParsedResource(
+				theEntity,
+				false,
+				getTagList(theEntity),
+				history.getVersion(),
+				provenanceSourceUri,
+				provenanceRequestId,
+				theParsedResource);
+	}
+
+	private <R extends IBaseResource> R populateParsedResource(
+			IBaseResourceEntity theEntity,
+			boolean theForHistoryOperation,
+			@Nullable Collection<? extends BaseTag> theTagList,
+			long theVersion,
+			String theProvenanceSourceUri,
+			String theProvenanceRequestId,
+			R theResource) {
 
 		// 5. fill MetaData
-		retVal = populateResourceMetadata(theEntity, theForHistoryOperation, tagList, version, retVal);
+		R retVal = populateResourceMetadata(theEntity, theForHistoryOperation, theTagList, theVersion, theResource);
 
 		// 6. Handle source (provenance)
-		MetaUtil.populateResourceSource(myFhirContext, provenanceSourceUri, provenanceRequestId, retVal);
+		MetaUtil.populateResourceSource(myFhirContext, theProvenanceSourceUri, theProvenanceRequestId, retVal);
 
 		// 7. Add partition information
 		populateResourcePartitionInformation(theEntity, retVal);
@@ -240,6 +317,21 @@ public class JpaStorageResourceParser implements IJpaStorageResourceParser {
 		return retVal;
 	}
 
+	@Nullable
+	private Collection<? extends BaseTag> getTagList(ResourceTable theEntity) {
+		switch (myStorageSettings.getTagStorageMode()) {
+			case VERSIONED:
+			case NON_VERSIONED:
+				if (theEntity.isHasTags()) {
+					return theEntity.getTags();
+				}
+				break;
+			case INLINE:
+				return null;
+		}
+		return Collections.emptyList();
+	}
+
 	private <R extends IBaseResource> void populateResourcePartitionInformation(
 			IBaseResourceEntity theEntity, R retVal) {
 		if (myPartitionSettings.isPartitioningEnabled()) {
@@ -254,6 +346,30 @@ public class JpaStorageResourceParser implements IJpaStorageResourceParser {
 		}
 	}
 
+	/**
+	 * Only resources which are actually parsed from the stored text, and which use the default
+	 * implementing class for their type, are placed in the {@link ParsedResourceCache}
+	 */
+	private boolean isParsedResourceCacheable(
+			IBaseResourceEntity theEntity, ResourceEncodingEnum theEncoding, Class<?> theResourceType) {
+		if (!myParsedResourceCache.isEnabled() || theEntity.getResourceId() == null) {
+			return false;
+		}
+		switch (theEncoding) {
+			case JSON:
+			case JSONC:
+			case JSONZ:
+				return getContext(theEntity.getFhirVersion())
+						.getResourceDefinition(theEntity.getResourceType())
+						.getImplementingClass()
+						.equals(theResourceType);
+			case DEL:
+			case ESR:
+			default:
+				return false;
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	private <R extends IBaseResource> R parseResource(
 			IBaseResourceEntity theEntity,
@@ -275,27 +391,12 @@ public class JpaStorageResourceParser implements IJpaStorageResourceParser {
 
 		} else if (theResourceEncoding != ResourceEncodingEnum.DEL) {
 
-			IParser parser = new TolerantJsonParser(
-					getContext(theEntity.getFhirVersion()), LENIENT_ERROR_HANDLER, theEntity.getId());
-
-			try {
-				retVal = parser.parseResource(theResourceType, theDecodedResourceText);
-			} catch (Exception e) {
-				StringBuilder b = new StringBuilder();
-				b.append("Failed to parse database resource[");
-				b.append(myFhirContext.getResourceType(theResourceType));
-				b.append("/");
-				b.append(theEntity.getIdDt().getIdPart());
-				b.append(" (pid ");
-				b.append(theEntity.getId());
-				b.append(", version ");
-				b.append(theEntity.getFhirVersion().name());
-				b.append("): ");
-				b.append(e.getMessage());
-				String msg = b.toString();
-				ourLog.error(msg, e);
-				throw new DataFormatException(Msg.code(928) + msg, e);
-			}
+			retVal = parseResourceText(
+					theEntity.getFhirVersion(),
+					theEntity.getId(),
+					theEntity.getIdDt().getIdPart(),
+					theDecodedResourceText,
+					theResourceType);
 
 		} else {
 
@@ -306,6 +407,34 @@ public class JpaStorageResourceParser implements IJpaStorageResourceParser {
 		return retVal;
 	}
 
+	private <R extends IBaseResource> R parseResourceText(
+			FhirVersionEnum theFhirVersion,
+			Long thePid,
+			String theIdPart,
+			String theDecodedResourceText,
+			Class<R> theResourceType) {
+		IParser parser = new TolerantJsonParser(getContext(theFhirVersion), LENIENT_ERROR_HANDLER, thePid);
+
+		try {
+			return parser.parseResource(theResourceType, theDecodedResourceText);
+		} catch (Exception e) {
+			StringBuilder b = new StringBuilder();
+			b.append("Failed to parse database resource[");
+			b.append(myFhirContext.getResourceType(theResourceType));
+			b.append("/");
+			b.append(theIdPart);
+			b.append(" (pid ");
+			b.append(thePid);
+			b.append(", version ");
+			b.append(theFhirVersion.name());
+			b.append("): ");
+			b.append(e.getMessage());
+			String msg = b.toString();
+			ourLog.error(msg, e);
+			throw new DataFormatException(Msg.code(928) + msg, e);
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	private <R extends IBaseResource> Class<R> determineTypeToParse(
 			Class<R> theResourceType, @Nullable Collection<? extends BaseTag> tagList) {
@@ -535,13 +664,13 @@ public class JpaStorageResourceParser implements IJpaStorageResourceParser {
 		return FhirContext.forCached(theVersion);
 	}
 
-	private static String decodedResourceText(
+	private String decodedResourceText(
 			byte[] resourceBytes, String resourceText, ResourceEncodingEnum resourceEncoding) {
 		String decodedResourceText;
 		if (resourceText != null) {
 			decodedResourceText = resourceText;
 		} else {
-			decodedResourceText = decodeResource(resourceBytes, resourceEncoding);
+			decodedResourceText = decodeResource(resourceBytes, resourceEncoding, myResourceCompressionCodecRegistry);
 		}
 		return decodedResourceText;
 	}
@@ -0,0 +1,294 @@
+/*-
+ * #%L
+ * HAPI FHIR JPA Server
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.dao;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.sl.cache.Cache;
+import ca.uhn.fhir.sl.cache.CacheFactory;
+import jakarta.annotation.Nullable;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.time.DateUtils;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An optional in-memory cache of resources which have been parsed from the database, keyed
+ * by resource PID and version. The stored body of a given resource version never changes,
+ * so repeatedly reading the same version (e.g. when paging through search results) can
+ * skip decoding and parsing the stored text.
+ * <p>
+ * Cached resources are never handed out directly: a copy is stored when a resource is added
+ * to the cache, and a new copy is returned for every hit, so callers are free to modify the
+ * resources they receive.
+ * </p>
+ * <p>
+ * The cache is disabled by default, and is enabled and sized using
+ * {@link JpaStorageSettings#setParsedResourceCacheMaxEntries(int)} and
+ * {@link JpaStorageSettings#setParsedResourceCacheMaxWeight(long)}.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public class ParsedResourceCache {
+	private static final Logger ourLog = LoggerFactory.getLogger(ParsedResourceCache.class);
+
+	private static final long EXPIRE_AFTER_WRITE_MILLIS = DateUtils.MILLIS_PER_HOUR;
+
+	private final JpaStorageSettings myStorageSettings;
+	private final LongAdder myHitCount = new LongAdder();
+	private final LongAdder myMissCount = new LongAdder();
+	private volatile CacheHolder myCacheHolder;
+
+	/**
+	 * Constructor
+	 */
+	public ParsedResourceCache(JpaStorageSettings theStorageSettings) {
+		Validate.notNull(theStorageSettings, "theStorageSettings must not be null");
+		myStorageSettings = theStorageSettings;
+	}
+
+	/**
+	 * Returns <code>true</code> if the cache is enabled in the {@link JpaStorageSettings}
+	 */
+	public boolean isEnabled() {
+		return myStorageSettings.getParsedResourceCacheMaxEntries() > 0;
+	}
+
+	/**
+	 * Returns a copy of the cached resource for the given resource version, or <code>null</code>
+	 * if the cache is disabled or the resource version is not cached.
+	 *
+	 * @param theContext       The FHIR context used to copy the cached resource
+	 * @param theResourcePid   The resource PID
+	 * @param theVersion       The resource version
+	 * @param theResourceType  The type of resource expected by the caller. A cached resource of any other type is ignored.
+	 */
+	@Nullable
+	public <R extends IBaseResource> R getIfPresent(
+			FhirContext theContext, Long theResourcePid, long theVersion, Class<R> theResourceType) {
+		Cache<CacheKey, CachedResource> cache = getCache();
+		if (cache == null) {
+			return null;
+		}
+
+		CachedResource cached = cache.getIfPresent(new CacheKey(theResourcePid, theVersion));
+		if (cached == null || !theResourceType.equals(cached.myResource.getClass())) {
+			myMissCount.increment();
+			return null;
+		}
+
+		myHitCount.increment();
+		return theResourceType.cast(theContext.newTerser().clone(cached.myResource));
+	}
+
+	/**
+	 * Stores a copy of a parsed resource version in the cache. If a database transaction is
+	 * active, the resource is only stored once (and if) the transaction successfully commits.
+	 *
+	 * @param theContext      The FHIR context used to copy the resource
+	 * @param theResourcePid  The resource PID
+	 * @param theVersion      The resource version
+	 * @param theResource     The parsed resource. This must not yet have been modified after parsing.
+	 * @param theWeight       The size of the serialized resource, used for weight based eviction
+	 */
+	public void putAfterCommit(
+			FhirContext theContext, Long theResourcePid, long theVersion, IBaseResource theResource, int theWeight) {
+		Cache<CacheKey, CachedResource> cache = getCache();
+		if (cache == null) {
+			return;
+		}
+
+		CacheKey key = new CacheKey(theResourcePid, theVersion);
+		CachedResource value = new CachedResource(theContext.newTerser().clone(theResource), theWeight);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					cache.put(key, value);
+				}
+			});
+		} else {
+			cache.put(key, value);
+		}
+	}
+
+	/**
+	 * Removes a resource version from the cache. This must be called whenever the stored body
+	 * of an existing resource version is modified. If a database transaction is active, the
+	 * version is removed again when the transaction completes, in case it was re-cached by a
+	 * concurrent reader in the meantime.
+	 */
+	public void invalidate(Long theResourcePid, long theVersion) {
+		Cache<CacheKey, CachedResource> cache = getCache();
+		if (cache == null) {
+			return;
+		}
+
+		CacheKey key = new CacheKey(theResourcePid, theVersion);
+		cache.invalidate(key);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int theStatus) {
+					cache.invalidate(key);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Removes all entries from the cache
+	 */
+	public void invalidateAll() {
+		CacheHolder holder = myCacheHolder;
+		if (holder != null) {
+			holder.myCache.invalidateAll();
+		}
+	}
+
+	/**
+	 * Returns the number of lookups which returned a cached resource
+	 */
+	public long getHitCount() {
+		return myHitCount.sum();
+	}
+
+	/**
+	 * Returns the number of lookups which did not return a cached resource
+	 */
+	public long getMissCount() {
+		return myMissCount.sum();
+	}
+
+	/**
+	 * Returns the approximate number of resource versions currently held in the cache
+	 */
+	public long getEstimatedSize() {
+		CacheHolder holder = myCacheHolder;
+		return holder != null ? holder.myCache.estimatedSize() : 0;
+	}
+
+	/**
+	 * Returns the cache, creating (or recreating) it if the settings have changed since it
+	 * was last created, or <code>null</code> if the cache is disabled.
+	 */
+	@Nullable
+	private Cache<CacheKey, CachedResource> getCache() {
+		int maxEntries = myStorageSettings.getParsedResourceCacheMaxEntries();
+		if (maxEntries <= 0) {
+			return null;
+		}
+		long maxWeight = myStorageSettings.getParsedResourceCacheMaxWeight();
+
+		CacheHolder holder = myCacheHolder;
+		if (holder == null || holder.myMaxEntries != maxEntries || holder.myMaxWeight != maxWeight) {
+			synchronized (this) {
+				holder = myCacheHolder;
+				if (holder == null || holder.myMaxEntries != maxEntries || holder.myMaxWeight != maxWeight) {
+					holder = new CacheHolder(maxEntries, maxWeight);
+					myCacheHolder = holder;
+				}
+			}
+		}
+		return holder.myCache;
+	}
+
+	private static class CacheHolder {
+
+		private final int myMaxEntries;
+		private final long myMaxWeight;
+		private final Cache<CacheKey, CachedResource> myCache;
+
+		private CacheHolder(int theMaxEntries, long theMaxWeight) {
+			myMaxEntries = theMaxEntries;
+			myMaxWeight = theMaxWeight;
+			Cache<CacheKey, CachedResource> cache = null;
+			if (theMaxWeight > 0) {
+				/*
+				 * Weight based eviction can't be combined with a maximum entry count, so we
+				 * enforce the entry count by making every entry weigh at least its share of
+				 * the total weight
+				 */
+				long minimumWeight = Math.max(1, (theMaxWeight + theMaxEntries - 1) / theMaxEntries);
+				int minimumEntryWeight = (int) Math.min(Integer.MAX_VALUE, minimumWeight);
+				try {
+					cache = CacheFactory.build(
+							EXPIRE_AFTER_WRITE_MILLIS,
+							theMaxWeight,
+							(theKey, theValue) -> Math.max(minimumEntryWeight, theValue.myWeight));
+				} catch (UnsupportedOperationException e) {
+					ourLog.warn(
+							"Parsed resource cache will only be bounded by its maximum entry count: {}",
+							e.getMessage());
+				}
+			}
+			if (cache == null) {
+				cache = CacheFactory.build(EXPIRE_AFTER_WRITE_MILLIS, theMaxEntries);
+			}
+			myCache = cache;
+		}
+	}
+
+	private static class CachedResource {
+
+		private final IBaseResource myResource;
+		private final int myWeight;
+
+		private CachedResource(IBaseResource theResource, int theWeight) {
+			myResource = theResource;
+			myWeight = theWeight;
+		}
+	}
+
+	private static class CacheKey {
+
+		private final Long myResourcePid;
+		private final long myVersion;
+
+		private CacheKey(Long theResourcePid, long theVersion) {
+			myResourcePid = theResourcePid;
+			myVersion = theVersion;
+		}
+
+		@Override
+		public boolean equals(Object theO) {
+			if (this == theO) {
+				return true;
+			}
+			if (!(theO instanceof CacheKey)) {
+				return false;
+			}
+			CacheKey that = (CacheKey) theO;
+			return myVersion == that.myVersion && Objects.equals(myResourcePid, that.myResourcePid);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(myResourcePid, myVersion);
+		}
+	}
+}
@@ -102,6 +102,33 @@ public interface IResourceTableDao
 	Stream<Object[]> streamIdsTypesAndUpdateTimesOfResourcesWithinUpdatedRangeOrderedFromOldestForDefaultPartition(
 			@Param("low") Date theLow, @Param("high") Date theHigh);
 
+	/**
+	 * Keyset pagination over all resources: returns the page of resources with PIDs greater than
+	 * <code>afterId</code> in PID order, so each page is an index range scan on the primary key.
+	 *
+	 * @return List of arrays containing [PID, resourceType, lastUpdated]
+	 */
+	@Query(
+			"SELECT t.myId, t.myResourceType, t.myUpdated FROM ResourceTable t WHERE t.myId > :after_id AND t.myUpdated >= :low AND t.myUpdated <= :high ORDER BY t.myId ASC")
+	List<Object[]> findIdsTypesAndUpdateTimesOfResourcesWithinUpdatedRangeAfterIdOrderedById(
+			Pageable thePage,
+			@Param("low") Date theLow,
+			@Param("high") Date theHigh,
+			@Param("after_id") Long theAfterId);
+
+	/**
+	 * @return List of arrays containing [PID, resourceType, lastUpdated]
+	 * @see #findIdsTypesAndUpdateTimesOfResourcesWithinUpdatedRangeAfterIdOrderedById(Pageable, Date, Date, Long)
+	 */
+	@Query(
+			"SELECT t.myId, t.myResourceType, t.myUpdated FROM ResourceTable t WHERE t.myId > :after_id AND t.myUpdated >= :low AND t.myUpdated <= :high AND t.myPartitionIdValue IN (:partition_ids) ORDER BY t.myId ASC")
+	List<Object[]> findIdsTypesAndUpdateTimesOfResourcesWithinUpdatedRangeAfterIdOrderedByIdForPartitionIds(
+			Pageable thePage,
+			@Param("low") Date theLow,
+			@Param("high") Date theHigh,
+			@Param("after_id") Long theAfterId,
+			@Param("partition_ids") List<Integer> theRequestPartitionIds);
+
 	// TODO in the future, consider sorting by pid as well so batch jobs process in the same order across restarts
 	@Query(
 			"SELECT t.myId FROM ResourceTable t WHERE t.myUpdated >= :low AND t.myUpdated <= :high AND t.myPartitionIdValue = :partition_id ORDER BY t.myUpdated ASC")
@@ -26,6 +26,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -75,6 +76,19 @@ public interface ITermValueSetConceptDao extends JpaRepository<TermValueSetConce
 			@Param("system_version") String theSystemVersion,
 			@Param("codeval") String theCode);
 
+	@Query("SELECT vsc FROM TermValueSetConcept vsc WHERE vsc.myValueSetPid = :pid AND vsc.myCode IN (:codes)")
+	List<TermValueSetConcept> findByTermValueSetIdAndCodes(
+			@Param("pid") Long theValueSetId, @Param("codes") Collection<String> theCodes);
+
+	/**
+	 * Returns the ID, system, system version, code and display of the concepts in the given ValueSet,
+	 * starting after the given concept ID
+	 */
+	@Query(
+			"SELECT vsc.myId, vsc.mySystem, vsc.mySystemVer, vsc.myCode, vsc.myDisplay FROM TermValueSetConcept vsc WHERE vsc.myValueSetPid = :pid AND vsc.myId > :after_id ORDER BY vsc.myId")
+	List<Object[]> findConceptDetailsByTermValueSetIdAfterId(
+			Pageable thePage, @Param("pid") Long theValueSetId, @Param("after_id") Long theAfterId);
+
 	@Query("SELECT vsc.myId FROM TermValueSetConcept vsc WHERE vsc.myValueSetPid = :pid ORDER BY vsc.myId")
 	List<Long> findIdsByTermValueSetId(@Param("pid") Long theValueSetId);
 
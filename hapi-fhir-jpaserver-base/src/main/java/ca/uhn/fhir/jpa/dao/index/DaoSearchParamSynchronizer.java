@@ -19,6 +19,7 @@
  */
 package ca.uhn.fhir.jpa.dao.index;
 
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.model.entity.BaseResourceIndex;
 import ca.uhn.fhir.jpa.model.entity.ResourceTable;
 import ca.uhn.fhir.jpa.searchparam.extractor.ResourceIndexedSearchParams;
@@ -27,8 +28,10 @@ import com.google.common.annotations.VisibleForTesting;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.PersistenceContextType;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -45,6 +48,9 @@ public class DaoSearchParamSynchronizer {
 	@PersistenceContext(type = PersistenceContextType.TRANSACTION)
 	protected EntityManager myEntityManager;
 
+	@Autowired
+	private JpaStorageSettings myStorageSettings;
+
 	public AddRemoveCount synchronizeSearchParamsToDatabase(
 			ResourceIndexedSearchParams theParams,
 			ResourceTable theEntity,
@@ -73,6 +79,11 @@ public class DaoSearchParamSynchronizer {
 		myEntityManager = theEntityManager;
 	}
 
+	@VisibleForTesting
+	public void setStorageSettings(JpaStorageSettings theStorageSettings) {
+		myStorageSettings = theStorageSettings;
+	}
+
 	private <T extends BaseResourceIndex> void synchronize(
 			ResourceTable theEntity,
 			AddRemoveCount theAddRemoveCount,
@@ -125,8 +136,13 @@ public class DaoSearchParamSynchronizer {
 			}
 			myEntityManager.remove(next);
 		}
+		boolean bulkWrite = myStorageSettings.isIndexBulkWriteEnabled();
 		for (T next : paramsToAdd) {
-			myEntityManager.merge(next);
+			if (bulkWrite && next.getId() == null) {
+				persistNewIndexRow(next);
+			} else {
+				myEntityManager.merge(next);
+			}
 		}
 
 		// TODO:  are there any unintended consequences to fixing this bug?
@@ -160,11 +176,37 @@ public class DaoSearchParamSynchronizer {
 
 			// Take a row we were going to remove, and repurpose its ID
 			T entityToReuse = theIndexesToRemove.remove(theIndexesToRemove.size() - 1);
+			makeWritable(entityToReuse);
 			entityToReuse.copyMutableValuesFrom(targetEntity);
 			theIndexesToAdd.set(addIndex, entityToReuse);
 		}
 	}
 
+	/**
+	 * Used when {@link JpaStorageSettings#isIndexBulkWriteEnabled() bulk index writes} are enabled.
+	 * The new row is persisted as-is rather than being merged (which copies it into the session),
+	 * and is marked read-only so that Hibernate doesn't dirty check it on every flush for the rest
+	 * of the transaction. It is inserted along with the other pending rows for the same table
+	 * in a JDBC batch when the session is flushed.
+	 */
+	private void persistNewIndexRow(BaseResourceIndex theIndexRow) {
+		myEntityManager.persist(theIndexRow);
+		myEntityManager.unwrap(Session.class).setReadOnly(theIndexRow, true);
+	}
+
+	/**
+	 * Rows persisted by {@link #persistNewIndexRow(BaseResourceIndex)} are read-only, so they need
+	 * to be made writable again if they are going to be reused later in the same transaction.
+	 */
+	private void makeWritable(BaseResourceIndex theIndexRow) {
+		if (myStorageSettings.isIndexBulkWriteEnabled() && myEntityManager.contains(theIndexRow)) {
+			Session session = myEntityManager.unwrap(Session.class);
+			if (session.isReadOnly(theIndexRow)) {
+				session.setReadOnly(theIndexRow, false);
+			}
+		}
+	}
+
 	public static <T> List<T> subtract(Collection<T> theSubtractFrom, Collection<T> theToSubtract) {
 		assert theSubtractFrom != theToSubtract || (theSubtractFrom.isEmpty());
 
@@ -118,6 +118,21 @@ public class HapiFhirJpaMigrationTasks extends BaseMigrationTasks<VersionEnum> {
 		init660();
 		init680();
 		init700();
+		init720();
+	}
+
+	protected void init720() {
+		/* ************************************************
+		 * Start of 7.2 migrations
+		 *********************************************** */
+
+		Builder version = forVersion(VersionEnum.V7_2_0);
+
+		// Digest of the search parameter indexes, used to skip unchanged resources when reindexing
+		version.onTable(ResourceTable.HFJ_RESOURCE)
+				.addColumn("20240301.1", "SP_INDEX_DIGEST")
+				.nullable()
+				.type(ColumnTypeEnum.LONG);
 	}
 
 	protected void init700() {
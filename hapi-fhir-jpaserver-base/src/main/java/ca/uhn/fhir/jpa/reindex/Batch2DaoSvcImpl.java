@@ -41,16 +41,21 @@ import ca.uhn.fhir.rest.api.SortSpec;
 import ca.uhn.fhir.rest.api.server.SystemRequestDetails;
 import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
 import ca.uhn.fhir.util.DateRangeUtil;
+import com.google.common.annotations.VisibleForTesting;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import org.apache.commons.lang3.Validate;
+import org.springframework.data.domain.Pageable;
 
 import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 public class Batch2DaoSvcImpl implements IBatch2DaoSvc {
 	private static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(Batch2DaoSvcImpl.class);
+	private static final int KEYSET_PAGE_SIZE = 10000;
 
 	private final IResourceTableDao myResourceTableDao;
 
@@ -62,6 +67,8 @@ public class Batch2DaoSvcImpl implements IBatch2DaoSvc {
 
 	private final IHapiTransactionService myTransactionService;
 
+	private int myKeysetPageSize = KEYSET_PAGE_SIZE;
+
 	@Override
 	public boolean isAllResourceTypeSupported() {
 		return true;
@@ -127,29 +134,46 @@ public class Batch2DaoSvcImpl implements IBatch2DaoSvc {
 		return new TypedResourceStream(theRequestPartitionId, streamTemplate);
 	}
 
+	/**
+	 * Streams the IDs of all resources using keyset pagination on the resource PID. Each page is a separate
+	 * query which starts after the last PID of the previous page, so the cost of fetching a page doesn't depend
+	 * on how far into the table it is, or on how many resources share the same last updated time.
+	 */
 	@Nonnull
 	private Stream<TypedResourcePid> streamResourceIdsNoUrl(
 			Date theStart, Date theEnd, RequestPartitionId theRequestPartitionId) {
-		Stream<Object[]> rowStream;
-		if (theRequestPartitionId == null || theRequestPartitionId.isAllPartitions()) {
+		Function<Long, List<Object[]>> pageFetcher;
+		Pageable pageable = Pageable.ofSize(myKeysetPageSize);
+		if (theRequestPartitionId == null
+				|| theRequestPartitionId.isAllPartitions()
+				|| theRequestPartitionId.isDefaultPartition()) {
 			ourLog.debug("Search for resources - all partitions");
-			rowStream = myResourceTableDao.streamIdsTypesAndUpdateTimesOfResourcesWithinUpdatedRangeOrderedFromOldest(
-					theStart, theEnd);
-		} else if (theRequestPartitionId.isDefaultPartition()) {
-			ourLog.debug("Search for resources - default partition");
-			rowStream =
-					myResourceTableDao
-							.streamIdsTypesAndUpdateTimesOfResourcesWithinUpdatedRangeOrderedFromOldestForDefaultPartition(
-									theStart, theEnd);
+			pageFetcher = afterId ->
+					myResourceTableDao.findIdsTypesAndUpdateTimesOfResourcesWithinUpdatedRangeAfterIdOrderedById(
+							pageable, theStart, theEnd, afterId);
 		} else {
 			ourLog.debug("Search for resources - partition {}", theRequestPartitionId);
-			rowStream =
+			pageFetcher = afterId ->
 					myResourceTableDao
-							.streamIdsTypesAndUpdateTimesOfResourcesWithinUpdatedRangeOrderedFromOldestForPartitionIds(
-									theStart, theEnd, theRequestPartitionId.getPartitionIds());
+							.findIdsTypesAndUpdateTimesOfResourcesWithinUpdatedRangeAfterIdOrderedByIdForPartitionIds(
+									pageable, theStart, theEnd, afterId, theRequestPartitionId.getPartitionIds());
 		}
 
-		return rowStream.map(Batch2DaoSvcImpl::typedPidFromQueryArray);
+		List<Object[]> firstPage = pageFetcher.apply(Long.MIN_VALUE);
+		return Stream.iterate(firstPage, t -> !t.isEmpty(), t -> {
+					if (t.size() < myKeysetPageSize) {
+						return List.of();
+					}
+					Long lastId = (Long) t.get(t.size() - 1)[0];
+					return pageFetcher.apply(lastId);
+				})
+				.flatMap(List::stream)
+				.map(Batch2DaoSvcImpl::typedPidFromQueryArray);
+	}
+
+	@VisibleForTesting
+	void setKeysetPageSizeForUnitTest(int theKeysetPageSize) {
+		myKeysetPageSize = theKeysetPageSize;
 	}
 
 	@Deprecated(since = "6.11", forRemoval = true) // delete once the default method in the interface is gone.
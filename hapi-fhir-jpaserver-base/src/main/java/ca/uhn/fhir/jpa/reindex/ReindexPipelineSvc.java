@@ -0,0 +1,201 @@
+/*-
+ * #%L
+ * HAPI FHIR JPA Server
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.reindex;
+
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.jpa.dao.IJpaStorageResourceParser;
+import ca.uhn.fhir.jpa.model.entity.ResourceTable;
+import ca.uhn.fhir.jpa.searchparam.extractor.SearchParamExtractorService;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.api.server.storage.TransactionDetails;
+import ca.uhn.fhir.util.ResizableThreadPool;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Parses resources and extracts their search parameter indexes on a background thread pool while they
+ * are waiting to be reindexed. This is used by reindex jobs when
+ * {@link JpaStorageSettings#setReindexPipelineThreadCount(int)} is set.
+ * <p>
+ * Only the work which doesn't need the database (decoding and parsing the stored resource body, and
+ * extracting all search parameter indexes which don't need to be resolved) is done in the background.
+ * Populating the resource metadata from the entity is done in the transaction, between parsing and
+ * extraction. The results are handed back to the transaction through its {@link TransactionDetails}.
+ * Any resource which can't be prepared in the background is simply reindexed in the normal way.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public class ReindexPipelineSvc {
+
+	private static final String XACT_USERDATA_KEY_PREPARED_RESOURCES =
+			ReindexPipelineSvc.class.getName() + "_PREPARED_RESOURCES";
+	private static final Logger ourLog = LoggerFactory.getLogger(ReindexPipelineSvc.class);
+
+	@Autowired
+	private JpaStorageSettings myStorageSettings;
+
+	@Autowired
+	private IJpaStorageResourceParser myJpaStorageResourceParser;
+
+	@Autowired
+	private SearchParamExtractorService mySearchParamExtractorService;
+
+	private final ResizableThreadPool myThreadPool =
+			new ResizableThreadPool("reindex-pipeline-", () -> myStorageSettings.getReindexPipelineThreadCount());
+
+	public boolean isEnabled() {
+		return myStorageSettings.getReindexPipelineThreadCount() > 0;
+	}
+
+	/**
+	 * Starts preparing the given entities for reindexing. This must be called in the transaction which
+	 * will reindex the entities, after their current versions have been pre-fetched. This method waits
+	 * until the entities have been parsed, but returns without waiting for search parameter extraction.
+	 */
+	public void prepare(
+			Collection<ResourceTable> theEntities,
+			RequestDetails theRequestDetails,
+			TransactionDetails theTransactionDetails) {
+		if (!isEnabled()) {
+			return;
+		}
+		try (ResizableThreadPool.Lease lease = myThreadPool.lease()) {
+			prepare(theEntities, theRequestDetails, theTransactionDetails, lease);
+		}
+	}
+
+	private void prepare(
+			Collection<ResourceTable> theEntities,
+			RequestDetails theRequestDetails,
+			TransactionDetails theTransactionDetails,
+			ResizableThreadPool.Lease theLease) {
+		Map<Long, Future<PreparedResource>> preparedResources =
+				theTransactionDetails.getOrCreateUserData(XACT_USERDATA_KEY_PREPARED_RESOURCES, HashMap::new);
+
+		List<ResourceTable> parsingEntities = new ArrayList<>(theEntities.size());
+		List<Future<IBaseResource>> parsedResources = new ArrayList<>(theEntities.size());
+		for (ResourceTable next : theEntities) {
+			if (next.getDeleted() != null || preparedResources.containsKey(next.getId())) {
+				continue;
+			}
+			Callable<IBaseResource> parseTask = myJpaStorageResourceParser.newParseTask(next);
+			if (parseTask != null) {
+				parsingEntities.add(next);
+				parsedResources.add(theLease.submit(parseTask));
+			}
+		}
+
+		for (int i = 0; i < parsingEntities.size(); i++) {
+			ResourceTable entity = parsingEntities.get(i);
+			IBaseResource parsedResource = getOrNull(parsedResources.get(i), entity);
+			if (parsedResource == null) {
+				continue;
+			}
+
+			IBaseResource resource = myJpaStorageResourceParser.toResource(entity, parsedResource);
+			long version = entity.getVersion();
+			preparedResources.put(
+					entity.getId(),
+					theLease.submit(() -> new PreparedResource(
+							version,
+							resource,
+							mySearchParamExtractorService.preExtractSearchParams(theRequestDetails, resource))));
+		}
+	}
+
+	/**
+	 * Returns the prepared resource for the given entity, waiting for it to be prepared if necessary,
+	 * and registers its extracted search parameters with the transaction. Returns <code>null</code> if
+	 * the entity wasn't prepared, or if preparing it failed.
+	 */
+	@Nullable
+	public IBaseResource takePreparedResource(ResourceTable theEntity, TransactionDetails theTransactionDetails) {
+		Map<Long, Future<PreparedResource>> preparedResources =
+				theTransactionDetails.getUserData(XACT_USERDATA_KEY_PREPARED_RESOURCES);
+		if (preparedResources == null) {
+			return null;
+		}
+		Future<PreparedResource> future = preparedResources.remove(theEntity.getId());
+		if (future == null) {
+			return null;
+		}
+
+		PreparedResource prepared = getOrNull(future, theEntity);
+		if (prepared == null || prepared.myVersion != theEntity.getVersion()) {
+			return null;
+		}
+
+		SearchParamExtractorService.putPreExtractedSearchParams(
+				theTransactionDetails, prepared.myResource, prepared.myPreExtractedSearchParams);
+		return prepared.myResource;
+	}
+
+	@PreDestroy
+	public void stop() {
+		myThreadPool.shutdown();
+	}
+
+	/**
+	 * Failures are only logged here, since the resource will be reindexed in the normal way,
+	 * which reports the failure
+	 */
+	@Nullable
+	private static <T> T getOrNull(Future<T> theFuture, ResourceTable theEntity) {
+		try {
+			return theFuture.get();
+		} catch (ExecutionException e) {
+			ourLog.debug("Failed to prepare resource PID[{}] for reindexing", theEntity.getId(), e.getCause());
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private static class PreparedResource {
+
+		private final long myVersion;
+		private final IBaseResource myResource;
+		private final SearchParamExtractorService.PreExtractedSearchParams myPreExtractedSearchParams;
+
+		private PreparedResource(
+				long theVersion,
+				IBaseResource theResource,
+				SearchParamExtractorService.PreExtractedSearchParams thePreExtractedSearchParams) {
+			myVersion = theVersion;
+			myResource = theResource;
+			myPreExtractedSearchParams = thePreExtractedSearchParams;
+		}
+	}
+}
@@ -63,7 +63,7 @@ public class DatabaseBackedPagingProvider extends BasePagingProvider {
 	}
 
 	@Override
-	public synchronized IBundleProvider retrieveResultList(RequestDetails theRequestDetails, String theId) {
+	public IBundleProvider retrieveResultList(RequestDetails theRequestDetails, String theId) {
 		PersistedJpaBundleProvider provider = myPersistedJpaBundleProviderFactory.newInstance(theRequestDetails, theId);
 		return validateAndReturnBundleProvider(provider);
 	}
@@ -80,7 +80,7 @@ public class DatabaseBackedPagingProvider extends BasePagingProvider {
 	}
 
 	@Override
-	public synchronized String storeResultList(RequestDetails theRequestDetails, IBundleProvider theList) {
+	public String storeResultList(RequestDetails theRequestDetails, IBundleProvider theList) {
 		String uuid = theList.getUuid();
 		return uuid;
 	}
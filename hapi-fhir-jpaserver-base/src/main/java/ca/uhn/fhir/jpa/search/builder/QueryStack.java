@@ -1180,13 +1180,22 @@ public class QueryStack {
 			Condition pathPredicate = toEqualToOrInPredicate(
 					resourceLinkTableJoin.getColumnSourcePath(), mySqlBuilder.generatePlaceholders(paths));
 
-			Condition linkedPredicate =
-					searchForIdsWithAndOr(with().setSourceJoinColumn(resourceLinkTableJoin.getColumnSrcResourceId())
-							.setResourceName(targetResourceType)
-							.setParamName(parameterName)
-							.setAndOrParams(Collections.singletonList(orValues))
-							.setRequest(theRequest)
-							.setRequestPartitionId(theRequestPartitionId));
+			Condition linkedPredicate = resourceLinkTableJoin.createPredicateForPreResolvedTargets(
+					resourceLinkTableJoin.getColumnSrcResourceId(),
+					targetResourceType,
+					parameterName,
+					orValues,
+					theRequest,
+					theRequestPartitionId);
+			if (linkedPredicate == null) {
+				linkedPredicate =
+						searchForIdsWithAndOr(with().setSourceJoinColumn(resourceLinkTableJoin.getColumnSrcResourceId())
+								.setResourceName(targetResourceType)
+								.setParamName(parameterName)
+								.setAndOrParams(Collections.singletonList(orValues))
+								.setRequest(theRequest)
+								.setRequestPartitionId(theRequestPartitionId));
+			}
 
 			andPredicates.add(toAndPredicate(partitionPredicate, pathPredicate, typePredicate, linkedPredicate));
 		}
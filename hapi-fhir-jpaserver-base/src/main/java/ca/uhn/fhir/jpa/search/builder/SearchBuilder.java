@@ -60,6 +60,7 @@ import ca.uhn.fhir.jpa.search.builder.sql.GeneratedSql;
 import ca.uhn.fhir.jpa.search.builder.sql.SearchQueryBuilder;
 import ca.uhn.fhir.jpa.search.builder.sql.SearchQueryExecutor;
 import ca.uhn.fhir.jpa.search.builder.sql.SqlObjectFactory;
+import ca.uhn.fhir.jpa.search.builder.tasks.IncludeQueryExecutorSvc;
 import ca.uhn.fhir.jpa.search.lastn.IElasticsearchSvc;
 import ca.uhn.fhir.jpa.searchparam.SearchParameterMap;
 import ca.uhn.fhir.jpa.searchparam.util.Dstu3DistanceHelper;
@@ -127,6 +128,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ca.uhn.fhir.jpa.model.util.JpaConstants.UNDESIRED_RESOURCE_LINKAGES_FOR_EVERYTHING_ON_PATIENT_INSTANCE;
@@ -198,6 +200,9 @@ public class SearchBuilder implements ISearchBuilder<JpaPid> {
 	@Autowired
 	private IJpaStorageResourceParser myJpaStorageResourceParser;
 
+	@Autowired
+	private IncludeQueryExecutorSvc myIncludeQueryExecutorSvc;
+
 	/**
 	 * Constructor
 	 */
@@ -267,6 +272,10 @@ public class SearchBuilder implements ISearchBuilder<JpaPid> {
 				.filter(t -> !t.equals(IAnyResource.SP_RES_ID))
 				.filter(t -> !t.equals(Constants.PARAM_TAG))
 				.collect(Collectors.toList());
+		if (myStorageSettings.isSearchParameterOrderingEnabled()) {
+			paramNames = new SearchParameterOrderPlanner(mySearchParamRegistry)
+					.orderBySelectivity(myResourceName, paramNames, myParams::get);
+		}
 		if (myParams.containsKey(IAnyResource.SP_RES_ID)) {
 			paramNames.add(IAnyResource.SP_RES_ID);
 		}
@@ -1296,10 +1305,9 @@ public class SearchBuilder implements ISearchBuilder<JpaPid> {
 		String searchPidFieldName = reverseMode ? MY_TARGET_RESOURCE_PID : MY_SOURCE_RESOURCE_PID;
 		String findPidFieldName = reverseMode ? MY_SOURCE_RESOURCE_PID : MY_TARGET_RESOURCE_PID;
 		String findResourceTypeFieldName = reverseMode ? MY_SOURCE_RESOURCE_TYPE : MY_TARGET_RESOURCE_TYPE;
-		String findVersionFieldName = null;
-		if (!reverseMode && myStorageSettings.isRespectVersionsForSearchIncludes()) {
-			findVersionFieldName = MY_TARGET_RESOURCE_VERSION;
-		}
+		String findVersionFieldName = !reverseMode && myStorageSettings.isRespectVersionsForSearchIncludes()
+				? MY_TARGET_RESOURCE_VERSION
+				: null;
 
 		List<JpaPid> nextRoundMatches = new ArrayList<>(matches);
 		HashSet<JpaPid> allAdded = new HashSet<>();
@@ -1314,6 +1322,7 @@ public class SearchBuilder implements ISearchBuilder<JpaPid> {
 			roundCounts++;
 
 			HashSet<JpaPid> pidsToInclude = new HashSet<>();
+			List<Function<EntityManager, List<JpaPid>>> includeQueries = new ArrayList<>();
 
 			for (Iterator<Include> iter = includes.iterator(); iter.hasNext(); ) {
 				Include nextInclude = iter.next();
@@ -1384,40 +1393,46 @@ public class SearchBuilder implements ISearchBuilder<JpaPid> {
 					}
 
 					String sql = sqlBuilder.toString();
+					String finalWantResourceType = wantResourceType;
 					List<Collection<JpaPid>> partitions = partition(nextRoundMatches, getMaximumPageSize());
 					for (Collection<JpaPid> nextPartition : partitions) {
-						TypedQuery<?> q = entityManager.createQuery(sql, Object[].class);
-						q.setParameter("target_pids", JpaPid.toLongList(nextPartition));
-						if (wantResourceType != null) {
-							q.setParameter("want_resource_type", wantResourceType);
-						}
-						if (maxCount != null) {
-							q.setMaxResults(maxCount);
-						}
-						if (hasDesiredResourceTypes) {
-							q.setParameter("desired_target_resource_types", desiredResourceTypes);
-						}
-						List<?> results = q.getResultList();
-						for (Object nextRow : results) {
-							if (nextRow == null) {
-								// This can happen if there are outgoing references which are canonical or point to
-								// other servers
-								continue;
+						List<Long> targetPids = JpaPid.toLongList(nextPartition);
+						includeQueries.add(em -> {
+							TypedQuery<?> q = em.createQuery(sql, Object[].class);
+							q.setParameter("target_pids", targetPids);
+							if (finalWantResourceType != null) {
+								q.setParameter("want_resource_type", finalWantResourceType);
 							}
-
-							Long version = null;
-							Long resourceLink = (Long) ((Object[]) nextRow)[0];
-							String resourceType = (String) ((Object[]) nextRow)[1];
-							if (findVersionFieldName != null) {
-								version = (Long) ((Object[]) nextRow)[2];
+							if (maxCount != null) {
+								q.setMaxResults(maxCount);
+							}
+							if (hasDesiredResourceTypes) {
+								q.setParameter("desired_target_resource_types", desiredResourceTypes);
 							}
+							List<?> results = q.getResultList();
+							List<JpaPid> retVal = new ArrayList<>(results.size());
+							for (Object nextRow : results) {
+								if (nextRow == null) {
+									// This can happen if there are outgoing references which are canonical or point
+									// to other servers
+									continue;
+								}
+
+								Long version = null;
+								Long resourceLink = (Long) ((Object[]) nextRow)[0];
+								String resourceType = (String) ((Object[]) nextRow)[1];
+								if (findVersionFieldName != null) {
+									version = (Long) ((Object[]) nextRow)[2];
+								}
 
-							if (resourceLink != null) {
-								JpaPid pid =
-										JpaPid.fromIdAndVersionAndResourceType(resourceLink, version, resourceType);
-								pidsToInclude.add(pid);
+								if (resourceLink != null) {
+									JpaPid pid =
+											JpaPid.fromIdAndVersionAndResourceType(resourceLink, version, resourceType);
+									retVal.add(pid);
+								}
 							}
-						}
+							return retVal;
+						});
 					}
 				} else {
 					List<String> paths;
@@ -1500,33 +1515,59 @@ public class SearchBuilder implements ISearchBuilder<JpaPid> {
 
 						List<Collection<JpaPid>> partitions = partition(nextRoundMatches, getMaximumPageSize());
 						for (Collection<JpaPid> nextPartition : partitions) {
-							Query q = entityManager.createNativeQuery(sql, Tuple.class);
-							q.setParameter("target_pids", JpaPid.toLongList(nextPartition));
-							localReferenceQueryParams.forEach(q::setParameter);
-							canonicalQuery.getRight().forEach(q::setParameter);
-
-							if (maxCount != null) {
-								q.setMaxResults(maxCount);
-							}
-							@SuppressWarnings("unchecked")
-							List<Tuple> results = q.getResultList();
-							for (Tuple result : results) {
-								if (result != null) {
-									Long resourceId =
-											NumberUtils.createLong(String.valueOf(result.get(RESOURCE_ID_ALIAS)));
-									Long resourceVersion = null;
-									if (findVersionFieldName != null && result.get(RESOURCE_VERSION_ALIAS) != null) {
-										resourceVersion = NumberUtils.createLong(
-												String.valueOf(result.get(RESOURCE_VERSION_ALIAS)));
+							List<Long> targetPids = JpaPid.toLongList(nextPartition);
+							includeQueries.add(em -> {
+								Query q = em.createNativeQuery(sql, Tuple.class);
+								q.setParameter("target_pids", targetPids);
+								localReferenceQueryParams.forEach(q::setParameter);
+								canonicalQuery.getRight().forEach(q::setParameter);
+
+								if (maxCount != null) {
+									q.setMaxResults(maxCount);
+								}
+								@SuppressWarnings("unchecked")
+								List<Tuple> results = q.getResultList();
+								List<JpaPid> retVal = new ArrayList<>(results.size());
+								for (Tuple result : results) {
+									if (result != null) {
+										Long resourceId =
+												NumberUtils.createLong(String.valueOf(result.get(RESOURCE_ID_ALIAS)));
+										Long resourceVersion = null;
+										if (findVersionFieldName != null
+												&& result.get(RESOURCE_VERSION_ALIAS) != null) {
+											resourceVersion = NumberUtils.createLong(
+													String.valueOf(result.get(RESOURCE_VERSION_ALIAS)));
+										}
+										retVal.add(JpaPid.fromIdAndVersion(resourceId, resourceVersion));
 									}
-									pidsToInclude.add(JpaPid.fromIdAndVersion(resourceId, resourceVersion));
 								}
-							}
+								return retVal;
+							});
 						}
 					}
 				}
 			}
 
+			/*
+			 * The queries for all include parameters, paths and PID batches in this round are independent
+			 * of each other, so they can run concurrently if include loading threads are configured. Raw SQL
+			 * capture only sees queries on the current thread, so they run here when it is active.
+			 */
+			List<List<JpaPid>> includeQueryResults;
+			if (includeQueries.size() > 1
+					&& myIncludeQueryExecutorSvc.isEnabled()
+					&& !CompositeInterceptorBroadcaster.hasHooks(
+							Pointcut.JPA_PERFTRACE_RAW_SQL, myInterceptorBroadcaster, request)) {
+				includeQueryResults = myIncludeQueryExecutorSvc.executeAll(
+						myRequestPartitionId, entityManager, includeQueries);
+			} else {
+				includeQueryResults = new ArrayList<>(includeQueries.size());
+				for (Function<EntityManager, List<JpaPid>> nextQuery : includeQueries) {
+					includeQueryResults.add(nextQuery.apply(entityManager));
+				}
+			}
+			includeQueryResults.forEach(pidsToInclude::addAll);
+
 			nextRoundMatches.clear();
 			for (JpaPid next : pidsToInclude) {
 				if (!original.contains(next) && !allAdded.contains(next)) {
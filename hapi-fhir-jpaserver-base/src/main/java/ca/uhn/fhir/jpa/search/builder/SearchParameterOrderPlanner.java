@@ -0,0 +1,172 @@
+/*-
+ * #%L
+ * HAPI FHIR JPA Server
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.search.builder;
+
+import ca.uhn.fhir.context.RuntimeSearchParam;
+import ca.uhn.fhir.model.api.IQueryParameterType;
+import ca.uhn.fhir.rest.param.BaseParamWithPrefix;
+import ca.uhn.fhir.rest.param.ParamPrefixEnum;
+import ca.uhn.fhir.rest.param.ReferenceParam;
+import ca.uhn.fhir.rest.param.StringParam;
+import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.util.ISearchParamRegistry;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Orders the parameters of a search so that the ones which are likely to match the fewest
+ * resources are added to the SQL first. The first parameter becomes the root of the generated
+ * query and all others are joined to it, so starting from a selective predicate keeps the
+ * intermediate result small on databases which follow the join order they are given.
+ * <p>
+ * The estimate is a simple ranking based on the search parameter type, the modifiers and
+ * prefixes used, and the number of OR values, since no per-index statistics are available
+ * at query building time. Parameters with the same estimate keep the order they were
+ * supplied in.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public class SearchParameterOrderPlanner {
+
+	private static final int COST_EXACT_TOKEN = 0;
+	private static final int COST_TOKEN = 1;
+	private static final int COST_EXACT = 2;
+	private static final int COST_STRING = 3;
+	private static final int COST_RANGE = 4;
+	private static final int COST_BROAD = 5;
+	private static final int COST_UNKNOWN = 6;
+
+	private final ISearchParamRegistry mySearchParamRegistry;
+
+	public SearchParameterOrderPlanner(ISearchParamRegistry theSearchParamRegistry) {
+		mySearchParamRegistry = theSearchParamRegistry;
+	}
+
+	/**
+	 * Returns a new list containing the given parameter names, most selective first
+	 */
+	public List<String> orderBySelectivity(
+			String theResourceName,
+			List<String> theParamNames,
+			Function<String, List<List<IQueryParameterType>>> theAndOrParamsSupplier) {
+		Map<String, Integer> costs = new HashMap<>();
+		for (String nextParamName : theParamNames) {
+			RuntimeSearchParam searchParam = mySearchParamRegistry.getActiveSearchParam(theResourceName, nextParamName);
+			costs.put(nextParamName, estimateCost(searchParam, theAndOrParamsSupplier.apply(nextParamName)));
+		}
+
+		// List.sort is stable, so parameters with equal cost keep their original order
+		List<String> retVal = new ArrayList<>(theParamNames);
+		retVal.sort(Comparator.comparing(costs::get));
+		return retVal;
+	}
+
+	/**
+	 * Each AND group becomes its own predicate, so the cheapest group determines how selective
+	 * the parameter is as a whole. Within a group every OR value widens the match, so the group
+	 * costs as much as its broadest value plus a small penalty per extra value.
+	 */
+	static int estimateCost(RuntimeSearchParam theSearchParam, List<List<IQueryParameterType>> theAndOrParams) {
+		if (theSearchParam == null || theAndOrParams == null || theAndOrParams.isEmpty()) {
+			return COST_UNKNOWN * 10;
+		}
+
+		int retVal = Integer.MAX_VALUE;
+		for (List<IQueryParameterType> nextOrList : theAndOrParams) {
+			int orCost = 0;
+			for (IQueryParameterType nextOr : nextOrList) {
+				orCost = Math.max(orCost, estimateValueCost(theSearchParam, nextOr));
+			}
+			orCost = orCost * 10 + Math.min(nextOrList.size() - 1, 9);
+			retVal = Math.min(retVal, orCost);
+		}
+		return retVal;
+	}
+
+	private static int estimateValueCost(RuntimeSearchParam theSearchParam, IQueryParameterType theParam) {
+		if (theParam.getMissing() != null) {
+			return COST_BROAD;
+		}
+		if (StringUtils.isNotBlank(theParam.getQueryParameterQualifier())
+				&& !(theParam instanceof StringParam)
+				&& !(theParam instanceof ReferenceParam)) {
+			// :not, :text, :in, :below and similar modifiers match large parts of the table
+			return COST_BROAD;
+		}
+
+		switch (theSearchParam.getParamType()) {
+			case TOKEN:
+				if (theParam instanceof TokenParam) {
+					TokenParam tokenParam = (TokenParam) theParam;
+					if (StringUtils.isNotBlank(tokenParam.getSystem())
+							&& StringUtils.isNotBlank(tokenParam.getValue())) {
+						return COST_EXACT_TOKEN;
+					}
+					if (StringUtils.isBlank(tokenParam.getValue())) {
+						return COST_BROAD;
+					}
+				}
+				return COST_TOKEN;
+			case REFERENCE:
+				if (theParam instanceof ReferenceParam
+						&& StringUtils.isNotBlank(((ReferenceParam) theParam).getChain())) {
+					// Chains are resolved through a sub-select on the target resource type
+					return COST_BROAD;
+				}
+				return COST_TOKEN;
+			case URI:
+				return COST_EXACT;
+			case STRING:
+				if (theParam instanceof StringParam) {
+					StringParam stringParam = (StringParam) theParam;
+					if (stringParam.isExact()) {
+						return COST_EXACT;
+					}
+					if (stringParam.isContains() || stringParam.isText()) {
+						return COST_BROAD;
+					}
+				}
+				return COST_STRING;
+			case NUMBER:
+			case QUANTITY:
+			case DATE:
+				if (theParam instanceof BaseParamWithPrefix) {
+					ParamPrefixEnum prefix = ((BaseParamWithPrefix<?>) theParam).getPrefix();
+					if (prefix == null || prefix == ParamPrefixEnum.EQUAL) {
+						return COST_STRING;
+					}
+				}
+				return COST_RANGE;
+			case COMPOSITE:
+				return COST_STRING;
+			case HAS:
+			case SPECIAL:
+			default:
+				return COST_BROAD;
+		}
+	}
+}
@@ -36,15 +36,21 @@ import ca.uhn.fhir.jpa.api.dao.DaoRegistry;
 import ca.uhn.fhir.jpa.api.dao.IDao;
 import ca.uhn.fhir.jpa.api.svc.IIdHelperService;
 import ca.uhn.fhir.jpa.dao.BaseStorageDao;
+import ca.uhn.fhir.jpa.dao.IResultIterator;
+import ca.uhn.fhir.jpa.dao.ISearchBuilder;
+import ca.uhn.fhir.jpa.dao.SearchBuilderFactory;
 import ca.uhn.fhir.jpa.dao.predicate.SearchFilterParser;
 import ca.uhn.fhir.jpa.model.dao.JpaPid;
+import ca.uhn.fhir.jpa.model.search.SearchRuntimeDetails;
 import ca.uhn.fhir.jpa.model.search.StorageProcessingMessage;
 import ca.uhn.fhir.jpa.search.SearchCoordinatorSvcImpl;
 import ca.uhn.fhir.jpa.search.builder.QueryStack;
+import ca.uhn.fhir.jpa.search.builder.SearchBuilder;
 import ca.uhn.fhir.jpa.search.builder.models.MissingQueryParameterPredicateParams;
 import ca.uhn.fhir.jpa.search.builder.sql.SearchQueryBuilder;
 import ca.uhn.fhir.jpa.searchparam.MatchUrlService;
 import ca.uhn.fhir.jpa.searchparam.ResourceMetaParams;
+import ca.uhn.fhir.jpa.searchparam.SearchParameterMap;
 import ca.uhn.fhir.jpa.util.QueryParameterUtils;
 import ca.uhn.fhir.model.api.IQueryParameterType;
 import ca.uhn.fhir.model.primitive.IdDt;
@@ -76,6 +82,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -84,6 +91,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static ca.uhn.fhir.jpa.search.builder.QueryStack.SearchForIdsParams.with;
@@ -120,6 +128,9 @@ public class ResourceLinkPredicateBuilder extends BaseJoiningPredicateBuilder im
 	@Autowired
 	private MatchUrlService myMatchUrlService;
 
+	@Autowired
+	private SearchBuilderFactory<JpaPid> mySearchBuilderFactory;
+
 	/**
 	 * Constructor
 	 */
@@ -455,14 +466,22 @@ public class ResourceLinkPredicateBuilder extends BaseJoiningPredicateBuilder im
 
 			List<Condition> andPredicates = new ArrayList<>();
 
-			List<List<IQueryParameterType>> chainParamValues = Collections.singletonList(orValues);
-			andPredicates.add(
-					childQueryFactory.searchForIdsWithAndOr(with().setSourceJoinColumn(myColumnTargetResourceId)
-							.setResourceName(subResourceName)
-							.setParamName(chain)
-							.setAndOrParams(chainParamValues)
-							.setRequest(theRequest)
-							.setRequestPartitionId(theRequestPartitionId)));
+			Condition chainPredicate = null;
+			if (!paramInverted) {
+				chainPredicate = createPredicateForPreResolvedTargets(
+						myColumnTargetResourceId, subResourceName, chain, orValues, theRequest, theRequestPartitionId);
+			}
+			if (chainPredicate == null) {
+				List<List<IQueryParameterType>> chainParamValues = Collections.singletonList(orValues);
+				chainPredicate =
+						childQueryFactory.searchForIdsWithAndOr(with().setSourceJoinColumn(myColumnTargetResourceId)
+								.setResourceName(subResourceName)
+								.setParamName(chain)
+								.setAndOrParams(chainParamValues)
+								.setRequest(theRequest)
+								.setRequestPartitionId(theRequestPartitionId));
+			}
+			andPredicates.add(chainPredicate);
 
 			orPredicates.add(QueryParameterUtils.toAndPredicate(andPredicates));
 		}
@@ -494,6 +513,76 @@ public class ResourceLinkPredicateBuilder extends BaseJoiningPredicateBuilder im
 		return QueryParameterUtils.toAndPredicate(pathPredicate, multiTypePredicate);
 	}
 
+	/**
+	 * If {@link JpaStorageSettings#getChainedSearchPreResolutionThreshold() chained search pre-resolution}
+	 * is enabled, searches the target resource type for the given chained parameter values in a separate
+	 * query and returns a predicate matching the given column against the resulting PIDs. Returns
+	 * <code>null</code> if pre-resolution is disabled, if the separate query matched more resources
+	 * than the threshold, or if it could not be completed, in which case the caller should fall back
+	 * to a sub-select.
+	 */
+	@Nullable
+	public Condition createPredicateForPreResolvedTargets(
+			DbColumn theJoinColumn,
+			String theTargetResourceType,
+			String theParamName,
+			List<IQueryParameterType> theOrValues,
+			RequestDetails theRequest,
+			RequestPartitionId theRequestPartitionId) {
+		// The PIDs go into a single IN list, so keep it within the size used for chunked PID queries
+		int threshold = Math.min(
+				myStorageSettings.getChainedSearchPreResolutionThreshold(), SearchBuilder.getMaximumPageSize());
+		if (threshold <= 0) {
+			return null;
+		}
+
+		IDao dao = myDaoRegistry.getResourceDao(theTargetResourceType);
+		if (dao == null) {
+			return null;
+		}
+
+		SearchParameterMap params = SearchParameterMap.newSynchronous();
+		params.put(theParamName, Collections.singletonList(theOrValues));
+		params.setLoadSynchronousUpTo(threshold + 1);
+
+		Class<? extends IBaseResource> targetType =
+				getFhirContext().getResourceDefinition(theTargetResourceType).getImplementingClass();
+		ISearchBuilder<JpaPid> builder =
+				mySearchBuilderFactory.newSearchBuilder(dao, theTargetResourceType, targetType);
+		SearchRuntimeDetails searchRuntimeDetails =
+				new SearchRuntimeDetails(theRequest, UUID.randomUUID().toString());
+
+		List<Long> targetPids = new ArrayList<>();
+		try (IResultIterator<JpaPid> iter =
+				builder.createQuery(params, searchRuntimeDetails, theRequest, theRequestPartitionId)) {
+			while (iter.hasNext()) {
+				if (targetPids.size() >= threshold) {
+					ourLog.debug(
+							"Chained parameter {}:{} matches more than {} resources, using a sub-select",
+							theTargetResourceType,
+							theParamName,
+							threshold);
+					return null;
+				}
+				targetPids.add(iter.next().getId());
+			}
+		} catch (IOException e) {
+			// The PIDs collected so far may be incomplete, so let the caller use a sub-select instead
+			ourLog.warn(
+					"Failed to pre-resolve chained parameter {}:{}, using a sub-select",
+					theTargetResourceType,
+					theParamName,
+					e);
+			return null;
+		}
+
+		if (targetPids.isEmpty()) {
+			// No resource has a PID of -1, so this matches nothing without affecting other OR branches
+			targetPids.add(-1L);
+		}
+		return QueryParameterUtils.toEqualToOrInPredicate(theJoinColumn, generatePlaceholders(targetPids));
+	}
+
 	@Nonnull
 	private List<String> determineCandidateResourceTypesForChain(
 			String theResourceName, String theParamName, ReferenceParam theReferenceParam) {
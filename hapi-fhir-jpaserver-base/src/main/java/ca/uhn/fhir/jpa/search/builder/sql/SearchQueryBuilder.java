@@ -77,7 +77,6 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import static ca.uhn.fhir.rest.param.ParamPrefixEnum.GREATERTHAN;
 import static ca.uhn.fhir.rest.param.ParamPrefixEnum.GREATERTHAN_OR_EQUALS;
@@ -89,6 +88,13 @@ import static org.apache.commons.lang3.ObjectUtils.defaultIfNull;
 public class SearchQueryBuilder {
 
 	private static final Logger ourLog = LoggerFactory.getLogger(SearchQueryBuilder.class);
+
+	/**
+	 * Lists larger than this are not padded, so that padding can never push an <code>IN</code> list
+	 * over the 1000 element limit imposed by some databases (e.g. Oracle)
+	 */
+	private static final int MAX_PADDED_IN_CLAUSE_SIZE = 512;
+
 	private final String myBindVariableSubstitutionBase;
 	private final ArrayList<Object> myBindVariableValues;
 	private final DbSpec mySpec;
@@ -480,20 +486,7 @@ public class SearchQueryBuilder {
 		String sql = mySelect.toString();
 
 		List<Object> bindVariables = new ArrayList<>();
-		while (true) {
-
-			int idx = sql.indexOf(myBindVariableSubstitutionBase);
-			if (idx == -1) {
-				break;
-			}
-
-			int endIdx = sql.indexOf("'", idx + myBindVariableSubstitutionBase.length());
-			String substitutionIndexString = sql.substring(idx + myBindVariableSubstitutionBase.length(), endIdx);
-			int substitutionIndex = Integer.parseInt(substitutionIndexString);
-			bindVariables.add(myBindVariableValues.get(substitutionIndex));
-
-			sql = sql.substring(0, idx - 1) + "?" + sql.substring(endIdx + 1);
-		}
+		sql = substituteBindVariables(sql, bindVariables);
 
 		Integer maxResultsToFetch = theMaxResultsToFetch;
 		Integer offset = theOffset;
@@ -586,6 +579,33 @@ public class SearchQueryBuilder {
 		return new GeneratedSql(myMatchNothing, sql, bindVariables);
 	}
 
+	/**
+	 * Replaces each quoted placeholder in the SQL with a <code>?</code> and adds the corresponding
+	 * value to {@literal theBindVariables}. This is done in a single pass over the SQL since
+	 * queries with large <code>IN</code> lists can contain thousands of placeholders.
+	 */
+	private String substituteBindVariables(String theSql, List<Object> theBindVariables) {
+		int baseLength = myBindVariableSubstitutionBase.length();
+		StringBuilder retVal = new StringBuilder(theSql.length());
+		int copyFrom = 0;
+		while (true) {
+
+			int idx = theSql.indexOf(myBindVariableSubstitutionBase, copyFrom);
+			if (idx == -1) {
+				break;
+			}
+
+			int endIdx = theSql.indexOf('\'', idx + baseLength);
+			int substitutionIndex = Integer.parseInt(theSql, idx + baseLength, endIdx, 10);
+			theBindVariables.add(myBindVariableValues.get(substitutionIndex));
+
+			retVal.append(theSql, copyFrom, idx - 1).append('?');
+			copyFrom = endIdx + 1;
+		}
+		retVal.append(theSql, copyFrom, theSql.length());
+		return retVal.toString();
+	}
+
 	private int bindCountParameter(
 			List<Object> bindVariables,
 			Integer maxResultsToFetch,
@@ -665,8 +685,26 @@ public class SearchQueryBuilder {
 		return placeholder;
 	}
 
+	/**
+	 * Generates a placeholder for each value. These are used to build <code>IN</code> (or equals)
+	 * predicates, so if {@link StorageSettings#isInClauseParameterPaddingEnabled()} is set, the list is
+	 * padded by repeating the last placeholder until its size is a power of two.
+	 */
 	public List<String> generatePlaceholders(Collection<?> theValues) {
-		return theValues.stream().map(this::generatePlaceholder).collect(Collectors.toList());
+		List<String> retVal = new ArrayList<>(theValues.size());
+		for (Object next : theValues) {
+			retVal.add(generatePlaceholder(next));
+		}
+
+		int size = retVal.size();
+		if (size > 1 && size <= MAX_PADDED_IN_CLAUSE_SIZE && myStorageSettings.isInClauseParameterPaddingEnabled()) {
+			int paddedSize = Integer.highestOneBit(size - 1) << 1;
+			String lastPlaceholder = retVal.get(size - 1);
+			while (retVal.size() < paddedSize) {
+				retVal.add(lastPlaceholder);
+			}
+		}
+		return retVal;
 	}
 
 	public int countBindVariables() {
@@ -0,0 +1,188 @@
+/*-
+ * #%L
+ * HAPI FHIR JPA Server
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.search.builder.tasks;
+
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.interceptor.model.RequestPartitionId;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.jpa.dao.tx.IHapiTransactionService;
+import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
+import ca.uhn.fhir.util.ResizableThreadPool;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceContextType;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs the queries for a round of <code>_include</code> / <code>_revinclude</code> loading concurrently
+ * when {@link JpaStorageSettings#getIncludeLoadingThreadCount() include loading threads} are configured.
+ * <p>
+ * The calling thread runs queries too, using its own {@link EntityManager}, and helper tasks on a shared
+ * pool pick up the remaining ones, each in its own read-only transaction. A helper only claims a query
+ * once it holds a database connection, and the caller only waits for queries which have been claimed.
+ * So a caller which holds a connection never waits on a helper which is still waiting for one, and the
+ * search completes on the calling thread alone if the connection pool is exhausted.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public class IncludeQueryExecutorSvc {
+	private static final Logger ourLog = LoggerFactory.getLogger(IncludeQueryExecutorSvc.class);
+
+	@Autowired
+	private JpaStorageSettings myStorageSettings;
+
+	@Autowired
+	private IHapiTransactionService myTxService;
+
+	@PersistenceContext(type = PersistenceContextType.TRANSACTION)
+	private EntityManager myEntityManager;
+
+	private final ResizableThreadPool myThreadPool =
+			new ResizableThreadPool("include-loader-", () -> myStorageSettings.getIncludeLoadingThreadCount());
+
+	/**
+	 * Returns <code>true</code> if queries can be run concurrently from the current thread. The helper
+	 * queries run in their own transactions, so they would not see uncommitted changes made by a write
+	 * transaction (e.g. a search inside a FHIR transaction), and are only run concurrently when there
+	 * is no active transaction or the active transaction is read-only.
+	 */
+	public boolean isEnabled() {
+		return myStorageSettings.getIncludeLoadingThreadCount() > 0
+				&& (!TransactionSynchronizationManager.isActualTransactionActive()
+						|| TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+	}
+
+	/**
+	 * Runs the given queries, on the calling thread using <code>theEntityManager</code> and concurrently
+	 * on the include loading pool, and returns their results in the same order as the queries
+	 */
+	public <T> List<T> executeAll(
+			RequestPartitionId theRequestPartitionId,
+			EntityManager theEntityManager,
+			List<Function<EntityManager, T>> theQueries) {
+		PendingQueries<T> pendingQueries = new PendingQueries<>(theQueries);
+
+		try (ResizableThreadPool.Lease lease = myThreadPool.lease()) {
+			int helperCount = Math.min(theQueries.size() - 1, myStorageSettings.getIncludeLoadingThreadCount());
+			for (int i = 0; i < helperCount; i++) {
+				lease.execute(() -> runHelper(theRequestPartitionId, pendingQueries));
+			}
+		}
+
+		pendingQueries.runAll(theEntityManager);
+		return pendingQueries.awaitResults();
+	}
+
+	private <T> void runHelper(RequestPartitionId theRequestPartitionId, PendingQueries<T> thePendingQueries) {
+		if (thePendingQueries.isAllClaimed()) {
+			return;
+		}
+		try {
+			myTxService
+					.withSystemRequestOnPartition(theRequestPartitionId)
+					.readOnly()
+					.execute(() -> {
+						// Make sure we hold a connection before claiming anything, since the caller
+						// waits for every query which has been claimed
+						myEntityManager.unwrap(Session.class).doWork(theConnection -> {});
+						thePendingQueries.runAll(myEntityManager);
+					});
+		} catch (RuntimeException e) {
+			// Any query which was claimed has recorded its own failure for the caller
+			ourLog.warn("Failed to run include loading helper: {}", e.toString());
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		myThreadPool.shutdown();
+	}
+
+	private static class PendingQueries<T> {
+
+		private final List<Function<EntityManager, T>> myQueries;
+		private final AtomicInteger myNextIndex = new AtomicInteger(0);
+		private final Object[] myResults;
+		private final Throwable[] myFailures;
+		private final CountDownLatch myRemaining;
+
+		private PendingQueries(List<Function<EntityManager, T>> theQueries) {
+			myQueries = theQueries;
+			myResults = new Object[theQueries.size()];
+			myFailures = new Throwable[theQueries.size()];
+			myRemaining = new CountDownLatch(theQueries.size());
+		}
+
+		private boolean isAllClaimed() {
+			return myNextIndex.get() >= myQueries.size();
+		}
+
+		/**
+		 * Claims and runs queries until none are left
+		 */
+		private void runAll(EntityManager theEntityManager) {
+			for (int index = myNextIndex.getAndIncrement();
+					index < myQueries.size();
+					index = myNextIndex.getAndIncrement()) {
+				try {
+					myResults[index] = myQueries.get(index).apply(theEntityManager);
+				} catch (RuntimeException | Error e) {
+					myFailures[index] = e;
+				} finally {
+					myRemaining.countDown();
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private List<T> awaitResults() {
+			try {
+				myRemaining.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InternalErrorException(Msg.code(2496) + "Interrupted while loading includes", e);
+			}
+
+			List<T> retVal = new ArrayList<>(myQueries.size());
+			for (int i = 0; i < myQueries.size(); i++) {
+				if (myFailures[i] instanceof RuntimeException) {
+					throw (RuntimeException) myFailures[i];
+				}
+				if (myFailures[i] instanceof Error) {
+					throw (Error) myFailures[i];
+				}
+				retVal.add((T) myResults[i]);
+			}
+			return retVal;
+		}
+	}
+}
@@ -67,6 +67,7 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 import static ca.uhn.fhir.jpa.util.SearchParameterMapCalculator.isWantCount;
@@ -98,6 +99,13 @@ public class SearchTask implements Callable<Void> {
 	private final IDao myCallingDao;
 	private final String myResourceType;
 	private final ArrayList<JpaPid> mySyncedPids = new ArrayList<>();
+	/**
+	 * Guards {@link #mySyncedPids}. This is a lock rather than a monitor so that
+	 * searches running on virtual threads don't pin their carrier thread while
+	 * waiting on each other.
+	 */
+	private final ReentrantLock mySyncedPidsLock = new ReentrantLock();
+
 	private final CountDownLatch myInitialCollectionLatch = new CountDownLatch(1);
 	private final CountDownLatch myCompletionLatch;
 	private final ArrayList<JpaPid> myUnsyncedPids = new ArrayList<>();
@@ -212,7 +220,8 @@ public class SearchTask implements Callable<Void> {
 
 		boolean keepWaiting;
 		do {
-			synchronized (mySyncedPids) {
+			mySyncedPidsLock.lock();
+			try {
 				ourLog.trace("Search status is {}", mySearch.getStatus());
 				boolean haveEnoughResults = mySyncedPids.size() >= theToIndex;
 				if (!haveEnoughResults) {
@@ -239,6 +248,8 @@ public class SearchTask implements Callable<Void> {
 				} else {
 					keepWaiting = false;
 				}
+			} finally {
+				mySyncedPidsLock.unlock();
 			}
 
 			if (keepWaiting) {
@@ -253,7 +264,8 @@ public class SearchTask implements Callable<Void> {
 		ourLog.debug("Proceeding, as we have {} results", mySyncedPids.size());
 
 		ArrayList<JpaPid> retVal = new ArrayList<>();
-		synchronized (mySyncedPids) {
+		mySyncedPidsLock.lock();
+		try {
 			QueryParameterUtils.verifySearchHasntFailedOrThrowInternalErrorException(mySearch);
 
 			int toIndex = theToIndex;
@@ -263,6 +275,8 @@ public class SearchTask implements Callable<Void> {
 			for (int i = theFromIndex; i < toIndex; i++) {
 				retVal.add(mySyncedPids.get(i));
 			}
+		} finally {
+			mySyncedPidsLock.unlock();
 		}
 
 		ourLog.trace(
@@ -326,7 +340,8 @@ public class SearchTask implements Callable<Void> {
 					mySearchResultCacheSvc.storeResults(
 							mySearch, mySyncedPids, unsyncedPids, myRequest, getRequestPartitionId());
 
-					synchronized (mySyncedPids) {
+					mySyncedPidsLock.lock();
+					try {
 						int numSyncedThisPass = unsyncedPids.size();
 						ourLog.trace(
 								"Syncing {} search results - Have more: {}",
@@ -362,14 +377,19 @@ public class SearchTask implements Callable<Void> {
 								mySearch.setTotalCount(myCountSavedTotal - countBlocked);
 							}
 						}
+					} finally {
+						mySyncedPidsLock.unlock();
 					}
 
 					mySearch.setNumFound(myCountSavedTotal);
 					mySearch.setNumBlocked(mySearch.getNumBlocked() + countBlocked);
 
 					int numSynced;
-					synchronized (mySyncedPids) {
+					mySyncedPidsLock.lock();
+					try {
 						numSynced = mySyncedPids.size();
+					} finally {
+						mySyncedPidsLock.unlock();
 					}
 
 					if (myStorageSettings.getCountSearchResultsUpTo() == null
@@ -0,0 +1,453 @@
+/*-
+ * #%L
+ * HAPI FHIR JPA Server
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.term;
+
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.jpa.entity.TermValueSetConcept;
+import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A read-only, memory-mapped index over the concepts in a single pre-expanded ValueSet
+ * (i.e. the <code>TRM_VALUESET_CONCEPT</code> rows for one {@link ca.uhn.fhir.jpa.entity.TermValueSet}).
+ * Lookups read directly from the mapped file, so a large ValueSet does not occupy any heap.
+ * <p>
+ * The file contains:
+ * </p>
+ * <ul>
+ *    <li>A header identifying the TermValueSet and the expansion it was built from</li>
+ *    <li>The system, system version, code and display of every concept</li>
+ *    <li>A bloom filter over the system/code hashes, so that most codes which are not in the ValueSet are
+ *    rejected without searching</li>
+ *    <li>An array of system/code hashes, and an array of code hashes, each sorted for binary search and
+ *    pointing to the concept details</li>
+ *    <li>A sorted array of the hashes of every system found in the ValueSet</li>
+ * </ul>
+ * <p>
+ * Hash matches are always confirmed against the stored strings, so lookups are exact.
+ * Use {@link Builder} to create an index file, and {@link #open(Path)} to read one.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public class PreExpandedValueSetIndex {
+
+	private static final int MAGIC = 0x48565349;
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = 64;
+	private static final int INDEX_ENTRY_SIZE = 12;
+	private static final int BLOOM_BITS_PER_ENTRY = 10;
+	private static final int BLOOM_HASH_COUNT = 5;
+	private static final HashFunction SYSTEM_AND_CODE_HASH = Hashing.murmur3_128(0);
+	private static final HashFunction CODE_HASH = Hashing.murmur3_128(1);
+	private static final HashFunction SYSTEM_HASH = Hashing.murmur3_128(2);
+
+	private final MappedByteBuffer myBuffer;
+	private final long myTermValueSetPid;
+	private final long myExpansionTimestamp;
+	private final int myConceptCount;
+	private final int mySystemCount;
+	private final int myBloomWordCount;
+	private final int myBloomOffset;
+	private final int mySystemAndCodeIndexOffset;
+	private final int myCodeIndexOffset;
+	private final int mySystemsOffset;
+
+	private PreExpandedValueSetIndex(MappedByteBuffer theBuffer) {
+		myBuffer = theBuffer;
+		if (theBuffer.getInt(0) != MAGIC || theBuffer.getInt(4) != FORMAT_VERSION) {
+			throw new IllegalArgumentException(Msg.code(2488) + "Not a pre-expanded ValueSet index file");
+		}
+		myTermValueSetPid = theBuffer.getLong(8);
+		myExpansionTimestamp = theBuffer.getLong(16);
+		myConceptCount = theBuffer.getInt(24);
+		mySystemCount = theBuffer.getInt(28);
+		myBloomWordCount = theBuffer.getInt(32);
+		myBloomOffset = theBuffer.getInt(36);
+		mySystemAndCodeIndexOffset = theBuffer.getInt(40);
+		myCodeIndexOffset = theBuffer.getInt(44);
+		mySystemsOffset = theBuffer.getInt(48);
+	}
+
+	/**
+	 * The PID of the TermValueSet this index was built from
+	 */
+	public long getTermValueSetPid() {
+		return myTermValueSetPid;
+	}
+
+	/**
+	 * The expansion timestamp (in epoch millis) of the TermValueSet when this index was built
+	 */
+	public long getExpansionTimestamp() {
+		return myExpansionTimestamp;
+	}
+
+	public int getConceptCount() {
+		return myConceptCount;
+	}
+
+	/**
+	 * Returns the concepts with the given system and code, and also the given system version if
+	 * one is supplied. The returned objects are not attached to the persistence context.
+	 */
+	@Nonnull
+	public List<TermValueSetConcept> findBySystemAndCode(
+			@Nonnull String theSystem, @Nullable String theSystemVersion, @Nonnull String theCode) {
+		long hash = hashSystemAndCode(theSystem, theCode);
+		if (!bloomMightContain(hash)) {
+			return Collections.emptyList();
+		}
+
+		List<TermValueSetConcept> retVal = null;
+		int end = mySystemAndCodeIndexOffset + myConceptCount * INDEX_ENTRY_SIZE;
+		for (int pos = findFirst(mySystemAndCodeIndexOffset, myConceptCount, hash);
+				pos < end && myBuffer.getLong(pos) == hash;
+				pos += INDEX_ENTRY_SIZE) {
+			TermValueSetConcept concept = readConcept(myBuffer.getInt(pos + 8));
+			if (concept.getSystem().equals(theSystem)
+					&& concept.getCode().equals(theCode)
+					&& (theSystemVersion == null || theSystemVersion.equals(concept.getSystemVersion()))) {
+				if (retVal == null) {
+					retVal = new ArrayList<>(1);
+				}
+				retVal.add(concept);
+			}
+		}
+		return retVal != null ? retVal : Collections.emptyList();
+	}
+
+	/**
+	 * Returns the concepts with the given code, in any system. The returned objects are not
+	 * attached to the persistence context.
+	 */
+	@Nonnull
+	public List<TermValueSetConcept> findByCode(@Nonnull String theCode) {
+		long hash = hashCodeOnly(theCode);
+
+		List<TermValueSetConcept> retVal = null;
+		int end = myCodeIndexOffset + myConceptCount * INDEX_ENTRY_SIZE;
+		for (int pos = findFirst(myCodeIndexOffset, myConceptCount, hash);
+				pos < end && myBuffer.getLong(pos) == hash;
+				pos += INDEX_ENTRY_SIZE) {
+			TermValueSetConcept concept = readConcept(myBuffer.getInt(pos + 8));
+			if (concept.getCode().equals(theCode)) {
+				if (retVal == null) {
+					retVal = new ArrayList<>(1);
+				}
+				retVal.add(concept);
+			}
+		}
+		return retVal != null ? retVal : Collections.emptyList();
+	}
+
+	/**
+	 * Returns <code>true</code> if the ValueSet contains at least one code from the given system
+	 */
+	public boolean hasSystem(@Nullable String theSystem) {
+		if (theSystem == null) {
+			return false;
+		}
+		long hash = hashSystem(theSystem);
+		int low = 0;
+		int high = mySystemCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long midHash = myBuffer.getLong(mySystemsOffset + mid * 8);
+			if (midHash < hash) {
+				low = mid + 1;
+			} else if (midHash > hash) {
+				high = mid - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean bloomMightContain(long theHash) {
+		long bitCount = (long) myBloomWordCount * Long.SIZE;
+		int hash1 = (int) theHash;
+		int hash2 = (int) (theHash >>> 32);
+		for (int i = 1; i <= BLOOM_HASH_COUNT; i++) {
+			int combined = hash1 + i * hash2;
+			if (combined < 0) {
+				combined = ~combined;
+			}
+			long bit = combined % bitCount;
+			long word = myBuffer.getLong(myBloomOffset + (int) (bit >>> 6) * 8);
+			if ((word & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The position of the first index entry with the given hash, or of the first entry with a larger
+	 * hash if there is none
+	 */
+	private int findFirst(int theIndexOffset, int theCount, long theHash) {
+		int low = 0;
+		int high = theCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (myBuffer.getLong(theIndexOffset + mid * INDEX_ENTRY_SIZE) < theHash) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return theIndexOffset + low * INDEX_ENTRY_SIZE;
+	}
+
+	private TermValueSetConcept readConcept(int theOffset) {
+		int[] position = {theOffset};
+		String system = readString(position);
+		String systemVersion = readString(position);
+		String code = readString(position);
+		String display = readString(position);
+		return new TermValueSetConcept()
+				.setSystem(system)
+				.setSystemVersion(systemVersion)
+				.setCode(code)
+				.setDisplay(display);
+	}
+
+	private String readString(int[] thePosition) {
+		int length = myBuffer.getInt(thePosition[0]);
+		thePosition[0] += 4;
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = myBuffer.get(thePosition[0] + i);
+		}
+		thePosition[0] += length;
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Maps an existing index file into memory
+	 */
+	public static PreExpandedValueSetIndex open(Path theFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(theFile, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new PreExpandedValueSetIndex(buffer);
+		}
+	}
+
+	private static long hashSystemAndCode(String theSystem, String theCode) {
+		return SYSTEM_AND_CODE_HASH
+				.newHasher()
+				.putString(theSystem, StandardCharsets.UTF_8)
+				.putByte((byte) 0)
+				.putString(theCode, StandardCharsets.UTF_8)
+				.hash()
+				.asLong();
+	}
+
+	private static long hashCodeOnly(String theCode) {
+		return CODE_HASH.hashString(theCode, StandardCharsets.UTF_8).asLong();
+	}
+
+	private static long hashSystem(String theSystem) {
+		return SYSTEM_HASH.hashString(theSystem, StandardCharsets.UTF_8).asLong();
+	}
+
+	/**
+	 * Writes a new index file. Concept details are streamed to a temporary file as they are added,
+	 * and only the hashes are held in memory until {@link #build()} is called. The finished file is
+	 * then moved into place, replacing any existing index.
+	 */
+	public static class Builder implements AutoCloseable {
+
+		private final Path myFile;
+		private final Path myTempFile;
+		private final long myTermValueSetPid;
+		private final long myExpansionTimestamp;
+		private final DataOutputStream myOutput;
+		private final TreeSet<Long> mySystemHashes = new TreeSet<>();
+		private long[] mySystemAndCodeHashes = new long[1024];
+		private long[] myCodeHashes = new long[1024];
+		private int[] myOffsets = new int[1024];
+		private int myCount;
+		private boolean myBuilt;
+
+		public Builder(Path theFile, long theTermValueSetPid, long theExpansionTimestamp) throws IOException {
+			myFile = theFile;
+			myTermValueSetPid = theTermValueSetPid;
+			myExpansionTimestamp = theExpansionTimestamp;
+			myTempFile = Files.createTempFile(
+					theFile.getParent(), theFile.getFileName().toString(), ".tmp");
+			OutputStream outputStream = Files.newOutputStream(myTempFile);
+			myOutput = new DataOutputStream(new BufferedOutputStream(outputStream));
+			myOutput.write(new byte[HEADER_SIZE]);
+		}
+
+		public void addConcept(
+				@Nonnull String theSystem,
+				@Nullable String theSystemVersion,
+				@Nonnull String theCode,
+				@Nullable String theDisplay)
+				throws IOException {
+			if (myCount == myOffsets.length) {
+				int newLength = myCount * 2;
+				mySystemAndCodeHashes = Arrays.copyOf(mySystemAndCodeHashes, newLength);
+				myCodeHashes = Arrays.copyOf(myCodeHashes, newLength);
+				myOffsets = Arrays.copyOf(myOffsets, newLength);
+			}
+
+			mySystemAndCodeHashes[myCount] = hashSystemAndCode(theSystem, theCode);
+			myCodeHashes[myCount] = hashCodeOnly(theCode);
+			myOffsets[myCount] = myOutput.size();
+			mySystemHashes.add(hashSystem(theSystem));
+			myCount++;
+
+			writeString(theSystem);
+			writeString(theSystemVersion);
+			writeString(theCode);
+			writeString(theDisplay);
+			checkSize();
+		}
+
+		private void writeString(String theString) throws IOException {
+			if (theString == null) {
+				myOutput.writeInt(-1);
+			} else {
+				byte[] bytes = theString.getBytes(StandardCharsets.UTF_8);
+				myOutput.writeInt(bytes.length);
+				myOutput.write(bytes);
+			}
+		}
+
+		private void checkSize() {
+			// DataOutputStream#size() saturates at Integer.MAX_VALUE, and a single mapped buffer can't be larger
+			long projectedSize =
+					(long) myOutput.size() + (long) myCount * (INDEX_ENTRY_SIZE * 2 + 2) + 8L * mySystemHashes.size();
+			if (projectedSize >= Integer.MAX_VALUE) {
+				throw new InternalErrorException(
+						Msg.code(2489) + "Pre-expanded ValueSet index would exceed the maximum file size");
+			}
+		}
+
+		/**
+		 * Completes the index file and moves it into place
+		 */
+		public void build() throws IOException {
+			int bloomWordCount = Math.max(1, (int) (((long) myCount * BLOOM_BITS_PER_ENTRY + 63) / 64));
+			long[] bloom = new long[bloomWordCount];
+			for (int i = 0; i < myCount; i++) {
+				addToBloom(bloom, mySystemAndCodeHashes[i]);
+			}
+
+			int bloomOffset = myOutput.size();
+			for (long next : bloom) {
+				myOutput.writeLong(next);
+			}
+
+			int systemAndCodeIndexOffset = myOutput.size();
+			writeSortedIndex(mySystemAndCodeHashes);
+
+			int codeIndexOffset = myOutput.size();
+			writeSortedIndex(myCodeHashes);
+
+			int systemsOffset = myOutput.size();
+			for (Long next : mySystemHashes) {
+				myOutput.writeLong(next);
+			}
+			checkSize();
+			myOutput.close();
+
+			try (RandomAccessFile file = new RandomAccessFile(myTempFile.toFile(), "rw")) {
+				file.writeInt(MAGIC);
+				file.writeInt(FORMAT_VERSION);
+				file.writeLong(myTermValueSetPid);
+				file.writeLong(myExpansionTimestamp);
+				file.writeInt(myCount);
+				file.writeInt(mySystemHashes.size());
+				file.writeInt(bloomWordCount);
+				file.writeInt(bloomOffset);
+				file.writeInt(systemAndCodeIndexOffset);
+				file.writeInt(codeIndexOffset);
+				file.writeInt(systemsOffset);
+			}
+
+			Files.move(myTempFile, myFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			myBuilt = true;
+		}
+
+		private void addToBloom(long[] theBloom, long theHash) {
+			long bitCount = (long) theBloom.length * Long.SIZE;
+			int hash1 = (int) theHash;
+			int hash2 = (int) (theHash >>> 32);
+			for (int i = 1; i <= BLOOM_HASH_COUNT; i++) {
+				int combined = hash1 + i * hash2;
+				if (combined < 0) {
+					combined = ~combined;
+				}
+				long bit = combined % bitCount;
+				theBloom[(int) (bit >>> 6)] |= 1L << bit;
+			}
+		}
+
+		private void writeSortedIndex(long[] theHashes) throws IOException {
+			Integer[] order = new Integer[myCount];
+			for (int i = 0; i < myCount; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, (a, b) -> Long.compare(theHashes[a], theHashes[b]));
+			for (Integer next : order) {
+				myOutput.writeLong(theHashes[next]);
+				myOutput.writeInt(myOffsets[next]);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!myBuilt) {
+				myOutput.close();
+				Files.deleteIfExists(myTempFile);
+			}
+		}
+	}
+}
@@ -0,0 +1,266 @@
+/*-
+ * #%L
+ * HAPI FHIR JPA Server
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.term;
+
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.jpa.dao.data.ITermValueSetConceptDao;
+import ca.uhn.fhir.jpa.entity.TermValueSet;
+import ca.uhn.fhir.jpa.entity.TermValueSetPreExpansionStatusEnum;
+import ca.uhn.fhir.util.StopWatch;
+import jakarta.annotation.Nullable;
+import org.apache.commons.lang3.time.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Manages the {@link PreExpandedValueSetIndex memory-mapped indexes} of pre-expanded ValueSets, which are
+ * enabled by {@link JpaStorageSettings#setPreExpandedValueSetIndexDirectory(String)}.
+ * <p>
+ * Each index is tied to the expansion timestamp of its TermValueSet, so an index which was built from an
+ * older expansion (e.g. because the ValueSet was re-expanded by another server) is never used. Instead it is
+ * rebuilt the next time it is needed.
+ * </p>
+ * <p>
+ * If building an index fails, no further attempt is made for the same expansion until a backoff period
+ * (starting at one minute and doubling up to one hour) has passed, so that a persistent error (e.g. a full index directory) does not turn every validation into
+ * a full scan of the expansion.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public class PreExpandedValueSetIndexSvc {
+
+	private static final Logger ourLog = LoggerFactory.getLogger(PreExpandedValueSetIndexSvc.class);
+	private static final int FETCH_SIZE = 10000;
+	static final long INITIAL_FAILURE_BACKOFF_MILLIS = DateUtils.MILLIS_PER_MINUTE;
+	static final long MAX_FAILURE_BACKOFF_MILLIS = DateUtils.MILLIS_PER_HOUR;
+
+	private final ConcurrentHashMap<Long, PreExpandedValueSetIndex> myIndexes = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Long, FailedBuild> myFailedBuilds = new ConcurrentHashMap<>();
+	private final ReentrantLock myBuildLock = new ReentrantLock();
+
+	@Autowired
+	private JpaStorageSettings myStorageSettings;
+
+	@Autowired
+	private ITermValueSetConceptDao myValueSetConceptDao;
+
+	@Autowired
+	private PlatformTransactionManager myTxManager;
+
+	public boolean isEnabled() {
+		return myStorageSettings.getPreExpandedValueSetIndexDirectory() != null;
+	}
+
+	/**
+	 * Returns the index for the given TermValueSet, building it if it doesn't already exist for
+	 * the current expansion. Returns <code>null</code> if indexes are disabled, if the ValueSet is
+	 * not currently pre-expanded, or if the index could not be built (or a recent attempt to build
+	 * it for the current expansion failed).
+	 */
+	@Nullable
+	public PreExpandedValueSetIndex getIndex(TermValueSet theTermValueSet) {
+		if (!isEnabled() || theTermValueSet.getExpansionStatus() != TermValueSetPreExpansionStatusEnum.EXPANDED) {
+			return null;
+		}
+
+		long expansionTimestamp = getExpansionTimestamp(theTermValueSet);
+		PreExpandedValueSetIndex retVal = myIndexes.get(theTermValueSet.getId());
+		if (retVal != null && retVal.getExpansionTimestamp() == expansionTimestamp) {
+			return retVal;
+		}
+		if (isInFailureBackoff(theTermValueSet.getId(), expansionTimestamp)) {
+			return null;
+		}
+
+		myBuildLock.lock();
+		try {
+			retVal = myIndexes.get(theTermValueSet.getId());
+			if (retVal != null && retVal.getExpansionTimestamp() == expansionTimestamp) {
+				return retVal;
+			}
+			if (isInFailureBackoff(theTermValueSet.getId(), expansionTimestamp)) {
+				return null;
+			}
+
+			Path file = getIndexFile(theTermValueSet.getId());
+			if (Files.exists(file)) {
+				retVal = PreExpandedValueSetIndex.open(file);
+				if (retVal.getExpansionTimestamp() == expansionTimestamp) {
+					myIndexes.put(theTermValueSet.getId(), retVal);
+					return retVal;
+				}
+			}
+
+			return buildIndex(theTermValueSet.getId(), expansionTimestamp);
+		} catch (Exception e) {
+			FailedBuild failedBuild = recordFailure(theTermValueSet.getId(), expansionTimestamp);
+			ourLog.warn(
+					"Failed to load index for pre-expanded ValueSet {}, falling back to the database for {}ms: {}",
+					theTermValueSet.getUrl(),
+					failedBuild.myBackoffMillis,
+					e.toString());
+			return null;
+		} finally {
+			myBuildLock.unlock();
+		}
+	}
+
+	/**
+	 * (Re)builds the index for the given TermValueSet. This is called after the ValueSet has been pre-expanded.
+	 */
+	public void buildIndex(TermValueSet theTermValueSet) {
+		if (!isEnabled()) {
+			return;
+		}
+
+		long expansionTimestamp = getExpansionTimestamp(theTermValueSet);
+		myBuildLock.lock();
+		try {
+			buildIndex(theTermValueSet.getId(), expansionTimestamp);
+		} catch (Exception e) {
+			recordFailure(theTermValueSet.getId(), expansionTimestamp);
+			ourLog.warn(
+					"Failed to build index for pre-expanded ValueSet {}: {}", theTermValueSet.getUrl(), e.toString());
+		} finally {
+			myBuildLock.unlock();
+		}
+	}
+
+	private PreExpandedValueSetIndex buildIndex(Long theTermValueSetPid, long theExpansionTimestamp)
+			throws IOException {
+		assert myBuildLock.isHeldByCurrentThread();
+		StopWatch sw = new StopWatch();
+
+		Path file = getIndexFile(theTermValueSetPid);
+		Files.createDirectories(file.getParent());
+		try (PreExpandedValueSetIndex.Builder builder =
+				new PreExpandedValueSetIndex.Builder(file, theTermValueSetPid, theExpansionTimestamp)) {
+			TransactionTemplate txTemplate = new TransactionTemplate(myTxManager);
+			txTemplate.setReadOnly(true);
+
+			long afterId = -1;
+			while (true) {
+				long nextAfterId = afterId;
+				List<Object[]> page =
+						txTemplate.execute(t -> myValueSetConceptDao.findConceptDetailsByTermValueSetIdAfterId(
+								Pageable.ofSize(FETCH_SIZE), theTermValueSetPid, nextAfterId));
+				assert page != null;
+				for (Object[] next : page) {
+					afterId = (Long) next[0];
+					builder.addConcept((String) next[1], (String) next[2], (String) next[3], (String) next[4]);
+				}
+				if (page.size() < FETCH_SIZE) {
+					break;
+				}
+			}
+
+			builder.build();
+		}
+
+		PreExpandedValueSetIndex retVal = PreExpandedValueSetIndex.open(file);
+		myIndexes.put(theTermValueSetPid, retVal);
+		myFailedBuilds.remove(theTermValueSetPid);
+		ourLog.info(
+				"Built index for pre-expanded TermValueSet[{}] with {} concepts in {}",
+				theTermValueSetPid,
+				retVal.getConceptCount(),
+				sw);
+		return retVal;
+	}
+
+	/**
+	 * Discards the index for the given TermValueSet. This is called when the pre-expansion is invalidated
+	 * or deleted.
+	 */
+	public void invalidateIndex(Long theTermValueSetPid) {
+		if (!isEnabled()) {
+			return;
+		}
+
+		myBuildLock.lock();
+		try {
+			myIndexes.remove(theTermValueSetPid);
+			myFailedBuilds.remove(theTermValueSetPid);
+			Files.deleteIfExists(getIndexFile(theTermValueSetPid));
+		} catch (IOException e) {
+			ourLog.warn(
+					"Failed to delete index for pre-expanded TermValueSet[{}]: {}", theTermValueSetPid, e.toString());
+		} finally {
+			myBuildLock.unlock();
+		}
+	}
+
+	private boolean isInFailureBackoff(Long theTermValueSetPid, long theExpansionTimestamp) {
+		FailedBuild failedBuild = myFailedBuilds.get(theTermValueSetPid);
+		return failedBuild != null
+				&& failedBuild.myExpansionTimestamp == theExpansionTimestamp
+				&& System.currentTimeMillis() < failedBuild.myRetryAfterMillis;
+	}
+
+	/**
+	 * Records a failure to build the index for the given expansion. Consecutive failures for the same
+	 * expansion double the backoff, and a failure for a new expansion starts again from the initial backoff.
+	 */
+	private FailedBuild recordFailure(Long theTermValueSetPid, long theExpansionTimestamp) {
+		return myFailedBuilds.compute(theTermValueSetPid, (pid, previous) -> {
+			long backoffMillis = INITIAL_FAILURE_BACKOFF_MILLIS;
+			if (previous != null && previous.myExpansionTimestamp == theExpansionTimestamp) {
+				backoffMillis = Math.min(previous.myBackoffMillis * 2, MAX_FAILURE_BACKOFF_MILLIS);
+			}
+			return new FailedBuild(theExpansionTimestamp, backoffMillis);
+		});
+	}
+
+	private Path getIndexFile(Long theTermValueSetPid) {
+		return Paths.get(
+				myStorageSettings.getPreExpandedValueSetIndexDirectory(), "valueset-" + theTermValueSetPid + ".idx");
+	}
+
+	private static long getExpansionTimestamp(TermValueSet theTermValueSet) {
+		return theTermValueSet.getExpansionTimestamp() != null
+				? theTermValueSet.getExpansionTimestamp().getTime()
+				: 0;
+	}
+
+	private static class FailedBuild {
+		private final long myExpansionTimestamp;
+		private final long myBackoffMillis;
+		private final long myRetryAfterMillis;
+
+		private FailedBuild(long theExpansionTimestamp, long theBackoffMillis) {
+			myExpansionTimestamp = theExpansionTimestamp;
+			myBackoffMillis = theBackoffMillis;
+			myRetryAfterMillis = System.currentTimeMillis() + theBackoffMillis;
+		}
+	}
+}
@@ -194,6 +194,7 @@ import static org.apache.commons.lang3.StringUtils.startsWithIgnoreCase;
 
 public class TermReadSvcImpl implements ITermReadSvc, IHasScheduledJobs {
 	public static final int DEFAULT_FETCH_SIZE = 250;
+	private static final int VALIDATE_CODE_BATCH_CHUNK_SIZE = 500;
 	public static final int DEFAULT_MASS_INDEXER_OBJECT_LOADING_THREADS = 2;
 	// doesn't seem to be much gain by using more threads than this value
 	public static final int MAX_MASS_INDEXER_OBJECT_LOADING_THREADS = 6;
@@ -229,6 +230,9 @@ public class TermReadSvcImpl implements ITermReadSvc, IHasScheduledJobs {
 	@Autowired
 	protected ITermValueSetConceptDao myValueSetConceptDao;
 
+	@Autowired
+	private PreExpandedValueSetIndexSvc myPreExpandedValueSetIndexSvc;
+
 	@Autowired
 	protected ITermValueSetConceptDesignationDao myValueSetConceptDesignationDao;
 
@@ -478,6 +482,7 @@ public class TermReadSvcImpl implements ITermReadSvc, IHasScheduledJobs {
 	}
 
 	private void deletePreCalculatedValueSetContents(TermValueSet theValueSet) {
+		myPreExpandedValueSetIndexSvc.invalidateIndex(theValueSet.getId());
 		myValueSetConceptDesignationDao.deleteByTermValueSetId(theValueSet.getId());
 		myValueSetConceptDao.deleteByTermValueSetId(theValueSet.getId());
 	}
@@ -2033,57 +2038,179 @@ public class TermReadSvcImpl implements ITermReadSvc, IHasScheduledJobs {
 		assert TransactionSynchronizationManager.isSynchronizationActive();
 
 		ValidateUtil.isNotNullOrThrowUnprocessableEntity(theValueSet.hasId(), "ValueSet.id is required");
+		if (isBlank(theCode) && theCoding == null && theCodeableConcept == null) {
+			return null;
+		}
+
 		JpaPid valueSetResourcePid = getValueSetResourcePersistentId(theValueSet);
+		TermValueSet valueSetEntity = myTermValueSetDao
+				.findByResourcePid(valueSetResourcePid.getId())
+				.orElseThrow(IllegalStateException::new);
+		PreExpandedValueSetIndex index = myPreExpandedValueSetIndexSvc.getIndex(valueSetEntity);
 
 		List<TermValueSetConcept> concepts = new ArrayList<>();
 		if (isNotBlank(theCode)) {
 			if (theValidationOptions.isInferSystem()) {
-				concepts.addAll(
-						myValueSetConceptDao.findByValueSetResourcePidAndCode(valueSetResourcePid.getId(), theCode));
+				if (index != null) {
+					concepts.addAll(index.findByCode(theCode));
+				} else {
+					concepts.addAll(myValueSetConceptDao.findByValueSetResourcePidAndCode(
+							valueSetResourcePid.getId(), theCode));
+				}
 			} else if (isNotBlank(theSystem)) {
-				concepts.addAll(findByValueSetResourcePidSystemAndCode(valueSetResourcePid, theSystem, theCode));
+				concepts.addAll(findByValueSetResourcePidSystemAndCode(index, valueSetResourcePid, theSystem, theCode));
 			}
 		} else if (theCoding != null) {
 			if (theCoding.hasSystem() && theCoding.hasCode()) {
 				concepts.addAll(findByValueSetResourcePidSystemAndCode(
-						valueSetResourcePid, theCoding.getSystem(), theCoding.getCode()));
+						index, valueSetResourcePid, theCoding.getSystem(), theCoding.getCode()));
 			}
-		} else if (theCodeableConcept != null) {
+		} else {
 			for (Coding coding : theCodeableConcept.getCoding()) {
 				if (coding.hasSystem() && coding.hasCode()) {
 					concepts.addAll(findByValueSetResourcePidSystemAndCode(
-							valueSetResourcePid, coding.getSystem(), coding.getCode()));
+							index, valueSetResourcePid, coding.getSystem(), coding.getCode()));
 					if (!concepts.isEmpty()) {
 						break;
 					}
 				}
 			}
+		}
+
+		String preExpansionMessage = getPreExpansionMessage(valueSetEntity);
+		CodeValidationResult retVal = createResultForConceptsInPreExpandedValueSet(
+				theValidationOptions, theCode, theDisplay, concepts, preExpansionMessage);
+		if (retVal != null) {
+			return retVal;
+		}
+
+		// Ok, we failed
+		boolean valueSetHasSystem;
+		if (index != null) {
+			valueSetHasSystem = index.hasSystem(theSystem);
 		} else {
-			return null;
+			valueSetHasSystem = !myValueSetConceptDao
+					.findByTermValueSetIdSystemOnly(Pageable.ofSize(1), valueSetEntity.getId(), theSystem)
+					.isEmpty();
+		}
+		String append;
+		if (!valueSetHasSystem) {
+			append = " - No codes in ValueSet belong to CodeSystem with URL " + theSystem;
+		} else {
+			String unknownCodeMessage = myContext
+					.getLocalizer()
+					.getMessage(TermReadSvcImpl.class, "unknownCodeInSystem", theSystem, theCode);
+			append = " - " + unknownCodeMessage + ". " + preExpansionMessage;
 		}
 
+		return createFailureCodeValidationResult(theSystem, theCode, null, append);
+	}
+
+	/**
+	 * Validates a batch of codes against a pre-expanded ValueSet, loading the matching concepts for all of
+	 * the codes using a single query (or from the pre-expanded ValueSet index if one is available). Only
+	 * codes which are found are validated here, any other entries in the result array are left as
+	 * <code>null</code>.
+	 */
+	private void validateCodesAreInPreExpandedValueSet(
+			ConceptValidationOptions theValidationOptions,
+			ValueSet theValueSet,
+			List<CodeValidationRequest> theRequests,
+			CodeValidationResult[] theResults) {
+		assert TransactionSynchronizationManager.isSynchronizationActive();
+
+		JpaPid valueSetResourcePid = getValueSetResourcePersistentId(theValueSet);
 		TermValueSet valueSetEntity = myTermValueSetDao
 				.findByResourcePid(valueSetResourcePid.getId())
 				.orElseThrow(IllegalStateException::new);
-		String timingDescription = toHumanReadableExpansionTimestamp(valueSetEntity);
-		String preExpansionMessage = myContext
+		PreExpandedValueSetIndex index = myPreExpandedValueSetIndexSvc.getIndex(valueSetEntity);
+
+		ArrayListMultimap<String, TermValueSetConcept> codeToConcepts = ArrayListMultimap.create();
+		if (index == null) {
+			List<String> codes = theRequests.stream()
+					.map(CodeValidationRequest::getCode)
+					.filter(StringUtils::isNotBlank)
+					.distinct()
+					.collect(Collectors.toList());
+			for (List<String> nextChunk : ListUtils.partition(codes, VALIDATE_CODE_BATCH_CHUNK_SIZE)) {
+				for (TermValueSetConcept next :
+						myValueSetConceptDao.findByTermValueSetIdAndCodes(valueSetEntity.getId(), nextChunk)) {
+					codeToConcepts.put(next.getCode(), next);
+				}
+			}
+		}
+
+		String preExpansionMessage = getPreExpansionMessage(valueSetEntity);
+		for (int i = 0; i < theRequests.size(); i++) {
+			CodeValidationRequest next = theRequests.get(i);
+			String system = next.getSystem();
+			String code = next.getCode();
+			if (isBlank(code)) {
+				continue;
+			}
+
+			List<TermValueSetConcept> concepts;
+			if (theValidationOptions.isInferSystem()) {
+				concepts = index != null ? index.findByCode(code) : codeToConcepts.get(code);
+			} else if (isBlank(system)) {
+				continue;
+			} else if (index != null) {
+				concepts = findByValueSetResourcePidSystemAndCode(index, valueSetResourcePid, system, code);
+			} else {
+				int versionIndex = system.indexOf(OUR_PIPE_CHARACTER);
+				String systemUrl = versionIndex >= 0 ? system.substring(0, versionIndex) : system;
+				String systemVersion = versionIndex >= 0 ? system.substring(versionIndex + 1) : null;
+				concepts = codeToConcepts.get(code).stream()
+						.filter(t -> systemUrl.equals(t.getSystem()))
+						.filter(t -> systemVersion == null || systemVersion.equals(t.getSystemVersion()))
+						.limit(1)
+						.collect(Collectors.toList());
+			}
+
+			ConceptValidationOptions options = new ConceptValidationOptions()
+					.setInferSystem(theValidationOptions.isInferSystem())
+					.setValidateDisplay(isNotBlank(next.getDisplay()));
+			theResults[i] = createResultForConceptsInPreExpandedValueSet(
+					options, code, next.getDisplay(), concepts, preExpansionMessage);
+		}
+	}
+
+	private String getPreExpansionMessage(TermValueSet theValueSetEntity) {
+		String timingDescription = toHumanReadableExpansionTimestamp(theValueSetEntity);
+		return myContext
 				.getLocalizer()
 				.getMessage(TermReadSvcImpl.class, "validationPerformedAgainstPreExpansion", timingDescription);
+	}
 
-		if (theValidationOptions.isValidateDisplay() && concepts.size() > 0) {
+	/**
+	 * Returns the validation result for a code which was found in a pre-expanded ValueSet, or
+	 * <code>null</code> if no concepts were found
+	 */
+	@Nullable
+	private CodeValidationResult createResultForConceptsInPreExpandedValueSet(
+			ConceptValidationOptions theValidationOptions,
+			String theCode,
+			String theDisplay,
+			List<TermValueSetConcept> theConcepts,
+			String thePreExpansionMessage) {
+		if (theConcepts.isEmpty()) {
+			return null;
+		}
+
+		if (theValidationOptions.isValidateDisplay()) {
 			String systemVersion = null;
-			for (TermValueSetConcept concept : concepts) {
+			for (TermValueSetConcept concept : theConcepts) {
 				systemVersion = concept.getSystemVersion();
 				if (isBlank(theDisplay) || isBlank(concept.getDisplay()) || theDisplay.equals(concept.getDisplay())) {
 					return new IValidationSupport.CodeValidationResult()
 							.setCode(concept.getCode())
 							.setDisplay(concept.getDisplay())
 							.setCodeSystemVersion(concept.getSystemVersion())
-							.setSourceDetails(preExpansionMessage);
+							.setSourceDetails(thePreExpansionMessage);
 				}
 			}
 
-			String expectedDisplay = concepts.get(0).getDisplay();
+			String expectedDisplay = theConcepts.get(0).getDisplay();
 			return InMemoryTerminologyServerValidationSupport.createResultForDisplayMismatch(
 					myContext,
 					theCode,
@@ -2093,28 +2220,11 @@ public class TermReadSvcImpl implements ITermReadSvc, IHasScheduledJobs {
 					myStorageSettings.getIssueSeverityForCodeDisplayMismatch());
 		}
 
-		if (!concepts.isEmpty()) {
-			return new IValidationSupport.CodeValidationResult()
-					.setCode(concepts.get(0).getCode())
-					.setDisplay(concepts.get(0).getDisplay())
-					.setCodeSystemVersion(concepts.get(0).getSystemVersion())
-					.setMessage(preExpansionMessage);
-		}
-
-		// Ok, we failed
-		List<TermValueSetConcept> outcome = myValueSetConceptDao.findByTermValueSetIdSystemOnly(
-				Pageable.ofSize(1), valueSetEntity.getId(), theSystem);
-		String append;
-		if (outcome.size() == 0) {
-			append = " - No codes in ValueSet belong to CodeSystem with URL " + theSystem;
-		} else {
-			String unknownCodeMessage = myContext
-					.getLocalizer()
-					.getMessage(TermReadSvcImpl.class, "unknownCodeInSystem", theSystem, theCode);
-			append = " - " + unknownCodeMessage + ". " + preExpansionMessage;
-		}
-
-		return createFailureCodeValidationResult(theSystem, theCode, null, append);
+		return new IValidationSupport.CodeValidationResult()
+				.setCode(theConcepts.get(0).getCode())
+				.setDisplay(theConcepts.get(0).getDisplay())
+				.setCodeSystemVersion(theConcepts.get(0).getSystemVersion())
+				.setMessage(thePreExpansionMessage);
 	}
 
 	private CodeValidationResult createFailureCodeValidationResult(
@@ -2126,13 +2236,23 @@ public class TermReadSvcImpl implements ITermReadSvc, IHasScheduledJobs {
 	}
 
 	private List<TermValueSetConcept> findByValueSetResourcePidSystemAndCode(
-			JpaPid theResourcePid, String theSystem, String theCode) {
+			@Nullable PreExpandedValueSetIndex theIndex, JpaPid theResourcePid, String theSystem, String theCode) {
 		assert TransactionSynchronizationManager.isSynchronizationActive();
 
 		List<TermValueSetConcept> retVal = new ArrayList<>();
 		Optional<TermValueSetConcept> optionalTermValueSetConcept;
 		int versionIndex = theSystem.indexOf(OUR_PIPE_CHARACTER);
-		if (versionIndex >= 0) {
+		if (theIndex != null) {
+			if (versionIndex >= 0) {
+				String systemUrl = theSystem.substring(0, versionIndex);
+				String systemVersion = theSystem.substring(versionIndex + 1);
+				optionalTermValueSetConcept = theIndex.findBySystemAndCode(systemUrl, systemVersion, theCode).stream()
+						.findFirst();
+			} else {
+				optionalTermValueSetConcept = theIndex.findBySystemAndCode(theSystem, null, theCode).stream()
+						.findFirst();
+			}
+		} else if (versionIndex >= 0) {
 			String systemUrl = theSystem.substring(0, versionIndex);
 			String systemVersion = theSystem.substring(versionIndex + 1);
 			optionalTermValueSetConcept = myValueSetConceptDao.findByValueSetResourcePidSystemAndCodeWithVersion(
@@ -2395,6 +2515,7 @@ public class TermReadSvcImpl implements ITermReadSvc, IHasScheduledJobs {
 				});
 
 				afterValueSetExpansionStatusChange();
+				myPreExpandedValueSetIndexSvc.buildIndex(valueSetToExpand);
 
 				ourLog.info(
 						"Pre-expanded ValueSet[{}] with URL[{}] - Saved {} concepts in {}",
@@ -2682,6 +2803,74 @@ public class TermReadSvcImpl implements ITermReadSvc, IHasScheduledJobs {
 			@Nonnull IBaseResource theValueSet) {
 		invokeRunnableForUnitTest();
 
+		String url = getValueSetUrl(theValueSet);
+		if (isNotBlank(url)) {
+			return validateCode(theValidationSupportContext, theOptions, theCodeSystem, theCode, theDisplay, url);
+		}
+		return null;
+	}
+
+	@Nonnull
+	@Override
+	@Transactional
+	public List<CodeValidationResult> validateCodeInValueSetBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			@Nonnull IBaseResource theValueSet) {
+		String url = getValueSetUrl(theValueSet);
+		if (isNotBlank(url)) {
+			return validateCodeBatch(theValidationSupportContext, theOptions, theRequests, url);
+		}
+		return Arrays.asList(new CodeValidationResult[theRequests.size()]);
+	}
+
+	@Nonnull
+	@Override
+	public List<CodeValidationResult> validateCodeBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			String theValueSetUrl) {
+		if (isBlank(theValueSetUrl) || theRequests.size() < 2) {
+			return ITermReadSvc.super.validateCodeBatch(
+					theValidationSupportContext, theOptions, theRequests, theValueSetUrl);
+		}
+
+		CodeValidationResult[] retVal = new CodeValidationResult[theRequests.size()];
+		IBaseResource valueSet =
+				theValidationSupportContext.getRootValidationSupport().fetchValueSet(theValueSetUrl);
+		if (valueSet instanceof IAnyResource && IDao.RESOURCE_PID.get((IAnyResource) valueSet) != null) {
+			invokeRunnableForUnitTest();
+			TransactionTemplate txTemplate = new TransactionTemplate(myTxManager);
+			txTemplate.executeWithoutResult(tx -> {
+				if (isValueSetPreExpandedForCodeValidation(valueSet)) {
+					ValueSet valueSetR4 = myVersionCanonicalizer.valueSetToCanonical(valueSet);
+					validateCodesAreInPreExpandedValueSet(theOptions, valueSetR4, theRequests, retVal);
+				}
+			});
+		}
+
+		// Anything that wasn't found in the pre-expansion is validated individually, which also
+		// takes care of in-memory validation and of building the failure messages
+		for (int i = 0; i < retVal.length; i++) {
+			CodeValidationRequest next = theRequests.get(i);
+			if (retVal[i] == null) {
+				ConceptValidationOptions options =
+						new ConceptValidationOptions().setInferSystem(theOptions.isInferSystem());
+				retVal[i] = validateCode(
+						theValidationSupportContext,
+						options,
+						next.getSystem(),
+						next.getCode(),
+						next.getDisplay(),
+						theValueSetUrl);
+			}
+		}
+		return Arrays.asList(retVal);
+	}
+
+	private String getValueSetUrl(IBaseResource theValueSet) {
 		IPrimitiveType<?> urlPrimitive;
 		if (theValueSet instanceof org.hl7.fhir.dstu2.model.ValueSet) {
 			urlPrimitive = FhirContext.forDstu2Hl7OrgCached()
@@ -2690,11 +2879,7 @@ public class TermReadSvcImpl implements ITermReadSvc, IHasScheduledJobs {
 		} else {
 			urlPrimitive = myContext.newTerser().getSingleValueOrNull(theValueSet, "url", IPrimitiveType.class);
 		}
-		String url = urlPrimitive.getValueAsString();
-		if (isNotBlank(url)) {
-			return validateCode(theValidationSupportContext, theOptions, theCodeSystem, theCode, theDisplay, url);
-		}
-		return null;
+		return urlPrimitive.getValueAsString();
 	}
 
 	@CoverageIgnore
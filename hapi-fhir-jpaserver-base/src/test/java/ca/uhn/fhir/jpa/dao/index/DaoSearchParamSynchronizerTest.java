@@ -1,5 +1,6 @@
 package ca.uhn.fhir.jpa.dao.index;
 
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.model.config.PartitionSettings;
 import ca.uhn.fhir.jpa.model.entity.BaseResourceIndex;
 import ca.uhn.fhir.jpa.model.entity.ResourceIndexedSearchParamNumber;
@@ -13,6 +14,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -44,6 +46,11 @@ public class DaoSearchParamSynchronizerTest {
 	@Mock
 	private EntityManager entityManager;
 
+	@Mock
+	private Session session;
+
+	private final JpaStorageSettings storageSettings = new JpaStorageSettings();
+
 	private ResourceIndexedSearchParams existingParams;
 
 	@BeforeEach
@@ -62,6 +69,7 @@ public class DaoSearchParamSynchronizerTest {
 		THE_SEARCH_PARAM_NUMBER.setResource(resourceTable);
 
 		subject.setEntityManager(entityManager);
+		subject.setStorageSettings(storageSettings);
 	}
 
 	@Test
@@ -74,4 +82,20 @@ public class DaoSearchParamSynchronizerTest {
 		verify(entityManager, never()).remove(any(BaseResourceIndex.class));
 		verify(entityManager, times(1)).merge(THE_SEARCH_PARAM_NUMBER);
 	}
+
+	@Test
+	void synchronizeSearchParamsWithBulkWriteEnabled() {
+		storageSettings.setIndexBulkWriteEnabled(true);
+		when(entityManager.unwrap(Session.class)).thenReturn(session);
+		existingParams.myNumberParams.clear();
+
+		final AddRemoveCount addRemoveCount = subject.synchronizeSearchParamsToDatabase(theParams, theEntity, existingParams);
+
+		assertEquals(0, addRemoveCount.getRemoveCount());
+		assertEquals(1, addRemoveCount.getAddCount());
+
+		verify(entityManager, times(1)).persist(THE_SEARCH_PARAM_NUMBER);
+		verify(session, times(1)).setReadOnly(THE_SEARCH_PARAM_NUMBER, true);
+		verify(entityManager, never()).merge(any(BaseResourceIndex.class));
+	}
 }
@@ -0,0 +1,89 @@
+package ca.uhn.fhir.jpa.search.builder.tasks;
+
+import ca.uhn.fhir.interceptor.model.RequestPartitionId;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.jpa.dao.tx.IHapiTransactionService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+public class IncludeQueryExecutorSvcTest {
+
+	private final CountDownLatch myConnectionAvailable = new CountDownLatch(1);
+	@Spy
+	private JpaStorageSettings myStorageSettings = new JpaStorageSettings();
+	@Mock
+	private IHapiTransactionService myTxService;
+	@Mock
+	private IHapiTransactionService.IExecutionBuilder myExecutionBuilder;
+	@Mock
+	private EntityManager myEntityManager;
+	@InjectMocks
+	private IncludeQueryExecutorSvc mySvc;
+
+	@BeforeEach
+	public void before() {
+		myStorageSettings.setIncludeLoadingThreadCount(2);
+
+		// Simulate an exhausted connection pool, where the pool threads can't start a transaction
+		lenient().when(myTxService.withSystemRequestOnPartition(any())).thenReturn(myExecutionBuilder);
+		lenient().when(myExecutionBuilder.readOnly()).thenReturn(myExecutionBuilder);
+		lenient().doAnswer(t -> {
+			myConnectionAvailable.await();
+			throw new IllegalStateException("Connection is not available");
+		}).when(myExecutionBuilder).execute(any(Runnable.class));
+	}
+
+	@AfterEach
+	public void after() {
+		myConnectionAvailable.countDown();
+		mySvc.stop();
+	}
+
+	@Test
+	public void testExecuteAll_NoConnectionsAvailable_RunsOnCallingThread() {
+		List<Function<EntityManager, String>> queries = List.of(
+			em -> "A-" + Thread.currentThread().getName(),
+			em -> "B-" + Thread.currentThread().getName(),
+			em -> "C-" + Thread.currentThread().getName());
+
+		List<String> results = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			String callingThread = Thread.currentThread().getName();
+			List<String> retVal = mySvc.executeAll(RequestPartitionId.allPartitions(), myEntityManager, queries);
+			assertEquals(List.of("A-" + callingThread, "B-" + callingThread, "C-" + callingThread), retVal);
+			return retVal;
+		});
+		assertEquals(3, results.size());
+	}
+
+	@Test
+	public void testExecuteAll_QueryFails() {
+		List<Function<EntityManager, String>> queries = List.of(
+			em -> "A",
+			em -> {
+				throw new IllegalArgumentException("Query failed");
+			});
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+			() -> mySvc.executeAll(RequestPartitionId.allPartitions(), myEntityManager, queries));
+		assertEquals("Query failed", e.getMessage());
+	}
+}
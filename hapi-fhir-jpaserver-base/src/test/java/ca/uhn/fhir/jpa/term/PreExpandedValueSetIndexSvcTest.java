@@ -0,0 +1,71 @@
+package ca.uhn.fhir.jpa.term;
+
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.jpa.dao.data.ITermValueSetConceptDao;
+import ca.uhn.fhir.jpa.entity.TermValueSet;
+import ca.uhn.fhir.jpa.entity.TermValueSetPreExpansionStatusEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PreExpandedValueSetIndexSvcTest {
+
+	@TempDir
+	Path myTempDir;
+	@Spy
+	private JpaStorageSettings myStorageSettings = new JpaStorageSettings();
+	@Mock
+	private ITermValueSetConceptDao myValueSetConceptDao;
+	@Mock
+	private PlatformTransactionManager myTxManager;
+	@Mock
+	private TermValueSet myTermValueSet;
+	@InjectMocks
+	private PreExpandedValueSetIndexSvc mySvc;
+
+	@BeforeEach
+	public void before() {
+		myStorageSettings.setPreExpandedValueSetIndexDirectory(myTempDir.toString());
+		when(myTermValueSet.getId()).thenReturn(1L);
+		when(myTermValueSet.getExpansionStatus()).thenReturn(TermValueSetPreExpansionStatusEnum.EXPANDED);
+		when(myValueSetConceptDao.findConceptDetailsByTermValueSetIdAfterId(any(), anyLong(), anyLong()))
+				.thenThrow(new IllegalStateException("Database failure"));
+	}
+
+	@Test
+	public void testFailedBuildIsNotRetriedForSameExpansion() {
+		when(myTermValueSet.getExpansionTimestamp()).thenReturn(new Date(1000L));
+
+		assertNull(mySvc.getIndex(myTermValueSet));
+		assertNull(mySvc.getIndex(myTermValueSet));
+		assertNull(mySvc.getIndex(myTermValueSet));
+		verify(myValueSetConceptDao, times(1)).findConceptDetailsByTermValueSetIdAfterId(any(), anyLong(), anyLong());
+
+		// A new expansion is tried again straight away
+		when(myTermValueSet.getExpansionTimestamp()).thenReturn(new Date(2000L));
+		assertNull(mySvc.getIndex(myTermValueSet));
+		verify(myValueSetConceptDao, times(2)).findConceptDetailsByTermValueSetIdAfterId(any(), anyLong(), anyLong());
+
+		// Invalidating the index also clears the failure
+		mySvc.invalidateIndex(1L);
+		assertNull(mySvc.getIndex(myTermValueSet));
+		verify(myValueSetConceptDao, times(3)).findConceptDetailsByTermValueSetIdAfterId(any(), anyLong(), anyLong());
+	}
+}
@@ -0,0 +1,90 @@
+package ca.uhn.fhir.jpa.term;
+
+import ca.uhn.fhir.jpa.entity.TermValueSetConcept;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PreExpandedValueSetIndexTest {
+
+	@TempDir
+	Path myTempDir;
+
+	@Test
+	public void testBuildAndLookup() throws IOException {
+		Path file = myTempDir.resolve("valueset-1.idx");
+		try (PreExpandedValueSetIndex.Builder builder = new PreExpandedValueSetIndex.Builder(file, 1L, 1234L)) {
+			for (int i = 0; i < 1000; i++) {
+				builder.addConcept("http://foo", null, "code" + i, "Display " + i);
+			}
+			builder.addConcept("http://bar", "1.0", "code1", "Bar 1");
+			builder.addConcept("http://bar", "2.0", "code1", "Bar 2");
+			builder.build();
+		}
+
+		PreExpandedValueSetIndex index = PreExpandedValueSetIndex.open(file);
+		assertEquals(1L, index.getTermValueSetPid());
+		assertEquals(1234L, index.getExpansionTimestamp());
+		assertEquals(1002, index.getConceptCount());
+
+		List<TermValueSetConcept> concepts = index.findBySystemAndCode("http://foo", null, "code500");
+		assertEquals(1, concepts.size());
+		assertEquals("http://foo", concepts.get(0).getSystem());
+		assertNull(concepts.get(0).getSystemVersion());
+		assertEquals("code500", concepts.get(0).getCode());
+		assertEquals("Display 500", concepts.get(0).getDisplay());
+
+		assertTrue(index.findBySystemAndCode("http://foo", null, "code1000").isEmpty());
+		assertTrue(index.findBySystemAndCode("http://baz", null, "code1").isEmpty());
+
+		assertEquals(2, index.findBySystemAndCode("http://bar", null, "code1").size());
+		concepts = index.findBySystemAndCode("http://bar", "2.0", "code1");
+		assertEquals(1, concepts.size());
+		assertEquals("Bar 2", concepts.get(0).getDisplay());
+		assertTrue(index.findBySystemAndCode("http://bar", "3.0", "code1").isEmpty());
+
+		assertEquals(3, index.findByCode("code1").size());
+		assertTrue(index.findByCode("code1000").isEmpty());
+
+		assertTrue(index.hasSystem("http://foo"));
+		assertTrue(index.hasSystem("http://bar"));
+		assertFalse(index.hasSystem("http://baz"));
+		assertFalse(index.hasSystem(null));
+	}
+
+	@Test
+	public void testEmptyValueSet() throws IOException {
+		Path file = myTempDir.resolve("valueset-2.idx");
+		try (PreExpandedValueSetIndex.Builder builder = new PreExpandedValueSetIndex.Builder(file, 2L, 0L)) {
+			builder.build();
+		}
+
+		PreExpandedValueSetIndex index = PreExpandedValueSetIndex.open(file);
+		assertEquals(0, index.getConceptCount());
+		assertTrue(index.findBySystemAndCode("http://foo", null, "code").isEmpty());
+		assertTrue(index.findByCode("code").isEmpty());
+		assertFalse(index.hasSystem("http://foo"));
+	}
+
+	@Test
+	public void testAbandonedBuildLeavesNoFile() throws IOException {
+		Path file = myTempDir.resolve("valueset-3.idx");
+		try (PreExpandedValueSetIndex.Builder builder = new PreExpandedValueSetIndex.Builder(file, 3L, 0L)) {
+			builder.addConcept("http://foo", null, "code", null);
+		}
+
+		assertFalse(Files.exists(file));
+		try (var files = Files.list(myTempDir)) {
+			assertEquals(0, files.count());
+		}
+	}
+}
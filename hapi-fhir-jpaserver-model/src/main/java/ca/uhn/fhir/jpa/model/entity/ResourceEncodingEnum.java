@@ -49,7 +49,16 @@ public enum ResourceEncodingEnum {
 	 * Externally stored resource - Resource text is a reference to an external storage location,
 	 * which will be stored in {@link ResourceHistoryTable#getResourceTextVc()}
 	 */
-	ESR;
+	ESR,
+
+	/**
+	 * Json compressed using a pluggable codec - The bytes stored in {@link ResourceHistoryTable#getResource()}
+	 * start with a header identifying the codec which was used (see
+	 * <code>ca.uhn.fhir.jpa.dao.compression.ResourceCompressionCodecRegistry</code>)
+	 *
+	 * @since 7.2.0
+	 */
+	JSONZ;
 
 	public IParser newParser(FhirContext theContext) {
 		return theContext.newJsonParser();
@@ -87,7 +87,8 @@ public class ResourceHistoryTable extends BaseHasResource implements Serializabl
 	private Collection<ResourceHistoryTag> myTags;
 
 	/**
-	 * Note: No setter for this field because it's only a legacy way of storing data now.
+	 * Note: This field is only used for legacy data and for resources stored using a
+	 * compression codec (see {@link ResourceEncodingEnum#JSONZ}).
 	 */
 	@Column(name = "RES_TEXT", length = Integer.MAX_VALUE - 1, nullable = true)
 	@Lob()
@@ -212,6 +213,11 @@ public class ResourceHistoryTable extends BaseHasResource implements Serializabl
 		return myResource;
 	}
 
+	public void setResource(byte[] theResource) {
+		myResource = theResource;
+		myResourceTextVc = null;
+	}
+
 	@Override
 	public Long getResourceId() {
 		return myResourceId;
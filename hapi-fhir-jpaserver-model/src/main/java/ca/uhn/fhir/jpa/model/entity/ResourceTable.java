@@ -28,6 +28,7 @@ import ca.uhn.fhir.jpa.model.search.SearchParamTextPropertyBinder;
 import ca.uhn.fhir.model.primitive.IdDt;
 import ca.uhn.fhir.rest.api.Constants;
 import com.google.common.annotations.VisibleForTesting;
+import jakarta.annotation.Nullable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -404,6 +405,18 @@ public class ResourceTable extends BaseHasResource implements Serializable, IBas
 	@Column(name = "SEARCH_URL_PRESENT", nullable = true)
 	private Boolean mySearchUrlPresent = false;
 
+	/**
+	 * A digest of the search parameter index rows for this resource, used by reindex jobs to skip
+	 * resources whose indexes haven't changed. This is stored when the resource is reindexed with
+	 * unchanged resources being skipped, and is cleared whenever the index rows are written in any
+	 * other way, so it is <code>null</code> for most resources.
+	 *
+	 * @since 7.2.0
+	 */
+	@OptimisticLock(excluded = true)
+	@Column(name = "SP_INDEX_DIGEST", nullable = true)
+	private Long mySearchParamIndexDigest;
+
 	@Version
 	@Column(name = "RES_VER")
 	private long myVersion;
@@ -869,6 +882,15 @@ public class ResourceTable extends BaseHasResource implements Serializable, IBas
 		mySearchUrlPresent = theSearchUrlPresent;
 	}
 
+	@Nullable
+	public Long getSearchParamIndexDigest() {
+		return mySearchParamIndexDigest;
+	}
+
+	public void setSearchParamIndexDigest(@Nullable Long theSearchParamIndexDigest) {
+		mySearchParamIndexDigest = theSearchParamIndexDigest;
+	}
+
 	/**
 	 * This method creates a new history entity, or might reuse the current one if we've
 	 * already created one in the current transaction. This is because we can only increment
@@ -100,11 +100,16 @@ public class StorageSettings {
 	private boolean myCrossPartitionSubscriptionEnabled = false;
 	private Integer myBundleBatchPoolSize = DEFAULT_BUNDLE_BATCH_POOL_SIZE;
 	private Integer myBundleBatchMaxPoolSize = DEFAULT_BUNDLE_BATCH_MAX_POOL_SIZE;
+	private boolean myVirtualThreadsEnabled = false;
+	private boolean myBundleBatchParallelWritesEnabled = false;
 	private boolean myEnableInMemorySubscriptionMatching = true;
 	private boolean myTriggerSubscriptionsForNonVersioningChanges;
 	private boolean myMassIngestionMode;
 	private Integer myMaximumTransactionBundleSize = DEFAULT_MAXIMUM_TRANSACTION_BUNDLE_SIZE;
 	private boolean myNormalizeTerminologyForBulkExportJobs = false;
+	private boolean myBulkExportBinaryStorageStreamingEnabled = false;
+	private boolean myBulkExportGzipEnabled = false;
+	private long myBulkExportMaximumFileSizeBytes = 0;
 	private String myEmailFromAddress = "noreply@unknown.com";
 	private String myWebsocketContextPath = DEFAULT_WEBSOCKET_CONTEXT_PATH;
 	/**
@@ -126,6 +131,7 @@ public class StorageSettings {
 	private boolean myAllowMdmExpansion = false;
 	private boolean myAutoSupportDefaultSearchParams = true;
 	private boolean myIndexIdentifierOfType = false;
+	private boolean myInClauseParameterPaddingEnabled = false;
 	private IndexEnabledEnum myIndexMissingFieldsEnabled = IndexEnabledEnum.DISABLED;
 
 	/**
@@ -270,6 +276,80 @@ public class StorageSettings {
 		this.myBundleBatchMaxPoolSize = theBundleBatchMaxPoolSize;
 	}
 
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>) and the server is running on
+	 * Java 21 or later, batch bundle entries are processed using a virtual-thread-per-task
+	 * executor instead of the platform thread pool sized by {@link #getBundleBatchPoolSize()}
+	 * and {@link #getBundleBatchMaxPoolSize()}. The number of entries processed concurrently is
+	 * still limited to {@link #getBundleBatchMaxPoolSize()}, so that a large batch does not take
+	 * every connection in the database connection pool.
+	 * <p>
+	 * On older JVMs this setting has no effect and a warning is logged when the executor is created.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public boolean isVirtualThreadsEnabled() {
+		return myVirtualThreadsEnabled;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>) and the server is running on
+	 * Java 21 or later, batch bundle entries are processed using a virtual-thread-per-task
+	 * executor instead of the platform thread pool sized by {@link #getBundleBatchPoolSize()}
+	 * and {@link #getBundleBatchMaxPoolSize()}. The number of entries processed concurrently is
+	 * still limited to {@link #getBundleBatchMaxPoolSize()}, so that a large batch does not take
+	 * every connection in the database connection pool.
+	 * <p>
+	 * On older JVMs this setting has no effect and a warning is logged when the executor is created.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public void setVirtualThreadsEnabled(boolean theVirtualThreadsEnabled) {
+		myVirtualThreadsEnabled = theVirtualThreadsEnabled;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), the create, update, patch and delete
+	 * entries in a <code>batch</code> Bundle are processed concurrently on the batch bundle executor
+	 * (see {@link #getBundleBatchPoolSize()} and {@link #isVirtualThreadsEnabled()}), each in its own
+	 * database transaction, instead of one after another on the request thread. At most
+	 * {@link #getBundleBatchMaxPoolSize()} entries are written at the same time. GET entries are still
+	 * processed after all write entries have completed, and the response entries are always returned
+	 * in the same order as the request entries.
+	 * <p>
+	 * Entries which target the same resource ID, or which use the same conditional URL, are processed
+	 * one after another in the order they appear in the Bundle. Note that the request's user data map
+	 * is shared by all entries, so interceptors which use it must be thread safe when this is enabled.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public boolean isBundleBatchParallelWritesEnabled() {
+		return myBundleBatchParallelWritesEnabled;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), the create, update, patch and delete
+	 * entries in a <code>batch</code> Bundle are processed concurrently on the batch bundle executor
+	 * (see {@link #getBundleBatchPoolSize()} and {@link #isVirtualThreadsEnabled()}), each in its own
+	 * database transaction, instead of one after another on the request thread. At most
+	 * {@link #getBundleBatchMaxPoolSize()} entries are written at the same time. GET entries are still
+	 * processed after all write entries have completed, and the response entries are always returned
+	 * in the same order as the request entries.
+	 * <p>
+	 * Entries which target the same resource ID, or which use the same conditional URL, are processed
+	 * one after another in the order they appear in the Bundle. Note that the request's user data map
+	 * is shared by all entries, so interceptors which use it must be thread safe when this is enabled.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public void setBundleBatchParallelWritesEnabled(boolean theBundleBatchParallelWritesEnabled) {
+		myBundleBatchParallelWritesEnabled = theBundleBatchParallelWritesEnabled;
+	}
+
 	/**
 	 * If set to <code>false</code> (default is true) the server will not use
 	 * in-memory subscription searching and instead use the database matcher for all subscription
@@ -440,6 +520,86 @@ public class StorageSettings {
 		myNormalizeTerminologyForBulkExportJobs = theNormalizeTerminologyForBulkExportJobs;
 	}
 
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>) and an
+	 * {@literal IBinaryStorageSvc} is configured, bulk export jobs encode each exported
+	 * resource directly into an NDJSON stream which is handed to the binary storage service,
+	 * and the resulting <code>Binary</code> resource only holds a reference to the stored
+	 * blob. Without this setting, each output file is assembled in memory and stored inline
+	 * in the <code>Binary</code> resource.
+	 *
+	 * @since 7.2.0
+	 */
+	public boolean isBulkExportBinaryStorageStreamingEnabled() {
+		return myBulkExportBinaryStorageStreamingEnabled;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>) and an
+	 * {@literal IBinaryStorageSvc} is configured, bulk export jobs encode each exported
+	 * resource directly into an NDJSON stream which is handed to the binary storage service,
+	 * and the resulting <code>Binary</code> resource only holds a reference to the stored
+	 * blob. Without this setting, each output file is assembled in memory and stored inline
+	 * in the <code>Binary</code> resource.
+	 *
+	 * @since 7.2.0
+	 */
+	public void setBulkExportBinaryStorageStreamingEnabled(boolean theBulkExportBinaryStorageStreamingEnabled) {
+		myBulkExportBinaryStorageStreamingEnabled = theBulkExportBinaryStorageStreamingEnabled;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), bulk export files written
+	 * in streaming mode (see {@link #isBulkExportBinaryStorageStreamingEnabled()}) are gzip
+	 * compressed and stored with a content type of <code>application/gzip</code>.
+	 * This setting has no effect when streaming mode is not active.
+	 *
+	 * @since 7.2.0
+	 */
+	public boolean isBulkExportGzipEnabled() {
+		return myBulkExportGzipEnabled;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), bulk export files written
+	 * in streaming mode (see {@link #isBulkExportBinaryStorageStreamingEnabled()}) are gzip
+	 * compressed and stored with a content type of <code>application/gzip</code>.
+	 * This setting has no effect when streaming mode is not active.
+	 *
+	 * @since 7.2.0
+	 */
+	public void setBulkExportGzipEnabled(boolean theBulkExportGzipEnabled) {
+		myBulkExportGzipEnabled = theBulkExportGzipEnabled;
+	}
+
+	/**
+	 * When bulk export files are written in streaming mode (see
+	 * {@link #isBulkExportBinaryStorageStreamingEnabled()}), a new output file is started
+	 * once the current one has reached this many bytes of (uncompressed) NDJSON. A value
+	 * of <code>0</code> (the default) means that each chunk of resources of a given type
+	 * is written to a single file.
+	 *
+	 * @since 7.2.0
+	 */
+	public long getBulkExportMaximumFileSizeBytes() {
+		return myBulkExportMaximumFileSizeBytes;
+	}
+
+	/**
+	 * When bulk export files are written in streaming mode (see
+	 * {@link #isBulkExportBinaryStorageStreamingEnabled()}), a new output file is started
+	 * once the current one has reached this many bytes of (uncompressed) NDJSON. A value
+	 * of <code>0</code> (the default) means that each chunk of resources of a given type
+	 * is written to a single file.
+	 *
+	 * @since 7.2.0
+	 */
+	public void setBulkExportMaximumFileSizeBytes(long theBulkExportMaximumFileSizeBytes) {
+		Validate.isTrue(
+				theBulkExportMaximumFileSizeBytes >= 0, "theBulkExportMaximumFileSizeBytes must not be negative");
+		myBulkExportMaximumFileSizeBytes = theBulkExportMaximumFileSizeBytes;
+	}
+
 	/**
 	 * This is an internal API and may change or disappear without notice
 	 *
@@ -505,6 +665,34 @@ public class StorageSettings {
 		myIndexIdentifierOfType = theIndexIdentifierOfType;
 	}
 
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), the lists of bind variables used in
+	 * <code>IN</code> predicates by the search SQL generator are padded to the next power of two by
+	 * repeating their last value. This greatly reduces the number of distinct SQL statements that
+	 * searches produce, which improves the hit rate of the JDBC driver's statement cache and of the
+	 * database's execution plan cache, at the cost of binding a few redundant values. Lists with more
+	 * than 512 values are never padded.
+	 *
+	 * @since 7.2.0
+	 */
+	public boolean isInClauseParameterPaddingEnabled() {
+		return myInClauseParameterPaddingEnabled;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), the lists of bind variables used in
+	 * <code>IN</code> predicates by the search SQL generator are padded to the next power of two by
+	 * repeating their last value. This greatly reduces the number of distinct SQL statements that
+	 * searches produce, which improves the hit rate of the JDBC driver's statement cache and of the
+	 * database's execution plan cache, at the cost of binding a few redundant values. Lists with more
+	 * than 512 values are never padded.
+	 *
+	 * @since 7.2.0
+	 */
+	public void setInClauseParameterPaddingEnabled(boolean theInClauseParameterPaddingEnabled) {
+		myInClauseParameterPaddingEnabled = theInClauseParameterPaddingEnabled;
+	}
+
 	/**
 	 * If set to {@code true} the default search params (i.e. the search parameters that are
 	 * defined by the FHIR specification itself) may be overridden by uploading search
@@ -45,9 +45,14 @@ import ca.uhn.fhir.rest.api.RestSearchParameterTypeEnum;
 import ca.uhn.fhir.rest.param.QuantityParam;
 import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.server.util.ResourceSearchParams;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import jakarta.annotation.Nonnull;
 import org.apache.commons.lang3.StringUtils;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -62,6 +67,8 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 public final class ResourceIndexedSearchParams {
 	private static final Set<String> myIgnoredParams = Set.of(Constants.PARAM_TEXT, Constants.PARAM_CONTENT);
+	private static final HashFunction DIGEST_HASH_FUNCTION = Hashing.murmur3_128(0);
+	private static final byte DELIMITER = 0;
 	public final Collection<ResourceIndexedSearchParamString> myStringParams;
 	public final Collection<ResourceIndexedSearchParamToken> myTokenParams;
 	public final Collection<ResourceIndexedSearchParamNumber> myNumberParams;
@@ -171,6 +178,113 @@ public final class ResourceIndexedSearchParams {
 		theEntity.setResourceLinks(myLinks);
 	}
 
+	/**
+	 * Computes a digest of all of the index rows in this collection which are stored in the database. The
+	 * digest doesn't depend on the order of the rows, so two collections which would result in the same
+	 * rows being stored have the same digest. This is stored in {@link ResourceTable#getSearchParamIndexDigest()}
+	 * so that reindexing can skip resources whose indexes would not change.
+	 *
+	 * @since 7.2.0
+	 */
+	public long computeIndexDigest() {
+		long retVal = 0;
+		for (ResourceIndexedSearchParamString next : myStringParams) {
+			Hasher hasher = newHasher(next, 'S');
+			putDigestString(hasher, next.getValueExact());
+			putDigestString(hasher, next.getValueNormalized());
+			retVal += hasher.hash().asLong();
+		}
+		for (ResourceIndexedSearchParamToken next : myTokenParams) {
+			Hasher hasher = newHasher(next, 'T');
+			putDigestString(hasher, next.getSystem());
+			putDigestString(hasher, next.getValue());
+			retVal += hasher.hash().asLong();
+		}
+		for (ResourceIndexedSearchParamNumber next : myNumberParams) {
+			Hasher hasher = newHasher(next, 'N');
+			putDigestString(hasher, toDigestString(next.getValue()));
+			retVal += hasher.hash().asLong();
+		}
+		for (ResourceIndexedSearchParamQuantity next : myQuantityParams) {
+			Hasher hasher = newHasher(next, 'Q');
+			putDigestString(hasher, next.getSystem());
+			putDigestString(hasher, next.getUnits());
+			putDigestString(hasher, toDigestString(next.getValue()));
+			retVal += hasher.hash().asLong();
+		}
+		for (ResourceIndexedSearchParamQuantityNormalized next : myQuantityNormalizedParams) {
+			Hasher hasher = newHasher(next, 'q');
+			putDigestString(hasher, next.getSystem());
+			putDigestString(hasher, next.getUnits());
+			putDigestString(hasher, next.getValue() != null ? next.getValue().toString() : null);
+			retVal += hasher.hash().asLong();
+		}
+		for (ResourceIndexedSearchParamDate next : myDateParams) {
+			Hasher hasher = newHasher(next, 'D');
+			hasher.putLong(next.getValueLow() != null ? next.getValueLow().getTime() : Long.MIN_VALUE);
+			hasher.putLong(next.getValueHigh() != null ? next.getValueHigh().getTime() : Long.MIN_VALUE);
+			retVal += hasher.hash().asLong();
+		}
+		for (ResourceIndexedSearchParamUri next : myUriParams) {
+			Hasher hasher = newHasher(next, 'U');
+			putDigestString(hasher, next.getUri());
+			retVal += hasher.hash().asLong();
+		}
+		for (ResourceIndexedSearchParamCoords next : myCoordsParams) {
+			Hasher hasher = newHasher(next, 'C');
+			hasher.putDouble(next.getLatitude());
+			hasher.putDouble(next.getLongitude());
+			retVal += hasher.hash().asLong();
+		}
+		for (ResourceLink next : myLinks) {
+			Hasher hasher = DIGEST_HASH_FUNCTION.newHasher().putChar('L');
+			putDigestString(hasher, next.getSourcePath());
+			putDigestString(hasher, next.getTargetResourceType());
+			if (next.getTargetResourcePid() != null) {
+				hasher.putLong(next.getTargetResourcePid());
+			} else {
+				putDigestString(hasher, next.getTargetResourceId());
+			}
+			putDigestString(hasher, next.getTargetResourceUrl());
+			hasher.putLong(next.getTargetResourceVersion() != null ? next.getTargetResourceVersion() : -1L);
+			retVal += hasher.hash().asLong();
+		}
+		for (ResourceIndexedComboStringUnique next : myComboStringUniques) {
+			Hasher hasher = DIGEST_HASH_FUNCTION.newHasher().putChar('u');
+			putDigestString(hasher, next.getIndexString());
+			retVal += hasher.hash().asLong();
+		}
+		for (ResourceIndexedComboTokenNonUnique next : myComboTokenNonUnique) {
+			Hasher hasher = DIGEST_HASH_FUNCTION.newHasher().putChar('n');
+			putDigestString(hasher, next.getIndexString());
+			retVal += hasher.hash().asLong();
+		}
+		for (SearchParamPresentEntity next : mySearchParamPresentEntities) {
+			Hasher hasher = DIGEST_HASH_FUNCTION.newHasher().putChar('P');
+			putDigestString(hasher, next.getParamName());
+			hasher.putBoolean(next.isPresent());
+			retVal += hasher.hash().asLong();
+		}
+		return retVal;
+	}
+
+	private static Hasher newHasher(BaseResourceIndexedSearchParam theParam, char theType) {
+		Hasher retVal = DIGEST_HASH_FUNCTION.newHasher().putChar(theType);
+		putDigestString(retVal, theParam.getResourceType());
+		putDigestString(retVal, theParam.getParamName());
+		retVal.putBoolean(theParam.isMissing());
+		return retVal;
+	}
+
+	private static void putDigestString(Hasher theHasher, String theValue) {
+		theHasher.putString(StringUtils.defaultString(theValue), StandardCharsets.UTF_8);
+		theHasher.putByte(DELIMITER);
+	}
+
+	private static String toDigestString(BigDecimal theValue) {
+		return theValue != null ? theValue.stripTrailingZeros().toPlainString() : null;
+	}
+
 	public void updateSpnamePrefixForIndexOnUpliftedChain(String theContainingType, String theSpnamePrefix) {
 		updateSpnamePrefixForIndexOnUpliftedChain(theContainingType, myNumberParams, theSpnamePrefix);
 		updateSpnamePrefixForIndexOnUpliftedChain(theContainingType, myQuantityParams, theSpnamePrefix);
@@ -74,6 +74,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -84,6 +85,15 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 public class SearchParamExtractorService {
+	/**
+	 * {@link TransactionDetails} user data key holding an {@link IdentityHashMap} of resources to the
+	 * {@link PreExtractedSearchParams} which were extracted from them by {@link #preExtractSearchParams(RequestDetails, IBaseResource)}.
+	 * When a resource is found in this map, {@link #extractFromResource} uses (and removes) its entry
+	 * instead of extracting the same indexes again.
+	 */
+	public static final String XACT_USERDATA_KEY_PRE_EXTRACTED_SEARCH_PARAMS =
+			SearchParamExtractorService.class.getName() + "_PRE_EXTRACTED_SEARCH_PARAMS";
+
 	private static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(SearchParamExtractorService.class);
 
 	@Autowired
@@ -148,15 +158,19 @@ public class SearchParamExtractorService {
 			TransactionDetails theTransactionDetails,
 			boolean theFailOnInvalidReference,
 			@Nonnull ISearchParamExtractor.ISearchParamFilter theSearchParamFilter) {
+		PreExtractedSearchParams preExtracted = null;
+		if (theSearchParamFilter == ISearchParamExtractor.ALL_PARAMS) {
+			preExtracted = takePreExtractedSearchParams(theTransactionDetails, theResource);
+		}
+		if (preExtracted == null) {
+			preExtracted = preExtractSearchParams(theRequestDetails, theResource, theSearchParamFilter);
+		}
+
 		// All search parameter types except Reference
-		ResourceIndexedSearchParams normalParams = ResourceIndexedSearchParams.withSets();
-		extractSearchIndexParameters(theRequestDetails, normalParams, theResource, theSearchParamFilter);
-		mergeParams(normalParams, theNewParams);
+		mergeParams(preExtracted.myNormalParams, theNewParams);
 
 		boolean indexOnContainedResources = myStorageSettings.isIndexOnContainedResources();
-		ISearchParamExtractor.SearchParamSet<PathAndRef> indexedReferences =
-				mySearchParamExtractor.extractResourceLinks(theResource, indexOnContainedResources);
-		SearchParamExtractorService.handleWarnings(theRequestDetails, myInterceptorBroadcaster, indexedReferences);
+		ISearchParamExtractor.SearchParamSet<PathAndRef> indexedReferences = preExtracted.myIndexedReferences;
 
 		if (indexOnContainedResources) {
 			ResourceIndexedSearchParams containedParams = ResourceIndexedSearchParams.withSets();
@@ -234,6 +248,70 @@ public class SearchParamExtractorService {
 		theNewParams.setUpdatedTime(theTransactionDetails.getTransactionDate());
 	}
 
+	/**
+	 * Performs the part of {@link #extractFromResource} which only depends on the resource itself: all
+	 * search parameter types except references are extracted, and the references in the resource are found
+	 * but not resolved. This doesn't use the database, so it is safe to call this method from any thread, as
+	 * long as the resource isn't modified at the same time.
+	 * <p>
+	 * To use the result, place it in the {@link TransactionDetails} using
+	 * {@link #putPreExtractedSearchParams(TransactionDetails, IBaseResource, PreExtractedSearchParams)}
+	 * before the resource is stored. The resource must not be modified in between.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public PreExtractedSearchParams preExtractSearchParams(
+			RequestDetails theRequestDetails, IBaseResource theResource) {
+		return preExtractSearchParams(theRequestDetails, theResource, ISearchParamExtractor.ALL_PARAMS);
+	}
+
+	private PreExtractedSearchParams preExtractSearchParams(
+			RequestDetails theRequestDetails,
+			IBaseResource theResource,
+			@Nonnull ISearchParamExtractor.ISearchParamFilter theSearchParamFilter) {
+		ResourceIndexedSearchParams normalParams = ResourceIndexedSearchParams.withSets();
+		extractSearchIndexParameters(theRequestDetails, normalParams, theResource, theSearchParamFilter);
+
+		ISearchParamExtractor.SearchParamSet<PathAndRef> indexedReferences =
+				mySearchParamExtractor.extractResourceLinks(
+						theResource, myStorageSettings.isIndexOnContainedResources());
+		SearchParamExtractorService.handleWarnings(theRequestDetails, myInterceptorBroadcaster, indexedReferences);
+
+		return new PreExtractedSearchParams(normalParams, indexedReferences);
+	}
+
+	/**
+	 * Registers search parameters which were extracted from the given resource using
+	 * {@link #preExtractSearchParams(RequestDetails, IBaseResource)}, so that they are used when the
+	 * resource is stored in the transaction which the given {@link TransactionDetails} belongs to.
+	 *
+	 * @since 7.2.0
+	 */
+	public static void putPreExtractedSearchParams(
+			TransactionDetails theTransactionDetails,
+			IBaseResource theResource,
+			PreExtractedSearchParams thePreExtractedSearchParams) {
+		IdentityHashMap<IBaseResource, PreExtractedSearchParams> preExtracted =
+				theTransactionDetails.getOrCreateUserData(
+						XACT_USERDATA_KEY_PRE_EXTRACTED_SEARCH_PARAMS, IdentityHashMap::new);
+		preExtracted.put(theResource, thePreExtractedSearchParams);
+	}
+
+	@Nullable
+	private static PreExtractedSearchParams takePreExtractedSearchParams(
+			@Nullable TransactionDetails theTransactionDetails, IBaseResource theResource) {
+		if (theTransactionDetails == null) {
+			return null;
+		}
+		IdentityHashMap<IBaseResource, PreExtractedSearchParams> preExtracted =
+				theTransactionDetails.getUserData(XACT_USERDATA_KEY_PRE_EXTRACTED_SEARCH_PARAMS);
+		if (preExtracted == null) {
+			return null;
+		}
+		return preExtracted.remove(theResource);
+	}
+
 	@Nonnull
 	private Map<String, Boolean> getReferenceSearchParamPresenceMap(
 			ResourceTable entity, ResourceIndexedSearchParams newParams) {
@@ -1222,4 +1300,22 @@ public class SearchParamExtractorService {
 			}
 		}
 	}
+
+	/**
+	 * The search parameter indexes extracted by {@link #preExtractSearchParams(RequestDetails, IBaseResource)}
+	 *
+	 * @since 7.2.0
+	 */
+	public static class PreExtractedSearchParams {
+
+		private final ResourceIndexedSearchParams myNormalParams;
+		private final ISearchParamExtractor.SearchParamSet<PathAndRef> myIndexedReferences;
+
+		private PreExtractedSearchParams(
+				ResourceIndexedSearchParams theNormalParams,
+				ISearchParamExtractor.SearchParamSet<PathAndRef> theIndexedReferences) {
+			myNormalParams = theNormalParams;
+			myIndexedReferences = theIndexedReferences;
+		}
+	}
 }
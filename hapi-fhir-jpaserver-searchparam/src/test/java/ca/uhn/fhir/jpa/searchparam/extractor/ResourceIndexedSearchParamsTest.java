@@ -1,5 +1,8 @@
 package ca.uhn.fhir.jpa.searchparam.extractor;
 
+import ca.uhn.fhir.jpa.model.config.PartitionSettings;
+import ca.uhn.fhir.jpa.model.entity.ResourceIndexedSearchParamString;
+import ca.uhn.fhir.jpa.model.entity.ResourceIndexedSearchParamToken;
 import ca.uhn.fhir.jpa.model.entity.StorageSettings;
 import ca.uhn.fhir.jpa.model.entity.ResourceLink;
 import ca.uhn.fhir.jpa.model.entity.ResourceTable;
@@ -14,7 +17,9 @@ import java.util.Set;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -74,6 +79,38 @@ public class ResourceIndexedSearchParamsTest {
 		assertTrue(result);
 	}
 
+	@Test
+	public void computeIndexDigest() {
+		PartitionSettings partitionSettings = new PartitionSettings();
+		ResourceIndexedSearchParams params0 = ResourceIndexedSearchParams.withSets();
+		params0.myTokenParams.add(new ResourceIndexedSearchParamToken(partitionSettings, "Patient", "identifier", "http://foo", "A"));
+		params0.myTokenParams.add(new ResourceIndexedSearchParamToken(partitionSettings, "Patient", "identifier", "http://foo", "B"));
+		params0.myStringParams.add(new ResourceIndexedSearchParamString(partitionSettings, myStorageSettings, "Patient", "family", "SIMPSON", "Simpson"));
+
+		// Same rows in a different order
+		ResourceIndexedSearchParams params1 = ResourceIndexedSearchParams.withLists(mySource);
+		params1.myStringParams.add(new ResourceIndexedSearchParamString(partitionSettings, myStorageSettings, "Patient", "family", "SIMPSON", "Simpson"));
+		params1.myTokenParams.add(new ResourceIndexedSearchParamToken(partitionSettings, "Patient", "identifier", "http://foo", "B"));
+		params1.myTokenParams.add(new ResourceIndexedSearchParamToken(partitionSettings, "Patient", "identifier", "http://foo", "A"));
+		assertEquals(params0.computeIndexDigest(), params1.computeIndexDigest());
+
+		// Different value
+		ResourceIndexedSearchParams params2 = ResourceIndexedSearchParams.withSets();
+		params2.myTokenParams.add(new ResourceIndexedSearchParamToken(partitionSettings, "Patient", "identifier", "http://foo", "A"));
+		params2.myTokenParams.add(new ResourceIndexedSearchParamToken(partitionSettings, "Patient", "identifier", "http://foo", "C"));
+		params2.myStringParams.add(new ResourceIndexedSearchParamString(partitionSettings, myStorageSettings, "Patient", "family", "SIMPSON", "Simpson"));
+		assertNotEquals(params0.computeIndexDigest(), params2.computeIndexDigest());
+
+		// Same value in a different parameter
+		ResourceIndexedSearchParams params3 = ResourceIndexedSearchParams.withSets();
+		params3.myTokenParams.add(new ResourceIndexedSearchParamToken(partitionSettings, "Patient", "identifier", "http://foo", "A"));
+		params3.myTokenParams.add(new ResourceIndexedSearchParamToken(partitionSettings, "Patient", "identifier", "http://foo", "B"));
+		params3.myStringParams.add(new ResourceIndexedSearchParamString(partitionSettings, myStorageSettings, "Patient", "name", "SIMPSON", "Simpson"));
+		assertNotEquals(params0.computeIndexDigest(), params3.computeIndexDigest());
+
+		assertEquals(0L, ResourceIndexedSearchParams.withSets().computeIndexDigest());
+	}
+
 	private ReferenceParam getReferenceParam(String theId) {
 		ReferenceParam retVal = new ReferenceParam();
 		retVal.setValue(theId);
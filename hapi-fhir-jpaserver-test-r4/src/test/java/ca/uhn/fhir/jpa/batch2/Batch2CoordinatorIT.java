@@ -21,6 +21,7 @@ import ca.uhn.fhir.batch2.model.JobInstanceStartRequest;
 import ca.uhn.fhir.batch2.model.JobWorkNotificationJsonMessage;
 import ca.uhn.fhir.batch2.model.StatusEnum;
 import ca.uhn.fhir.batch2.models.JobInstanceFetchRequest;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.batch.models.Batch2JobStartResponse;
 import ca.uhn.fhir.jpa.subscription.channel.api.ChannelConsumerSettings;
 import ca.uhn.fhir.jpa.subscription.channel.api.IChannelFactory;
@@ -102,6 +103,7 @@ public class Batch2CoordinatorIT extends BaseJpaR4Test {
 	@AfterEach
 	public void after() {
 		myWorkChannel.clearInterceptorsForUnitTest();
+		myStorageSettings.setJobInMemoryWorkChunksEnabled(new JpaStorageSettings().isJobInMemoryWorkChunksEnabled());
 	}
 
 	@Test
@@ -411,6 +413,45 @@ public class Batch2CoordinatorIT extends BaseJpaR4Test {
 	}
 
 
+	@Test
+	public void testInMemoryWorkChunks_nonGatedJobCompletes() throws InterruptedException {
+		myStorageSettings.setJobInMemoryWorkChunksEnabled(true);
+
+		IJobStepWorker<TestJobParameters, VoidModel, FirstStepOutput> firstStep = (step, sink) -> {
+			sink.accept(new FirstStepOutput());
+			sink.accept(new FirstStepOutput());
+			sink.accept(new FirstStepOutput());
+			return callLatch(myFirstStepLatch, step);
+		};
+		IJobStepWorker<TestJobParameters, FirstStepOutput, VoidModel> lastStep = (step, sink) -> {
+			assertNotNull(step.getData());
+			return callLatch(myLastStepLatch, step);
+		};
+
+		String jobDefId = new Exception().getStackTrace()[0].getMethodName();
+		JobDefinition<? extends IModelJson> definition = JobDefinition.newBuilder()
+			.setJobDefinitionId(jobDefId)
+			.setJobDescription("test job")
+			.setJobDefinitionVersion(TEST_JOB_VERSION)
+			.setParametersType(TestJobParameters.class)
+			.addFirstStep(FIRST_STEP_ID, "Test first step", FirstStepOutput.class, firstStep)
+			.addLastStep(LAST_STEP_ID, "Test last step", lastStep)
+			.build();
+		myJobDefinitionRegistry.addJobDefinition(definition);
+
+		myFirstStepLatch.setExpectedCount(1);
+		myLastStepLatch.setExpectedCount(3);
+		String instanceId = myJobCoordinator.startInstance(buildRequest(jobDefId)).getInstanceId();
+		myFirstStepLatch.awaitExpected();
+		myLastStepLatch.awaitExpected();
+
+		// The chunk completions are written by the maintenance pass
+		myBatch2JobHelper.awaitJobCompletion(instanceId);
+		JobInstance instance = myJobPersistence.fetchInstance(instanceId).orElseThrow();
+		assertEquals(StatusEnum.COMPLETED, instance.getStatus());
+		assertEquals(1.0, instance.getProgress());
+	}
+
 	@Test
 	public void JobExecutionFailedException_CausesInstanceFailure() {
 		// setup
@@ -7,7 +7,9 @@ import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.dao.r4.BasePartitioningR4Test;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Reference;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
@@ -47,6 +49,7 @@ public class ConsumeFilesStepR4Test extends BasePartitioningR4Test {
 	@Override
 	public void after() {
 		super.after();
+		myStorageSettings.setBulkImportThreadCount(new JpaStorageSettings().getBulkImportThreadCount());
 	}
 
 	@Test
@@ -204,6 +207,78 @@ public class ConsumeFilesStepR4Test extends BasePartitioningR4Test {
 
 	}
 
+	@Test
+	public void testNotAlreadyExisting_Parallel() {
+		// Setup
+		myStorageSettings.setBulkImportThreadCount(2);
+
+		List<IBaseResource> resources = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Patient patient = new Patient();
+			patient.setId("P" + i);
+			patient.setActive(true);
+			resources.add(patient);
+		}
+
+		// Execute
+
+		myCaptureQueriesListener.clear();
+		mySvc.storeResources(resources, null);
+
+		// Validate
+
+		assertEquals(2, myCaptureQueriesListener.countCommits());
+		assertEquals(0, myCaptureQueriesListener.countRollbacks());
+		for (int i = 0; i < 10; i++) {
+			Patient patient = myPatientDao.read(new IdType("Patient/P" + i));
+			assertTrue(patient.getActive());
+		}
+	}
+
+	@Test
+	public void testNotAlreadyExisting_Parallel_DuplicateIdsAndReferences() {
+		// Setup
+		myStorageSettings.setBulkImportThreadCount(4);
+
+		// Two versions of each Patient, with an Observation referencing it in between. Split by
+		// position, these would end up in different slices.
+		List<IBaseResource> resources = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Patient patient = new Patient();
+			patient.setId("P" + i);
+			patient.setActive(false);
+			resources.add(patient);
+
+			Observation observation = new Observation();
+			observation.setId("O" + i);
+			observation.setStatus(Observation.ObservationStatus.FINAL);
+			observation.setSubject(new Reference("Patient/P" + i));
+			resources.add(observation);
+
+			patient = new Patient();
+			patient.setId("P" + i);
+			patient.setActive(true);
+			resources.add(patient);
+		}
+
+		// Execute
+
+		myCaptureQueriesListener.clear();
+		mySvc.storeResources(resources, null);
+
+		// Validate
+
+		assertEquals(4, myCaptureQueriesListener.countCommits());
+		assertEquals(0, myCaptureQueriesListener.countRollbacks());
+		for (int i = 0; i < 10; i++) {
+			Patient patient = myPatientDao.read(new IdType("Patient/P" + i));
+			assertTrue(patient.getActive());
+			assertEquals("2", patient.getIdElement().getVersionIdPart());
+			Observation observation = myObservationDao.read(new IdType("Observation/O" + i));
+			assertEquals("Patient/P" + i, observation.getSubject().getReference());
+		}
+	}
+
 	@Test
 	public void testNotAlreadyExisting_InvalidIdForStorage() {
 		// Setup
@@ -0,0 +1,154 @@
+package ca.uhn.fhir.jpa.dao.r4;
+
+import ca.uhn.fhir.batch2.api.IJobCoordinator;
+import ca.uhn.fhir.batch2.jobs.reindex.ReindexAppCtx;
+import ca.uhn.fhir.batch2.jobs.reindex.ReindexJobParameters;
+import ca.uhn.fhir.batch2.model.JobInstanceStartRequest;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.jpa.api.dao.ReindexParameters;
+import ca.uhn.fhir.jpa.batch.models.Batch2JobStartResponse;
+import ca.uhn.fhir.jpa.dao.compression.DeflateDictionaryResourceCompressionCodec;
+import ca.uhn.fhir.jpa.dao.compression.GZipResourceCompressionCodec;
+import ca.uhn.fhir.jpa.dao.compression.ResourceCompressionCodecRegistry;
+import ca.uhn.fhir.jpa.model.entity.ResourceEncodingEnum;
+import ca.uhn.fhir.jpa.model.entity.ResourceHistoryTable;
+import ca.uhn.fhir.jpa.searchparam.SearchParameterMap;
+import ca.uhn.fhir.jpa.test.BaseJpaR4Test;
+import ca.uhn.fhir.rest.param.DateRangeParam;
+import ca.uhn.fhir.rest.param.HistorySearchDateRangeParam;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.instance.model.api.IIdType;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FhirResourceDaoR4CompressedResourceTest extends BaseJpaR4Test {
+
+	@Autowired
+	private IJobCoordinator myJobCoordinator;
+
+	@AfterEach
+	public void after() {
+		myStorageSettings.setResourceCompressionCodecId(new JpaStorageSettings().getResourceCompressionCodecId());
+	}
+
+	@Test
+	public void testCreateAndRetrieveCompressedResource() {
+		myStorageSettings.setResourceCompressionCodecId(DeflateDictionaryResourceCompressionCodec.DEFAULT_ID);
+
+		IIdType id = createPatient(withActiveTrue(), withFamily("SIMPSON"));
+		Long pid = id.getIdPartAsLong();
+
+		runInTransaction(() -> {
+			ResourceHistoryTable historyEntity = myResourceHistoryTableDao.findForIdAndVersionAndFetchProvenance(pid, 1);
+			assertEquals(ResourceEncodingEnum.JSONZ, historyEntity.getEncoding());
+			assertNull(historyEntity.getResourceTextVc());
+			assertEquals(DeflateDictionaryResourceCompressionCodec.DEFAULT_ID, ResourceCompressionCodecRegistry.getCodecId(historyEntity.getResource()));
+		});
+
+		// Read
+		validatePatient(myPatientDao.read(id.withVersion(null), mySrd));
+
+		// VRead
+		validatePatient(myPatientDao.read(id.withVersion("1"), mySrd));
+
+		// Search (Sync)
+		validatePatient(myPatientDao.search(SearchParameterMap.newSynchronous(), mySrd).getResources(0, 1).get(0));
+
+		// Search (Async)
+		validatePatient(myPatientDao.search(new SearchParameterMap(), mySrd).getResources(0, 1).get(0));
+
+		// History
+		validatePatient(myPatientDao.history(id, new HistorySearchDateRangeParam(new HashMap<>(), new DateRangeParam(), 0), mySrd).getResources(0, 1).get(0));
+	}
+
+	@Test
+	public void testUpdateWithNoChangesIsSuppressed() {
+		myStorageSettings.setResourceCompressionCodecId(DeflateDictionaryResourceCompressionCodec.DEFAULT_ID);
+
+		IIdType id = createPatient(withActiveTrue(), withFamily("SIMPSON"));
+
+		Patient patient = new Patient();
+		patient.setId(id.toUnqualifiedVersionless());
+		patient.setActive(true);
+		patient.addName().setFamily("SIMPSON");
+		IIdType updatedId = myPatientDao.update(patient, mySrd).getId();
+		assertEquals("1", updatedId.getVersionIdPart());
+
+		patient.setActive(false);
+		updatedId = myPatientDao.update(patient, mySrd).getId();
+		assertEquals("2", updatedId.getVersionIdPart());
+	}
+
+	@Test
+	public void testOptimizeStorageRecompressesExistingVersions() {
+		IIdType id = createPatient(withActiveTrue());
+		for (int i = 0; i < 3; i++) {
+			Patient patient = new Patient();
+			patient.setId(id.toUnqualifiedVersionless());
+			patient.setActive(true);
+			patient.addIdentifier().setValue(String.valueOf(i));
+			myPatientDao.update(patient, mySrd);
+		}
+
+		// Simulate data written by an older version or a different codec
+		relocateResourceTextToCompressedColumn(id.getIdPartAsLong(), 1L);
+		myStorageSettings.setResourceCompressionCodecId(GZipResourceCompressionCodec.ID);
+		Patient patient = new Patient();
+		patient.setId(id.toUnqualifiedVersionless());
+		patient.setActive(true);
+		myPatientDao.update(patient, mySrd);
+
+		myStorageSettings.setResourceCompressionCodecId(DeflateDictionaryResourceCompressionCodec.DEFAULT_ID);
+		runReindexOptimizeStorage();
+
+		runInTransaction(() -> {
+			assertEquals(5, myResourceHistoryTableDao.count());
+			for (ResourceHistoryTable history : myResourceHistoryTableDao.findAll()) {
+				assertEquals(ResourceEncodingEnum.JSONZ, history.getEncoding());
+				assertNull(history.getResourceTextVc());
+				assertEquals(DeflateDictionaryResourceCompressionCodec.DEFAULT_ID, ResourceCompressionCodecRegistry.getCodecId(history.getResource()));
+			}
+		});
+		validatePatient(myPatientDao.read(id.withVersion("1"), mySrd));
+		validatePatient(myPatientDao.read(id.withVersion(null), mySrd));
+
+		// Disabling compression and optimizing again moves everything back inline
+		myStorageSettings.setResourceCompressionCodecId(null);
+		runReindexOptimizeStorage();
+
+		runInTransaction(() -> {
+			for (ResourceHistoryTable history : myResourceHistoryTableDao.findAll()) {
+				assertEquals(ResourceEncodingEnum.JSON, history.getEncoding());
+				assertNotNull(history.getResourceTextVc());
+				assertNull(history.getResource());
+			}
+		});
+		validatePatient(myPatientDao.read(id.withVersion("1"), mySrd));
+	}
+
+	private void runReindexOptimizeStorage() {
+		JobInstanceStartRequest startRequest = new JobInstanceStartRequest();
+		startRequest.setJobDefinitionId(ReindexAppCtx.JOB_REINDEX);
+		startRequest.setParameters(
+			new ReindexJobParameters()
+				.setOptimizeStorage(ReindexParameters.OptimizeStorageModeEnum.ALL_VERSIONS)
+				.setReindexSearchParameters(ReindexParameters.ReindexSearchParametersEnum.NONE)
+		);
+		Batch2JobStartResponse startResponse = myJobCoordinator.startInstance(startRequest);
+		myBatch2JobHelper.awaitJobCompletion(startResponse);
+	}
+
+	private void validatePatient(IBaseResource theRead) {
+		assertTrue(((Patient) theRead).getActive());
+	}
+
+}
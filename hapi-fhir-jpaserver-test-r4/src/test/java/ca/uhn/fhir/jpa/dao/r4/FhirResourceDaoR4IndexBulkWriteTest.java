@@ -0,0 +1,113 @@
+package ca.uhn.fhir.jpa.dao.r4;
+
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.jpa.searchparam.SearchParameterMap;
+import ca.uhn.fhir.jpa.test.BaseJpaR4Test;
+import ca.uhn.fhir.rest.param.DateParam;
+import ca.uhn.fhir.rest.param.ReferenceParam;
+import ca.uhn.fhir.rest.param.StringParam;
+import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.util.BundleBuilder;
+import org.hl7.fhir.instance.model.api.IIdType;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.DateTimeType;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Reference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class FhirResourceDaoR4IndexBulkWriteTest extends BaseJpaR4Test {
+
+	@BeforeEach
+	public void before() {
+		myStorageSettings.setIndexBulkWriteEnabled(true);
+	}
+
+	@AfterEach
+	public void after() {
+		myStorageSettings.setIndexBulkWriteEnabled(new JpaStorageSettings().isIndexBulkWriteEnabled());
+	}
+
+	@Test
+	public void testTransactionWithPlaceholderReferences() {
+		BundleBuilder bb = new BundleBuilder(myFhirContext);
+		for (int i = 0; i < 10; i++) {
+			Patient patient = new Patient();
+			patient.setId(IdType.newRandomUuid());
+			patient.addIdentifier().setSystem("http://patients").setValue("P" + i);
+			patient.addName().setFamily("FAMILY" + i);
+			bb.addTransactionCreateEntry(patient);
+
+			Observation observation = new Observation();
+			observation.setStatus(Observation.ObservationStatus.FINAL);
+			observation.getCode().addCoding().setSystem("http://codes").setCode("CODE" + i);
+			observation.setSubject(new Reference(patient.getIdElement().getValue()));
+			observation.setEffective(new DateTimeType("2024-01-1" + i));
+			bb.addTransactionCreateEntry(observation);
+		}
+		Bundle outcome = mySystemDao.transaction(mySrd, (Bundle) bb.getBundle());
+		IIdType patientId = new IdType(outcome.getEntry().get(4).getResponse().getLocation()).toUnqualifiedVersionless();
+		IIdType observationId = new IdType(outcome.getEntry().get(5).getResponse().getLocation()).toUnqualifiedVersionless();
+
+		SearchParameterMap map = SearchParameterMap.newSynchronous(Patient.SP_IDENTIFIER, new TokenParam("http://patients", "P2"));
+		assertThat(toUnqualifiedVersionlessIdValues(myPatientDao.search(map, mySrd)), contains(patientId.getValue()));
+
+		map = SearchParameterMap.newSynchronous(Patient.SP_FAMILY, new StringParam("FAMILY2"));
+		assertThat(toUnqualifiedVersionlessIdValues(myPatientDao.search(map, mySrd)), contains(patientId.getValue()));
+
+		map = SearchParameterMap.newSynchronous(Observation.SP_SUBJECT, new ReferenceParam(patientId.getValue()));
+		map.add(Observation.SP_CODE, new TokenParam("http://codes", "CODE2"));
+		map.add(Observation.SP_DATE, new DateParam("2024-01-12"));
+		assertThat(toUnqualifiedVersionlessIdValues(myObservationDao.search(map, mySrd)), contains(observationId.getValue()));
+	}
+
+	@Test
+	public void testUpdateReusesBulkWrittenRows() {
+		Observation observation = new Observation();
+		observation.setStatus(Observation.ObservationStatus.FINAL);
+		observation.getCode().addCoding().setSystem("http://codes").setCode("CODE0");
+		IIdType id = myObservationDao.create(observation, mySrd).getId().toUnqualifiedVersionless();
+
+		observation = new Observation();
+		observation.setId(id);
+		observation.setStatus(Observation.ObservationStatus.FINAL);
+		observation.getCode().addCoding().setSystem("http://codes").setCode("CODE1");
+		myObservationDao.update(observation, mySrd);
+
+		SearchParameterMap map = SearchParameterMap.newSynchronous(Observation.SP_CODE, new TokenParam("http://codes", "CODE0"));
+		assertThat(toUnqualifiedVersionlessIdValues(myObservationDao.search(map, mySrd)), empty());
+
+		map = SearchParameterMap.newSynchronous(Observation.SP_CODE, new TokenParam("http://codes", "CODE1"));
+		assertThat(toUnqualifiedVersionlessIdValues(myObservationDao.search(map, mySrd)), contains(id.getValue()));
+	}
+
+	@Test
+	public void testUpdateReusesBulkWrittenRowsInSameTransaction() {
+		IIdType id = runInTransaction(() -> {
+			Observation observation = new Observation();
+			observation.setStatus(Observation.ObservationStatus.FINAL);
+			observation.getCode().addCoding().setSystem("http://codes").setCode("CODE0");
+			IIdType createdId = myObservationDao.create(observation, mySrd).getId().toUnqualifiedVersionless();
+
+			observation = new Observation();
+			observation.setId(createdId);
+			observation.setStatus(Observation.ObservationStatus.FINAL);
+			observation.getCode().addCoding().setSystem("http://codes").setCode("CODE1");
+			myObservationDao.update(observation, mySrd);
+			return createdId;
+		});
+
+		SearchParameterMap map = SearchParameterMap.newSynchronous(Observation.SP_CODE, new TokenParam("http://codes", "CODE0"));
+		assertThat(toUnqualifiedVersionlessIdValues(myObservationDao.search(map, mySrd)), empty());
+
+		map = SearchParameterMap.newSynchronous(Observation.SP_CODE, new TokenParam("http://codes", "CODE1"));
+		assertThat(toUnqualifiedVersionlessIdValues(myObservationDao.search(map, mySrd)), contains(id.getValue()));
+	}
+}
@@ -0,0 +1,130 @@
+package ca.uhn.fhir.jpa.dao.r4;
+
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.jpa.dao.ParsedResourceCache;
+import ca.uhn.fhir.jpa.searchparam.SearchParameterMap;
+import ca.uhn.fhir.jpa.test.BaseJpaR4Test;
+import ca.uhn.fhir.rest.api.Constants;
+import org.hl7.fhir.instance.model.api.IIdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class FhirResourceDaoR4ParsedResourceCacheTest extends BaseJpaR4Test {
+
+	@Autowired
+	private ParsedResourceCache myParsedResourceCache;
+
+	@BeforeEach
+	public void before() {
+		myStorageSettings.setParsedResourceCacheMaxEntries(100);
+		myParsedResourceCache.invalidateAll();
+	}
+
+	@AfterEach
+	public void after() {
+		JpaStorageSettings defaults = new JpaStorageSettings();
+		myStorageSettings.setParsedResourceCacheMaxEntries(defaults.getParsedResourceCacheMaxEntries());
+		myStorageSettings.setParsedResourceCacheMaxWeight(defaults.getParsedResourceCacheMaxWeight());
+		myStorageSettings.setUpdateWithHistoryRewriteEnabled(defaults.isUpdateWithHistoryRewriteEnabled());
+		when(mySrd.getHeader(eq(Constants.HEADER_REWRITE_HISTORY))).thenReturn("");
+		myParsedResourceCache.invalidateAll();
+	}
+
+	@Test
+	public void testReadReturnsCopyOfCachedResource() {
+		Patient input = new Patient();
+		input.setActive(true);
+		input.addName().setFamily("SIMPSON");
+		input.getMeta().addTag("http://tags", "tag0", null);
+		Organization org = new Organization();
+		org.setId("org");
+		org.setName("ORG");
+		input.getContained().add(org);
+		input.getManagingOrganization().setReference("#org");
+		IIdType id = myPatientDao.create(input, mySrd).getId().toUnqualifiedVersionless();
+
+		long hits = myParsedResourceCache.getHitCount();
+		Patient first = myPatientDao.read(id, mySrd);
+		String expected = myFhirContext.newJsonParser().encodeResourceToString(first);
+
+		// Modifying the returned resource must not affect the cached copy
+		first.addName().setFamily("MODIFIED");
+		first.getMeta().addTag("http://tags", "tag1", null);
+
+		Patient second = myPatientDao.read(id, mySrd);
+		assertNotSame(first, second);
+		assertTrue(myParsedResourceCache.getHitCount() > hits);
+		assertEquals(expected, myFhirContext.newJsonParser().encodeResourceToString(second));
+		assertEquals("1", second.getIdElement().getVersionIdPart());
+		assertEquals(1, second.getMeta().getTag().size());
+
+		// Search results use the same cache
+		Patient searched = (Patient) myPatientDao.search(SearchParameterMap.newSynchronous(), mySrd).getResources(0, 1).get(0);
+		assertEquals(expected, myFhirContext.newJsonParser().encodeResourceToString(searched));
+	}
+
+	@Test
+	public void testNewVersionIsNotServedFromCache() {
+		IIdType id = createPatient(withActiveTrue());
+		assertTrue(myPatientDao.read(id.toUnqualifiedVersionless(), mySrd).getActive());
+
+		Patient update = new Patient();
+		update.setId(id.toUnqualifiedVersionless());
+		update.setActive(false);
+		myPatientDao.update(update, mySrd);
+
+		assertFalse(myPatientDao.read(id.toUnqualifiedVersionless(), mySrd).getActive());
+		assertTrue(myPatientDao.read(id.withVersion("1"), mySrd).getActive());
+	}
+
+	@Test
+	public void testHistoryRewriteInvalidatesCachedVersion() {
+		myStorageSettings.setUpdateWithHistoryRewriteEnabled(true);
+		IIdType id = createPatient(withFamily("SIMPSON"));
+		assertEquals("SIMPSON", myPatientDao.read(id.withVersion("1"), mySrd).getNameFirstRep().getFamily());
+
+		when(mySrd.isRewriteHistory()).thenReturn(true);
+		Patient rewrite = new Patient();
+		rewrite.setId(id.toUnqualifiedVersionless().withVersion("1"));
+		rewrite.addName().setFamily("FLANDERS");
+		myPatientDao.update(rewrite, mySrd);
+		when(mySrd.isRewriteHistory()).thenReturn(false);
+
+		assertEquals("FLANDERS", myPatientDao.read(id.withVersion("1"), mySrd).getNameFirstRep().getFamily());
+	}
+
+	@Test
+	public void testCacheDisabled() {
+		myStorageSettings.setParsedResourceCacheMaxEntries(0);
+		IIdType id = createPatient(withActiveTrue());
+
+		myPatientDao.read(id.toUnqualifiedVersionless(), mySrd);
+		myPatientDao.read(id.toUnqualifiedVersionless(), mySrd);
+
+		assertFalse(myParsedResourceCache.isEnabled());
+		assertEquals(0, myParsedResourceCache.getEstimatedSize());
+	}
+
+	@Test
+	public void testWeightLimitedCache() {
+		myStorageSettings.setParsedResourceCacheMaxWeight(100000);
+		IIdType id = createPatient(withActiveTrue());
+
+		long hits = myParsedResourceCache.getHitCount();
+		myPatientDao.read(id.toUnqualifiedVersionless(), mySrd);
+		myPatientDao.read(id.toUnqualifiedVersionless(), mySrd);
+
+		assertEquals(hits + 1, myParsedResourceCache.getHitCount());
+	}
+}
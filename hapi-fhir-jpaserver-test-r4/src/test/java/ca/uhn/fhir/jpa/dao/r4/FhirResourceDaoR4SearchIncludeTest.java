@@ -39,6 +39,8 @@ import java.util.stream.IntStream;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -49,6 +51,7 @@ public class FhirResourceDaoR4SearchIncludeTest extends BaseJpaR4Test {
 	@AfterEach
 	public void afterEach() {
 		myStorageSettings.setMaximumIncludesToLoadPerPage(JpaStorageSettings.DEFAULT_MAXIMUM_INCLUDES_TO_LOAD_PER_PAGE);
+		myStorageSettings.setIncludeLoadingThreadCount(new JpaStorageSettings().getIncludeLoadingThreadCount());
 	}
 
 	@Test
@@ -80,6 +83,31 @@ public class FhirResourceDaoR4SearchIncludeTest extends BaseJpaR4Test {
 		assertThat(ids.toString(), ids, new IsIterableContainingInAnyOrder(expected));
 	}
 
+	@Test
+	public void testRevIncludes_SyncSearch_ConcurrentIncludeLoading() {
+		myStorageSettings.setIncludeLoadingThreadCount(2);
+		createOrganizationWithReferencingEpisodesOfCare(10);
+
+		myCaptureQueriesListener.clear();
+		SearchParameterMap map = SearchParameterMap.newSynchronous()
+			.add("_id", new TokenParam("ORG-0"))
+			.addInclude(new Include("Organization:partof"))
+			.addRevInclude(new Include("EpisodeOfCare:organization"))
+			.addRevInclude(new Include("Organization:partof"));
+		IBundleProvider results = myOrganizationDao.search(map);
+		List<String> ids = toUnqualifiedVersionlessIdValues(results);
+		Collection<Matcher<String>> expected = IntStream.range(0, 10).mapToObj(t -> equalTo("EpisodeOfCare/EOC-" + t)).collect(Collectors.toList());
+		expected.add(equalTo("Organization/ORG-0"));
+		expected.add(equalTo("Organization/ORG-P"));
+		assertThat(ids.toString(), ids, new IsIterableContainingInAnyOrder(expected));
+
+		// The two _revinclude queries are shared between the searching thread and the include loading pool
+		long includeQueries = myCaptureQueriesListener.getSelectQueries().stream().filter(t -> t.getSql(false, false).contains("HFJ_RES_LINK")).count();
+		long pooledQueries = myCaptureQueriesListener.getSelectQueries().stream().filter(t -> t.getThreadName().startsWith("include-loader-")).count();
+		assertThat(includeQueries, greaterThanOrEqualTo(2L));
+		assertThat(pooledQueries, lessThanOrEqualTo(2L));
+	}
+
 	@Test
 	public void testRevIncludesPaged_SyncSearchWithoutCount() {
 		createOrganizationWithReferencingEpisodesOfCare(10);
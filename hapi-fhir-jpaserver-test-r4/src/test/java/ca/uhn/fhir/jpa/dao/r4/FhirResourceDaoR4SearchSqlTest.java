@@ -5,11 +5,14 @@ import ca.uhn.fhir.jpa.searchparam.SearchParameterMap;
 import ca.uhn.fhir.jpa.test.BaseJpaR4Test;
 import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.param.HasParam;
+import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.StringParam;
 import ca.uhn.fhir.rest.param.TokenParam;
 import ca.uhn.fhir.rest.param.UriParam;
 import org.hamcrest.Matchers;
 import org.hl7.fhir.instance.model.api.IIdType;
+import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.SearchParameter;
 import org.junit.jupiter.api.AfterEach;
@@ -27,6 +30,7 @@ import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class FhirResourceDaoR4SearchSqlTest extends BaseJpaR4Test {
@@ -43,6 +47,8 @@ public class FhirResourceDaoR4SearchSqlTest extends BaseJpaR4Test {
 	@AfterEach
 	public void after() {
 		myStorageSettings.setTagStorageMode(JpaStorageSettings.DEFAULT_TAG_STORAGE_MODE);
+		myStorageSettings.setSearchParameterOrderingEnabled(new JpaStorageSettings().isSearchParameterOrderingEnabled());
+		myStorageSettings.setChainedSearchPreResolutionThreshold(new JpaStorageSettings().getChainedSearchPreResolutionThreshold());
 	}
 
 	/**
@@ -78,6 +84,65 @@ public class FhirResourceDaoR4SearchSqlTest extends BaseJpaR4Test {
 
 	}
 
+	/**
+	 * Two regular search params with ordering enabled - The exact token is more selective than
+	 * the string prefix, so it should be joined first
+	 */
+	@Test
+	public void testTwoRegularSearchParams_OrderedBySelectivity() {
+		myStorageSettings.setSearchParameterOrderingEnabled(true);
+
+		myCaptureQueriesListener.clear();
+		SearchParameterMap map = SearchParameterMap.newSynchronous()
+			.add(Patient.SP_NAME, new StringParam("FOO"))
+			.add(Patient.SP_GENDER, new TokenParam("a", "b"));
+		myPatientDao.search(map);
+		assertEquals(1, myCaptureQueriesListener.countSelectQueries());
+		String sql = myCaptureQueriesListener.getSelectQueriesForCurrentThread().get(0).getSql(false, false);
+		assertEquals("SELECT t1.RES_ID FROM HFJ_RESOURCE t1 INNER JOIN HFJ_SPIDX_TOKEN t0 ON (t1.RES_ID = t0.RES_ID) INNER JOIN HFJ_SPIDX_STRING t2 ON (t1.RES_ID = t2.RES_ID) WHERE ((t0.HASH_SYS_AND_VALUE = ?) AND ((t2.HASH_NORM_PREFIX = ?) AND (t2.SP_VALUE_NORMALIZED LIKE ?)))", sql);
+	}
+
+	@Test
+	public void testChainedSearch_PreResolvedTargets() {
+		myStorageSettings.setChainedSearchPreResolutionThreshold(10);
+		IIdType patientId = createPatient(withFamily("SMITH"));
+		createPatient(withFamily("JONES"));
+		IIdType obsId = createObservation(withSubject(patientId), withObservationCode("http://foo", "bar"));
+
+		// Chain
+		myCaptureQueriesListener.clear();
+		SearchParameterMap map = SearchParameterMap.newSynchronous(Observation.SP_SUBJECT, new ReferenceParam("Patient", "name", "SMITH"));
+		IBundleProvider outcome = myObservationDao.search(map, mySrd);
+		assertThat(toUnqualifiedVersionlessIds(outcome), Matchers.contains(obsId));
+		List<String> sql = myCaptureQueriesListener.getSelectQueriesForCurrentThread().stream().map(t -> t.getSql(false, false)).collect(Collectors.toList());
+		assertEquals("SELECT t0.RES_ID FROM HFJ_SPIDX_STRING t0 WHERE ((t0.HASH_NORM_PREFIX = ?) AND (t0.SP_VALUE_NORMALIZED LIKE ?)) fetch first ? rows only", sql.get(0));
+		assertThat(sql.get(1), containsString("(t0.TARGET_RESOURCE_ID = ?)"));
+		assertThat(sql.get(1), not(containsString("HFJ_SPIDX_STRING")));
+
+		// Reverse chain
+		myCaptureQueriesListener.clear();
+		map = SearchParameterMap.newSynchronous(Constants.PARAM_HAS, new HasParam("Observation", "subject", "code", "http://foo|bar"));
+		outcome = myPatientDao.search(map, mySrd);
+		assertThat(toUnqualifiedVersionlessIds(outcome), Matchers.contains(patientId));
+		sql = myCaptureQueriesListener.getSelectQueriesForCurrentThread().stream().map(t -> t.getSql(false, false)).collect(Collectors.toList());
+		assertEquals("SELECT t0.RES_ID FROM HFJ_SPIDX_TOKEN t0 WHERE (t0.HASH_SYS_AND_VALUE = ?) fetch first ? rows only", sql.get(0));
+		assertThat(sql.get(1), containsString("(t0.SRC_RESOURCE_ID = ?)"));
+
+		// No match
+		map = SearchParameterMap.newSynchronous(Observation.SP_SUBJECT, new ReferenceParam("Patient", "name", "NOBODY"));
+		assertEquals(0, myObservationDao.search(map, mySrd).sizeOrThrowNpe());
+
+		// Too many targets, falls back to sub-select
+		myStorageSettings.setChainedSearchPreResolutionThreshold(1);
+		createPatient(withFamily("SMITHSON"));
+		myCaptureQueriesListener.clear();
+		map = SearchParameterMap.newSynchronous(Observation.SP_SUBJECT, new ReferenceParam("Patient", "name", "SMITH"));
+		outcome = myObservationDao.search(map, mySrd);
+		assertThat(toUnqualifiedVersionlessIds(outcome), Matchers.contains(obsId));
+		sql = myCaptureQueriesListener.getSelectQueriesForCurrentThread().stream().map(t -> t.getSql(false, false)).collect(Collectors.toList());
+		assertThat(sql.toString(), containsString("INNER JOIN HFJ_SPIDX_STRING"));
+	}
+
 	@Test
 	public void testSearchByProfile_VersionedMode() {
 
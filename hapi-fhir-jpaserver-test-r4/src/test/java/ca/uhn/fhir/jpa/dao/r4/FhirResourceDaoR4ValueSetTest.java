@@ -29,9 +29,13 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -54,6 +58,7 @@ public class FhirResourceDaoR4ValueSetTest extends BaseJpaR4Test {
 		TermReadSvcImpl.setForceDisableHibernateSearchForUnitTest(false);
 		myStorageSettings.setPreExpandValueSets(new JpaStorageSettings().isPreExpandValueSets());
 		myStorageSettings.setMaximumExpansionSize(new JpaStorageSettings().getMaximumExpansionSize());
+		myStorageSettings.setPreExpandedValueSetIndexDirectory(new JpaStorageSettings().getPreExpandedValueSetIndexDirectory());
 	}
 
 
@@ -100,6 +105,59 @@ public class FhirResourceDaoR4ValueSetTest extends BaseJpaR4Test {
 	}
 
 
+	@Test
+	public void testValidateCodeInValueSet_PreExpandedValueSetIndex(@TempDir Path theIndexDirectory) throws IOException {
+		myStorageSettings.setPreExpandedValueSetIndexDirectory(theIndexDirectory.toString());
+		myCodeSystemDao.update(loadResourceFromClasspath(CodeSystem.class, "r4/adi-cs.json"));
+		myValueSetDao.update(loadResourceFromClasspath(ValueSet.class, "r4/adi-vs.json"));
+
+		myTermSvc.preExpandDeferredValueSetsToTerminologyTables();
+		// One index for the extensional ValueSet created in before02() and one for this ValueSet
+		try (var files = Files.list(theIndexDirectory)) {
+			assertEquals(2, files.filter(t -> t.getFileName().toString().endsWith(".idx")).count());
+		}
+
+		ValidationSupportContext context = new ValidationSupportContext(myValidationSupport);
+		ConceptValidationOptions options = new ConceptValidationOptions();
+		String valueSetUrl = "http://payer-to-payer-exchange/fhir/ValueSet/mental-health/ndc";
+		IValidationSupport.CodeValidationResult outcome = myValidationSupport.validateCode(context, options, "http://payer-to-payer-exchange/fhir/CodeSystem/ndc-codes", "378397893", null, valueSetUrl);
+		assertTrue(outcome.isOk());
+		assertThat(outcome.getMessage(), startsWith("Code validation occurred using a ValueSet expansion that was pre-calculated at "));
+
+		outcome = myValidationSupport.validateCode(context, options, "http://payer-to-payer-exchange/fhir/CodeSystem/ndc-codes", "999999999", null, valueSetUrl);
+		assertFalse(outcome.isOk());
+		assertThat(outcome.getMessage(), containsString("Unknown code \"http://payer-to-payer-exchange/fhir/CodeSystem/ndc-codes#999999999\""));
+
+		outcome = myValidationSupport.validateCode(context, options, "http://payer-to-payer-exchange/fhir/CodeSystem/ndc", "378397893", null, valueSetUrl);
+		assertFalse(outcome.isOk());
+		assertEquals("Unable to validate code http://payer-to-payer-exchange/fhir/CodeSystem/ndc#378397893 - No codes in ValueSet belong to CodeSystem with URL http://payer-to-payer-exchange/fhir/CodeSystem/ndc", outcome.getMessage());
+	}
+
+	@Test
+	public void testValidateCodeBatch_PreExpandedValueSet() throws IOException {
+		myCodeSystemDao.update(loadResourceFromClasspath(CodeSystem.class, "r4/adi-cs.json"));
+		myValueSetDao.update(loadResourceFromClasspath(ValueSet.class, "r4/adi-vs.json"));
+		myTermSvc.preExpandDeferredValueSetsToTerminologyTables();
+
+		ValidationSupportContext context = new ValidationSupportContext(myValidationSupport);
+		ConceptValidationOptions options = new ConceptValidationOptions();
+		String system = "http://payer-to-payer-exchange/fhir/CodeSystem/ndc-codes";
+		String valueSetUrl = "http://payer-to-payer-exchange/fhir/ValueSet/mental-health/ndc";
+		List<IValidationSupport.CodeValidationRequest> requests = List.of(
+			new IValidationSupport.CodeValidationRequest(system, "378397893", null),
+			new IValidationSupport.CodeValidationRequest(system, "999999999", null),
+			new IValidationSupport.CodeValidationRequest("http://payer-to-payer-exchange/fhir/CodeSystem/ndc", "378397893", null));
+
+		List<IValidationSupport.CodeValidationResult> outcomes = myValidationSupport.validateCodeBatch(context, options, requests, valueSetUrl);
+		assertEquals(3, outcomes.size());
+		assertTrue(outcomes.get(0).isOk());
+		assertThat(outcomes.get(0).getMessage(), startsWith("Code validation occurred using a ValueSet expansion that was pre-calculated at "));
+		assertFalse(outcomes.get(1).isOk());
+		assertThat(outcomes.get(1).getMessage(), containsString("Unknown code \"http://payer-to-payer-exchange/fhir/CodeSystem/ndc-codes#999999999\""));
+		assertFalse(outcomes.get(2).isOk());
+		assertEquals("Unable to validate code http://payer-to-payer-exchange/fhir/CodeSystem/ndc#378397893 - No codes in ValueSet belong to CodeSystem with URL http://payer-to-payer-exchange/fhir/CodeSystem/ndc", outcomes.get(2).getMessage());
+	}
+
 	@Test
 	public void testValidateCodeInValueSet_HierarchicalAndEnumeratedValueset() {
 		myValueSetDao.delete(myExtensionalVsId);
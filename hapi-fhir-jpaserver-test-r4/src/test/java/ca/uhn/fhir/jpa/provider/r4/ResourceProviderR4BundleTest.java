@@ -1,11 +1,16 @@
 package ca.uhn.fhir.jpa.provider.r4;
 
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
 import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.model.util.JpaConstants;
 import ca.uhn.fhir.jpa.provider.BaseResourceProviderR4Test;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.server.exceptions.NotImplementedOperationException;
 import com.google.common.base.Charsets;
 import org.apache.commons.io.IOUtils;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.instance.model.api.IIdType;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
@@ -14,6 +19,7 @@ import org.hl7.fhir.r4.model.Bundle.HTTPVerb;
 import org.hl7.fhir.r4.model.CarePlan;
 import org.hl7.fhir.r4.model.Condition;
 import org.hl7.fhir.r4.model.Enumerations.AdministrativeGender;
+import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.OperationOutcome;
 import org.hl7.fhir.r4.model.Parameters;
 import org.hl7.fhir.r4.model.Patient;
@@ -23,7 +29,11 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -51,6 +61,7 @@ public class ResourceProviderR4BundleTest extends BaseResourceProviderR4Test {
 		super.after();
 		myStorageSettings.setBundleBatchPoolSize(JpaStorageSettings.DEFAULT_BUNDLE_BATCH_POOL_SIZE);
 		myStorageSettings.setBundleBatchMaxPoolSize(JpaStorageSettings.DEFAULT_BUNDLE_BATCH_MAX_POOL_SIZE);
+		myStorageSettings.setBundleBatchParallelWritesEnabled(new JpaStorageSettings().isBundleBatchParallelWritesEnabled());
 	}
 	/**
 	 * See #401
@@ -281,6 +292,95 @@ public class ResourceProviderR4BundleTest extends BaseResourceProviderR4Test {
 
 	}
 
+	@Test
+	public void testBundleBatchWithParallelWrites() {
+		myStorageSettings.setBundleBatchParallelWritesEnabled(true);
+
+		Bundle input = new Bundle();
+		input.setType(BundleType.BATCH);
+		for (int i = 0; i < 20; i++) {
+			Patient p = new Patient();
+			p.addIdentifier().setSystem("urn:foo").setValue("P" + i);
+			input.addEntry().setResource(p).getRequest().setMethod(HTTPVerb.POST);
+
+			// Updates to the same resource are processed in Bundle order
+			if (i % 5 == 0) {
+				Patient same = new Patient();
+				same.setId("Patient/SAME");
+				same.addName().setFamily("Name" + i);
+				input.addEntry().setResource(same).getRequest().setMethod(HTTPVerb.PUT).setUrl("Patient/SAME");
+			}
+		}
+		input.addEntry().getRequest().setMethod(HTTPVerb.GET).setUrl("Patient/SAME");
+
+		Bundle output = myClient.transaction().withBundle(input).execute();
+
+		assertEquals(input.getEntry().size(), output.getEntry().size());
+		int sameVersion = 0;
+		for (int i = 0; i < input.getEntry().size() - 1; i++) {
+			BundleEntryComponent nextResponse = output.getEntry().get(i);
+			if (input.getEntry().get(i).getRequest().getMethod() == HTTPVerb.POST) {
+				assertThat(nextResponse.getResponse().getStatus(), containsString("201"));
+				Patient created = myPatientDao.read(new IdType(nextResponse.getResponse().getLocation()), mySrd);
+				assertEquals(((Patient) input.getEntry().get(i).getResource()).getIdentifierFirstRep().getValue(), created.getIdentifierFirstRep().getValue());
+			} else {
+				sameVersion++;
+				assertThat(nextResponse.getResponse().getLocation(), containsString("Patient/SAME/_history/" + sameVersion));
+			}
+		}
+
+		Patient same = (Patient) output.getEntry().get(output.getEntry().size() - 1).getResource();
+		assertEquals("Name15", same.getNameFirstRep().getFamily());
+		assertEquals("4", same.getIdElement().getVersionIdPart());
+	}
+
+	@Test
+	public void testBundleBatchWithParallelWrites_InterceptorWritesUserData() {
+		myStorageSettings.setBundleBatchParallelWritesEnabled(true);
+		UserDataWritingInterceptor interceptor = new UserDataWritingInterceptor();
+		myInterceptorRegistry.registerInterceptor(interceptor);
+		try {
+			Bundle input = new Bundle();
+			input.setType(BundleType.BATCH);
+			for (int i = 0; i < 50; i++) {
+				Patient p = new Patient();
+				p.addIdentifier().setSystem("urn:foo").setValue("P" + i);
+				input.addEntry().setResource(p).getRequest().setMethod(HTTPVerb.POST);
+			}
+
+			Bundle output = myClient.transaction().withBundle(input).execute();
+
+			assertEquals(50, output.getEntry().size());
+			for (BundleEntryComponent nextResponse : output.getEntry()) {
+				assertThat(nextResponse.getResponse().getStatus(), containsString("201"));
+			}
+
+			// Every entry wrote to the user data of the same request, and no write was lost
+			assertEquals(1, interceptor.myUserDataMaps.size());
+			Map<Object, Object> userData = interceptor.myUserDataMaps.iterator().next();
+			for (int i = 0; i < 50; i++) {
+				assertEquals(Boolean.TRUE, userData.get(UserDataWritingInterceptor.KEY_PREFIX + "P" + i));
+			}
+		} finally {
+			myInterceptorRegistry.unregisterInterceptor(interceptor);
+		}
+	}
+
+	@Interceptor
+	public static class UserDataWritingInterceptor {
+		static final String KEY_PREFIX = UserDataWritingInterceptor.class.getName() + "_";
+		private final Set<Map<Object, Object>> myUserDataMaps = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		@Hook(Pointcut.STORAGE_PRESTORAGE_RESOURCE_CREATED)
+		public void resourceCreated(IBaseResource theResource, RequestDetails theRequestDetails) {
+			String identifier = ((Patient) theResource).getIdentifierFirstRep().getValue();
+			theRequestDetails.getUserData().put(KEY_PREFIX + identifier, Boolean.TRUE);
+			synchronized (myUserDataMaps) {
+				myUserDataMaps.add(theRequestDetails.getUserData());
+			}
+		}
+	}
+
 	@Test
 	public void testTagCacheWorksWithBatchMode() {
 		Bundle input = new Bundle();
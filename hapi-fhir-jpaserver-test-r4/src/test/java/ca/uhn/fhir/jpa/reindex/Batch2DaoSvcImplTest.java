@@ -107,6 +107,26 @@ class Batch2DaoSvcImplTest extends BaseJpaR4Test {
 		assertIdsEqual(patientIds, actualPatientIds);
 	}
 
+	@ParameterizedTest
+	@ValueSource(ints = {0, 4, 5, 6, 11})
+	void fetchResourcesNoUrl_MultipleKeysetPages(int expectedNumResults) {
+		((Batch2DaoSvcImpl) mySubject).setKeysetPageSizeForUnitTest(5);
+		final List<IIdType> patientIds = IntStream.range(0, expectedNumResults)
+			.mapToObj(num -> createPatient())
+			.toList();
+
+		myCaptureQueriesListener.clear();
+		final IResourcePidStream resourcePidList = mySubject.fetchResourceIdStream(PREVIOUS_MILLENNIUM, TOMORROW, RequestPartitionId.allPartitions(), null);
+
+		final List<? extends IIdType> actualPatientIds =
+			resourcePidList.visitStream(s-> s.map(typePid -> new IdDt(typePid.resourceType, (Long) typePid.id.getId()))
+				.toList());
+		assertIdsEqual(patientIds, actualPatientIds);
+
+		// One query per full page, and one for the last (partial or empty) page
+		assertEquals(expectedNumResults / 5 + 1, myCaptureQueriesListener.countSelectQueries());
+	}
+
 	private static void assertIdsEqual(List<IIdType> expectedResourceIds, List<? extends IIdType> actualResourceIds) {
 		assertEquals(expectedResourceIds.size(), actualResourceIds.size());
 
@@ -8,10 +8,15 @@ import ca.uhn.fhir.batch2.jobs.reindex.ReindexJobParameters;
 import ca.uhn.fhir.batch2.jobs.reindex.ReindexStep;
 import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.model.entity.ResourceTable;
+import ca.uhn.fhir.jpa.searchparam.SearchParameterMap;
 import ca.uhn.fhir.jpa.test.BaseJpaR4Test;
+import ca.uhn.fhir.rest.param.ReferenceParam;
+import ca.uhn.fhir.rest.param.StringParam;
+import ca.uhn.fhir.rest.param.TokenParam;
 import org.hl7.fhir.instance.model.api.IIdType;
 import org.hl7.fhir.r4.model.Enumerations;
 import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.SearchParameter;
 import org.junit.jupiter.api.AfterEach;
@@ -21,11 +26,19 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static ca.uhn.fhir.jpa.dao.BaseHapiFhirDao.INDEX_STATUS_INDEXED;
 import static ca.uhn.fhir.jpa.dao.BaseHapiFhirDao.INDEX_STATUS_INDEXING_FAILED;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -43,6 +56,8 @@ public class ReindexStepTest extends BaseJpaR4Test {
 	@AfterEach
 	public void after() {
 		myStorageSettings.setIndexMissingFields(new JpaStorageSettings().getIndexMissingFields());
+		myStorageSettings.setReindexPipelineThreadCount(new JpaStorageSettings().getReindexPipelineThreadCount());
+		myStorageSettings.setEnforceReferentialIntegrityOnDelete(new JpaStorageSettings().isEnforceReferentialIntegrityOnDelete());
 	}
 
 	@Test
@@ -262,5 +277,204 @@ public class ReindexStepTest extends BaseJpaR4Test {
 		});
 	}
 
+	@Test
+	public void testReindex_SkipUnchangedIndexes() {
+
+		// Setup
+
+		boolean markResourcesForReindexingUponSearchParameterChange = myStorageSettings.isMarkResourcesForReindexingUponSearchParameterChange();
+		myStorageSettings.setMarkResourcesForReindexingUponSearchParameterChange(false);
+
+		Long id0 = createPatient(withActiveTrue(), withFamily("SIMPSON")).getIdPartAsLong();
+		Long id1 = createPatient(withActiveTrue(), withFamily("FLANDERS")).getIdPartAsLong();
+		Long idObservation = createObservation(withStatus("final")).getIdPartAsLong();
+
+		ResourceIdListWorkChunkJson data = new ResourceIdListWorkChunkJson();
+		data.addTypedPid("Patient", id0);
+		data.addTypedPid("Patient", id1);
+		data.addTypedPid("Observation", idObservation);
+
+		// The first reindex in this mode stores the digest of each resource
+		ReindexJobParameters parameters = new ReindexJobParameters().setSkipUnchangedIndexes(true);
+		myCaptureQueriesListener.clear();
+		RunOutcome outcome = myReindexStep.doReindex(data, myDataSink, "index-id", "chunk-id", parameters);
+		assertEquals(3, outcome.getRecordsProcessed());
+		assertEquals(0, myCaptureQueriesListener.countInsertQueries());
+		// The digest of each resource, and the Observation status token which a normal reindex also rewrites
+		myCaptureQueriesListener.logUpdateQueries();
+		assertEquals(4, myCaptureQueriesListener.countUpdateQueries());
+		runInTransaction(() -> assertNotNull(myResourceTableDao.findById(id0).orElseThrow().getSearchParamIndexDigest()));
+
+		// Only the Observation is affected by the new search parameter
+		SearchParameter sp = new SearchParameter();
+		sp.setType(Enumerations.SearchParamType.TOKEN);
+		sp.addBase("Observation");
+		sp.setStatus(Enumerations.PublicationStatus.ACTIVE);
+		sp.setCode("status2");
+		sp.setExpression("Observation.status");
+		mySearchParameterDao.create(sp);
+		mySearchParamRegistry.forceRefresh();
+
+		// Execute
+
+		myCaptureQueriesListener.clear();
+		outcome = myReindexStep.doReindex(data, myDataSink, "index-id", "chunk-id", parameters);
+
+		// Verify
+		assertEquals(3, outcome.getRecordsProcessed());
+		myCaptureQueriesListener.logSelectQueries();
+		// The new status2 token index, and the new digest for the Observation
+		assertEquals(1, myCaptureQueriesListener.countInsertQueries());
+		assertEquals(1, myCaptureQueriesListener.countUpdateQueries());
+		assertEquals(0, myCaptureQueriesListener.countDeleteQueries());
+		assertEquals(1, myCaptureQueriesListener.getCommitCount());
+		assertEquals(0, myCaptureQueriesListener.getRollbackCount());
+		verify(myDataSink, never()).recoveredError(any());
+
+		SearchParameterMap map = SearchParameterMap.newSynchronous("status2", new TokenParam("final"));
+		assertThat(toUnqualifiedVersionlessIdValues(myObservationDao.search(map, mySrd)), contains("Observation/" + idObservation));
+
+		// Updating a resource clears its digest, so it is reindexed again
+		myPatientDao.update((Patient) new Patient().setActive(false).setId("Patient/" + id1), mySrd);
+		runInTransaction(() -> assertNull(myResourceTableDao.findById(id1).orElseThrow().getSearchParamIndexDigest()));
+
+		myCaptureQueriesListener.clear();
+		outcome = myReindexStep.doReindex(data, myDataSink, "index-id", "chunk-id", parameters);
+		assertEquals(3, outcome.getRecordsProcessed());
+		assertEquals(0, myCaptureQueriesListener.countInsertQueries());
+		assertEquals(1, myCaptureQueriesListener.countUpdateQueries());
+		assertEquals(0, myCaptureQueriesListener.countDeleteQueries());
+
+		myStorageSettings.setMarkResourcesForReindexingUponSearchParameterChange(markResourcesForReindexingUponSearchParameterChange);
+	}
+
+	@Test
+	public void testReindex_SkipUnchangedIndexes_DeletedReferenceTarget() {
+
+		// Setup
+
+		myStorageSettings.setEnforceReferentialIntegrityOnDelete(false);
+		IIdType orgId = createOrganization(withName("ACME")).toUnqualifiedVersionless();
+		Long idPatient = createPatient(withOrganization(orgId)).getIdPartAsLong();
+		myOrganizationDao.delete(orgId, mySrd);
+
+		ResourceIdListWorkChunkJson data = new ResourceIdListWorkChunkJson();
+		data.addTypedPid("Patient", idPatient);
+
+		// Execute
+
+		ReindexJobParameters parameters = new ReindexJobParameters().setSkipUnchangedIndexes(true);
+		myCaptureQueriesListener.clear();
+		RunOutcome outcome = myReindexStep.doReindex(data, myDataSink, "index-id", "chunk-id", parameters);
+
+		// Verify
+
+		// The existing link to the deleted Organization is reused, just like a normal reindex does
+		assertEquals(1, outcome.getRecordsProcessed());
+		verify(myDataSink, never()).recoveredError(any());
+		runInTransaction(() -> {
+			ResourceTable table = myResourceTableDao.findById(idPatient).orElseThrow();
+			assertEquals(INDEX_STATUS_INDEXED, table.getIndexStatus());
+			assertNotNull(table.getSearchParamIndexDigest());
+			assertEquals(1, table.getResourceLinks().size());
+		});
+
+		// A second run skips the resource
+		myCaptureQueriesListener.clear();
+		outcome = myReindexStep.doReindex(data, myDataSink, "index-id", "chunk-id", parameters);
+		assertEquals(1, outcome.getRecordsProcessed());
+		assertEquals(0, myCaptureQueriesListener.countUpdateQueries());
+		verify(myDataSink, never()).recoveredError(any());
+	}
+
+	@Test
+	public void testReindex_Pipelined_IndexesWereMissing() {
+
+		// Setup
+
+		myStorageSettings.setReindexPipelineThreadCount(2);
+
+		ResourceIdListWorkChunkJson data = new ResourceIdListWorkChunkJson();
+		List<Long> ids = new ArrayList<>();
+		int count = ReindexStep.PIPELINE_BATCH_SIZE * 2 + 10;
+		for (int i = 0; i < count; i++) {
+			Long id = createPatient(withActiveTrue(), withFamily("FAMILY" + i)).getIdPartAsLong();
+			data.addTypedPid("Patient", id);
+			ids.add(id);
+		}
+
+		// Remove the indexes for one resource in each batch
+		List<Integer> brokenIndexes = List.of(0, ReindexStep.PIPELINE_BATCH_SIZE + 5, count - 1);
+		runInTransaction(() -> {
+			for (int next : brokenIndexes) {
+				myResourceIndexedSearchParamStringDao.deleteByResourceId(ids.get(next));
+				myResourceIndexedSearchParamTokenDao.deleteByResourceId(ids.get(next));
+			}
+		});
+
+		// Execute
+
+		myCaptureQueriesListener.clear();
+		RunOutcome outcome = myReindexStep.doReindex(data, myDataSink, "index-id", "chunk-id", new ReindexJobParameters());
+
+		// Verify
+		assertEquals(count, outcome.getRecordsProcessed());
+		// name, family, phonetic, deceased, active - once for each batch, since each batch is flushed separately
+		assertEquals(15, myCaptureQueriesListener.countInsertQueries());
+		assertEquals(0, myCaptureQueriesListener.countDeleteQueries());
+		assertEquals(1, myCaptureQueriesListener.getCommitCount());
+		assertEquals(0, myCaptureQueriesListener.getRollbackCount());
+		verify(myDataSink, never()).recoveredError(any());
+
+		for (int next : brokenIndexes) {
+			SearchParameterMap map = SearchParameterMap.newSynchronous(Patient.SP_FAMILY, new StringParam("FAMILY" + next, true));
+			assertThat(toUnqualifiedVersionlessIdValues(myPatientDao.search(map, mySrd)), contains("Patient/" + ids.get(next)));
+		}
+	}
+
+	@Test
+	public void testReindex_Pipelined_OneResourceReindexFailedButOthersSucceeded() {
+
+		// Setup
+
+		myStorageSettings.setReindexPipelineThreadCount(2);
+
+		Long id0 = createPatient(withActiveTrue(), withFamily("SIMPSON")).getIdPartAsLong();
+		Long idPatientToInvalidate = createPatient().getIdPartAsLong();
+		Long idObservation = createObservation(withSubject(new IdType("Patient/" + id0))).getIdPartAsLong();
+
+		ResourceIdListWorkChunkJson data = new ResourceIdListWorkChunkJson();
+		data.addTypedPid("Patient", id0);
+		data.addTypedPid("Patient", idPatientToInvalidate);
+		data.addTypedPid("Observation", idObservation);
+
+		runInTransaction(() -> {
+			// Swap in some invalid text, which will cause an error when we go to reindex
+			assertEquals(1, myEntityManager.createNativeQuery("UPDATE HFJ_RES_VER SET RES_TEXT = null WHERE RES_ID = " + idPatientToInvalidate).executeUpdate());
+			assertEquals(1, myEntityManager.createNativeQuery("UPDATE HFJ_RES_VER SET RES_TEXT_VC = 'ABCDEFG' WHERE RES_ID = " + idPatientToInvalidate).executeUpdate());
+
+			myResourceIndexedSearchParamStringDao.deleteByResourceId(id0);
+			myResourceLinkDao.deleteByResourceId(idObservation);
+		});
+
+		// Execute
+
+		RunOutcome outcome = myReindexStep.doReindex(data, myDataSink, "index-id", "chunk-id", new ReindexJobParameters());
+
+		// Verify
+		assertEquals(3, outcome.getRecordsProcessed());
+		verify(myDataSink, times(1)).recoveredError(myErrorCaptor.capture());
+		assertThat(myErrorCaptor.getValue(), containsString("HAPI-0928: Failed to parse database resource"));
+
+		runInTransaction(() -> {
+			assertEquals(INDEX_STATUS_INDEXING_FAILED, myResourceTableDao.findById(idPatientToInvalidate).orElseThrow().getIndexStatus());
+			assertEquals(INDEX_STATUS_INDEXED, myResourceTableDao.findById(id0).orElseThrow().getIndexStatus());
+		});
+
+		SearchParameterMap map = SearchParameterMap.newSynchronous(Patient.SP_FAMILY, new StringParam("SIMPSON"));
+		assertThat(toUnqualifiedVersionlessIdValues(myPatientDao.search(map, mySrd)), contains("Patient/" + id0));
+		map = SearchParameterMap.newSynchronous(Observation.SP_SUBJECT, new ReferenceParam("Patient/" + id0));
+		assertThat(toUnqualifiedVersionlessIdValues(myObservationDao.search(map, mySrd)), contains("Observation/" + idObservation));
+	}
 
 }
@@ -1,6 +1,17 @@
 package ca.uhn.fhir.jpa.search.builder.predicate;
 
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.model.RequestPartitionId;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
+import ca.uhn.fhir.jpa.api.dao.DaoRegistry;
+import ca.uhn.fhir.jpa.api.dao.IFhirResourceDao;
+import ca.uhn.fhir.jpa.dao.IResultIterator;
+import ca.uhn.fhir.jpa.dao.ISearchBuilder;
+import ca.uhn.fhir.jpa.dao.SearchBuilderFactory;
+import ca.uhn.fhir.jpa.model.dao.JpaPid;
 import ca.uhn.fhir.jpa.search.builder.sql.SearchQueryBuilder;
+import ca.uhn.fhir.rest.api.server.SystemRequestDetails;
+import ca.uhn.fhir.rest.param.StringParam;
 import com.healthmarketscience.sqlbuilder.BinaryCondition;
 import com.healthmarketscience.sqlbuilder.Condition;
 import com.healthmarketscience.sqlbuilder.InCondition;
@@ -13,13 +24,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +45,7 @@ public class ResourceLinkPredicateBuilderTest {
 
     private static final String PLACEHOLDER_BASE = UUID.randomUUID().toString();
 	private ResourceLinkPredicateBuilder myResourceLinkPredicateBuilder;
+	private DbTable myTable;
 
     @Mock
     private SearchQueryBuilder mySearchQueryBuilder;
@@ -35,8 +54,8 @@ public class ResourceLinkPredicateBuilderTest {
 	public void init() {
 		DbSpec spec = new DbSpec();
 		DbSchema schema = new DbSchema(spec, "schema");
-		DbTable table = new DbTable(schema, "table");
-		when(mySearchQueryBuilder.addTable(Mockito.anyString())).thenReturn(table);
+		myTable = new DbTable(schema, "table");
+		when(mySearchQueryBuilder.addTable(Mockito.anyString())).thenReturn(myTable);
         myResourceLinkPredicateBuilder = new ResourceLinkPredicateBuilder(null, mySearchQueryBuilder, false);
 	}
 
@@ -59,4 +78,35 @@ public class ResourceLinkPredicateBuilderTest {
         Condition condition = myResourceLinkPredicateBuilder.createEverythingPredicate("Patient", new ArrayList<>(), new Long[0]);
         assertEquals(BinaryCondition.class, condition.getClass());
 	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void createPredicateForPreResolvedTargets_withIOException_returnsNull() throws IOException {
+		JpaStorageSettings storageSettings = new JpaStorageSettings();
+		storageSettings.setChainedSearchPreResolutionThreshold(10);
+		DaoRegistry daoRegistry = mock(DaoRegistry.class);
+		when(daoRegistry.getResourceDao("Organization")).thenReturn(mock(IFhirResourceDao.class));
+		IResultIterator<JpaPid> iterator = mock(IResultIterator.class);
+		when(iterator.hasNext()).thenReturn(true, false);
+		when(iterator.next()).thenReturn(JpaPid.fromId(1L));
+		doThrow(new IOException("Connection reset")).when(iterator).close();
+		ISearchBuilder<JpaPid> searchBuilder = mock(ISearchBuilder.class);
+		when(searchBuilder.createQuery(any(), any(), any(), any())).thenReturn(iterator);
+		SearchBuilderFactory<JpaPid> searchBuilderFactory = mock(SearchBuilderFactory.class);
+		when(searchBuilderFactory.newSearchBuilder(any(), eq("Organization"), any())).thenReturn(searchBuilder);
+		when(mySearchQueryBuilder.getFhirContext()).thenReturn(FhirContext.forR4Cached());
+		ReflectionTestUtils.setField(myResourceLinkPredicateBuilder, "myStorageSettings", storageSettings);
+		ReflectionTestUtils.setField(myResourceLinkPredicateBuilder, "myDaoRegistry", daoRegistry);
+		ReflectionTestUtils.setField(myResourceLinkPredicateBuilder, "mySearchBuilderFactory", searchBuilderFactory);
+
+		// The PIDs read before the failure may be incomplete, so the caller must use a sub-select
+		Condition condition = myResourceLinkPredicateBuilder.createPredicateForPreResolvedTargets(
+			myTable.addColumn("RES_ID"),
+			"Organization",
+			"name",
+			List.of(new StringParam("foo")),
+			new SystemRequestDetails(),
+			RequestPartitionId.allPartitions());
+		assertNull(condition);
+	}
 }
@@ -429,7 +429,35 @@ public class SearchQueryBuilderTest {
 		assertThat(generated.getBindVariables().toString(), generated.getBindVariables(), contains("Patient", 500L, 501L, 10, 5));
 
 	}
-	
+
+	@Test
+	public void testInClauseParameterPadding() {
+		myStorageSettings.setInClauseParameterPaddingEnabled(true);
+
+		HibernatePropertiesProvider dialectProvider = new HibernatePropertiesProvider();
+		dialectProvider.setDialectForUnitTest(new PostgreSQLDialect());
+
+		// 3 values are padded to 4, repeating the last value
+		SearchQueryBuilder builder = new SearchQueryBuilder(myFhirContext, myStorageSettings, myPartitionSettings, myRequestPartitionId, "Patient", mySqlBuilderFactory, dialectProvider, false);
+		builder.addResourceIdsPredicate(Lists.newArrayList(500L, 501L, 502L));
+		GeneratedSql generated = builder.generate(null, null);
+		assertEquals("SELECT t0.RES_ID FROM HFJ_RESOURCE t0 WHERE (((t0.RES_TYPE = ?) AND (t0.RES_DELETED_AT IS NULL)) AND (t0.RES_ID IN (?,?,?,?) ))", generated.getSql());
+		assertThat(generated.getBindVariables().toString(), generated.getBindVariables(), contains("Patient", 500L, 501L, 502L, 502L));
+
+		// 4 values produce the same SQL
+		builder = new SearchQueryBuilder(myFhirContext, myStorageSettings, myPartitionSettings, myRequestPartitionId, "Patient", mySqlBuilderFactory, dialectProvider, false);
+		builder.addResourceIdsPredicate(Lists.newArrayList(600L, 601L, 602L, 603L));
+		GeneratedSql generated2 = builder.generate(null, null);
+		assertEquals(generated.getSql(), generated2.getSql());
+		assertThat(generated2.getBindVariables().toString(), generated2.getBindVariables(), contains("Patient", 600L, 601L, 602L, 603L));
+
+		// A single value is not padded
+		builder = new SearchQueryBuilder(myFhirContext, myStorageSettings, myPartitionSettings, myRequestPartitionId, "Patient", mySqlBuilderFactory, dialectProvider, false);
+		builder.addResourceIdsPredicate(Lists.newArrayList(700L));
+		generated = builder.generate(null, null);
+		assertThat(generated.getBindVariables().toString(), generated.getBindVariables(), contains("Patient", 700L));
+	}
+
 	@Configuration
 	public static class MyConfig {
 
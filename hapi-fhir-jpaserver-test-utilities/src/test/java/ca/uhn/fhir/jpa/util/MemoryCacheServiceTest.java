@@ -5,6 +5,7 @@ import ca.uhn.fhir.jpa.model.entity.TagDefinition;
 import ca.uhn.fhir.jpa.model.entity.TagTypeEnum;
 import ca.uhn.fhir.sl.cache.Cache;
 import ca.uhn.fhir.sl.cache.CacheFactory;
+import ca.uhn.fhir.sl.cache.CacheStats;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -14,7 +15,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -23,10 +26,14 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -65,6 +72,50 @@ class MemoryCacheServiceTest {
 		assertThat(retVal, equalTo(tagDef));
 	}
 
+	@Test
+	public void testStatsAreRecorded() {
+		mySvc.put(MemoryCacheService.CacheEnum.MATCH_URL, "Patient?identifier=foo", 123L);
+
+		mySvc.getIfPresent(MemoryCacheService.CacheEnum.MATCH_URL, "Patient?identifier=foo");
+		mySvc.getIfPresent(MemoryCacheService.CacheEnum.MATCH_URL, "Patient?identifier=bar");
+		mySvc.get(MemoryCacheService.CacheEnum.MATCH_URL, "Patient?identifier=baz", t -> 456L);
+
+		CacheStats stats = mySvc.getStats(MemoryCacheService.CacheEnum.MATCH_URL);
+		assertEquals(1, stats.getHitCount());
+		assertEquals(2, stats.getMissCount());
+		assertEquals(1, stats.getLoadSuccessCount());
+		assertEquals(2, mySvc.getEstimatedSize(MemoryCacheService.CacheEnum.MATCH_URL));
+	}
+
+	@Test
+	public void testCachesAreRegisteredWithMetricsRegistry() {
+		JpaStorageSettings storageSettings = new JpaStorageSettings();
+		storageSettings.setMemoryCacheMaximumSize(MemoryCacheService.CacheEnum.FORCED_ID_TO_PID, 1);
+		storageSettings.setMemoryCacheExpireAfterWriteSeconds(MemoryCacheService.CacheEnum.FORCED_ID_TO_PID, 600L);
+
+		Map<String, Supplier<CacheStats>> stats = new HashMap<>();
+		Map<String, Long> maximumSizes = new HashMap<>();
+		Map<String, Long> expiries = new HashMap<>();
+		MemoryCacheService svc = new MemoryCacheService(storageSettings, (theCacheName, theMaximumSize, theExpireAfterWriteMillis, theStats, theSize) -> {
+			stats.put(theCacheName, theStats);
+			maximumSizes.put(theCacheName, theMaximumSize);
+			expiries.put(theCacheName, theExpireAfterWriteMillis);
+		});
+
+		assertEquals(MemoryCacheService.CacheEnum.values().length, stats.size());
+		assertEquals(1L, maximumSizes.get("FORCED_ID_TO_PID"));
+		assertEquals(TimeUnit.MINUTES.toMillis(10), expiries.get("FORCED_ID_TO_PID"));
+		assertEquals(10000L, maximumSizes.get("MATCH_URL"));
+		assertEquals(TimeUnit.MINUTES.toMillis(1), expiries.get("MATCH_URL"));
+
+		// The maximum size override is applied, so older entries are evicted
+		svc.put(MemoryCacheService.CacheEnum.FORCED_ID_TO_PID, "Patient/A", 1L);
+		svc.put(MemoryCacheService.CacheEnum.FORCED_ID_TO_PID, "Patient/B", 2L);
+		svc.put(MemoryCacheService.CacheEnum.FORCED_ID_TO_PID, "Patient/C", 3L);
+		await().until(() -> stats.get("FORCED_ID_TO_PID").get().getEvictionCount() >= 2);
+		assertThat(svc.getEstimatedSize(MemoryCacheService.CacheEnum.FORCED_ID_TO_PID), lessThanOrEqualTo(1L));
+	}
+
 	@Nested
 	public static class CaffeineAbuseTest {
 
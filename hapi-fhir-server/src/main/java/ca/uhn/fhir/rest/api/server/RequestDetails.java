@@ -463,10 +463,15 @@ public abstract class RequestDetails {
 	 * to a later hook method on the {@link ca.uhn.fhir.interceptor.api.Pointcut#SERVER_OUTGOING_RESPONSE}
 	 * pointcut.
 	 * </p>
+	 * <p>
+	 * The map is synchronized, since the entries of a batch Bundle may be processed in parallel
+	 * (see {@literal StorageSettings#setBundleBatchParallelWritesEnabled(boolean)}), in which case
+	 * hook methods for different entries write to the map of the same request concurrently.
+	 * </p>
 	 */
 	public Map<Object, Object> getUserData() {
 		if (myUserData == null) {
-			myUserData = new HashMap<>();
+			myUserData = Collections.synchronizedMap(new HashMap<>());
 		}
 		return myUserData;
 	}
@@ -0,0 +1,448 @@
+/*
+ * #%L
+ * HAPI FHIR - Server Framework
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.rest.server;
+
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import com.google.common.annotations.VisibleForTesting;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.apache.commons.lang3.Validate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+import static org.apache.commons.lang3.StringUtils.defaultString;
+
+/**
+ * An in-memory paging provider intended for plain (non-JPA) servers which handle a large number
+ * of concurrent paged searches. It can be used as a drop-in replacement for
+ * {@link FifoMemoryPagingProvider}.
+ * <p>
+ * Stored result lists are spread across a number of independently locked stripes (selected by
+ * search ID), so concurrent requests for different searches do not contend on a single lock.
+ * The limits below apply to the cache as a whole, and as with {@link FifoMemoryPagingProvider},
+ * the oldest result lists are evicted first when any of them are exceeded:
+ * </p>
+ * <ul>
+ *    <li>{@link #setTimeToLive(long, TimeUnit) Time to live} - Entries expire this long after they were stored</li>
+ *    <li>{@link #ConcurrentMemoryPagingProvider(int) Maximum size} - The total number of stored result lists</li>
+ *    <li>{@link #setMaximumWeight(long) Maximum weight} - The total estimated size of the stored result lists,
+ *    as determined by the {@link #setWeigher(ToLongFunction) weigher}</li>
+ * </ul>
+ * <p>
+ * Result lists are also associated with the {@link RequestDetails#getTenantId() tenant} of the
+ * request that stored them. A result list is only returned to requests for the same tenant, and
+ * an optional {@link #setMaximumSizePerTenant(int) per-tenant quota} prevents a single tenant
+ * from using the entire cache.
+ * </p>
+ * <p>
+ * Hit, miss and eviction counts are available through the <code>get...Count()</code> methods.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public class ConcurrentMemoryPagingProvider extends BasePagingProvider {
+
+	public static final int DEFAULT_STRIPE_COUNT = 16;
+
+	private final Stripe[] myStripes;
+	private final int myMaximumSize;
+	private final EntryQueue myAllEntries = new EntryQueue();
+	private final AtomicLong myWeight = new AtomicLong();
+	private final ConcurrentHashMap<String, EntryQueue> myTenantEntries = new ConcurrentHashMap<>();
+	private final LongAdder myHitCount = new LongAdder();
+	private final LongAdder myMissCount = new LongAdder();
+	private final LongAdder myEvictionCount = new LongAdder();
+	private long myMaximumWeight;
+	private long myTimeToLiveMillis;
+	private int myMaximumSizePerTenant;
+	private ToLongFunction<IBundleProvider> myWeigher = this::estimateWeight;
+	private LongSupplier myClock = System::currentTimeMillis;
+
+	/**
+	 * Constructor
+	 *
+	 * @param theMaximumSize The maximum number of result lists to store
+	 */
+	public ConcurrentMemoryPagingProvider(int theMaximumSize) {
+		this(theMaximumSize, DEFAULT_STRIPE_COUNT);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param theMaximumSize The maximum number of result lists to store
+	 * @param theStripeCount The number of independently locked stripes. Higher values reduce
+	 *                       contention between concurrent requests.
+	 */
+	public ConcurrentMemoryPagingProvider(int theMaximumSize, int theStripeCount) {
+		Validate.isTrue(theMaximumSize > 0, "theMaximumSize must be greater than 0");
+		Validate.isTrue(theStripeCount > 0, "theStripeCount must be greater than 0");
+
+		myMaximumSize = theMaximumSize;
+		int stripeCount = Math.min(theStripeCount, theMaximumSize);
+		myStripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			myStripes[i] = new Stripe();
+		}
+	}
+
+	/**
+	 * Stored result lists expire this long after they are stored. Set to <code>0</code>
+	 * (the default) to keep result lists until they are evicted by one of the other limits.
+	 */
+	public ConcurrentMemoryPagingProvider setTimeToLive(long theTimeToLive, TimeUnit theTimeUnit) {
+		Validate.isTrue(theTimeToLive >= 0, "theTimeToLive must not be negative");
+		myTimeToLiveMillis = theTimeUnit.toMillis(theTimeToLive);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum total weight of the stored result lists, as determined by the
+	 * {@link #setWeigher(ToLongFunction) weigher}. Set to <code>0</code> (the default) for no limit.
+	 */
+	public ConcurrentMemoryPagingProvider setMaximumWeight(long theMaximumWeight) {
+		Validate.isTrue(theMaximumWeight >= 0, "theMaximumWeight must not be negative");
+		myMaximumWeight = theMaximumWeight;
+		return this;
+	}
+
+	/**
+	 * Sets the function used to estimate the weight of a stored result list. By default this is
+	 * the {@link IBundleProvider#size() number of results} (or the default page size if the
+	 * number of results is not known).
+	 */
+	public ConcurrentMemoryPagingProvider setWeigher(@Nonnull ToLongFunction<IBundleProvider> theWeigher) {
+		Validate.notNull(theWeigher, "theWeigher must not be null");
+		myWeigher = theWeigher;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of result lists which may be stored for any single tenant. When this
+	 * limit is reached, the oldest result list belonging to that tenant is evicted. Set to
+	 * <code>0</code> (the default) for no limit.
+	 */
+	public ConcurrentMemoryPagingProvider setMaximumSizePerTenant(int theMaximumSizePerTenant) {
+		Validate.isTrue(theMaximumSizePerTenant >= 0, "theMaximumSizePerTenant must not be negative");
+		myMaximumSizePerTenant = theMaximumSizePerTenant;
+		return this;
+	}
+
+	@VisibleForTesting
+	void setClockForUnitTest(LongSupplier theClock) {
+		myClock = theClock;
+	}
+
+	@Override
+	public IBundleProvider retrieveResultList(@Nullable RequestDetails theRequestDetails, @Nonnull String theId) {
+		Stripe stripe = getStripe(theId);
+		Entry entry;
+		stripe.myLock.lock();
+		try {
+			entry = stripe.myEntries.get(theId);
+			if (entry != null && isExpired(entry, myClock.getAsLong())) {
+				stripe.remove(theId);
+				entry = null;
+			}
+		} finally {
+			stripe.myLock.unlock();
+		}
+
+		if (entry == null || !Objects.equals(entry.myTenantId, getTenantId(theRequestDetails))) {
+			myMissCount.increment();
+			return null;
+		}
+		myHitCount.increment();
+		return entry.myBundleProvider;
+	}
+
+	@Override
+	public String storeResultList(@Nullable RequestDetails theRequestDetails, IBundleProvider theList) {
+		String key = UUID.randomUUID().toString();
+		String tenantId = getTenantId(theRequestDetails);
+		long weight = Math.max(myWeigher.applyAsLong(theList), 1);
+
+		EntryQueue tenantEntries = null;
+		if (myMaximumSizePerTenant > 0) {
+			tenantEntries = myTenantEntries.computeIfAbsent(defaultString(tenantId), t -> new EntryQueue());
+			tenantEntries.myCount.incrementAndGet();
+		}
+		myAllEntries.myCount.incrementAndGet();
+		myWeight.addAndGet(weight);
+		Entry entry = new Entry(key, theList, tenantId, weight, myClock.getAsLong(), tenantEntries);
+
+		Stripe stripe = getStripe(key);
+		stripe.myLock.lock();
+		try {
+			stripe.evictExpired(entry.myStoredTime);
+			stripe.add(entry);
+		} finally {
+			stripe.myLock.unlock();
+		}
+
+		myAllEntries.add(entry);
+		evictOldest(myAllEntries, this::isOverCapacity);
+
+		if (tenantEntries != null) {
+			EntryQueue queue = tenantEntries;
+			queue.add(entry);
+			evictOldest(queue, () -> queue.myCount.get() > myMaximumSizePerTenant);
+		}
+
+		return key;
+	}
+
+	private boolean isOverCapacity() {
+		int size = myAllEntries.myCount.get();
+		if (size > myMaximumSize) {
+			return true;
+		}
+		// A single list heavier than the limit is still stored
+		return myMaximumWeight > 0 && myWeight.get() > myMaximumWeight && size > 1;
+	}
+
+	/**
+	 * Evicts the oldest entries in the given queue until the given limit is no longer exceeded
+	 */
+	private void evictOldest(EntryQueue theEntries, BooleanSupplier theOverLimit) {
+		while (theOverLimit.getAsBoolean()) {
+			Entry oldest = theEntries.poll();
+			if (oldest == null) {
+				break;
+			}
+			if (!oldest.myRemoved) {
+				Stripe stripe = getStripe(oldest.myKey);
+				stripe.myLock.lock();
+				try {
+					if (stripe.myEntries.get(oldest.myKey) == oldest) {
+						stripe.remove(oldest.myKey);
+					}
+				} finally {
+					stripe.myLock.unlock();
+				}
+			}
+		}
+
+		theEntries.purgeRemovedIfNeeded();
+	}
+
+	/**
+	 * Returns the number of result lists which are currently stored (including any which have
+	 * expired but have not yet been evicted)
+	 */
+	public int getSize() {
+		int retVal = 0;
+		for (Stripe next : myStripes) {
+			next.myLock.lock();
+			try {
+				retVal += next.myEntries.size();
+			} finally {
+				next.myLock.unlock();
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Returns the total weight of the result lists which are currently stored
+	 */
+	public long getWeight() {
+		return myWeight.get();
+	}
+
+	/**
+	 * Returns the number of result lists which are currently stored for the given tenant. This
+	 * is only tracked if a {@link #setMaximumSizePerTenant(int) per-tenant quota} is set.
+	 */
+	public int getTenantSize(@Nullable String theTenantId) {
+		EntryQueue tenantEntries = myTenantEntries.get(defaultString(theTenantId));
+		return tenantEntries != null ? tenantEntries.myCount.get() : 0;
+	}
+
+	/**
+	 * Returns the number of requests for a stored result list which were found
+	 */
+	public long getHitCount() {
+		return myHitCount.sum();
+	}
+
+	/**
+	 * Returns the number of requests for a stored result list which were not found, because
+	 * they were never stored, had been evicted or belong to a different tenant
+	 */
+	public long getMissCount() {
+		return myMissCount.sum();
+	}
+
+	/**
+	 * Returns the number of result lists which have been evicted because they had expired, or
+	 * because a size, weight or tenant limit was reached
+	 */
+	public long getEvictionCount() {
+		return myEvictionCount.sum();
+	}
+
+	private boolean isExpired(Entry theEntry, long theNow) {
+		return myTimeToLiveMillis > 0 && theNow - theEntry.myStoredTime >= myTimeToLiveMillis;
+	}
+
+	private Stripe getStripe(String theKey) {
+		int hash = theKey.hashCode();
+		hash ^= (hash >>> 16);
+		return myStripes[Math.floorMod(hash, myStripes.length)];
+	}
+
+	@Nullable
+	private static String getTenantId(@Nullable RequestDetails theRequestDetails) {
+		return theRequestDetails != null ? theRequestDetails.getTenantId() : null;
+	}
+
+	private long estimateWeight(IBundleProvider theBundleProvider) {
+		Integer size = theBundleProvider.size();
+		return size != null ? size : getDefaultPageSize();
+	}
+
+	private static class Entry {
+
+		private final String myKey;
+		private final IBundleProvider myBundleProvider;
+		private final String myTenantId;
+		private final long myWeight;
+		private final long myStoredTime;
+		private final EntryQueue myTenantEntries;
+		private volatile boolean myRemoved;
+
+		private Entry(
+				String theKey,
+				IBundleProvider theBundleProvider,
+				String theTenantId,
+				long theWeight,
+				long theStoredTime,
+				@Nullable EntryQueue theTenantEntries) {
+			myKey = theKey;
+			myBundleProvider = theBundleProvider;
+			myTenantId = theTenantId;
+			myWeight = theWeight;
+			myStoredTime = theStoredTime;
+			myTenantEntries = theTenantEntries;
+		}
+	}
+
+	/**
+	 * The entries in a single stripe, in the order they were stored. All access must
+	 * hold {@link #myLock}.
+	 */
+	private class Stripe {
+
+		private final ReentrantLock myLock = new ReentrantLock();
+		private final LinkedHashMap<String, Entry> myEntries = new LinkedHashMap<>();
+
+		private void add(Entry theEntry) {
+			myEntries.put(theEntry.myKey, theEntry);
+		}
+
+		private void remove(String theKey) {
+			Entry removed = myEntries.remove(theKey);
+			if (removed != null) {
+				onRemoved(removed);
+			}
+		}
+
+		private void evictExpired(long theNow) {
+			// Entries are in storage order, so the expired ones are all at the start
+			for (Iterator<Entry> iter = myEntries.values().iterator(); iter.hasNext(); ) {
+				Entry next = iter.next();
+				if (!isExpired(next, theNow)) {
+					break;
+				}
+				iter.remove();
+				onRemoved(next);
+			}
+		}
+
+		private void onRemoved(Entry theEntry) {
+			theEntry.myRemoved = true;
+			myAllEntries.myCount.decrementAndGet();
+			myWeight.addAndGet(-theEntry.myWeight);
+			if (theEntry.myTenantEntries != null) {
+				theEntry.myTenantEntries.myCount.decrementAndGet();
+			}
+			myEvictionCount.increment();
+		}
+	}
+
+	/**
+	 * Entries (either all of them, or those stored for a single tenant) in the order they were
+	 * stored. Entries which have been evicted from their stripe are only flagged as removed here,
+	 * and are cleaned out lazily.
+	 */
+	private static class EntryQueue {
+
+		private final ConcurrentLinkedQueue<Entry> myEntries = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger myCount = new AtomicInteger();
+		private final AtomicInteger myQueueLength = new AtomicInteger();
+
+		/**
+		 * Note that the entry is counted when it is created, before it is added to its stripe,
+		 * so that the count is always decremented exactly once when the entry is removed
+		 */
+		private void add(Entry theEntry) {
+			myEntries.add(theEntry);
+			myQueueLength.incrementAndGet();
+		}
+
+		@Nullable
+		private Entry poll() {
+			Entry retVal = myEntries.poll();
+			if (retVal != null) {
+				myQueueLength.decrementAndGet();
+			}
+			return retVal;
+		}
+
+		private void purgeRemovedIfNeeded() {
+			int length = myQueueLength.get();
+			if (length > 2 * Math.max(myCount.get(), 16)) {
+				int purged = 0;
+				for (Iterator<Entry> iter = myEntries.iterator(); iter.hasNext(); ) {
+					if (iter.next().myRemoved) {
+						iter.remove();
+						purged++;
+					}
+				}
+				myQueueLength.addAndGet(-purged);
+			}
+		}
+	}
+}
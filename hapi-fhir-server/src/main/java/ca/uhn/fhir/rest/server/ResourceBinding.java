@@ -19,12 +19,22 @@
  */
 package ca.uhn.fhir.rest.server;
 
+import ca.uhn.fhir.rest.api.RequestTypeEnum;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.server.method.BaseMethodBinding;
 import ca.uhn.fhir.rest.server.method.MethodMatchEnum;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
 
 /**
  * Holds all method bindings for an individual resource type
@@ -34,7 +44,8 @@ public class ResourceBinding {
 	private static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(ResourceBinding.class);
 
 	private String myResourceName;
-	private final LinkedList<BaseMethodBinding> myMethodBindings = new LinkedList<>();
+	private final MethodBindingList myMethodBindings = new MethodBindingList();
+	private volatile DispatchIndex myDispatchIndex;
 
 	/**
 	 * Constructor
@@ -58,7 +69,13 @@ public class ResourceBinding {
 		BaseMethodBinding matchedMethod = null;
 		MethodMatchEnum matchedMethodStrength = null;
 
-		for (BaseMethodBinding rm : myMethodBindings) {
+		DispatchIndex dispatchIndex = myDispatchIndex;
+		if (dispatchIndex == null || dispatchIndex.myModCount != myMethodBindings.getModCount()) {
+			dispatchIndex = new DispatchIndex(myMethodBindings);
+			myDispatchIndex = dispatchIndex;
+		}
+
+		for (BaseMethodBinding rm : dispatchIndex.getCandidates(theRequest)) {
 			MethodMatchEnum nextMethodMatch = rm.incomingServerRequestMatchesMethod(theRequest);
 			if (nextMethodMatch != MethodMatchEnum.NONE) {
 				if (matchedMethodStrength == null || matchedMethodStrength.ordinal() < nextMethodMatch.ordinal()) {
@@ -107,4 +124,95 @@ public class ResourceBinding {
 	public int hashCode() {
 		return 0;
 	}
+
+	/**
+	 * Narrows down the method bindings which need to be tested against an incoming request
+	 * using the request type and operation name, so that each request only needs to call
+	 * {@link BaseMethodBinding#incomingServerRequestMatchesMethod(RequestDetails)} on methods
+	 * which could actually match it. Candidates are kept in the same order as the full binding
+	 * list so that ties between equally strong matches are resolved exactly as before.
+	 */
+	private static class DispatchIndex {
+
+		private final int myModCount;
+		private final List<BaseMethodBinding> myAllBindings;
+		private final Map<RequestTypeEnum, Map<String, List<BaseMethodBinding>>> myRequestTypeToOperationToBindings =
+				new EnumMap<>(RequestTypeEnum.class);
+		private final Map<RequestTypeEnum, List<BaseMethodBinding>> myRequestTypeToUnknownOperationBindings =
+				new EnumMap<>(RequestTypeEnum.class);
+
+		DispatchIndex(MethodBindingList theMethodBindings) {
+			myModCount = theMethodBindings.getModCount();
+			myAllBindings = List.copyOf(theMethodBindings);
+
+			Set<String> operations = new HashSet<>();
+			operations.add(BaseMethodBinding.NO_OPERATION);
+			for (BaseMethodBinding next : myAllBindings) {
+				Set<String> possibleOperations = next.getPossibleMatchingOperations();
+				if (possibleOperations != null) {
+					operations.addAll(possibleOperations);
+				}
+			}
+
+			for (RequestTypeEnum nextRequestType : RequestTypeEnum.values()) {
+				Map<String, List<BaseMethodBinding>> operationToBindings = new HashMap<>();
+				for (String nextOperation : operations) {
+					operationToBindings.put(nextOperation, filter(nextRequestType, nextOperation));
+				}
+				myRequestTypeToOperationToBindings.put(nextRequestType, operationToBindings);
+				myRequestTypeToUnknownOperationBindings.put(nextRequestType, filter(nextRequestType, null));
+			}
+		}
+
+		/**
+		 * @param theOperation The operation, or <code>null</code> for an operation that no binding declares
+		 */
+		private List<BaseMethodBinding> filter(RequestTypeEnum theRequestType, String theOperation) {
+			List<BaseMethodBinding> retVal = new ArrayList<>();
+			for (BaseMethodBinding next : myAllBindings) {
+				Set<RequestTypeEnum> possibleRequestTypes = next.getPossibleMatchingRequestTypes();
+				if (possibleRequestTypes != null && !possibleRequestTypes.contains(theRequestType)) {
+					continue;
+				}
+				Set<String> possibleOperations = next.getPossibleMatchingOperations();
+				if (possibleOperations != null
+						&& (theOperation == null || !possibleOperations.contains(theOperation))) {
+					continue;
+				}
+				retVal.add(next);
+			}
+			return retVal.isEmpty() ? Collections.emptyList() : retVal;
+		}
+
+		List<BaseMethodBinding> getCandidates(RequestDetails theRequest) {
+			RequestTypeEnum requestType = theRequest.getRequestType();
+			if (requestType == null) {
+				return myAllBindings;
+			}
+
+			String operation = theRequest.getOperation();
+			if (isBlank(operation)) {
+				operation = BaseMethodBinding.NO_OPERATION;
+			}
+
+			List<BaseMethodBinding> retVal =
+					myRequestTypeToOperationToBindings.get(requestType).get(operation);
+			if (retVal == null) {
+				retVal = myRequestTypeToUnknownOperationBindings.get(requestType);
+			}
+			return retVal;
+		}
+	}
+
+	/**
+	 * The binding list is exposed (and modified) by {@link RestfulServer} when providers are
+	 * registered and unregistered, so we track structural modifications in order to know
+	 * when the {@link DispatchIndex} is stale.
+	 */
+	private static class MethodBindingList extends LinkedList<BaseMethodBinding> {
+
+		int getModCount() {
+			return modCount;
+		}
+	}
 }
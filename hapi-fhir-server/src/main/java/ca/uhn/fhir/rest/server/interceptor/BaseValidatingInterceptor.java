@@ -43,6 +43,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
@@ -76,6 +77,7 @@ public abstract class BaseValidatingInterceptor<T> extends ValidationResultEnric
 
 	private List<IValidatorModule> myValidatorModules;
 	private FhirValidator myValidator;
+	private ExecutorService myConcurrentBundleValidationExecutor;
 
 	private void addResponseIssueHeader(RequestDetails theRequestDetails, SingleValidationMessage theNext) {
 		// Perform any string substitutions from the message format
@@ -123,6 +125,30 @@ public abstract class BaseValidatingInterceptor<T> extends ValidationResultEnric
 
 	abstract ValidationResult doValidate(FhirValidator theValidator, T theRequest);
 
+	/**
+	 * @see #setConcurrentBundleValidationExecutor(ExecutorService)
+	 * @since 7.2.0
+	 */
+	public ExecutorService getConcurrentBundleValidationExecutor() {
+		return myConcurrentBundleValidationExecutor;
+	}
+
+	/**
+	 * If set (default is <code>null</code>), the entries of any Bundle being validated are validated in parallel
+	 * using the given executor, and the results are merged in entry order. The Bundle structure itself is not
+	 * validated in this mode. See {@link FhirValidator#setConcurrentBundleValidation(boolean)} for details.
+	 * <p>
+	 * This setting only applies when validator modules are supplied to this interceptor. If a validator is
+	 * supplied using {@link #setValidator(FhirValidator)}, concurrent validation should be configured on
+	 * that validator directly.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public void setConcurrentBundleValidationExecutor(ExecutorService theConcurrentBundleValidationExecutor) {
+		myConcurrentBundleValidationExecutor = theConcurrentBundleValidationExecutor;
+	}
+
 	/**
 	 * Fail the request by throwing an {@link UnprocessableEntityException} as a result of a validation failure.
 	 * Subclasses may change this behaviour by providing alternate behaviour.
@@ -336,6 +362,10 @@ public abstract class BaseValidatingInterceptor<T> extends ValidationResultEnric
 			validator = myValidator;
 		} else {
 			validator = theRequestDetails.getServer().getFhirContext().newValidator();
+			if (myConcurrentBundleValidationExecutor != null) {
+				validator.setConcurrentBundleValidation(true);
+				validator.setExecutorService(myConcurrentBundleValidationExecutor);
+			}
 			if (myValidatorModules != null) {
 				for (IValidatorModule next : myValidatorModules) {
 					validator.registerValidatorModule(next);
@@ -41,6 +41,7 @@ import ca.uhn.fhir.rest.annotation.Transaction;
 import ca.uhn.fhir.rest.annotation.Update;
 import ca.uhn.fhir.rest.annotation.Validate;
 import ca.uhn.fhir.rest.api.MethodOutcome;
+import ca.uhn.fhir.rest.api.RequestTypeEnum;
 import ca.uhn.fhir.rest.api.RestOperationTypeEnum;
 import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.api.server.IRestfulServer;
@@ -51,6 +52,7 @@ import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
 import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
 import ca.uhn.fhir.util.ReflectionUtil;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.hl7.fhir.instance.model.api.IAnyResource;
 import org.hl7.fhir.instance.model.api.IBaseBundle;
 import org.hl7.fhir.instance.model.api.IBaseResource;
@@ -70,6 +72,11 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 public abstract class BaseMethodBinding {
 
+	/**
+	 * Used by {@link #getPossibleMatchingOperations()} to represent a request with no operation
+	 */
+	public static final String NO_OPERATION = "";
+
 	private static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(BaseMethodBinding.class);
 	private final List<BaseQueryParameter> myQueryParameters;
 	private FhirContext myContext;
@@ -244,6 +251,36 @@ public abstract class BaseMethodBinding {
 
 	public abstract MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest);
 
+	/**
+	 * Returns the values of {@link RequestDetails#getOperation()} that this method could possibly
+	 * match, or <code>null</code> (the default) if this can't be determined without examining the
+	 * rest of the request. A request with a blank operation is represented by
+	 * {@link #NO_OPERATION}.
+	 * <p>
+	 * This is used to build the dispatch index in {@link ca.uhn.fhir.rest.server.ResourceBinding}, so
+	 * a non-null value must only be returned if {@link #incomingServerRequestMatchesMethod(RequestDetails)}
+	 * always returns {@link MethodMatchEnum#NONE} (and never throws) for requests with any other operation.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	@Nullable
+	public Set<String> getPossibleMatchingOperations() {
+		return null;
+	}
+
+	/**
+	 * Returns the request types that this method could possibly match, or <code>null</code> (the default)
+	 * if this can't be determined without examining the rest of the request. The same contract as
+	 * {@link #getPossibleMatchingOperations()} applies.
+	 *
+	 * @since 7.2.0
+	 */
+	@Nullable
+	public Set<RequestTypeEnum> getPossibleMatchingRequestTypes() {
+		return null;
+	}
+
 	public abstract Object invokeServer(IRestfulServer<?> theServer, RequestDetails theRequest)
 			throws BaseServerResponseException, IOException;
 
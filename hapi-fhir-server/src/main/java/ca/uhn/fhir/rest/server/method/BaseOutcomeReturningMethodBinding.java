@@ -49,6 +49,7 @@ import java.util.Date;
 import java.util.Set;
 
 import static org.apache.commons.lang3.ObjectUtils.defaultIfNull;
+import static org.apache.commons.lang3.StringUtils.defaultString;
 
 abstract class BaseOutcomeReturningMethodBinding extends BaseMethodBinding {
 	static final org.slf4j.Logger ourLog = org.slf4j.LoggerFactory.getLogger(BaseOutcomeReturningMethodBinding.class);
@@ -128,6 +129,17 @@ abstract class BaseOutcomeReturningMethodBinding extends BaseMethodBinding {
 		}
 	}
 
+	@Override
+	public Set<String> getPossibleMatchingOperations() {
+		String matchingOperation = getMatchingOperation();
+		return Set.of(defaultString(matchingOperation, NO_OPERATION));
+	}
+
+	@Override
+	public Set<RequestTypeEnum> getPossibleMatchingRequestTypes() {
+		return provideAllowableRequestTypes();
+	}
+
 	@Override
 	public MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest) {
 		Set<RequestTypeEnum> allowableRequestTypes = provideAllowableRequestTypes();
@@ -111,6 +111,16 @@ public class GraphQLMethodBinding extends OperationMethodBinding {
 		return myIdParamIndex != null;
 	}
 
+	@Override
+	public Set<String> getPossibleMatchingOperations() {
+		return Set.of(Constants.OPERATION_NAME_GRAPHQL);
+	}
+
+	@Override
+	public Set<RequestTypeEnum> getPossibleMatchingRequestTypes() {
+		return Set.of(myMethodRequestType);
+	}
+
 	@Override
 	public MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest) {
 		if (Constants.OPERATION_NAME_GRAPHQL.equals(theRequest.getOperation())
@@ -44,6 +44,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
@@ -108,6 +109,11 @@ public class HistoryMethodBinding extends BaseResourceReturningMethodBinding {
 	}
 
 	// ObjectUtils.equals is replaced by a JDK7 method..
+	@Override
+	public Set<String> getPossibleMatchingOperations() {
+		return Set.of(Constants.PARAM_HISTORY);
+	}
+
 	@Override
 	public MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest) {
 		if (!Constants.PARAM_HISTORY.equals(theRequest.getOperation())) {
@@ -51,6 +51,7 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
@@ -269,6 +270,14 @@ public class OperationMethodBinding extends BaseResourceReturningMethodBinding {
 		return myReturnType;
 	}
 
+	@Override
+	public Set<String> getPossibleMatchingOperations() {
+		if (myName.equals(WILDCARD_NAME)) {
+			return null;
+		}
+		return Set.of(myName);
+	}
+
 	@Override
 	public MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest) {
 		if (isBlank(theRequest.getOperation())) {
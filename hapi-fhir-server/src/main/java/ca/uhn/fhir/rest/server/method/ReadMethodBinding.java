@@ -120,6 +120,16 @@ public class ReadMethodBinding extends BaseResourceReturningMethodBinding {
 		return ReturnTypeEnum.RESOURCE;
 	}
 
+	@Override
+	public Set<String> getPossibleMatchingOperations() {
+		return Set.of(NO_OPERATION, Constants.PARAM_HISTORY);
+	}
+
+	@Override
+	public Set<RequestTypeEnum> getPossibleMatchingRequestTypes() {
+		return Set.of(RequestTypeEnum.GET, RequestTypeEnum.HEAD);
+	}
+
 	@Override
 	public MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest) {
 		if (!theRequest.getResourceName().equals(getResourceName())) {
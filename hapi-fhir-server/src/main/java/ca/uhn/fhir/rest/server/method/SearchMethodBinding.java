@@ -143,6 +143,16 @@ public class SearchMethodBinding extends BaseResourceReturningMethodBinding {
 		return ReturnTypeEnum.BUNDLE;
 	}
 
+	@Override
+	public Set<String> getPossibleMatchingOperations() {
+		return Set.of(NO_OPERATION, Constants.PARAM_SEARCH);
+	}
+
+	@Override
+	public Set<RequestTypeEnum> getPossibleMatchingRequestTypes() {
+		return Set.of(RequestTypeEnum.GET, RequestTypeEnum.POST);
+	}
+
 	@Override
 	public MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest) {
 
@@ -39,6 +39,7 @@ import org.hl7.fhir.instance.model.api.IBaseResource;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Set;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
@@ -90,6 +91,16 @@ public class TransactionMethodBinding extends BaseResourceReturningMethodBinding
 		return ReturnTypeEnum.BUNDLE;
 	}
 
+	@Override
+	public Set<String> getPossibleMatchingOperations() {
+		return Set.of(NO_OPERATION);
+	}
+
+	@Override
+	public Set<RequestTypeEnum> getPossibleMatchingRequestTypes() {
+		return Set.of(RequestTypeEnum.POST);
+	}
+
 	@Override
 	public MethodMatchEnum incomingServerRequestMatchesMethod(RequestDetails theRequest) {
 		if (theRequest.getRequestType() != RequestTypeEnum.POST) {
@@ -0,0 +1,190 @@
+package ca.uhn.fhir.rest.server;
+
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.api.server.SystemRequestDetails;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentMemoryPagingProviderTest {
+
+	@Test
+	public void testStoreAndRetrieve() {
+		ConcurrentMemoryPagingProvider svc = new ConcurrentMemoryPagingProvider(10);
+		IBundleProvider list = new SimpleBundleProvider();
+
+		String id = svc.storeResultList(null, list);
+		assertSame(list, svc.retrieveResultList(null, id));
+		assertNull(svc.retrieveResultList(null, "FOO"));
+
+		assertEquals(1, svc.getSize());
+		assertEquals(1, svc.getHitCount());
+		assertEquals(1, svc.getMissCount());
+	}
+
+	@Test
+	public void testEvictOldestWhenFull() {
+		ConcurrentMemoryPagingProvider svc = new ConcurrentMemoryPagingProvider(3, 1);
+
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			ids.add(svc.storeResultList(null, new SimpleBundleProvider()));
+		}
+
+		assertNull(svc.retrieveResultList(null, ids.get(0)));
+		assertNull(svc.retrieveResultList(null, ids.get(1)));
+		assertNotNull(svc.retrieveResultList(null, ids.get(2)));
+		assertNotNull(svc.retrieveResultList(null, ids.get(4)));
+		assertEquals(3, svc.getSize());
+		assertEquals(2, svc.getEvictionCount());
+	}
+
+	@Test
+	public void testMostRecentRetainedAcrossStripes() {
+		// More stripes than could each hold a share of the maximum size
+		ConcurrentMemoryPagingProvider svc = new ConcurrentMemoryPagingProvider(10);
+
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			ids.add(svc.storeResultList(null, new SimpleBundleProvider()));
+		}
+
+		for (int i = 0; i < 40; i++) {
+			assertNull(svc.retrieveResultList(null, ids.get(i)), "Index " + i);
+		}
+		for (int i = 40; i < 50; i++) {
+			assertNotNull(svc.retrieveResultList(null, ids.get(i)), "Index " + i);
+		}
+		assertEquals(10, svc.getSize());
+		assertEquals(40, svc.getEvictionCount());
+	}
+
+	@Test
+	public void testEvictByWeightAcrossStripes() {
+		ConcurrentMemoryPagingProvider svc = new ConcurrentMemoryPagingProvider(100, 16);
+		svc.setMaximumWeight(25);
+
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			ids.add(svc.storeResultList(null, new SimpleBundleProvider(Collections.nCopies(10, null))));
+		}
+
+		for (int i = 0; i < 8; i++) {
+			assertNull(svc.retrieveResultList(null, ids.get(i)), "Index " + i);
+		}
+		assertNotNull(svc.retrieveResultList(null, ids.get(8)));
+		assertNotNull(svc.retrieveResultList(null, ids.get(9)));
+		assertEquals(20, svc.getWeight());
+	}
+
+	@Test
+	public void testEvictByWeight() {
+		ConcurrentMemoryPagingProvider svc = new ConcurrentMemoryPagingProvider(100, 1);
+		svc.setMaximumWeight(25);
+
+		String id0 = svc.storeResultList(null, new SimpleBundleProvider(Collections.nCopies(10, null)));
+		String id1 = svc.storeResultList(null, new SimpleBundleProvider(Collections.nCopies(10, null)));
+		assertEquals(20, svc.getWeight());
+
+		String id2 = svc.storeResultList(null, new SimpleBundleProvider(Collections.nCopies(10, null)));
+		assertNull(svc.retrieveResultList(null, id0));
+		assertNotNull(svc.retrieveResultList(null, id1));
+		assertNotNull(svc.retrieveResultList(null, id2));
+		assertEquals(20, svc.getWeight());
+
+		// A single list heavier than the limit is still stored
+		String id3 = svc.storeResultList(null, new SimpleBundleProvider(Collections.nCopies(50, null)));
+		assertNotNull(svc.retrieveResultList(null, id3));
+		assertEquals(1, svc.getSize());
+	}
+
+	@Test
+	public void testTimeToLive() {
+		AtomicLong now = new AtomicLong(1000);
+		ConcurrentMemoryPagingProvider svc = new ConcurrentMemoryPagingProvider(100, 1);
+		svc.setClockForUnitTest(now::get);
+		svc.setTimeToLive(1, TimeUnit.MINUTES);
+
+		String id0 = svc.storeResultList(null, new SimpleBundleProvider());
+		now.addAndGet(30000);
+		String id1 = svc.storeResultList(null, new SimpleBundleProvider());
+		now.addAndGet(30000);
+
+		assertNull(svc.retrieveResultList(null, id0));
+		assertNotNull(svc.retrieveResultList(null, id1));
+
+		// Expired entries are also evicted when new lists are stored
+		now.addAndGet(60000);
+		svc.storeResultList(null, new SimpleBundleProvider());
+		assertEquals(1, svc.getSize());
+		assertEquals(2, svc.getEvictionCount());
+	}
+
+	@Test
+	public void testTenantIsolationAndQuota() {
+		ConcurrentMemoryPagingProvider svc = new ConcurrentMemoryPagingProvider(100);
+		svc.setMaximumSizePerTenant(2);
+		SystemRequestDetails tenantA = new SystemRequestDetails();
+		tenantA.setTenantId("A");
+		SystemRequestDetails tenantB = new SystemRequestDetails();
+		tenantB.setTenantId("B");
+
+		String idA0 = svc.storeResultList(tenantA, new SimpleBundleProvider());
+		String idB0 = svc.storeResultList(tenantB, new SimpleBundleProvider());
+		assertNull(svc.retrieveResultList(tenantB, idA0));
+		assertNotNull(svc.retrieveResultList(tenantA, idA0));
+
+		String idA1 = svc.storeResultList(tenantA, new SimpleBundleProvider());
+		String idA2 = svc.storeResultList(tenantA, new SimpleBundleProvider());
+		assertNull(svc.retrieveResultList(tenantA, idA0));
+		assertNotNull(svc.retrieveResultList(tenantA, idA1));
+		assertNotNull(svc.retrieveResultList(tenantA, idA2));
+		assertNotNull(svc.retrieveResultList(tenantB, idB0));
+		assertEquals(2, svc.getTenantSize("A"));
+		assertEquals(1, svc.getTenantSize("B"));
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		ConcurrentMemoryPagingProvider svc = new ConcurrentMemoryPagingProvider(500);
+		svc.setMaximumSizePerTenant(200);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				SystemRequestDetails request = new SystemRequestDetails();
+				request.setTenantId("TENANT" + (thread % 2));
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 1000; i++) {
+						IBundleProvider list = new SimpleBundleProvider();
+						String id = svc.storeResultList(request, list);
+						IBundleProvider retrieved = svc.retrieveResultList(request, id);
+						assertTrue(retrieved == null || retrieved == list);
+					}
+				}));
+			}
+			for (Future<?> next : futures) {
+				next.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertTrue(svc.getSize() <= 400, "Size was " + svc.getSize());
+		assertTrue(svc.getTenantSize("TENANT0") <= 200);
+		assertEquals(svc.getSize(), svc.getTenantSize("TENANT0") + svc.getTenantSize("TENANT1"));
+	}
+}
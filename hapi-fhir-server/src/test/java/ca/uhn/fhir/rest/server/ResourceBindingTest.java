@@ -1,7 +1,11 @@
 package ca.uhn.fhir.rest.server;
 
 import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.RequestTypeEnum;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.server.method.BaseMethodBinding;
+import ca.uhn.fhir.rest.server.method.MethodMatchEnum;
 import ca.uhn.fhir.rest.server.method.PageMethodBinding;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,9 +14,18 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ResourceBindingTest {
@@ -38,4 +51,47 @@ class ResourceBindingTest {
 		assertEquals(second, list.get(0));
 		assertEquals(first, list.get(1));
 	}
+
+	@Test
+	public void testDispatchIndexOnlyTestsPossibleMatches() throws NoSuchMethodException {
+		Method method = ResourceBindingTest.class.getMethod("testDispatchIndexOnlyTestsPossibleMatches");
+		BaseMethodBinding read = newBinding(method, Set.of(BaseMethodBinding.NO_OPERATION, Constants.PARAM_HISTORY), Set.of(RequestTypeEnum.GET));
+		BaseMethodBinding operation = newBinding(method, Set.of("$foo"), null);
+		BaseMethodBinding unindexed = newBinding(method, null, null);
+		myResourceBinding.addMethod(read);
+		myResourceBinding.addMethod(operation);
+		myResourceBinding.addMethod(unindexed);
+
+		assertEquals(read, myResourceBinding.getMethod(newRequest(RequestTypeEnum.GET, null)));
+		verify(operation, never()).incomingServerRequestMatchesMethod(any());
+		clearInvocations(read);
+
+		assertEquals(operation, myResourceBinding.getMethod(newRequest(RequestTypeEnum.POST, "$foo")));
+		assertNull(myResourceBinding.getMethod(newRequest(RequestTypeEnum.GET, "$bar")));
+		verify(read, never()).incomingServerRequestMatchesMethod(any());
+
+		// Changes to the binding list must be reflected
+		myResourceBinding.getMethodBindings().remove(operation);
+		assertNull(myResourceBinding.getMethod(newRequest(RequestTypeEnum.POST, "$foo")));
+	}
+
+	private static BaseMethodBinding newBinding(Method theMethod, Set<String> theOperations, Set<RequestTypeEnum> theRequestTypes) {
+		BaseMethodBinding retVal = mock(BaseMethodBinding.class);
+		lenient().when(retVal.getMethod()).thenReturn(theMethod);
+		when(retVal.getPossibleMatchingOperations()).thenReturn(theOperations);
+		when(retVal.getPossibleMatchingRequestTypes()).thenReturn(theRequestTypes);
+		lenient().when(retVal.incomingServerRequestMatchesMethod(any())).thenAnswer(t -> {
+			RequestDetails request = t.getArgument(0);
+			boolean operationMatches = theOperations != null && theOperations.contains(request.getOperation() == null ? "" : request.getOperation());
+			return operationMatches ? MethodMatchEnum.EXACT : MethodMatchEnum.NONE;
+		});
+		return retVal;
+	}
+
+	private static RequestDetails newRequest(RequestTypeEnum theRequestType, String theOperation) {
+		RequestDetails retVal = mock(RequestDetails.class);
+		when(retVal.getRequestType()).thenReturn(theRequestType);
+		when(retVal.getOperation()).thenReturn(theOperation);
+		return retVal;
+	}
 }
@@ -50,4 +50,14 @@ public interface Cache<K, V> {
 	long estimatedSize();
 
 	void cleanUp();
+
+	/**
+	 * Returns a snapshot of the statistics recorded by this cache. Statistics are only
+	 * recorded if the cache was created with statistics recording enabled.
+	 *
+	 * @since 7.2.0
+	 */
+	default CacheStats stats() {
+		return CacheStats.empty();
+	}
 }
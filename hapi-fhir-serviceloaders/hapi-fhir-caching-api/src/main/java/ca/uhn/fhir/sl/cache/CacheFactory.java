@@ -62,4 +62,27 @@ public class CacheFactory {
 		CacheProvider<K, V> cacheProvider = getCacheProvider();
 		return cacheProvider.create(theTimeoutMillis, theMaximumSize, cacheLoader);
 	}
+
+	/**
+	 * Creates a cache which is bounded by the total weight of its entries, as calculated
+	 * by the given weigher, rather than by the number of entries.
+	 *
+	 * @throws UnsupportedOperationException If the cache provider does not support weight based eviction
+	 * @since 7.2.0
+	 */
+	public static <K, V> Cache<K, V> build(long theTimeoutMillis, long theMaximumWeight, Weigher<K, V> theWeigher) {
+		CacheProvider<K, V> cacheProvider = getCacheProvider();
+		return cacheProvider.create(theTimeoutMillis, theMaximumWeight, theWeigher);
+	}
+
+	/**
+	 * Creates a cache which is bounded by the number of entries, optionally recording
+	 * statistics which can be retrieved using {@link Cache#stats()}.
+	 *
+	 * @since 7.2.0
+	 */
+	public static <K, V> Cache<K, V> build(long theTimeoutMillis, long theMaximumSize, boolean theRecordStats) {
+		CacheProvider<Object, Object> cacheProvider = getCacheProvider();
+		return cacheProvider.create(theTimeoutMillis, theMaximumSize, theRecordStats);
+	}
 }
@@ -20,6 +20,8 @@ package ca.uhn.fhir.sl.cache;
  * #L%
  */
 
+import ca.uhn.fhir.i18n.Msg;
+
 public interface CacheProvider<K, V> {
 	Cache create(long timeoutMillis);
 
@@ -28,4 +30,34 @@ public interface CacheProvider<K, V> {
 	LoadingCache create(long timeoutMillis, CacheLoader<K, V> cacheLoader);
 
 	LoadingCache create(long timeoutMillis, long maximumSize, CacheLoader<K, V> cacheLoader);
+
+	/**
+	 * Creates a cache which is bounded by the total weight of its entries, as calculated
+	 * by the given weigher, rather than by the number of entries.
+	 * <p>
+	 * Providers which do not support weight based eviction can leave this method as is, in
+	 * which case it throws {@link UnsupportedOperationException}.
+	 * </p>
+	 *
+	 * @throws UnsupportedOperationException If this provider does not support weight based eviction
+	 * @since 7.2.0
+	 */
+	default Cache create(long timeoutMillis, long maximumWeight, Weigher<K, V> weigher) {
+		throw new UnsupportedOperationException(Msg.code(2497) + "Cache provider " + getClass().getName()
+				+ " does not support weight based eviction");
+	}
+
+	/**
+	 * Creates a cache which is bounded by the number of entries, optionally recording
+	 * statistics which can be retrieved using {@link Cache#stats()}.
+	 * <p>
+	 * Providers which do not support statistics can leave this method as is, in which case
+	 * <code>recordStats</code> is ignored and {@link #create(long, long)} is used.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	default Cache create(long timeoutMillis, long maximumSize, boolean recordStats) {
+		return create(timeoutMillis, maximumSize);
+	}
 }
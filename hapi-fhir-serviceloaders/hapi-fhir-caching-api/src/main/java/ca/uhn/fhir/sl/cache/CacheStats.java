@@ -0,0 +1,123 @@
+package ca.uhn.fhir.sl.cache;
+
+/*-
+ * #%L
+ * HAPI FHIR - ServiceLoaders - Caching API
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A snapshot of the statistics recorded by a {@link Cache}. Statistics are only recorded
+ * for caches which were created with statistics recording enabled (see
+ * {@link CacheFactory#build(long, long, boolean)}), otherwise all values are zero.
+ *
+ * @since 7.2.0
+ */
+public final class CacheStats {
+
+	private static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0);
+
+	private final long myHitCount;
+	private final long myMissCount;
+	private final long myLoadSuccessCount;
+	private final long myLoadFailureCount;
+	private final long myTotalLoadTimeNanos;
+	private final long myEvictionCount;
+
+	public CacheStats(
+			long theHitCount,
+			long theMissCount,
+			long theLoadSuccessCount,
+			long theLoadFailureCount,
+			long theTotalLoadTimeNanos,
+			long theEvictionCount) {
+		myHitCount = theHitCount;
+		myMissCount = theMissCount;
+		myLoadSuccessCount = theLoadSuccessCount;
+		myLoadFailureCount = theLoadFailureCount;
+		myTotalLoadTimeNanos = theTotalLoadTimeNanos;
+		myEvictionCount = theEvictionCount;
+	}
+
+	public static CacheStats empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * The number of lookups which found a cached value
+	 */
+	public long getHitCount() {
+		return myHitCount;
+	}
+
+	/**
+	 * The number of lookups which did not find a cached value
+	 */
+	public long getMissCount() {
+		return myMissCount;
+	}
+
+	/**
+	 * The number of lookups (hits plus misses)
+	 */
+	public long getRequestCount() {
+		return myHitCount + myMissCount;
+	}
+
+	/**
+	 * The ratio of lookups which found a cached value, or <code>1.0</code> if there have been no lookups
+	 */
+	public double getHitRate() {
+		long requestCount = getRequestCount();
+		return requestCount == 0 ? 1.0 : (double) myHitCount / requestCount;
+	}
+
+	/**
+	 * The number of times a value was successfully loaded into the cache by a loading function
+	 */
+	public long getLoadSuccessCount() {
+		return myLoadSuccessCount;
+	}
+
+	/**
+	 * The number of times a loading function failed or returned no value
+	 */
+	public long getLoadFailureCount() {
+		return myLoadFailureCount;
+	}
+
+	/**
+	 * The total time spent in loading functions, in nanoseconds
+	 */
+	public long getTotalLoadTimeNanos() {
+		return myTotalLoadTimeNanos;
+	}
+
+	/**
+	 * The number of entries which have been evicted due to size or expiry
+	 */
+	public long getEvictionCount() {
+		return myEvictionCount;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats[hitCount=" + myHitCount + ", missCount=" + myMissCount + ", loadSuccessCount="
+				+ myLoadSuccessCount + ", loadFailureCount=" + myLoadFailureCount + ", totalLoadTimeNanos="
+				+ myTotalLoadTimeNanos + ", evictionCount=" + myEvictionCount + "]";
+	}
+}
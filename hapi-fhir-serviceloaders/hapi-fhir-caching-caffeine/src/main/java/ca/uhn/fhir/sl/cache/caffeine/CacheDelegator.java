@@ -20,6 +20,8 @@ package ca.uhn.fhir.sl.cache.caffeine;
  * #L%
  */
 
+import ca.uhn.fhir.sl.cache.CacheStats;
+
 import java.util.Map;
 import java.util.function.Function;
 
@@ -80,4 +82,16 @@ public class CacheDelegator<K, V> implements ca.uhn.fhir.sl.cache.Cache<K, V> {
 	public void cleanUp() {
 		cache.cleanUp();
 	}
+
+	@Override
+	public CacheStats stats() {
+		com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.stats();
+		return new CacheStats(
+				stats.hitCount(),
+				stats.missCount(),
+				stats.loadSuccessCount(),
+				stats.loadFailureCount(),
+				stats.totalLoadTime(),
+				stats.evictionCount());
+	}
 }
@@ -23,6 +23,7 @@ package ca.uhn.fhir.sl.cache.caffeine;
 import ca.uhn.fhir.sl.cache.Cache;
 import ca.uhn.fhir.sl.cache.CacheLoader;
 import ca.uhn.fhir.sl.cache.LoadingCache;
+import ca.uhn.fhir.sl.cache.Weigher;
 import com.github.benmanes.caffeine.cache.Caffeine;
 
 import java.util.concurrent.TimeUnit;
@@ -54,4 +55,22 @@ public class CacheProvider<K, V> implements ca.uhn.fhir.sl.cache.CacheProvider<K
 				.maximumSize(maximumSize)
 				.build(loading::load));
 	}
+
+	public Cache<K, V> create(long timeoutMillis, long maximumWeight, Weigher<K, V> weigher) {
+		return new CacheDelegator<K, V>(Caffeine.newBuilder()
+				.expireAfterWrite(timeoutMillis, TimeUnit.MILLISECONDS)
+				.maximumWeight(maximumWeight)
+				.weigher(weigher::weigh)
+				.build());
+	}
+
+	public Cache<K, V> create(long timeoutMillis, long maximumSize, boolean recordStats) {
+		Caffeine<Object, Object> builder = Caffeine.newBuilder()
+				.expireAfterWrite(timeoutMillis, TimeUnit.MILLISECONDS)
+				.maximumSize(maximumSize);
+		if (recordStats) {
+			builder.recordStats();
+		}
+		return new CacheDelegator<K, V>(builder.build());
+	}
 }
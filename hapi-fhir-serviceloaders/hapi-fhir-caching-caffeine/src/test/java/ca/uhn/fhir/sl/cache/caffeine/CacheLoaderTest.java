@@ -1,7 +1,9 @@
 package ca.uhn.fhir.sl.cache.caffeine;
 
+import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.sl.cache.Cache;
 import ca.uhn.fhir.sl.cache.CacheFactory;
+import ca.uhn.fhir.sl.cache.CacheLoader;
 import ca.uhn.fhir.sl.cache.LoadingCache;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -19,8 +21,11 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class CacheLoaderTest {
@@ -56,4 +61,62 @@ public class CacheLoaderTest {
 		});
 		assertNull(cache.get("1"));
 	}
+
+	@Order(2)
+	@Test
+	void weightedCacheTest() {
+		Cache<String, String> cache = CacheFactory.build(60000, 10, (theKey, theValue) -> theValue.length());
+		cache.put("1", "12345");
+		cache.put("2", "12345");
+		cache.put("3", "12345");
+		cache.cleanUp();
+		assertEquals(2, cache.estimatedSize());
+	}
+
+	@Order(3)
+	@Test
+	void weightedCacheNotSupportedByProviderTest() {
+		ca.uhn.fhir.sl.cache.CacheProvider<String, String> provider = new LegacyCacheProvider();
+		UnsupportedOperationException e = assertThrows(UnsupportedOperationException.class,
+			() -> provider.create(60000, 10, (theKey, theValue) -> theValue.length()));
+		assertTrue(e.getMessage().startsWith(Msg.code(2497)), e.getMessage());
+	}
+
+	@Order(4)
+	@Test
+	void statsNotSupportedByProviderTest() {
+		ca.uhn.fhir.sl.cache.CacheProvider<String, String> provider = new LegacyCacheProvider();
+		Cache<String, String> cache = provider.create(60000, 10, true);
+		cache.put("1", "1");
+		assertEquals("1", cache.getIfPresent("1"));
+		assertEquals(0, cache.stats().getRequestCount());
+	}
+
+	/**
+	 * A provider which only implements the methods which are not optional
+	 */
+	private static class LegacyCacheProvider implements ca.uhn.fhir.sl.cache.CacheProvider<String, String> {
+
+		private final CacheProvider<String, String> myDelegate = new CacheProvider<>();
+
+		@Override
+		public Cache create(long timeoutMillis) {
+			return myDelegate.create(timeoutMillis);
+		}
+
+		@Override
+		public Cache create(long timeoutMillis, long maximumSize) {
+			return myDelegate.create(timeoutMillis, maximumSize);
+		}
+
+		@Override
+		public LoadingCache create(long timeoutMillis, CacheLoader<String, String> cacheLoader) {
+			return myDelegate.create(timeoutMillis, cacheLoader);
+		}
+
+		@Override
+		public LoadingCache create(long timeoutMillis, long maximumSize, CacheLoader<String, String> cacheLoader) {
+			return myDelegate.create(timeoutMillis, maximumSize, cacheLoader);
+		}
+	}
 }
@@ -21,6 +21,7 @@ package ca.uhn.fhir.sl.cache.guava;
  */
 
 import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.sl.cache.CacheStats;
 import com.google.common.cache.CacheLoader;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
@@ -99,4 +100,16 @@ public class CacheDelegator<K, V> implements ca.uhn.fhir.sl.cache.Cache<K, V> {
 	public void cleanUp() {
 		cache.cleanUp();
 	}
+
+	@Override
+	public CacheStats stats() {
+		com.google.common.cache.CacheStats stats = cache.stats();
+		return new CacheStats(
+				stats.hitCount(),
+				stats.missCount(),
+				stats.loadSuccessCount(),
+				stats.loadExceptionCount(),
+				stats.totalLoadTime(),
+				stats.evictionCount());
+	}
 }
@@ -39,6 +39,9 @@ import ca.uhn.fhir.jpa.api.dao.IFhirResourceDao;
 import ca.uhn.fhir.jpa.api.model.DaoMethodOutcome;
 import ca.uhn.fhir.jpa.api.model.PersistentIdToForcedIdMap;
 import ca.uhn.fhir.jpa.api.svc.IIdHelperService;
+import ca.uhn.fhir.jpa.binary.api.IBinaryStorageSvc;
+import ca.uhn.fhir.jpa.binary.api.StoredDetails;
+import ca.uhn.fhir.jpa.binary.svc.NullBinaryStorageSvcImpl;
 import ca.uhn.fhir.jpa.bulk.export.api.IBulkExportProcessor;
 import ca.uhn.fhir.jpa.dao.tx.IHapiTransactionService;
 import ca.uhn.fhir.jpa.model.entity.StorageSettings;
@@ -58,29 +61,40 @@ import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import ca.uhn.fhir.rest.server.interceptor.ResponseTerminologyTranslationSvc;
 import ca.uhn.fhir.util.BinaryUtil;
 import ca.uhn.fhir.util.FhirTerser;
+import ca.uhn.fhir.util.HapiExtensions;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import jakarta.annotation.Nonnull;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hl7.fhir.instance.model.api.IBaseBinary;
 import org.hl7.fhir.instance.model.api.IBaseExtension;
 import org.hl7.fhir.instance.model.api.IBaseHasExtensions;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.instance.model.api.IIdType;
+import org.hl7.fhir.instance.model.api.IPrimitiveType;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static ca.uhn.fhir.rest.api.Constants.PARAM_ID;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
@@ -117,6 +131,9 @@ public class ExpandResourceAndWriteBinaryStep
 	@Autowired
 	private IHapiTransactionService myTransactionService;
 
+	@Autowired(required = false) // It is possible that some implementers will not create such a bean.
+	private IBinaryStorageSvc myBinaryStorageSvc;
+
 	private volatile ResponseTerminologyTranslationSvc myResponseTerminologyTranslationSvc;
 
 	@Nonnull
@@ -126,7 +143,12 @@ public class ExpandResourceAndWriteBinaryStep
 			@Nonnull IJobDataSink<BulkExportBinaryFileId> theDataSink)
 			throws JobExecutionFailedException {
 
-		List<ExpandedResourcesList> expandedResourcesList = expandResourcesFromList(theStepExecutionDetails);
+		List<IBaseResource> allResources = fetchAndProcessResources(theStepExecutionDetails);
+		if (isStreamingToBinaryStorage()) {
+			return streamResourcesToBinaryStorage(theStepExecutionDetails, allResources, theDataSink);
+		}
+
+		List<ExpandedResourcesList> expandedResourcesList = encodeResources(theStepExecutionDetails, allResources);
 		int numResourcesProcessed = 0;
 		ourLog.info("Write binary step of Job Export");
 
@@ -142,7 +164,7 @@ public class ExpandResourceAndWriteBinaryStep
 
 			IBaseBinary binary = BinaryUtil.newBinary(myFhirContext);
 
-			addMetadataExtensionsToBinary(theStepExecutionDetails, expandedResources, binary);
+			addMetadataExtensionsToBinary(theStepExecutionDetails, expandedResources.getResourceType(), binary);
 
 			// TODO
 			// should be dependent on the output format in parameters but for now, only NDJSON is supported
@@ -169,51 +191,11 @@ public class ExpandResourceAndWriteBinaryStep
 				throw new JobExecutionFailedException(Msg.code(2431) + errorMsg);
 			}
 
-			SystemRequestDetails srd = new SystemRequestDetails();
 			BulkExportJobParameters jobParameters = theStepExecutionDetails.getParameters();
-			RequestPartitionId partitionId = jobParameters.getPartitionId();
-			if (partitionId == null) {
-				srd.setRequestPartitionId(RequestPartitionId.defaultPartition());
-			} else {
-				srd.setRequestPartitionId(partitionId);
-			}
-
-			// Pick a unique ID and retry until we get one that isn't already used. This is just to
-			// avoid any possibility of people guessing the IDs of these Binaries and fishing for them.
-			while (true) {
-				// Use a random ID to make it harder to guess IDs - 32 characters of a-zA-Z0-9
-				// has 190 bts of entropy according to https://www.omnicalculator.com/other/password-entropy
-				String proposedId = RandomTextUtils.newSecureRandomAlphaNumericString(32);
-				binary.setId(proposedId);
-
-				// Make sure we don't accidentally reuse an ID. This should be impossible given the
-				// amount of entropy in the IDs but might as well be sure.
-				try {
-					IBaseBinary output = binaryDao.read(binary.getIdElement(), new SystemRequestDetails(), true);
-					if (output != null) {
-						continue;
-					}
-				} catch (ResourceNotFoundException e) {
-					// good
-				}
+			SystemRequestDetails srd = newRequestDetailsForPartition(jobParameters);
 
-				break;
-			}
-
-			if (myFhirContext.getVersion().getVersion().isNewerThan(FhirVersionEnum.DSTU2)) {
-				if (isNotBlank(jobParameters.getBinarySecurityContextIdentifierSystem())
-						|| isNotBlank(jobParameters.getBinarySecurityContextIdentifierValue())) {
-					FhirTerser terser = myFhirContext.newTerser();
-					terser.setElement(
-							binary,
-							"securityContext.identifier.system",
-							jobParameters.getBinarySecurityContextIdentifierSystem());
-					terser.setElement(
-							binary,
-							"securityContext.identifier.value",
-							jobParameters.getBinarySecurityContextIdentifierValue());
-				}
-			}
+			assignUniqueBinaryId(binaryDao, binary);
+			addSecurityContextToBinary(jobParameters, binary);
 
 			DaoMethodOutcome outcome = binaryDao.update(binary, srd);
 			IIdType id = outcome.getId();
@@ -231,9 +213,203 @@ public class ExpandResourceAndWriteBinaryStep
 		return new RunOutcome(numResourcesProcessed);
 	}
 
-	private List<ExpandedResourcesList> expandResourcesFromList(
+	/**
+	 * Streaming mode is only used if it has been enabled and a real binary storage
+	 * service is available to receive the output files.
+	 */
+	private boolean isStreamingToBinaryStorage() {
+		return myStorageSettings.isBulkExportBinaryStorageStreamingEnabled()
+				&& myBinaryStorageSvc != null
+				&& !(myBinaryStorageSvc instanceof NullBinaryStorageSvcImpl);
+	}
+
+	/**
+	 * Writes the resources as NDJSON directly into the binary storage service, one resource
+	 * at a time, so that an output file is never held in memory. Each resulting Binary
+	 * resource only references the stored blob. A new file is started whenever the
+	 * configured maximum file size is reached.
+	 */
+	private RunOutcome streamResourcesToBinaryStorage(
+			StepExecutionDetails<BulkExportJobParameters, ResourceIdList> theStepExecutionDetails,
+			List<IBaseResource> theResources,
+			IJobDataSink<BulkExportBinaryFileId> theDataSink) {
+		IParser parser = getParser(theStepExecutionDetails.getParameters());
+
+		ListMultimap<String, IBaseResource> typeToResources = ArrayListMultimap.create();
+		for (IBaseResource resource : theResources) {
+			typeToResources.put(myFhirContext.getResourceType(resource), resource);
+		}
+
+		for (String resourceType : typeToResources.keySet()) {
+			List<IBaseResource> resources = typeToResources.get(resourceType);
+			int nextIndex = 0;
+			while (nextIndex < resources.size()) {
+				nextIndex = streamFileToBinaryStorage(
+						theStepExecutionDetails, resourceType, resources, nextIndex, parser, theDataSink);
+			}
+		}
+
+		return new RunOutcome(theResources.size());
+	}
+
+	/**
+	 * Streams a single output file, starting at the resource with index {@literal theStartIndex},
+	 * and returns the index of the first resource which was not written to it.
+	 */
+	private int streamFileToBinaryStorage(
+			StepExecutionDetails<BulkExportJobParameters, ResourceIdList> theStepExecutionDetails,
+			String theResourceType,
+			List<IBaseResource> theResources,
+			int theStartIndex,
+			IParser theParser,
+			IJobDataSink<BulkExportBinaryFileId> theDataSink) {
+		long maximumFileSize = myStorageSettings.getBulkExportMaximumFileSizeBytes();
+		boolean gzip = myStorageSettings.isBulkExportGzipEnabled();
+		String contentType = gzip ? Constants.CT_APPLICATION_GZIP : Constants.CT_FHIR_NDJSON;
+
+		Path tempFile = null;
+		try {
+			// The binary storage service consumes an InputStream, so the NDJSON is spooled
+			// to a temporary file rather than being accumulated in memory
+			tempFile = Files.createTempFile("hapi-bulk-export-", gzip ? ".ndjson.gz" : ".ndjson");
+
+			int index = theStartIndex;
+			long fileSize = 0;
+			OutputStream fileOutputStream = Files.newOutputStream(tempFile);
+			if (gzip) {
+				fileOutputStream = new GZIPOutputStream(fileOutputStream);
+			}
+			try (OutputStream outputStream = new BufferedOutputStream(fileOutputStream)) {
+				while (index < theResources.size()) {
+					byte[] encoded = theParser
+							.encodeResourceToString(theResources.get(index))
+							.getBytes(StandardCharsets.UTF_8);
+					outputStream.write(encoded);
+					outputStream.write('\n');
+					fileSize += encoded.length + 1;
+					index++;
+
+					if (maximumFileSize > 0 && fileSize >= maximumFileSize) {
+						break;
+					}
+				}
+			}
+
+			@SuppressWarnings("unchecked")
+			IFhirResourceDao<IBaseBinary> binaryDao = myDaoRegistry.getResourceDao("Binary");
+			BulkExportJobParameters jobParameters = theStepExecutionDetails.getParameters();
+			SystemRequestDetails srd = newRequestDetailsForPartition(jobParameters);
+
+			IBaseBinary binary = BinaryUtil.newBinary(myFhirContext);
+			addMetadataExtensionsToBinary(theStepExecutionDetails, theResourceType, binary);
+			binary.setContentType(contentType);
+			assignUniqueBinaryId(binaryDao, binary);
+			addSecurityContextToBinary(jobParameters, binary);
+
+			StoredDetails storedDetails;
+			try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(tempFile))) {
+				storedDetails = myBinaryStorageSvc.storeBlob(
+						binary.getIdElement().withResourceType("Binary"), null, contentType, inputStream, srd);
+			}
+			addExternalizedBinaryIdToBinary(binary, storedDetails.getBlobId());
+
+			DaoMethodOutcome outcome = binaryDao.update(binary, srd);
+
+			BulkExportBinaryFileId bulkExportBinaryFileId = new BulkExportBinaryFileId();
+			bulkExportBinaryFileId.setBinaryId(outcome.getId().getValueAsString());
+			bulkExportBinaryFileId.setResourceType(theResourceType);
+			theDataSink.accept(bulkExportBinaryFileId);
+
+			ourLog.info(
+					"Binary streaming complete for {} resources of type {} ({} bytes stored)",
+					index - theStartIndex,
+					theResourceType,
+					storedDetails.getBytes());
+			return index;
+
+		} catch (IOException ex) {
+			String errorMsg = String.format(
+					"Failure to stream resources of type %s to binary storage : %s", theResourceType, ex.getMessage());
+			ourLog.error(errorMsg);
+
+			throw new JobExecutionFailedException(Msg.code(2492) + errorMsg);
+		} finally {
+			if (tempFile != null) {
+				FileUtils.deleteQuietly(tempFile.toFile());
+			}
+		}
+	}
+
+	/**
+	 * Replaces the (empty) data of the Binary with a reference to the blob held by the
+	 * binary storage service, in the same way that <code>$binary-access-write</code> does.
+	 */
+	@SuppressWarnings("unchecked")
+	private void addExternalizedBinaryIdToBinary(IBaseBinary theBinary, String theBlobId) {
+		IBaseHasExtensions data = (IBaseHasExtensions) BinaryUtil.getOrCreateData(myFhirContext, theBinary);
+		IBaseExtension<?, ?> ext = data.addExtension();
+		ext.setUrl(HapiExtensions.EXT_EXTERNALIZED_BINARY_ID);
+		ext.setUserData(JpaConstants.EXTENSION_EXT_SYSTEMDEFINED, Boolean.TRUE);
+		IPrimitiveType<String> blobIdString = (IPrimitiveType<String>)
+				myFhirContext.getElementDefinition("string").newInstance();
+		blobIdString.setValueAsString(theBlobId);
+		ext.setValue(blobIdString);
+	}
+
+	private SystemRequestDetails newRequestDetailsForPartition(BulkExportJobParameters theJobParameters) {
+		SystemRequestDetails srd = new SystemRequestDetails();
+		RequestPartitionId partitionId = theJobParameters.getPartitionId();
+		if (partitionId == null) {
+			srd.setRequestPartitionId(RequestPartitionId.defaultPartition());
+		} else {
+			srd.setRequestPartitionId(partitionId);
+		}
+		return srd;
+	}
+
+	private void assignUniqueBinaryId(IFhirResourceDao<IBaseBinary> theBinaryDao, IBaseBinary theBinary) {
+		// Pick a unique ID and retry until we get one that isn't already used. This is just to
+		// avoid any possibility of people guessing the IDs of these Binaries and fishing for them.
+		while (true) {
+			// Use a random ID to make it harder to guess IDs - 32 characters of a-zA-Z0-9
+			// has 190 bts of entropy according to https://www.omnicalculator.com/other/password-entropy
+			String proposedId = RandomTextUtils.newSecureRandomAlphaNumericString(32);
+			theBinary.setId(proposedId);
+
+			// Make sure we don't accidentally reuse an ID. This should be impossible given the
+			// amount of entropy in the IDs but might as well be sure.
+			try {
+				IBaseBinary output = theBinaryDao.read(theBinary.getIdElement(), new SystemRequestDetails(), true);
+				if (output != null) {
+					continue;
+				}
+			} catch (ResourceNotFoundException e) {
+				// good
+			}
+
+			break;
+		}
+	}
+
+	private void addSecurityContextToBinary(BulkExportJobParameters theJobParameters, IBaseBinary theBinary) {
+		if (myFhirContext.getVersion().getVersion().isNewerThan(FhirVersionEnum.DSTU2)) {
+			if (isNotBlank(theJobParameters.getBinarySecurityContextIdentifierSystem())
+					|| isNotBlank(theJobParameters.getBinarySecurityContextIdentifierValue())) {
+				FhirTerser terser = myFhirContext.newTerser();
+				terser.setElement(
+						theBinary,
+						"securityContext.identifier.system",
+						theJobParameters.getBinarySecurityContextIdentifierSystem());
+				terser.setElement(
+						theBinary,
+						"securityContext.identifier.value",
+						theJobParameters.getBinarySecurityContextIdentifierValue());
+			}
+		}
+	}
+
+	private List<IBaseResource> fetchAndProcessResources(
 			StepExecutionDetails<BulkExportJobParameters, ResourceIdList> theStepExecutionDetails) {
-		List<ExpandedResourcesList> expandedResourcesList = new ArrayList<>();
 		String instanceId = theStepExecutionDetails.getInstance().getInstanceId();
 		String chunkId = theStepExecutionDetails.getChunkId();
 		ResourceIdList idList = theStepExecutionDetails.getData();
@@ -287,8 +463,17 @@ public class ExpandResourceAndWriteBinaryStep
 			}
 		}
 
+		return allResources;
+	}
+
+	private List<ExpandedResourcesList> encodeResources(
+			StepExecutionDetails<BulkExportJobParameters, ResourceIdList> theStepExecutionDetails,
+			List<IBaseResource> theResources) {
+		List<ExpandedResourcesList> expandedResourcesList = new ArrayList<>();
+		ResourceIdList idList = theStepExecutionDetails.getData();
+
 		// encode them - Key is resource type, Value is a collection of serialized resources of that type
-		ListMultimap<String, String> resources = encodeToString(allResources, parameters);
+		ListMultimap<String, String> resources = encodeToString(theResources, theStepExecutionDetails.getParameters());
 
 		for (String nextResourceType : resources.keySet()) {
 
@@ -419,7 +604,7 @@ public class ExpandResourceAndWriteBinaryStep
 	 */
 	private void addMetadataExtensionsToBinary(
 			@Nonnull StepExecutionDetails<BulkExportJobParameters, ResourceIdList> theStepExecutionDetails,
-			ExpandedResourcesList expandedResources,
+			String theResourceType,
 			IBaseBinary binary) {
 		// Note that this applies only to hl7.org structures, so these extensions will not be added
 		// to DSTU2 structures
@@ -443,7 +628,7 @@ public class ExpandResourceAndWriteBinaryStep
 			// resource type
 			IBaseExtension<?, ?> typeExtension = meta.addExtension();
 			typeExtension.setUrl(JpaConstants.BULK_META_EXTENSION_RESOURCE_TYPE);
-			typeExtension.setValue(myFhirContext.newPrimitiveString(expandedResources.getResourceType()));
+			typeExtension.setValue(myFhirContext.newPrimitiveString(theResourceType));
 		} else {
 			ourLog.warn(
 					"Could not attach metadata extensions to binary resource, as this binary metadata does not support extensions");
@@ -462,4 +647,9 @@ public class ExpandResourceAndWriteBinaryStep
 	public void setIdHelperServiceForUnitTest(IIdHelperService theIdHelperService) {
 		myIdHelperService = theIdHelperService;
 	}
+
+	@VisibleForTesting
+	public void setBinaryStorageSvcForUnitTest(IBinaryStorageSvc theBinaryStorageSvc) {
+		myBinaryStorageSvc = theBinaryStorageSvc;
+	}
 }
@@ -28,6 +28,7 @@ import ca.uhn.fhir.batch2.api.VoidModel;
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.interceptor.model.RequestPartitionId;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.api.dao.DaoRegistry;
 import ca.uhn.fhir.jpa.api.dao.IFhirResourceDao;
 import ca.uhn.fhir.jpa.api.dao.IFhirSystemDao;
@@ -41,7 +42,12 @@ import ca.uhn.fhir.rest.api.server.storage.IResourcePersistentId;
 import ca.uhn.fhir.rest.api.server.storage.TransactionDetails;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import ca.uhn.fhir.rest.server.exceptions.PreconditionFailedException;
+import ca.uhn.fhir.util.FhirTerser;
+import ca.uhn.fhir.util.ResizableThreadPool;
+import ca.uhn.fhir.util.ResourceReferenceInfo;
+import com.google.common.collect.Lists;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.io.LineIterator;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.instance.model.api.IIdType;
@@ -51,9 +57,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
@@ -76,6 +85,12 @@ public class ConsumeFilesStep implements ILastJobStepWorker<BulkImportJobParamet
 	@Autowired
 	private IFhirSystemDao<?, ?> mySystemDao;
 
+	@Autowired
+	private JpaStorageSettings myStorageSettings;
+
+	private final ResizableThreadPool myThreadPool =
+			new ResizableThreadPool("bulk-import-", () -> myStorageSettings.getBulkImportThreadCount());
+
 	@Nonnull
 	@Override
 	public RunOutcome run(
@@ -85,19 +100,18 @@ public class ConsumeFilesStep implements ILastJobStepWorker<BulkImportJobParamet
 		String ndjson = theStepExecutionDetails.getData().getNdJsonText();
 		String sourceName = theStepExecutionDetails.getData().getSourceName();
 
-		IParser jsonParser = myCtx.newJsonParser();
-		LineIterator lineIter = new LineIterator(new StringReader(ndjson));
-		List<IBaseResource> resources = new ArrayList<>();
-		while (lineIter.hasNext()) {
-			String next = lineIter.next();
-			if (isNotBlank(next)) {
-				IBaseResource parsed;
-				try {
-					parsed = jsonParser.parseResource(next);
-				} catch (DataFormatException e) {
-					throw new JobExecutionFailedException(Msg.code(2052) + "Failed to parse resource: " + e, e);
+		List<IBaseResource> resources;
+		if (isParallel()) {
+			resources = parseResourcesInParallel(ndjson);
+		} else {
+			IParser jsonParser = myCtx.newJsonParser();
+			LineIterator lineIter = new LineIterator(new StringReader(ndjson));
+			resources = new ArrayList<>();
+			while (lineIter.hasNext()) {
+				String next = lineIter.next();
+				if (isNotBlank(next)) {
+					resources.add(parseResource(jsonParser, next));
 				}
-				resources.add(parsed);
 			}
 		}
 
@@ -108,7 +122,68 @@ public class ConsumeFilesStep implements ILastJobStepWorker<BulkImportJobParamet
 		return new RunOutcome(resources.size());
 	}
 
+	private IBaseResource parseResource(IParser theParser, String theLine) {
+		try {
+			return theParser.parseResource(theLine);
+		} catch (DataFormatException e) {
+			throw new JobExecutionFailedException(Msg.code(2052) + "Failed to parse resource: " + e, e);
+		}
+	}
+
+	/**
+	 * Parses the non-blank lines of the NDJSON on the thread pool, preserving their order
+	 */
+	private List<IBaseResource> parseResourcesInParallel(String theNdJson) {
+		List<String> lines = new ArrayList<>();
+		LineIterator lineIter = new LineIterator(new StringReader(theNdJson));
+		while (lineIter.hasNext()) {
+			String next = lineIter.next();
+			if (isNotBlank(next)) {
+				lines.add(next);
+			}
+		}
+
+		try (ResizableThreadPool.Lease lease = myThreadPool.lease()) {
+			List<Future<List<IBaseResource>>> futures = new ArrayList<>();
+			for (List<String> nextSlice : slice(lines)) {
+				futures.add(lease.submit(() -> {
+					IParser jsonParser = myCtx.newJsonParser();
+					List<IBaseResource> parsed = new ArrayList<>(nextSlice.size());
+					for (String next : nextSlice) {
+						parsed.add(parseResource(jsonParser, next));
+					}
+					return parsed;
+				}));
+			}
+
+			List<IBaseResource> retVal = new ArrayList<>(lines.size());
+			for (Future<List<IBaseResource>> next : futures) {
+				retVal.addAll(getResult(next));
+			}
+			return retVal;
+		}
+	}
+
 	public void storeResources(List<IBaseResource> resources, RequestPartitionId thePartitionId) {
+		if (isParallel() && resources.size() > 1) {
+			try (ResizableThreadPool.Lease lease = myThreadPool.lease()) {
+				List<Future<Void>> futures = new ArrayList<>();
+				for (List<IBaseResource> nextSlice : sliceByIdAndReferences(resources)) {
+					futures.add(lease.submit(() -> {
+						storeResourcesInNewTransaction(nextSlice, thePartitionId);
+						return null;
+					}));
+				}
+				for (Future<Void> next : futures) {
+					getResult(next);
+				}
+			}
+		} else {
+			storeResourcesInNewTransaction(resources, thePartitionId);
+		}
+	}
+
+	private void storeResourcesInNewTransaction(List<IBaseResource> resources, RequestPartitionId thePartitionId) {
 		SystemRequestDetails requestDetails = new SystemRequestDetails();
 		if (thePartitionId == null) {
 			requestDetails.setRequestPartitionId(RequestPartitionId.defaultPartition());
@@ -160,6 +235,106 @@ public class ConsumeFilesStep implements ILastJobStepWorker<BulkImportJobParamet
 		return null;
 	}
 
+	private boolean isParallel() {
+		return myStorageSettings.getBulkImportThreadCount() > 0;
+	}
+
+	/**
+	 * Splits the given resources into one slice per thread for storage. Since each slice is stored in its
+	 * own transaction, resources which depend on each other are kept in the same slice, in their original
+	 * order, so that they are stored exactly as they would be in a single transaction:
+	 * <ul>
+	 *    <li>All resources with the same resource type and ID (e.g. several versions of one resource)</li>
+	 *    <li>Resources which reference another resource in the same chunk, and the referenced resource</li>
+	 * </ul>
+	 * Each such group of resources is added to the slice which currently holds the fewest resources.
+	 */
+	private List<List<IBaseResource>> sliceByIdAndReferences(List<IBaseResource> theResources) {
+		int size = theResources.size();
+		int[] groups = new int[size];
+		Map<String, Integer> idToIndex = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			groups[i] = i;
+			IBaseResource next = theResources.get(i);
+			if (next.getIdElement().hasIdPart()) {
+				String id = myCtx.getResourceType(next) + "/" + next.getIdElement().getIdPart();
+				Integer previous = idToIndex.putIfAbsent(id, i);
+				if (previous != null) {
+					union(groups, previous, i);
+				}
+			}
+		}
+
+		FhirTerser terser = myCtx.newTerser();
+		for (int i = 0; i < size; i++) {
+			for (ResourceReferenceInfo nextReference : terser.getAllResourceReferences(theResources.get(i))) {
+				IIdType target = nextReference.getResourceReference().getReferenceElement();
+				if (target.hasResourceType() && target.hasIdPart()) {
+					Integer targetIndex = idToIndex.get(target.getResourceType() + "/" + target.getIdPart());
+					if (targetIndex != null) {
+						union(groups, targetIndex, i);
+					}
+				}
+			}
+		}
+
+		// Group the resources in their original order
+		Map<Integer, List<IBaseResource>> rootToGroup = new LinkedHashMap<>();
+		for (int i = 0; i < size; i++) {
+			rootToGroup.computeIfAbsent(find(groups, i), t -> new ArrayList<>()).add(theResources.get(i));
+		}
+
+		int threadCount = Math.min(myStorageSettings.getBulkImportThreadCount(), rootToGroup.size());
+		List<List<IBaseResource>> retVal = new ArrayList<>(threadCount);
+		for (int i = 0; i < threadCount; i++) {
+			retVal.add(new ArrayList<>());
+		}
+		for (List<IBaseResource> nextGroup : rootToGroup.values()) {
+			retVal.stream().min(Comparator.comparingInt(List::size)).orElseThrow().addAll(nextGroup);
+		}
+		return retVal;
+	}
+
+	private static void union(int[] theGroups, int theIndex0, int theIndex1) {
+		int root0 = find(theGroups, theIndex0);
+		int root1 = find(theGroups, theIndex1);
+		if (root0 != root1) {
+			theGroups[Math.max(root0, root1)] = Math.min(root0, root1);
+		}
+	}
+
+	private static int find(int[] theGroups, int theIndex) {
+		int retVal = theIndex;
+		while (theGroups[retVal] != retVal) {
+			theGroups[retVal] = theGroups[theGroups[retVal]];
+			retVal = theGroups[retVal];
+		}
+		return retVal;
+	}
+
+	/**
+	 * Splits the given list into one slice per thread
+	 */
+	private <T> List<List<T>> slice(List<T> theList) {
+		int threadCount = myStorageSettings.getBulkImportThreadCount();
+		int sliceSize = Math.max(1, (theList.size() + threadCount - 1) / threadCount);
+		return Lists.partition(theList, sliceSize);
+	}
+
+	private static <T> T getResult(Future<T> theFuture) {
+		return ResizableThreadPool.getResult(theFuture, e -> {
+			if (e instanceof InterruptedException) {
+				return new JobExecutionFailedException(Msg.code(2494) + "Interrupted during bulk import", e);
+			}
+			return new JobExecutionFailedException(Msg.code(2493) + "Failure during bulk import: " + e.getCause(), e);
+		});
+	}
+
+	@PreDestroy
+	public void stop() {
+		myThreadPool.shutdown();
+	}
+
 	private <T extends IBaseResource> void updateResource(
 			RequestDetails theRequestDetails, TransactionDetails theTransactionDetails, T theResource) {
 		IFhirResourceDao<T> dao = myDaoRegistry.getResourceDao(theResource);
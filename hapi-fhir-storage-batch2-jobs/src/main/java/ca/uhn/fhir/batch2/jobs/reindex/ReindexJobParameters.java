@@ -31,6 +31,7 @@ public class ReindexJobParameters extends PartitionedUrlListJobParameters {
 	public static final String OPTIMIZE_STORAGE = "optimizeStorage";
 	public static final String REINDEX_SEARCH_PARAMETERS = "reindexSearchParameters";
 	public static final String OPTIMISTIC_LOCK = "optimisticLock";
+	public static final String SKIP_UNCHANGED_INDEXES = "skipUnchangedIndexes";
 
 	@JsonProperty(
 			value = OPTIMIZE_STORAGE,
@@ -53,6 +54,22 @@ public class ReindexJobParameters extends PartitionedUrlListJobParameters {
 	@Nullable
 	private Boolean myOptimisticLock;
 
+	@JsonProperty(
+			value = SKIP_UNCHANGED_INDEXES,
+			defaultValue = ReindexParameters.SKIP_UNCHANGED_INDEXES_DEFAULT + "",
+			required = false)
+	@Nullable
+	private Boolean mySkipUnchangedIndexes;
+
+	public boolean getSkipUnchangedIndexes() {
+		return defaultIfNull(mySkipUnchangedIndexes, ReindexParameters.SKIP_UNCHANGED_INDEXES_DEFAULT);
+	}
+
+	public ReindexJobParameters setSkipUnchangedIndexes(boolean theSkipUnchangedIndexes) {
+		mySkipUnchangedIndexes = theSkipUnchangedIndexes;
+		return this;
+	}
+
 	public boolean getOptimisticLock() {
 		return defaultIfNull(myOptimisticLock, ReindexParameters.OPTIMISTIC_LOCK_DEFAULT);
 	}
@@ -91,6 +91,15 @@ public class ReindexProvider {
 									+ ReindexParameters.OPTIMISTIC_LOCK_DEFAULT + ")")
 					@OperationParam(name = ReindexJobParameters.OPTIMISTIC_LOCK, typeName = "boolean", min = 0, max = 1)
 					IPrimitiveType<Boolean> theOptimisticLock,
+			@Description(
+							"Should resources whose search parameter indexes have not changed since they were last indexed be skipped (default: "
+									+ ReindexParameters.SKIP_UNCHANGED_INDEXES_DEFAULT + ")")
+					@OperationParam(
+							name = ReindexJobParameters.SKIP_UNCHANGED_INDEXES,
+							typeName = "boolean",
+							min = 0,
+							max = 1)
+					IPrimitiveType<Boolean> theSkipUnchangedIndexes,
 			RequestDetails theRequestDetails) {
 
 		ReindexJobParameters params = new ReindexJobParameters();
@@ -120,6 +129,9 @@ public class ReindexProvider {
 		if (theOptimisticLock != null && theOptimisticLock.getValue() != null) {
 			params.setOptimisticLock(theOptimisticLock.getValue());
 		}
+		if (theSkipUnchangedIndexes != null && theSkipUnchangedIndexes.getValue() != null) {
+			params.setSkipUnchangedIndexes(theSkipUnchangedIndexes.getValue());
+		}
 
 		if (theUrlsToReindex != null) {
 			theUrlsToReindex.stream()
@@ -26,6 +26,7 @@ import ca.uhn.fhir.batch2.api.RunOutcome;
 import ca.uhn.fhir.batch2.api.StepExecutionDetails;
 import ca.uhn.fhir.batch2.api.VoidModel;
 import ca.uhn.fhir.batch2.jobs.chunk.ResourceIdListWorkChunkJson;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.api.dao.DaoRegistry;
 import ca.uhn.fhir.jpa.api.dao.IFhirResourceDao;
 import ca.uhn.fhir.jpa.api.dao.IFhirSystemDao;
@@ -40,6 +41,7 @@ import ca.uhn.fhir.rest.api.server.storage.IResourcePersistentId;
 import ca.uhn.fhir.rest.api.server.storage.TransactionDetails;
 import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
 import ca.uhn.fhir.util.StopWatch;
+import com.google.common.collect.Lists;
 import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +56,13 @@ public class ReindexStep implements IJobStepWorker<ReindexJobParameters, Resourc
 
 	public static final int REINDEX_MAX_RETRIES = 10;
 
+	/**
+	 * The number of resources in each batch when reindexing in pipelined mode
+	 *
+	 * @see JpaStorageSettings#setReindexPipelineThreadCount(int)
+	 */
+	public static final int PIPELINE_BATCH_SIZE = 100;
+
 	private static final Logger ourLog = LoggerFactory.getLogger(ReindexStep.class);
 
 	@Autowired
@@ -68,6 +77,9 @@ public class ReindexStep implements IJobStepWorker<ReindexJobParameters, Resourc
 	@Autowired
 	private IIdHelperService<IResourcePersistentId> myIdHelperService;
 
+	@Autowired
+	private JpaStorageSettings myStorageSettings;
+
 	@Nonnull
 	@Override
 	public RunOutcome run(
@@ -148,44 +160,38 @@ public class ReindexStep implements IJobStepWorker<ReindexJobParameters, Resourc
 					myChunkId);
 			StopWatch sw = new StopWatch();
 
-			// Prefetch Resources from DB
-
 			boolean reindexSearchParameters =
 					myJobParameters.getReindexSearchParameters() != ReindexParameters.ReindexSearchParametersEnum.NONE;
-			mySystemDao.preFetchResources(persistentIds, reindexSearchParameters);
-			ourLog.info(
-					"Prefetched {} resources in {} - Instance[{}] Chunk[{}]",
-					persistentIds.size(),
-					sw,
-					myInstanceId,
-					myChunkId);
-
 			ReindexParameters parameters = new ReindexParameters()
 					.setReindexSearchParameters(myJobParameters.getReindexSearchParameters())
 					.setOptimizeStorage(myJobParameters.getOptimizeStorage())
-					.setOptimisticLock(myJobParameters.getOptimisticLock());
+					.setOptimisticLock(myJobParameters.getOptimisticLock())
+					.setSkipUnchangedIndexes(myJobParameters.getSkipUnchangedIndexes());
 
-			// Reindex
+			// When unchanged resources are skipped, their existing index rows are only loaded if they have changed,
+			// but their resource links are still needed to check whether they have changed
+			boolean preFetchIndexes = reindexSearchParameters && !parameters.isSkipUnchangedIndexes();
+			boolean preFetchResourceLinks = reindexSearchParameters;
 
-			sw.restart();
-			for (int i = 0; i < myData.size(); i++) {
+			if (reindexSearchParameters && myStorageSettings.getReindexPipelineThreadCount() > 0) {
+				reindexPipelined(persistentIds, parameters, preFetchIndexes, preFetchResourceLinks);
+			} else {
 
-				String nextResourceType = myData.getResourceType(i);
-				IFhirResourceDao<?> dao = myDaoRegistry.getResourceDao(nextResourceType);
-				IResourcePersistentId<?> resourcePersistentId = persistentIds.get(i);
-				try {
+				// Prefetch Resources from DB
 
-					ReindexOutcome outcome =
-							dao.reindex(resourcePersistentId, parameters, myRequestDetails, myTransactionDetails);
-					outcome.getWarnings().forEach(myDataSink::recoveredError);
+				mySystemDao.preFetchResources(persistentIds, preFetchIndexes, preFetchResourceLinks);
+				ourLog.info(
+						"Prefetched {} resources in {} - Instance[{}] Chunk[{}]",
+						persistentIds.size(),
+						sw,
+						myInstanceId,
+						myChunkId);
 
-				} catch (BaseServerResponseException | DataFormatException e) {
-					String resourceForcedId = myIdHelperService
-							.translatePidIdToForcedIdWithCache(resourcePersistentId)
-							.orElse(resourcePersistentId.toString());
-					String resourceId = nextResourceType + "/" + resourceForcedId;
-					ourLog.debug("Failure during reindexing {}", resourceId, e);
-					myDataSink.recoveredError("Failure reindexing " + resourceId + ": " + e.getMessage());
+				// Reindex
+
+				sw.restart();
+				for (int i = 0; i < myData.size(); i++) {
+					reindexResource(i, persistentIds.get(i), parameters);
 				}
 			}
 
@@ -199,5 +205,57 @@ public class ReindexStep implements IJobStepWorker<ReindexJobParameters, Resourc
 
 			return null;
 		}
+
+		/**
+		 * Reindexes the chunk in batches of {@link #PIPELINE_BATCH_SIZE}. While one batch is being
+		 * reindexed, the next batch is fetched from the database, parsed and has its search parameters
+		 * extracted on the background pool.
+		 */
+		private void reindexPipelined(
+				List<IResourcePersistentId> thePersistentIds,
+				ReindexParameters theParameters,
+				boolean thePreFetchIndexes,
+				boolean thePreFetchResourceLinks) {
+			List<List<IResourcePersistentId>> batches = Lists.partition(thePersistentIds, PIPELINE_BATCH_SIZE);
+			if (!batches.isEmpty()) {
+				prefetchAndPrepare(batches.get(0), thePreFetchIndexes, thePreFetchResourceLinks);
+			}
+			for (int batchIdx = 0; batchIdx < batches.size(); batchIdx++) {
+				if (batchIdx + 1 < batches.size()) {
+					prefetchAndPrepare(batches.get(batchIdx + 1), thePreFetchIndexes, thePreFetchResourceLinks);
+				}
+
+				List<IResourcePersistentId> batch = batches.get(batchIdx);
+				for (int i = 0; i < batch.size(); i++) {
+					reindexResource(batchIdx * PIPELINE_BATCH_SIZE + i, batch.get(i), theParameters);
+				}
+			}
+		}
+
+		private void prefetchAndPrepare(
+				List<IResourcePersistentId> theBatch, boolean thePreFetchIndexes, boolean thePreFetchResourceLinks) {
+			mySystemDao.preFetchResources(theBatch, thePreFetchIndexes, thePreFetchResourceLinks);
+			mySystemDao.prepareResourcesForReindex(theBatch, myRequestDetails, myTransactionDetails);
+		}
+
+		private void reindexResource(
+				int theIndex, IResourcePersistentId<?> theResourcePersistentId, ReindexParameters theParameters) {
+			String nextResourceType = myData.getResourceType(theIndex);
+			IFhirResourceDao<?> dao = myDaoRegistry.getResourceDao(nextResourceType);
+			try {
+
+				ReindexOutcome outcome =
+						dao.reindex(theResourcePersistentId, theParameters, myRequestDetails, myTransactionDetails);
+				outcome.getWarnings().forEach(myDataSink::recoveredError);
+
+			} catch (BaseServerResponseException | DataFormatException e) {
+				String resourceForcedId = myIdHelperService
+						.translatePidIdToForcedIdWithCache(theResourcePersistentId)
+						.orElse(theResourcePersistentId.toString());
+				String resourceId = nextResourceType + "/" + resourceForcedId;
+				ourLog.debug("Failure during reindexing {}", resourceId, e);
+				myDataSink.recoveredError("Failure reindexing " + resourceId + ": " + e.getMessage());
+			}
+		}
 	}
 }
@@ -17,22 +17,28 @@ import ca.uhn.fhir.jpa.api.dao.IFhirResourceDao;
 import ca.uhn.fhir.jpa.api.model.DaoMethodOutcome;
 import ca.uhn.fhir.jpa.api.model.PersistentIdToForcedIdMap;
 import ca.uhn.fhir.jpa.api.svc.IIdHelperService;
+import ca.uhn.fhir.jpa.binary.api.IBinaryStorageSvc;
+import ca.uhn.fhir.jpa.binary.api.StoredDetails;
 import ca.uhn.fhir.jpa.dao.tx.IHapiTransactionService;
 import ca.uhn.fhir.jpa.dao.tx.NonTransactionalHapiTransactionService;
 import ca.uhn.fhir.jpa.model.dao.JpaPid;
 import ca.uhn.fhir.jpa.model.entity.StorageSettings;
+import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.api.server.SystemRequestDetails;
 import ca.uhn.fhir.rest.api.server.bulk.BulkExportJobParameters;
 import ca.uhn.fhir.rest.api.server.storage.IResourcePersistentId;
 import ca.uhn.fhir.rest.server.SimpleBundleProvider;
+import ca.uhn.fhir.util.HapiExtensions;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
+import org.apache.commons.io.IOUtils;
 import org.hl7.fhir.instance.model.api.IBaseBinary;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.instance.model.api.IIdType;
+import org.hl7.fhir.r4.model.Binary;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Patient;
 import org.jetbrains.annotations.NotNull;
@@ -52,23 +58,30 @@ import org.springframework.util.StringUtils;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -231,6 +244,81 @@ public class ExpandResourceAndWriteBinaryStepTest {
 		assertEquals(binaryId.getValueAsString(), fileIdArgumentCaptor.getValue().getBinaryId());
 	}
 
+	@Test
+	public void run_streamingToBinaryStorage_writesGzippedRollingFiles() throws IOException {
+		// setup
+		myStorageSettings.setBulkExportBinaryStorageStreamingEnabled(true);
+		myStorageSettings.setBulkExportGzipEnabled(true);
+		myStorageSettings.setBulkExportMaximumFileSizeBytes(1000);
+
+		IBinaryStorageSvc binaryStorageSvc = mock(IBinaryStorageSvc.class);
+		myFinalStep.setBinaryStorageSvcForUnitTest(binaryStorageSvc);
+
+		JobInstance instance = new JobInstance();
+		instance.setInstanceId("1");
+		IFhirResourceDao<IBaseBinary> binaryDao = mock(IFhirResourceDao.class);
+		IFhirResourceDao<?> patientDao = mockOutDaoRegistry();
+		IJobDataSink<BulkExportBinaryFileId> sink = mock(IJobDataSink.class);
+
+		ResourceIdList idList = new ResourceIdList();
+		ArrayList<IBaseResource> resources = createResourceList(idList);
+
+		StepExecutionDetails<BulkExportJobParameters, ResourceIdList> input = createInput(
+			idList,
+			createParameters(false),
+			instance
+		);
+
+		DaoMethodOutcome methodOutcome = new DaoMethodOutcome();
+		methodOutcome.setId(new IdType("Binary/123"));
+
+		List<String> storedFiles = new ArrayList<>();
+
+		// when
+		when(patientDao.search(any(), any())).thenReturn(new SimpleBundleProvider(resources));
+		when(myIdHelperService.newPidFromStringIdAndResourceName(anyString(), anyString())).thenReturn(JpaPid.fromId(1L));
+		when(myIdHelperService.translatePidsToForcedIds(any())).thenAnswer(t->{
+			Set<IResourcePersistentId<JpaPid>> inputSet = t.getArgument(0, Set.class);
+			Map<IResourcePersistentId<?>, Optional<String>> map = new HashMap<>();
+			for (var next : inputSet) {
+				map.put(next, Optional.empty());
+			}
+			return new PersistentIdToForcedIdMap<>(map);
+		});
+		when(myDaoRegistry.getResourceDao(eq("Binary")))
+			.thenReturn(binaryDao);
+		when(binaryDao.update(any(IBaseBinary.class), any(RequestDetails.class)))
+			.thenReturn(methodOutcome);
+		when(binaryStorageSvc.storeBlob(any(), isNull(), eq(Constants.CT_APPLICATION_GZIP), any(InputStream.class), any(RequestDetails.class)))
+			.thenAnswer(t -> {
+				InputStream inputStream = t.getArgument(3, InputStream.class);
+				storedFiles.add(IOUtils.toString(new GZIPInputStream(inputStream), StandardCharsets.UTF_8));
+				return new StoredDetails().setBlobId("blob-" + storedFiles.size());
+			});
+
+		// test
+		RunOutcome outcome = myFinalStep.run(input, sink);
+
+		// verify
+		assertEquals(resources.size(), outcome.getRecordsProcessed());
+		assertTrue(storedFiles.size() > 1, "Expected output to roll over to multiple files");
+		int totalLines = 0;
+		for (String storedFile : storedFiles) {
+			assertTrue(storedFile.length() < 1000 + 100, storedFile);
+			totalLines += StringUtils.countOccurrencesOf(storedFile, "\n");
+		}
+		assertEquals(resources.size(), totalLines);
+
+		ArgumentCaptor<IBaseBinary> binaryCaptor = ArgumentCaptor.forClass(IBaseBinary.class);
+		verify(binaryDao, times(storedFiles.size()))
+			.update(binaryCaptor.capture(), any(RequestDetails.class));
+		Binary binary = (Binary) binaryCaptor.getAllValues().get(0);
+		assertEquals(Constants.CT_APPLICATION_GZIP, binary.getContentType());
+		assertNull(binary.getContent());
+		assertEquals("blob-1", binary.getDataElement().getExtensionString(HapiExtensions.EXT_EXTERNALIZED_BINARY_ID));
+		verify(sink, times(storedFiles.size())).accept(any(BulkExportBinaryFileId.class));
+	}
+
 	@NotNull
 	private static ArrayList<IBaseResource> createResourceList(ResourceIdList idList) {
 		idList.setResourceType("Patient");
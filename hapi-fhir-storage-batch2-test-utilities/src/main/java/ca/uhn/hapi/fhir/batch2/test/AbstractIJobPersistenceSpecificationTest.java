@@ -55,6 +55,7 @@ import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -174,6 +175,24 @@ public abstract class AbstractIJobPersistenceSpecificationTest {
 				assertEquals(WorkChunkStatusEnum.IN_PROGRESS, fetchedWorkChunk.getStatus());
 			}
 
+			@Test
+			public void chunkReceivedInMemory_queuedToInProgress() {
+
+				myChunkId = createChunk();
+				WorkChunk inMemoryChunk = new WorkChunk().setId(myChunkId).setData(CHUNK_DATA).setStatus(WorkChunkStatusEnum.QUEUED);
+
+				// the worker has received the chunk in-memory, and marks it started.
+				WorkChunk chunk = mySvc.onWorkChunkDequeue(myChunkId, inMemoryChunk).orElseThrow(IllegalArgumentException::new);
+
+				assertEquals(WorkChunkStatusEnum.IN_PROGRESS, chunk.getStatus());
+				assertEquals(CHUNK_DATA, chunk.getData());
+				assertNotNull(chunk.getStartTime());
+
+				// verify the db was updated too
+				WorkChunk fetchedWorkChunk = freshFetchWorkChunk(myChunkId);
+				assertEquals(WorkChunkStatusEnum.IN_PROGRESS, fetchedWorkChunk.getStatus());
+			}
+
 			@Nested
 			class InProgressActions {
 				@BeforeEach
@@ -183,6 +202,32 @@ public abstract class AbstractIJobPersistenceSpecificationTest {
 					mySvc.onWorkChunkDequeue(myChunkId);
 				}
 
+				@Test
+				public void processingOkBatched_inProgressToSuccess_clearsDataSavesRecordCount() {
+					String otherChunkId = createChunk();
+					mySvc.onWorkChunkDequeue(otherChunkId);
+
+					// execution ok for both chunks, reported together, one of them some time after it completed
+					Date completionTime = new Date(System.currentTimeMillis() / 1000 * 1000 - 60000);
+					mySvc.onWorkChunkCompletions(List.of(
+						new WorkChunkCompletionEvent(myChunkId, 3, 0),
+						new WorkChunkCompletionEvent(otherChunkId, 5, 1).setCompletionTime(completionTime)));
+
+					// verify the db was updated
+					var workChunkEntity = freshFetchWorkChunk(myChunkId);
+					assertEquals(WorkChunkStatusEnum.COMPLETED, workChunkEntity.getStatus());
+					assertNull(workChunkEntity.getData());
+					assertEquals(3, workChunkEntity.getRecordsProcessed());
+					assertEquals(0, workChunkEntity.getErrorCount());
+					var otherWorkChunkEntity = freshFetchWorkChunk(otherChunkId);
+					assertEquals(WorkChunkStatusEnum.COMPLETED, otherWorkChunkEntity.getStatus());
+					assertNull(otherWorkChunkEntity.getData());
+					assertEquals(5, otherWorkChunkEntity.getRecordsProcessed());
+					assertEquals(1, otherWorkChunkEntity.getErrorCount());
+					assertEquals(completionTime.getTime(), otherWorkChunkEntity.getEndTime().getTime());
+					assertTrue(workChunkEntity.getEndTime().after(completionTime));
+				}
+
 				@Test
 				public void processingOk_inProgressToSuccess_clearsDataSavesRecordCount() {
 
@@ -24,6 +24,7 @@ import ca.uhn.fhir.batch2.model.WorkChunkCompletionEvent;
 import ca.uhn.fhir.batch2.model.WorkChunkCreateEvent;
 import ca.uhn.fhir.batch2.model.WorkChunkErrorEvent;
 import ca.uhn.fhir.batch2.model.WorkChunkStatusEnum;
+import jakarta.annotation.Nullable;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -73,6 +74,22 @@ public interface IWorkChunkPersistence {
 	@Transactional(propagation = Propagation.MANDATORY)
 	Optional<WorkChunk> onWorkChunkDequeue(String theChunkId);
 
+	/**
+	 * On arrival at a worker, when the producer of the chunk handed the chunk to the worker in-memory.
+	 * The chunk is transitioned exactly as in {@link #onWorkChunkDequeue(String)}, but implementations may
+	 * return the supplied chunk (updated to reflect the transition) instead of loading the chunk and its
+	 * data back from storage.
+	 *
+	 * @param theChunkId       The ID from {@link #onWorkChunkCreate}
+	 * @param theInMemoryChunk The chunk as it was created, or <code>null</code> if it is not available
+	 * @return The WorkChunk or empty if no chunk exists, or not in a runnable state (QUEUED or ERRORRED)
+	 * @since 7.2.0
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	default Optional<WorkChunk> onWorkChunkDequeue(String theChunkId, @Nullable WorkChunk theInMemoryChunk) {
+		return onWorkChunkDequeue(theChunkId);
+	}
+
 	/**
 	 * A retryable error.
 	 * Transition to {@link WorkChunkStatusEnum#ERRORED} unless max-retries passed, then
@@ -102,6 +119,19 @@ public interface IWorkChunkPersistence {
 	@Transactional(propagation = Propagation.REQUIRED)
 	void onWorkChunkCompletion(WorkChunkCompletionEvent theEvent);
 
+	/**
+	 * Report success and complete a batch of chunks.
+	 * Transition each chunk to {@link WorkChunkStatusEnum#COMPLETED}, exactly as in
+	 * {@link #onWorkChunkCompletion(WorkChunkCompletionEvent)}, but in a single transaction.
+	 *
+	 * @param theEvents with record and error count for each chunk
+	 * @since 7.2.0
+	 */
+	@Transactional(propagation = Propagation.REQUIRED)
+	default void onWorkChunkCompletions(List<WorkChunkCompletionEvent> theEvents) {
+		theEvents.forEach(this::onWorkChunkCompletion);
+	}
+
 	/**
 	 * Marks all work chunks with the provided status and erases the data
 	 *
@@ -62,8 +62,9 @@ public abstract class BaseBatch2Config {
 	}
 
 	@Bean
-	public WorkChunkProcessor jobStepExecutorService(BatchJobSender theBatchJobSender) {
-		return new WorkChunkProcessor(myPersistence, theBatchJobSender, myHapiTransactionService);
+	public WorkChunkProcessor jobStepExecutorService(
+			BatchJobSender theBatchJobSender, JpaStorageSettings theStorageSettings) {
+		return new WorkChunkProcessor(myPersistence, theBatchJobSender, myHapiTransactionService, theStorageSettings);
 	}
 
 	@Bean
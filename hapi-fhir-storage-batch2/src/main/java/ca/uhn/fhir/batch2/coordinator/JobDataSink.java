@@ -25,8 +25,10 @@ import ca.uhn.fhir.batch2.model.JobDefinition;
 import ca.uhn.fhir.batch2.model.JobDefinitionStep;
 import ca.uhn.fhir.batch2.model.JobWorkCursor;
 import ca.uhn.fhir.batch2.model.JobWorkNotification;
+import ca.uhn.fhir.batch2.model.WorkChunk;
 import ca.uhn.fhir.batch2.model.WorkChunkCreateEvent;
 import ca.uhn.fhir.batch2.model.WorkChunkData;
+import ca.uhn.fhir.batch2.model.WorkChunkStatusEnum;
 import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.jpa.dao.tx.IHapiTransactionService;
 import ca.uhn.fhir.model.api.IModelJson;
@@ -36,6 +38,7 @@ import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.springframework.transaction.annotation.Propagation;
 
+import java.util.Date;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -52,6 +55,7 @@ class JobDataSink<PT extends IModelJson, IT extends IModelJson, OT extends IMode
 	private final AtomicReference<String> myLastChunkId = new AtomicReference<>();
 	private final boolean myGatedExecution;
 	private final IHapiTransactionService myHapiTransactionService;
+	private final boolean myInMemoryWorkChunks;
 
 	JobDataSink(
 			@Nonnull BatchJobSender theBatchJobSender,
@@ -60,6 +64,29 @@ class JobDataSink<PT extends IModelJson, IT extends IModelJson, OT extends IMode
 			@Nonnull String theInstanceId,
 			@Nonnull JobWorkCursor<PT, IT, OT> theJobWorkCursor,
 			IHapiTransactionService theHapiTransactionService) {
+		this(
+				theBatchJobSender,
+				theJobPersistence,
+				theDefinition,
+				theInstanceId,
+				theJobWorkCursor,
+				theHapiTransactionService,
+				false);
+	}
+
+	/**
+	 * @param theInMemoryWorkChunks If true, the created chunks (including their data) are attached
+	 *                              to the work notifications so that the workers don't need to load
+	 *                              them back from storage
+	 */
+	JobDataSink(
+			@Nonnull BatchJobSender theBatchJobSender,
+			@Nonnull IJobPersistence theJobPersistence,
+			@Nonnull JobDefinition<?> theDefinition,
+			@Nonnull String theInstanceId,
+			@Nonnull JobWorkCursor<PT, IT, OT> theJobWorkCursor,
+			IHapiTransactionService theHapiTransactionService,
+			boolean theInMemoryWorkChunks) {
 		super(theInstanceId, theJobWorkCursor);
 		myBatchJobSender = theBatchJobSender;
 		myJobPersistence = theJobPersistence;
@@ -68,6 +95,7 @@ class JobDataSink<PT extends IModelJson, IT extends IModelJson, OT extends IMode
 		myTargetStep = theJobWorkCursor.nextStep;
 		myGatedExecution = theDefinition.isGatedExecution();
 		myHapiTransactionService = theHapiTransactionService;
+		myInMemoryWorkChunks = theInMemoryWorkChunks;
 	}
 
 	@Override
@@ -91,10 +119,27 @@ class JobDataSink<PT extends IModelJson, IT extends IModelJson, OT extends IMode
 		if (!myGatedExecution) {
 			JobWorkNotification workNotification = new JobWorkNotification(
 					myJobDefinitionId, myJobDefinitionVersion, instanceId, targetStepId, chunkId);
+			if (myInMemoryWorkChunks) {
+				workNotification.setInMemoryWorkChunk(toInMemoryWorkChunk(batchWorkChunk, chunkId));
+			}
 			myBatchJobSender.sendWorkChannelMessage(workNotification);
 		}
 	}
 
+	private static WorkChunk toInMemoryWorkChunk(WorkChunkCreateEvent theCreateEvent, String theChunkId) {
+		WorkChunk retVal = new WorkChunk();
+		retVal.setId(theChunkId);
+		retVal.setSequence(theCreateEvent.sequence);
+		retVal.setJobDefinitionId(theCreateEvent.jobDefinitionId);
+		retVal.setJobDefinitionVersion(theCreateEvent.jobDefinitionVersion);
+		retVal.setTargetStepId(theCreateEvent.targetStepId);
+		retVal.setInstanceId(theCreateEvent.instanceId);
+		retVal.setData(theCreateEvent.serializedData);
+		retVal.setStatus(WorkChunkStatusEnum.QUEUED);
+		retVal.setCreateTime(new Date());
+		return retVal;
+	}
+
 	@Override
 	public int getWorkChunkCount() {
 		return myChunkCounter.get();
@@ -31,15 +31,28 @@ import ca.uhn.fhir.batch2.model.WorkChunkStatusEnum;
 import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.model.api.IModelJson;
 import ca.uhn.fhir.util.Logs;
+import jakarta.annotation.Nullable;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 
+import java.util.Date;
+
 public class StepExecutor {
 	private static final Logger ourLog = Logs.getBatchTroubleshootingLog();
 	private final IJobPersistence myJobPersistence;
+	private final WorkChunkCompletionBuffer myCompletionBuffer;
 
 	public StepExecutor(IJobPersistence theJobPersistence) {
+		this(theJobPersistence, null);
+	}
+
+	/**
+	 * @param theCompletionBuffer If not null, chunk completions are added to this buffer instead
+	 *                            of being written to the database immediately
+	 */
+	public StepExecutor(IJobPersistence theJobPersistence, @Nullable WorkChunkCompletionBuffer theCompletionBuffer) {
 		myJobPersistence = theJobPersistence;
+		myCompletionBuffer = theCompletionBuffer;
 	}
 
 	/**
@@ -105,7 +118,13 @@ public class StepExecutor {
 			WorkChunkCompletionEvent event = new WorkChunkCompletionEvent(
 					chunkId, recordsProcessed, recoveredErrorCount, theDataSink.getRecoveredWarning());
 
-			myJobPersistence.onWorkChunkCompletion(event);
+			if (myCompletionBuffer != null) {
+				// The buffer may not be flushed until the next maintenance pass
+				event.setCompletionTime(new Date());
+				myCompletionBuffer.add(event);
+			} else {
+				myJobPersistence.onWorkChunkCompletion(event);
+			}
 		}
 
 		return true;
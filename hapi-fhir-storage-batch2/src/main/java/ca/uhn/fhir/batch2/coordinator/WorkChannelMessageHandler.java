@@ -136,8 +136,11 @@ class WorkChannelMessageHandler implements MessageHandler {
 		 * Load the chunk, and mark it as dequeued.
 		 */
 		Optional<MessageProcess> updateChunkStatusAndValidate() {
-			return myJobPersistence
-					.onWorkChunkDequeue(myChunkId)
+			WorkChunk inMemoryWorkChunk = myWorkNotification.getInMemoryWorkChunk();
+			Optional<WorkChunk> dequeuedChunk = inMemoryWorkChunk != null
+					? myJobPersistence.onWorkChunkDequeue(myChunkId, inMemoryWorkChunk)
+					: myJobPersistence.onWorkChunkDequeue(myChunkId);
+			return dequeuedChunk
 					.or(() -> {
 						ourLog.error("Unable to find chunk with ID {} - Aborting.  {}", myChunkId, myWorkNotification);
 						return Optional.empty();
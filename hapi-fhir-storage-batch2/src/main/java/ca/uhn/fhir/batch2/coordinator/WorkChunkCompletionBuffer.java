@@ -0,0 +1,135 @@
+/*-
+ * #%L
+ * HAPI FHIR JPA Server - Batch2 Task Processor
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.batch2.coordinator;
+
+import ca.uhn.fhir.batch2.api.IJobPersistence;
+import ca.uhn.fhir.batch2.model.WorkChunkCompletionEvent;
+import ca.uhn.fhir.util.Logs;
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang3.time.DateUtils;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds work chunk completions in memory so that they can be written to the database in batches
+ * instead of one transaction per chunk. The buffer is flushed by the maintenance pass before it
+ * inspects chunk states, by the worker which adds a completion whenever the buffer holds at
+ * least {@link #DEFAULT_FLUSH_THRESHOLD} completions, and by a local scheduled job (see
+ * {@link #flushIfDue()}) so that no completion is held for much longer than
+ * {@link #DEFAULT_MAX_FLUSH_DELAY_MILLIS}.
+ *
+ * @see ca.uhn.fhir.jpa.api.config.JpaStorageSettings#setJobInMemoryWorkChunksEnabled(boolean)
+ * @since 7.2.0
+ */
+public class WorkChunkCompletionBuffer {
+	public static final int DEFAULT_FLUSH_THRESHOLD = 100;
+	public static final long DEFAULT_MAX_FLUSH_DELAY_MILLIS = 5 * DateUtils.MILLIS_PER_SECOND;
+	private static final Logger ourLog = Logs.getBatchTroubleshootingLog();
+
+	private final IJobPersistence myJobPersistence;
+	private final Queue<WorkChunkCompletionEvent> myPendingCompletions = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger myPendingCount = new AtomicInteger(0);
+	private int myFlushThreshold = DEFAULT_FLUSH_THRESHOLD;
+	private long myMaxFlushDelayMillis = DEFAULT_MAX_FLUSH_DELAY_MILLIS;
+	private volatile long myLastFlushMillis = System.currentTimeMillis();
+
+	public WorkChunkCompletionBuffer(IJobPersistence theJobPersistence) {
+		myJobPersistence = theJobPersistence;
+	}
+
+	/**
+	 * Adds a completion to the buffer, flushing the buffer if it has reached the flush threshold
+	 * or if it has not been flushed within the maximum flush delay.
+	 */
+	public void add(WorkChunkCompletionEvent theEvent) {
+		myPendingCompletions.add(theEvent);
+		if (myPendingCount.incrementAndGet() >= myFlushThreshold || isFlushDue()) {
+			flush();
+		}
+	}
+
+	/**
+	 * Flushes the buffer if it holds completions and has not been flushed within the maximum
+	 * flush delay. This is called periodically so that completions are written even when no
+	 * further chunks complete.
+	 *
+	 * @return The number of completions written
+	 */
+	public int flushIfDue() {
+		if (myPendingCount.get() > 0 && isFlushDue()) {
+			return flush();
+		}
+		return 0;
+	}
+
+	private boolean isFlushDue() {
+		return System.currentTimeMillis() - myLastFlushMillis >= myMaxFlushDelayMillis;
+	}
+
+	/**
+	 * Writes all buffered completions to the database.
+	 *
+	 * @return The number of completions written
+	 */
+	public int flush() {
+		myLastFlushMillis = System.currentTimeMillis();
+		List<WorkChunkCompletionEvent> events = new ArrayList<>();
+		for (WorkChunkCompletionEvent next = myPendingCompletions.poll();
+				next != null;
+				next = myPendingCompletions.poll()) {
+			events.add(next);
+		}
+		if (events.isEmpty()) {
+			return 0;
+		}
+		myPendingCount.addAndGet(-events.size());
+
+		try {
+			myJobPersistence.onWorkChunkCompletions(events);
+		} catch (RuntimeException e) {
+			// Keep the completions so that the next flush can try again
+			myPendingCompletions.addAll(events);
+			myPendingCount.addAndGet(events.size());
+			throw e;
+		}
+
+		ourLog.debug("Flushed {} buffered work chunk completions", events.size());
+		return events.size();
+	}
+
+	public int getPendingCount() {
+		return myPendingCount.get();
+	}
+
+	@VisibleForTesting
+	public void setFlushThresholdForUnitTest(int theFlushThreshold) {
+		myFlushThreshold = theFlushThreshold;
+	}
+
+	@VisibleForTesting
+	public void setMaxFlushDelayForUnitTest(long theMaxFlushDelayMillis) {
+		myMaxFlushDelayMillis = theMaxFlushDelayMillis;
+	}
+}
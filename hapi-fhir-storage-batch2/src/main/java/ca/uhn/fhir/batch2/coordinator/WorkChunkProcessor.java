@@ -29,10 +29,12 @@ import ca.uhn.fhir.batch2.model.JobDefinitionStep;
 import ca.uhn.fhir.batch2.model.JobInstance;
 import ca.uhn.fhir.batch2.model.JobWorkCursor;
 import ca.uhn.fhir.batch2.model.WorkChunk;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.dao.tx.IHapiTransactionService;
 import ca.uhn.fhir.model.api.IModelJson;
 import ca.uhn.fhir.util.Logs;
 import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 
@@ -56,16 +58,68 @@ public class WorkChunkProcessor {
 	private final IJobPersistence myJobPersistence;
 	private final BatchJobSender myBatchJobSender;
 	private final StepExecutor myStepExecutor;
+	private final StepExecutor myBufferedStepExecutor;
+	private final WorkChunkCompletionBuffer myCompletionBuffer;
 	private final IHapiTransactionService myHapiTransactionService;
+	private final JpaStorageSettings myStorageSettings;
 
 	public WorkChunkProcessor(
 			IJobPersistence theJobPersistence,
 			BatchJobSender theSender,
 			IHapiTransactionService theHapiTransactionService) {
+		this(theJobPersistence, theSender, theHapiTransactionService, null);
+	}
+
+	/**
+	 * @param theStorageSettings If not null, {@link JpaStorageSettings#isJobInMemoryWorkChunksEnabled()} is
+	 *                           checked to decide whether work chunks are handed between steps in-memory
+	 */
+	public WorkChunkProcessor(
+			IJobPersistence theJobPersistence,
+			BatchJobSender theSender,
+			IHapiTransactionService theHapiTransactionService,
+			@Nullable JpaStorageSettings theStorageSettings) {
 		myJobPersistence = theJobPersistence;
 		myBatchJobSender = theSender;
+		myCompletionBuffer = new WorkChunkCompletionBuffer(theJobPersistence);
 		myStepExecutor = new StepExecutor(theJobPersistence);
+		myBufferedStepExecutor = new StepExecutor(theJobPersistence, myCompletionBuffer);
 		myHapiTransactionService = theHapiTransactionService;
+		myStorageSettings = theStorageSettings;
+	}
+
+	/**
+	 * Returns <code>true</code> if work chunks should be handed between steps in-memory, and
+	 * chunk completions should be buffered and written in batches.
+	 */
+	public boolean isInMemoryWorkChunksEnabled() {
+		return myStorageSettings != null && myStorageSettings.isJobInMemoryWorkChunksEnabled();
+	}
+
+	/**
+	 * Writes any buffered work chunk completions to the database. This is called by the
+	 * maintenance pass before it inspects chunk states, and when the server shuts down.
+	 *
+	 * @return The number of completions written
+	 */
+	@PreDestroy
+	public int flushBufferedWorkChunkCompletions() {
+		return myCompletionBuffer.flush();
+	}
+
+	/**
+	 * Writes any buffered work chunk completions to the database if they have been held for
+	 * longer than {@link WorkChunkCompletionBuffer#DEFAULT_MAX_FLUSH_DELAY_MILLIS}. This is
+	 * called periodically by a local scheduled job.
+	 *
+	 * @return The number of completions written
+	 */
+	public int flushDueWorkChunkCompletions() {
+		return myCompletionBuffer.flushIfDue();
+	}
+
+	public WorkChunkCompletionBuffer getCompletionBuffer() {
+		return myCompletionBuffer;
 	}
 
 	/**
@@ -104,7 +158,8 @@ public class WorkChunkProcessor {
 		StepExecutionDetails<PT, IT> stepExecutionDetails = stepExecutionDetailsOpt.get();
 
 		// execute the step
-		boolean success = myStepExecutor.executeStep(stepExecutionDetails, worker, dataSink);
+		StepExecutor stepExecutor = isInMemoryWorkChunksEnabled() ? myBufferedStepExecutor : myStepExecutor;
+		boolean success = stepExecutor.executeStep(stepExecutionDetails, worker, dataSink);
 
 		// return results with data sink
 		return new JobStepExecutorOutput<>(success, dataSink);
@@ -130,7 +185,8 @@ public class WorkChunkProcessor {
 					theJobDefinition,
 					theInstanceId,
 					theCursor,
-					myHapiTransactionService);
+					myHapiTransactionService,
+					isInMemoryWorkChunksEnabled());
 		}
 		return dataSink;
 	}
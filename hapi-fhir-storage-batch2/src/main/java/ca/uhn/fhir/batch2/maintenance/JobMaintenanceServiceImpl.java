@@ -24,8 +24,12 @@ import ca.uhn.fhir.batch2.api.IJobPersistence;
 import ca.uhn.fhir.batch2.api.IReductionStepExecutorService;
 import ca.uhn.fhir.batch2.channel.BatchJobSender;
 import ca.uhn.fhir.batch2.coordinator.JobDefinitionRegistry;
+import ca.uhn.fhir.batch2.coordinator.WorkChunkCompletionBuffer;
 import ca.uhn.fhir.batch2.coordinator.WorkChunkProcessor;
 import ca.uhn.fhir.batch2.model.JobInstance;
+import ca.uhn.fhir.batch2.model.JobWorkNotification;
+import ca.uhn.fhir.batch2.model.WorkChunk;
+import ca.uhn.fhir.batch2.model.WorkChunkStatusEnum;
 import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.model.sched.HapiJob;
@@ -41,7 +45,9 @@ import org.quartz.JobExecutionContext;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
@@ -72,6 +78,14 @@ import java.util.concurrent.TimeUnit;
  * </p>
  *
  * <p>
+ *    If in-memory work chunks are enabled, the maintenance pass also writes the work chunk completions buffered
+ *    by the workers to the database in a single batch before looking at any chunk states. Buffered completions are
+ *    also written every few seconds by a local scheduled job. Completions which were still buffered when the server
+ *    stopped unexpectedly are lost, leaving their chunks IN_PROGRESS, so the first maintenance pass after startup
+ *    sends those chunks to the workers again.
+ * </p>
+ *
+ * <p>
  *    The maintenance pass is run once per minute.  However if a gated job is fast-tracking (i.e. every step produced
  *    exactly one chunk, then the maintenance task will be triggered earlier than scheduled by the step executor.
  * </p>
@@ -81,6 +95,7 @@ public class JobMaintenanceServiceImpl implements IJobMaintenanceService, IHasSc
 
 	public static final int INSTANCES_PER_PASS = 100;
 	public static final String SCHEDULED_JOB_ID = JobMaintenanceScheduledJob.class.getName();
+	public static final String FLUSH_SCHEDULED_JOB_ID = WorkChunkCompletionFlushScheduledJob.class.getName();
 	public static final int MAINTENANCE_TRIGGER_RUN_WITHOUT_SCHEDULER_TIMEOUT = 5;
 
 	private final IJobPersistence myJobPersistence;
@@ -91,6 +106,8 @@ public class JobMaintenanceServiceImpl implements IJobMaintenanceService, IHasSc
 	private final WorkChunkProcessor myJobExecutorSvc;
 
 	private final Semaphore myRunMaintenanceSemaphore = new Semaphore(1);
+	private final Date myStartTime = new Date();
+	private volatile boolean myOrphanedWorkChunksRecovered;
 
 	private long myScheduledJobFrequencyMillis = DateUtils.MILLIS_PER_MINUTE;
 	private Runnable myMaintenanceJobStartedCallback = () -> {};
@@ -125,6 +142,12 @@ public class JobMaintenanceServiceImpl implements IJobMaintenanceService, IHasSc
 	@Override
 	public void scheduleJobs(ISchedulerService theSchedulerService) {
 		mySchedulerService.scheduleClusteredJob(myScheduledJobFrequencyMillis, buildJobDefinition());
+
+		ScheduledJobDefinition flushJobDefinition = new ScheduledJobDefinition();
+		flushJobDefinition.setId(FLUSH_SCHEDULED_JOB_ID);
+		flushJobDefinition.setJobClass(WorkChunkCompletionFlushScheduledJob.class);
+		mySchedulerService.scheduleLocalJob(
+				WorkChunkCompletionBuffer.DEFAULT_MAX_FLUSH_DELAY_MILLIS, flushJobDefinition);
 	}
 
 	@Nonnull
@@ -214,6 +237,9 @@ public class JobMaintenanceServiceImpl implements IJobMaintenanceService, IHasSc
 
 	private void doMaintenancePass() {
 		myMaintenanceJobStartedCallback.run();
+		flushBufferedWorkChunkCompletions();
+		boolean recoverOrphanedWorkChunks =
+				!myOrphanedWorkChunksRecovered && myJobExecutorSvc.isInMemoryWorkChunksEnabled();
 		Set<String> processedInstanceIds = new HashSet<>();
 		JobChunkProgressAccumulator progressAccumulator = new JobChunkProgressAccumulator();
 		for (int page = 0; ; page++) {
@@ -226,6 +252,9 @@ public class JobMaintenanceServiceImpl implements IJobMaintenanceService, IHasSc
 						.isPresent()) {
 					if (processedInstanceIds.add(instanceId)) {
 						myJobDefinitionRegistry.setJobDefinition(instance);
+						if (recoverOrphanedWorkChunks && instance.getStatus().isIncomplete()) {
+							requeueOrphanedWorkChunks(instance);
+						}
 						JobInstanceProcessor jobInstanceProcessor = new JobInstanceProcessor(
 								myJobPersistence,
 								myBatchJobSender,
@@ -251,9 +280,53 @@ public class JobMaintenanceServiceImpl implements IJobMaintenanceService, IHasSc
 				break;
 			}
 		}
+		if (recoverOrphanedWorkChunks) {
+			myOrphanedWorkChunksRecovered = true;
+		}
 		myMaintenanceJobFinishedCallback.run();
 	}
 
+	/**
+	 * When in-memory work chunks are enabled, the completion of a chunk is only written when the
+	 * worker's buffer is flushed. If the server stopped before that happened, the chunk is left
+	 * IN_PROGRESS and no worker will ever complete it. Since in-memory work chunks are only
+	 * supported on a single node, any chunk which was started before this server started cannot
+	 * still be running, so we send it to the workers again.
+	 */
+	private void requeueOrphanedWorkChunks(JobInstance theInstance) {
+		Iterator<WorkChunk> chunks = myJobPersistence.fetchAllWorkChunksIterator(theInstance.getInstanceId(), false);
+		while (chunks.hasNext()) {
+			WorkChunk chunk = chunks.next();
+			if (chunk.getStatus() == WorkChunkStatusEnum.IN_PROGRESS
+					&& chunk.getStartTime() != null
+					&& chunk.getStartTime().before(myStartTime)) {
+				ourLog.info(
+						"Requeueing work chunk {} for instance {} which was left IN_PROGRESS when the server stopped",
+						chunk.getId(),
+						theInstance.getInstanceId());
+				myBatchJobSender.sendWorkChannelMessage(
+						new JobWorkNotification(theInstance, chunk.getTargetStepId(), chunk.getId()));
+			}
+		}
+	}
+
+	/**
+	 * Chunk completions may be held in memory by the workers (see
+	 * {@link JpaStorageSettings#setJobInMemoryWorkChunksEnabled(boolean)}), so they are
+	 * written in a single batch before we look at any chunk states.
+	 */
+	private void flushBufferedWorkChunkCompletions() {
+		try {
+			int flushed = myJobExecutorSvc.flushBufferedWorkChunkCompletions();
+			if (flushed > 0) {
+				ourLog.debug("Wrote {} buffered work chunk completions", flushed);
+			}
+		} catch (Exception e) {
+			// The completions stay buffered, so the affected chunks just look like they are still in progress
+			ourLog.error("Failed to write buffered work chunk completions", e);
+		}
+	}
+
 	public void setMaintenanceJobStartedCallback(Runnable theMaintenanceJobStartedCallback) {
 		myMaintenanceJobStartedCallback = theMaintenanceJobStartedCallback;
 	}
@@ -271,4 +344,19 @@ public class JobMaintenanceServiceImpl implements IJobMaintenanceService, IHasSc
 			myTarget.runMaintenancePass();
 		}
 	}
+
+	public static class WorkChunkCompletionFlushScheduledJob implements HapiJob {
+		@Autowired
+		private WorkChunkProcessor myTarget;
+
+		@Override
+		public void execute(JobExecutionContext theContext) {
+			try {
+				myTarget.flushDueWorkChunkCompletions();
+			} catch (Exception e) {
+				// The completions stay buffered and are written by the next flush
+				ourLog.error("Failed to write buffered work chunk completions", e);
+			}
+		}
+	}
 }
@@ -20,8 +20,10 @@
 package ca.uhn.fhir.batch2.model;
 
 import ca.uhn.fhir.model.api.IModelJson;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
 public class JobWorkNotification implements IModelJson {
 
@@ -40,6 +42,12 @@ public class JobWorkNotification implements IModelJson {
 	@JsonProperty(value = "instanceId")
 	private String myInstanceId;
 
+	/**
+	 * Not serialized - Only present when the notification is delivered in-memory
+	 */
+	@JsonIgnore
+	private transient WorkChunk myInMemoryWorkChunk;
+
 	public JobWorkNotification() {}
 
 	public JobWorkNotification(
@@ -112,6 +120,26 @@ public class JobWorkNotification implements IModelJson {
 		return myInstanceId;
 	}
 
+	/**
+	 * Returns the work chunk (including its data) referred to by this notification, if the
+	 * producer of the chunk attached it in order to avoid the worker loading the chunk
+	 * back from storage. This is only ever present when the notification is delivered
+	 * in-memory, since it is never serialized.
+	 *
+	 * @since 7.2.0
+	 */
+	@Nullable
+	public WorkChunk getInMemoryWorkChunk() {
+		return myInMemoryWorkChunk;
+	}
+
+	/**
+	 * @since 7.2.0
+	 */
+	public void setInMemoryWorkChunk(@Nullable WorkChunk theInMemoryWorkChunk) {
+		myInMemoryWorkChunk = theInMemoryWorkChunk;
+	}
+
 	@Override
 	public String toString() {
 		return String.format(
@@ -19,9 +19,12 @@
  */
 package ca.uhn.fhir.batch2.model;
 
+import jakarta.annotation.Nullable;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
+import java.util.Date;
+
 /**
  * Payload for the work-chunk completion event with the record and error counts.
  */
@@ -29,6 +32,7 @@ public class WorkChunkCompletionEvent extends BaseWorkChunkEvent {
 	int myRecordsProcessed;
 	int myRecoveredErrorCount;
 	String myRecoveredWarningMessage;
+	Date myCompletionTime;
 
 	public WorkChunkCompletionEvent(String theChunkId, int theRecordsProcessed, int theRecoveredErrorCount) {
 		super(theChunkId);
@@ -54,6 +58,27 @@ public class WorkChunkCompletionEvent extends BaseWorkChunkEvent {
 		return myRecoveredWarningMessage;
 	}
 
+	/**
+	 * The time the chunk actually completed, if the event is not reported as soon as the chunk
+	 * completes (e.g. because it is held in a buffer). If <code>null</code>, the time the event is
+	 * reported is used as the end time of the chunk. This is not part of {@link #equals(Object)}.
+	 *
+	 * @since 7.2.0
+	 */
+	@Nullable
+	public Date getCompletionTime() {
+		return myCompletionTime;
+	}
+
+	/**
+	 * @see #getCompletionTime()
+	 * @since 7.2.0
+	 */
+	public WorkChunkCompletionEvent setCompletionTime(Date theCompletionTime) {
+		myCompletionTime = theCompletionTime;
+		return this;
+	}
+
 	@Override
 	public boolean equals(Object theO) {
 		if (this == theO) return true;
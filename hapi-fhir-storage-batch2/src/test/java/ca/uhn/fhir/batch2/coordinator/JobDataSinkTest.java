@@ -13,7 +13,9 @@ import ca.uhn.fhir.batch2.model.JobDefinitionStep;
 import ca.uhn.fhir.batch2.model.JobInstance;
 import ca.uhn.fhir.batch2.model.JobWorkCursor;
 import ca.uhn.fhir.batch2.model.JobWorkNotification;
+import ca.uhn.fhir.batch2.model.WorkChunk;
 import ca.uhn.fhir.batch2.model.WorkChunkCreateEvent;
+import ca.uhn.fhir.batch2.model.WorkChunkStatusEnum;
 import ca.uhn.fhir.jpa.dao.tx.IHapiTransactionService;
 import ca.uhn.fhir.jpa.dao.tx.NonTransactionalHapiTransactionService;
 import ca.uhn.fhir.model.api.IModelJson;
@@ -31,9 +33,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -131,6 +136,46 @@ class JobDataSinkTest {
 		assertThat(stepOutput.getPids(), hasSize(PID_COUNT));
 	}
 
+	@Test
+	public void test_sink_accept_inMemoryWorkChunks() {
+		// setup
+		IJobStepWorker<TestJobParameters, VoidModel, Step1Output> firstStepWorker = (details, sink) -> new RunOutcome(0);
+		IJobStepWorker<TestJobParameters, Step1Output, VoidModel> lastStepWorker = (details, sink) -> new RunOutcome(0);
+		JobDefinition<TestJobParameters> job = JobDefinition.newBuilder()
+			.setJobDefinitionId(JOB_DEF_ID)
+			.setJobDescription(JOB_DESC)
+			.setJobDefinitionVersion(JOB_DEF_VERSION)
+			.setParametersType(TestJobParameters.class)
+			.addFirstStep(FIRST_STEP_ID, "s1desc", Step1Output.class, firstStepWorker)
+			.addLastStep(LAST_STEP_ID, "s2desc", lastStepWorker)
+			.build();
+		JobDefinitionStep<TestJobParameters, VoidModel, Step1Output> firstStep = (JobDefinitionStep<TestJobParameters, VoidModel, Step1Output>) job.getSteps().get(0);
+		JobDefinitionStep<TestJobParameters, Step1Output, VoidModel> lastStep = (JobDefinitionStep<TestJobParameters, Step1Output, VoidModel>) job.getSteps().get(1);
+		JobWorkCursor<TestJobParameters, VoidModel, Step1Output> cursor = new JobWorkCursor<>(job, true, firstStep, lastStep);
+		when(myJobPersistence.onWorkChunkCreate(myBatchWorkChunkCaptor.capture())).thenReturn(CHUNK_ID);
+
+		// execute
+		JobDataSink<TestJobParameters, VoidModel, Step1Output> sink = new JobDataSink<>(myBatchJobSender, myJobPersistence, job, JOB_INSTANCE_ID, cursor, myHapiTransactionService, true);
+		Step1Output output = new Step1Output();
+		output.addPid(123L);
+		sink.accept(output);
+
+		// verify - the chunk is still stored, but the notification carries it too
+		verify(myBatchJobSender).sendWorkChannelMessage(myJobWorkNotificationCaptor.capture());
+		JobWorkNotification notification = myJobWorkNotificationCaptor.getValue();
+		WorkChunk inMemoryWorkChunk = notification.getInMemoryWorkChunk();
+		assertNotNull(inMemoryWorkChunk);
+		assertEquals(CHUNK_ID, inMemoryWorkChunk.getId());
+		assertEquals(LAST_STEP_ID, inMemoryWorkChunk.getTargetStepId());
+		assertEquals(WorkChunkStatusEnum.QUEUED, inMemoryWorkChunk.getStatus());
+		assertEquals(myBatchWorkChunkCaptor.getValue().serializedData, inMemoryWorkChunk.getData());
+
+		// the in-memory chunk must never be sent over a real channel
+		String serialized = JsonUtil.serialize(notification, false);
+		assertThat(serialized, not(containsString("pids")));
+		assertNull(JsonUtil.deserialize(serialized, JobWorkNotification.class).getInMemoryWorkChunk());
+	}
+
 	private static class Step1Output implements IModelJson {
 		@JsonProperty("pids")
 		private List<Long> myPids;
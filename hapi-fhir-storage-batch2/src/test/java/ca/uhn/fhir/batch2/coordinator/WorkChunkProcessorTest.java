@@ -21,6 +21,7 @@ import ca.uhn.fhir.batch2.model.WorkChunkCompletionEvent;
 import ca.uhn.fhir.batch2.model.WorkChunkData;
 import ca.uhn.fhir.batch2.model.WorkChunkErrorEvent;
 import ca.uhn.fhir.batch2.model.WorkChunkStatusEnum;
+import ca.uhn.fhir.jpa.api.config.JpaStorageSettings;
 import ca.uhn.fhir.jpa.dao.tx.NonTransactionalHapiTransactionService;
 import ca.uhn.fhir.model.api.IModelJson;
 import ca.uhn.fhir.util.JsonUtil;
@@ -42,9 +43,11 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -167,6 +170,72 @@ public class WorkChunkProcessorTest {
 		verify(myReductionStep, never()).run(any(), any());
 	}
 
+	@Test
+	public void doExecution_inMemoryWorkChunks_buffersCompletionUntilFlushed() {
+		// setup
+		JpaStorageSettings storageSettings = new JpaStorageSettings();
+		storageSettings.setJobInMemoryWorkChunksEnabled(true);
+		myExecutorSvc = new TestWorkChunkProcessor(myJobPersistence, myJobSender, storageSettings);
+		JobInstance jobInstance = getTestJobInstance();
+		WorkChunk chunk = new WorkChunk();
+		chunk.setId("chunkId");
+		chunk.setData(new StepInputData());
+
+		JobWorkCursor<TestJobParameters, StepInputData, StepOutputData> workCursor = mock(JobWorkCursor.class);
+		mockOutWorkCursor(StepType.INTERMEDIATE, workCursor, true, false);
+		when(myNonReductionStep.run(any(StepExecutionDetails.class), any(IJobDataSink.class)))
+			.thenReturn(RunOutcome.SUCCESS);
+
+		// test
+		JobStepExecutorOutput<?, ?, ?> result = myExecutorSvc.doExecution(workCursor, jobInstance, chunk);
+
+		// verify - nothing is written until the buffer is flushed
+		assertTrue(result.isSuccessful());
+		verify(myJobPersistence, never()).onWorkChunkCompletion(any(WorkChunkCompletionEvent.class));
+		verify(myJobPersistence, never()).onWorkChunkCompletions(anyList());
+		assertEquals(1, myExecutorSvc.getCompletionBuffer().getPendingCount());
+
+		assertEquals(1, myExecutorSvc.flushBufferedWorkChunkCompletions());
+		verify(myJobPersistence).onWorkChunkCompletions(argThat(events -> events.size() == 1 && events.get(0).getChunkId().equals("chunkId")));
+		assertEquals(0, myExecutorSvc.getCompletionBuffer().getPendingCount());
+		assertEquals(0, myExecutorSvc.flushBufferedWorkChunkCompletions());
+	}
+
+	@Test
+	public void doExecution_inMemoryWorkChunks_flushesCompletionAfterMaxDelay() {
+		// setup
+		JpaStorageSettings storageSettings = new JpaStorageSettings();
+		storageSettings.setJobInMemoryWorkChunksEnabled(true);
+		myExecutorSvc = new TestWorkChunkProcessor(myJobPersistence, myJobSender, storageSettings);
+		JobInstance jobInstance = getTestJobInstance();
+		WorkChunk chunk = new WorkChunk();
+		chunk.setId("chunkId");
+		chunk.setData(new StepInputData());
+
+		JobWorkCursor<TestJobParameters, StepInputData, StepOutputData> workCursor = mock(JobWorkCursor.class);
+		mockOutWorkCursor(StepType.INTERMEDIATE, workCursor, true, false);
+		when(myNonReductionStep.run(any(StepExecutionDetails.class), any(IJobDataSink.class)))
+			.thenReturn(RunOutcome.SUCCESS);
+
+		// test
+		myExecutorSvc.doExecution(workCursor, jobInstance, chunk);
+
+		// verify - the completion is not due yet
+		assertEquals(0, myExecutorSvc.flushDueWorkChunkCompletions());
+		assertEquals(1, myExecutorSvc.getCompletionBuffer().getPendingCount());
+
+		// verify - once the max delay has passed, the scheduled flush writes it
+		myExecutorSvc.getCompletionBuffer().setMaxFlushDelayForUnitTest(0);
+		assertEquals(1, myExecutorSvc.flushDueWorkChunkCompletions());
+		verify(myJobPersistence).onWorkChunkCompletions(argThat(events -> events.size() == 1 && events.get(0).getChunkId().equals("chunkId")));
+		assertEquals(0, myExecutorSvc.getCompletionBuffer().getPendingCount());
+
+		// verify - and further completions are written as they are added
+		myExecutorSvc.doExecution(workCursor, jobInstance, chunk);
+		assertEquals(0, myExecutorSvc.getCompletionBuffer().getPendingCount());
+		verify(myJobPersistence, times(2)).onWorkChunkCompletions(anyList());
+	}
+
 	@Test
 	public void doExecution_finalNonReductionStep_executesAsExpected() {
 		// setup
@@ -432,6 +501,10 @@ public class WorkChunkProcessorTest {
 			super(thePersistence, theSender, new NonTransactionalHapiTransactionService());
 		}
 
+		public TestWorkChunkProcessor(IJobPersistence thePersistence, BatchJobSender theSender, JpaStorageSettings theStorageSettings) {
+			super(thePersistence, theSender, new NonTransactionalHapiTransactionService(), theStorageSettings);
+		}
+
 		@Override
 		protected <PT extends IModelJson, IT extends IModelJson, OT extends IModelJson> BaseDataSink<PT, IT, OT> getDataSink(
 			JobWorkCursor<PT, IT, OT> theCursor,
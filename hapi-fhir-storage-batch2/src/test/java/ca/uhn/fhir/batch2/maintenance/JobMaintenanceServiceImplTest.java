@@ -25,6 +25,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import com.google.common.collect.Lists;
+import org.apache.commons.lang3.time.DateUtils;
 import org.hl7.fhir.r4.model.DateTimeType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -220,6 +221,34 @@ public class JobMaintenanceServiceImplTest extends BaseBatch2Test {
 		verifyNoMoreInteractions(myJobPersistence);
 	}
 
+	@Test
+	public void testInProgress_InMemoryWorkChunks_RequeuesChunksOrphanedByRestart() {
+		// Setup
+		List<WorkChunk> chunks = Arrays.asList(
+			createWorkChunkStep1().setStatus(WorkChunkStatusEnum.COMPLETED).setStartTime(parseTime("2022-02-12T14:00:00-04:00")).setId(CHUNK_ID + "abc"),
+			JobCoordinatorImplTest.createWorkChunkStep2().setStatus(WorkChunkStatusEnum.IN_PROGRESS).setStartTime(parseTime("2022-02-12T14:00:01-04:00")).setId(CHUNK_ID),
+			JobCoordinatorImplTest.createWorkChunkStep2().setStatus(WorkChunkStatusEnum.IN_PROGRESS).setStartTime(DateUtils.addMinutes(new Date(), 1)).setId(CHUNK_ID_2)
+		);
+		when(myJobExecutorSvc.isInMemoryWorkChunksEnabled()).thenReturn(true);
+		myJobDefinitionRegistry.addJobDefinition(createJobDefinition());
+		JobInstance instance = createInstance();
+		when(myJobPersistence.fetchInstance(eq(INSTANCE_ID))).thenReturn(Optional.of(instance));
+		when(myJobPersistence.fetchInstances(anyInt(), eq(0))).thenReturn(Lists.newArrayList(instance));
+		when(myJobPersistence.fetchAllWorkChunksIterator(eq(INSTANCE_ID), eq(false)))
+			.thenAnswer(t -> chunks.iterator());
+		stubUpdateInstanceCallback(instance);
+
+		// Execute
+		mySvc.runMaintenancePass();
+		mySvc.runMaintenancePass();
+
+		// Verify - only the chunk started before the server started is sent again, and only by the first pass
+		verify(myWorkChannelProducer, times(1)).send(myMessageCaptor.capture());
+		JobWorkNotification payload = myMessageCaptor.getValue().getPayload();
+		assertEquals(STEP_2, payload.getTargetStepId());
+		assertEquals(CHUNK_ID, payload.getChunkId());
+	}
+
 	@Test
 	public void testInProgress_GatedExecution_FirstStepComplete() {
 		// Setup
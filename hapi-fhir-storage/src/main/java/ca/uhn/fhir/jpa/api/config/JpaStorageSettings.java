@@ -24,6 +24,8 @@ import ca.uhn.fhir.jpa.api.model.HistoryCountModeEnum;
 import ca.uhn.fhir.jpa.api.model.WarmCacheEntry;
 import ca.uhn.fhir.jpa.model.entity.ResourceEncodingEnum;
 import ca.uhn.fhir.jpa.model.entity.StorageSettings;
+import ca.uhn.fhir.jpa.search.SearchConstants;
+import ca.uhn.fhir.jpa.util.MemoryCacheService;
 import ca.uhn.fhir.rest.api.SearchTotalModeEnum;
 import ca.uhn.fhir.system.HapiSystemProperties;
 import ca.uhn.fhir.util.HapiExtensions;
@@ -42,7 +44,9 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -159,6 +163,21 @@ public class JpaStorageSettings extends StorageSettings {
 	private int myMaximumExpansionSize = DEFAULT_MAX_EXPANSION_SIZE;
 	private Integer myMaximumSearchResultCountInTransaction = DEFAULT_MAXIMUM_SEARCH_RESULT_COUNT_IN_TRANSACTION;
 	private ResourceEncodingEnum myResourceEncoding = ResourceEncodingEnum.JSONC;
+	private String myResourceCompressionCodecId;
+	private int myParsedResourceCacheMaxEntries = 0;
+	private long myParsedResourceCacheMaxWeight = 0;
+	private boolean myIndexBulkWriteEnabled = false;
+	private int myReindexPipelineThreadCount = 0;
+	private int myBulkImportThreadCount = 0;
+	private boolean mySearchParameterOrderingEnabled = false;
+	private int myChainedSearchPreResolutionThreshold = 0;
+	private int myIncludeLoadingThreadCount = 0;
+	private String myPreExpandedValueSetIndexDirectory;
+	private boolean myJobInMemoryWorkChunksEnabled = false;
+	private final Map<MemoryCacheService.CacheEnum, Integer> myMemoryCacheMaximumSizes =
+			new EnumMap<>(MemoryCacheService.CacheEnum.class);
+	private final Map<MemoryCacheService.CacheEnum, Long> myMemoryCacheExpireAfterWriteSeconds =
+			new EnumMap<>(MemoryCacheService.CacheEnum.class);
 	/**
 	 * update setter javadoc if default changes
 	 */
@@ -2419,6 +2438,478 @@ public class JpaStorageSettings extends StorageSettings {
 		myNonResourceDbHistoryEnabled = theNonResourceDbHistoryEnabled;
 	}
 
+	/**
+	 * If set (default is {@literal null}), newly written resource versions will be stored
+	 * compressed in the <code>HFJ_RES_VER</code> table, using the
+	 * {@link ca.uhn.fhir.jpa.dao.compression.IResourceCompressionCodec codec} with the given
+	 * ID (the codec must be registered in the
+	 * {@link ca.uhn.fhir.jpa.dao.compression.ResourceCompressionCodecRegistry}). If not set,
+	 * resource versions are stored as uncompressed inline text.
+	 * <p>
+	 * Existing resource versions can be converted to the configured storage format using
+	 * the <code>$reindex</code> operation with the <code>optimizeStorage</code> parameter.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public String getResourceCompressionCodecId() {
+		return myResourceCompressionCodecId;
+	}
+
+	/**
+	 * If set (default is {@literal null}), newly written resource versions will be stored
+	 * compressed in the <code>HFJ_RES_VER</code> table, using the
+	 * {@link ca.uhn.fhir.jpa.dao.compression.IResourceCompressionCodec codec} with the given
+	 * ID (the codec must be registered in the
+	 * {@link ca.uhn.fhir.jpa.dao.compression.ResourceCompressionCodecRegistry}). If not set,
+	 * resource versions are stored as uncompressed inline text.
+	 * <p>
+	 * Existing resource versions can be converted to the configured storage format using
+	 * the <code>$reindex</code> operation with the <code>optimizeStorage</code> parameter.
+	 * </p>
+	 *
+	 * @see ca.uhn.fhir.jpa.dao.compression.DeflateDictionaryResourceCompressionCodec#DEFAULT_ID
+	 * @since 7.2.0
+	 */
+	public void setResourceCompressionCodecId(String theResourceCompressionCodecId) {
+		myResourceCompressionCodecId = theResourceCompressionCodecId;
+	}
+
+	/**
+	 * If set to a value greater than zero (default is <code>0</code>), resources which have been
+	 * parsed from the database are kept in an in-memory cache keyed by resource PID and version,
+	 * so that repeated reads of the same resource version (e.g. paging through search results)
+	 * do not need to decode and parse the stored resource body again. This setting controls the
+	 * maximum number of resource versions held in the cache.
+	 *
+	 * @see #setParsedResourceCacheMaxWeight(long)
+	 * @since 7.2.0
+	 */
+	public int getParsedResourceCacheMaxEntries() {
+		return myParsedResourceCacheMaxEntries;
+	}
+
+	/**
+	 * If set to a value greater than zero (default is <code>0</code>), resources which have been
+	 * parsed from the database are kept in an in-memory cache keyed by resource PID and version,
+	 * so that repeated reads of the same resource version (e.g. paging through search results)
+	 * do not need to decode and parse the stored resource body again. This setting controls the
+	 * maximum number of resource versions held in the cache.
+	 *
+	 * @see #setParsedResourceCacheMaxWeight(long)
+	 * @since 7.2.0
+	 */
+	public void setParsedResourceCacheMaxEntries(int theParsedResourceCacheMaxEntries) {
+		myParsedResourceCacheMaxEntries = theParsedResourceCacheMaxEntries;
+	}
+
+	/**
+	 * If set to a value greater than zero (default is <code>0</code>), the
+	 * {@link #setParsedResourceCacheMaxEntries(int) parsed resource cache} is additionally bounded
+	 * by the total size of the cached resources, measured as the number of characters in their
+	 * serialized form. This has no effect unless the parsed resource cache is enabled, or if the
+	 * caching service provider does not support weight based eviction (in which case a warning is
+	 * logged and only the maximum entry count applies).
+	 *
+	 * @since 7.2.0
+	 */
+	public long getParsedResourceCacheMaxWeight() {
+		return myParsedResourceCacheMaxWeight;
+	}
+
+	/**
+	 * If set to a value greater than zero (default is <code>0</code>), the
+	 * {@link #setParsedResourceCacheMaxEntries(int) parsed resource cache} is additionally bounded
+	 * by the total size of the cached resources, measured as the number of characters in their
+	 * serialized form. This has no effect unless the parsed resource cache is enabled, or if the
+	 * caching service provider does not support weight based eviction (in which case a warning is
+	 * logged and only the maximum entry count applies).
+	 *
+	 * @since 7.2.0
+	 */
+	public void setParsedResourceCacheMaxWeight(long theParsedResourceCacheMaxWeight) {
+		myParsedResourceCacheMaxWeight = theParsedResourceCacheMaxWeight;
+	}
+
+	/**
+	 * Returns the maximum number of entries held by the given {@link MemoryCacheService} cache,
+	 * or {@literal null} (the default) if the built-in default for that cache is used.
+	 *
+	 * @since 7.2.0
+	 */
+	@Nullable
+	public Integer getMemoryCacheMaximumSize(MemoryCacheService.CacheEnum theCache) {
+		return myMemoryCacheMaximumSizes.get(theCache);
+	}
+
+	/**
+	 * Overrides the maximum number of entries held by the given {@link MemoryCacheService} cache.
+	 * Set to {@literal null} (the default) to use the built-in default for that cache. Note that
+	 * this setting is read when the caches are created, so it must be set at startup.
+	 *
+	 * @since 7.2.0
+	 */
+	public void setMemoryCacheMaximumSize(MemoryCacheService.CacheEnum theCache, @Nullable Integer theMaximumSize) {
+		Validate.notNull(theCache, "theCache must not be null");
+		if (theMaximumSize == null) {
+			myMemoryCacheMaximumSizes.remove(theCache);
+		} else {
+			Validate.isTrue(theMaximumSize >= 0, "theMaximumSize must not be negative");
+			myMemoryCacheMaximumSizes.put(theCache, theMaximumSize);
+		}
+	}
+
+	/**
+	 * Returns the number of seconds after which entries in the given {@link MemoryCacheService}
+	 * cache expire, or {@literal null} (the default) if the built-in default for that cache is used.
+	 *
+	 * @since 7.2.0
+	 */
+	@Nullable
+	public Long getMemoryCacheExpireAfterWriteSeconds(MemoryCacheService.CacheEnum theCache) {
+		return myMemoryCacheExpireAfterWriteSeconds.get(theCache);
+	}
+
+	/**
+	 * Overrides the number of seconds after which entries in the given {@link MemoryCacheService}
+	 * cache expire. Set to {@literal null} (the default) to use the built-in default for that cache.
+	 * Note that this setting is read when the caches are created, so it must be set at startup.
+	 *
+	 * @since 7.2.0
+	 */
+	public void setMemoryCacheExpireAfterWriteSeconds(
+			MemoryCacheService.CacheEnum theCache, @Nullable Long theExpireAfterWriteSeconds) {
+		Validate.notNull(theCache, "theCache must not be null");
+		if (theExpireAfterWriteSeconds == null) {
+			myMemoryCacheExpireAfterWriteSeconds.remove(theCache);
+		} else {
+			Validate.isTrue(theExpireAfterWriteSeconds > 0, "theExpireAfterWriteSeconds must be positive");
+			myMemoryCacheExpireAfterWriteSeconds.put(theCache, theExpireAfterWriteSeconds);
+		}
+	}
+
+	/**
+	 * If enabled (default is <code>false</code>), newly created search parameter index rows
+	 * (tokens, strings, dates, resource links, non-unique combo indexes, etc.) are handed directly
+	 * to the persistence context and are excluded from dirty checking for the remainder of the
+	 * transaction. The rows are then written when the transaction is flushed, grouped by index
+	 * table into JDBC batch inserts (see the <code>hibernate.jdbc.batch_size</code> setting)
+	 * using IDs drawn from pre-allocated sequence blocks.
+	 * <p>
+	 * This avoids copying every new index row into the session and re-checking it on every flush,
+	 * which can dominate the time spent storing large transaction bundles.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public boolean isIndexBulkWriteEnabled() {
+		return myIndexBulkWriteEnabled;
+	}
+
+	/**
+	 * If enabled (default is <code>false</code>), newly created search parameter index rows
+	 * (tokens, strings, dates, resource links, non-unique combo indexes, etc.) are handed directly
+	 * to the persistence context and are excluded from dirty checking for the remainder of the
+	 * transaction. The rows are then written when the transaction is flushed, grouped by index
+	 * table into JDBC batch inserts (see the <code>hibernate.jdbc.batch_size</code> setting)
+	 * using IDs drawn from pre-allocated sequence blocks.
+	 * <p>
+	 * This avoids copying every new index row into the session and re-checking it on every flush,
+	 * which can dominate the time spent storing large transaction bundles.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public void setIndexBulkWriteEnabled(boolean theIndexBulkWriteEnabled) {
+		myIndexBulkWriteEnabled = theIndexBulkWriteEnabled;
+	}
+
+	/**
+	 * If this is set to a value greater than <code>0</code> (default is <code>0</code>), reindex jobs
+	 * which reindex search parameters use a pipelined mode. Each work chunk is processed in smaller
+	 * batches, and while the indexes for one batch are being written, the resources in the next batch
+	 * are fetched from the database and then parsed and have their search parameters extracted on a
+	 * pool with this many threads.
+	 * <p>
+	 * Parsing and search parameter extraction usually account for most of the CPU time spent
+	 * reindexing, so this can significantly speed up reindexing a large database. Note that the
+	 * pool is shared by all reindex jobs running on this server.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public int getReindexPipelineThreadCount() {
+		return myReindexPipelineThreadCount;
+	}
+
+	/**
+	 * If this is set to a value greater than <code>0</code> (default is <code>0</code>), reindex jobs
+	 * which reindex search parameters use a pipelined mode. Each work chunk is processed in smaller
+	 * batches, and while the indexes for one batch are being written, the resources in the next batch
+	 * are fetched from the database and then parsed and have their search parameters extracted on a
+	 * pool with this many threads.
+	 * <p>
+	 * Parsing and search parameter extraction usually account for most of the CPU time spent
+	 * reindexing, so this can significantly speed up reindexing a large database. Note that the
+	 * pool is shared by all reindex jobs running on this server.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public void setReindexPipelineThreadCount(int theReindexPipelineThreadCount) {
+		Validate.isTrue(theReindexPipelineThreadCount >= 0, "theReindexPipelineThreadCount must not be negative");
+		myReindexPipelineThreadCount = theReindexPipelineThreadCount;
+	}
+
+	/**
+	 * If this is set to a value greater than <code>0</code> (default is <code>0</code>), bulk import
+	 * jobs parse the NDJSON in each work chunk on a pool with this many threads, and then split the
+	 * parsed resources into this many slices which are stored concurrently, each in its own database
+	 * transaction. Client-assigned IDs are still resolved in batches for each slice before any
+	 * resources are written.
+	 * <p>
+	 * Note that the pool is shared by all bulk import jobs running on this server, and that each
+	 * thread needs its own database connection while storing. If a slice fails to store, slices which
+	 * have already been committed are not rolled back, but the work chunk is retried as a whole and
+	 * storing the same resources again does not create new versions. All entries in a work chunk
+	 * with the same resource type and ID, and all entries which reference another entry in the same
+	 * work chunk, are stored in the same slice in their original order, so they are stored exactly as
+	 * they would be in a single transaction.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public int getBulkImportThreadCount() {
+		return myBulkImportThreadCount;
+	}
+
+	/**
+	 * If this is set to a value greater than <code>0</code> (default is <code>0</code>), bulk import
+	 * jobs parse the NDJSON in each work chunk on a pool with this many threads, and then split the
+	 * parsed resources into this many slices which are stored concurrently, each in its own database
+	 * transaction. Client-assigned IDs are still resolved in batches for each slice before any
+	 * resources are written.
+	 * <p>
+	 * Note that the pool is shared by all bulk import jobs running on this server, and that each
+	 * thread needs its own database connection while storing. If a slice fails to store, slices which
+	 * have already been committed are not rolled back, but the work chunk is retried as a whole and
+	 * storing the same resources again does not create new versions. All entries in a work chunk
+	 * with the same resource type and ID, and all entries which reference another entry in the same
+	 * work chunk, are stored in the same slice in their original order, so they are stored exactly as
+	 * they would be in a single transaction.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public void setBulkImportThreadCount(int theBulkImportThreadCount) {
+		Validate.isTrue(theBulkImportThreadCount >= 0, "theBulkImportThreadCount must not be negative");
+		myBulkImportThreadCount = theBulkImportThreadCount;
+	}
+
+	/**
+	 * If this is set to <code>true</code> (default is <code>false</code>), the parameters of a search are
+	 * added to the generated SQL in order of their estimated selectivity instead of the order they were
+	 * supplied in. The estimate is based on the search parameter type, modifiers, prefixes and number of
+	 * OR values, so that for example an identifier with a system is used as the root of the query ahead
+	 * of a date range or a <code>:missing</code> test. This mostly helps databases which follow the
+	 * join order of the statement rather than reordering joins themselves.
+	 *
+	 * @since 7.2.0
+	 */
+	public boolean isSearchParameterOrderingEnabled() {
+		return mySearchParameterOrderingEnabled;
+	}
+
+	/**
+	 * If this is set to <code>true</code> (default is <code>false</code>), the parameters of a search are
+	 * added to the generated SQL in order of their estimated selectivity instead of the order they were
+	 * supplied in. The estimate is based on the search parameter type, modifiers, prefixes and number of
+	 * OR values, so that for example an identifier with a system is used as the root of the query ahead
+	 * of a date range or a <code>:missing</code> test. This mostly helps databases which follow the
+	 * join order of the statement rather than reordering joins themselves.
+	 *
+	 * @since 7.2.0
+	 */
+	public void setSearchParameterOrderingEnabled(boolean theSearchParameterOrderingEnabled) {
+		mySearchParameterOrderingEnabled = theSearchParameterOrderingEnabled;
+	}
+
+	/**
+	 * If this is set to a value greater than <code>0</code> (default is <code>0</code>), chained search
+	 * parameters (e.g. <code>Observation?subject.name=smith</code>) and <code>_has</code> parameters are
+	 * resolved by first searching the target resource type in a separate query, fetching at most this many
+	 * matching resource IDs, and then matching the references against that list of IDs. If the separate query
+	 * matches more resources than this, the search falls back to the usual sub-select. Multi-level chains are
+	 * resolved one level at a time.
+	 * <p>
+	 * This makes the cost of selective chains predictable on large databases where the query planner does
+	 * not push the chained filter into the sub-select, at the cost of one additional query per chained
+	 * parameter and target type. Chains using the <code>:not</code> modifier always use the sub-select.
+	 * </p>
+	 * <p>
+	 * The resolved IDs are passed to the database in a single <code>IN</code> list, so the threshold can not
+	 * be greater than {@link SearchConstants#MAX_PAGE_SIZE} (800). This keeps the list within the limits of
+	 * databases such as Oracle (1000 elements) and SQL Server (2100 bind parameters).
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public int getChainedSearchPreResolutionThreshold() {
+		return myChainedSearchPreResolutionThreshold;
+	}
+
+	/**
+	 * If this is set to a value greater than <code>0</code> (default is <code>0</code>), chained search
+	 * parameters (e.g. <code>Observation?subject.name=smith</code>) and <code>_has</code> parameters are
+	 * resolved by first searching the target resource type in a separate query, fetching at most this many
+	 * matching resource IDs, and then matching the references against that list of IDs. If the separate query
+	 * matches more resources than this, the search falls back to the usual sub-select. Multi-level chains are
+	 * resolved one level at a time.
+	 * <p>
+	 * This makes the cost of selective chains predictable on large databases where the query planner does
+	 * not push the chained filter into the sub-select, at the cost of one additional query per chained
+	 * parameter and target type. Chains using the <code>:not</code> modifier always use the sub-select.
+	 * </p>
+	 * <p>
+	 * The resolved IDs are passed to the database in a single <code>IN</code> list, so the threshold can not
+	 * be greater than {@link SearchConstants#MAX_PAGE_SIZE} (800). This keeps the list within the limits of
+	 * databases such as Oracle (1000 elements) and SQL Server (2100 bind parameters).
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public void setChainedSearchPreResolutionThreshold(int theChainedSearchPreResolutionThreshold) {
+		Validate.isTrue(
+				theChainedSearchPreResolutionThreshold >= 0,
+				"theChainedSearchPreResolutionThreshold must not be negative");
+		Validate.isTrue(
+				theChainedSearchPreResolutionThreshold <= SearchConstants.MAX_PAGE_SIZE,
+				"theChainedSearchPreResolutionThreshold must not be greater than %d",
+				SearchConstants.MAX_PAGE_SIZE);
+		myChainedSearchPreResolutionThreshold = theChainedSearchPreResolutionThreshold;
+	}
+
+	/**
+	 * If this is set to a value greater than <code>0</code> (default is <code>0</code>), the database queries
+	 * used to load <code>_include</code> and <code>_revinclude</code> resources are run concurrently on a pool
+	 * with this many threads. Within each round of include loading, the queries for every include parameter,
+	 * path and batch of resource IDs are independent, so a search such as <code>Patient?_revinclude=*</code>
+	 * over many patients no longer issues them one at a time.
+	 * <p>
+	 * Note that the pool is shared by all searches on this server, and that each thread needs its own
+	 * database connection in addition to the one held by the search, so the database connection pool
+	 * should be sized with room for this many extra connections. The searching thread also runs queries
+	 * itself and never waits for a pool thread which has not yet obtained a connection, so an exhausted
+	 * connection pool only means the includes are loaded on the searching thread alone. Because the pool
+	 * connections can not see uncommitted changes, the queries are only run concurrently for searches
+	 * which are not part of a write transaction (e.g. a search within a FHIR transaction Bundle still
+	 * loads its includes on the calling thread).
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public int getIncludeLoadingThreadCount() {
+		return myIncludeLoadingThreadCount;
+	}
+
+	/**
+	 * If this is set to a value greater than <code>0</code> (default is <code>0</code>), the database queries
+	 * used to load <code>_include</code> and <code>_revinclude</code> resources are run concurrently on a pool
+	 * with this many threads. Within each round of include loading, the queries for every include parameter,
+	 * path and batch of resource IDs are independent, so a search such as <code>Patient?_revinclude=*</code>
+	 * over many patients no longer issues them one at a time.
+	 * <p>
+	 * Note that the pool is shared by all searches on this server, and that each thread needs its own
+	 * database connection in addition to the one held by the search, so the database connection pool
+	 * should be sized with room for this many extra connections. The searching thread also runs queries
+	 * itself and never waits for a pool thread which has not yet obtained a connection, so an exhausted
+	 * connection pool only means the includes are loaded on the searching thread alone. Because the pool
+	 * connections can not see uncommitted changes, the queries are only run concurrently for searches
+	 * which are not part of a write transaction (e.g. a search within a FHIR transaction Bundle still
+	 * loads its includes on the calling thread).
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public void setIncludeLoadingThreadCount(int theIncludeLoadingThreadCount) {
+		Validate.isTrue(theIncludeLoadingThreadCount >= 0, "theIncludeLoadingThreadCount must not be negative");
+		myIncludeLoadingThreadCount = theIncludeLoadingThreadCount;
+	}
+
+	/**
+	 * If set (default is <code>null</code>), a memory-mapped index file is built in this directory for every
+	 * pre-expanded ValueSet, and is used instead of the <code>TRM_VALUESET_CONCEPT</code> table when validating
+	 * codes against that ValueSet. Index files are built when a ValueSet is pre-expanded (or on first use if
+	 * the file is missing or out of date), and are removed when the pre-expansion is invalidated.
+	 * <p>
+	 * The directory should be local to each server, and is created if it does not exist.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public String getPreExpandedValueSetIndexDirectory() {
+		return myPreExpandedValueSetIndexDirectory;
+	}
+
+	/**
+	 * If set (default is <code>null</code>), a memory-mapped index file is built in this directory for every
+	 * pre-expanded ValueSet, and is used instead of the <code>TRM_VALUESET_CONCEPT</code> table when validating
+	 * codes against that ValueSet. Index files are built when a ValueSet is pre-expanded (or on first use if
+	 * the file is missing or out of date), and are removed when the pre-expansion is invalidated.
+	 * <p>
+	 * The directory should be local to each server, and is created if it does not exist.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public void setPreExpandedValueSetIndexDirectory(String thePreExpandedValueSetIndexDirectory) {
+		myPreExpandedValueSetIndexDirectory = thePreExpandedValueSetIndexDirectory;
+	}
+
+	/**
+	 * If enabled (default is <code>false</code>), batch jobs hand the work chunks produced by one step
+	 * directly to the local workers for the next step instead of having each worker load the chunk back
+	 * from the database, and work chunk completions are buffered in memory and written to the database
+	 * in batches. Buffered completions are written at least every few seconds, whenever enough
+	 * completions have accumulated, and by the batch maintenance pass.
+	 * <p>
+	 * Work chunks are still stored when they are created, so the stored chunks act as a checkpoint of
+	 * the job progress. Completions which have not yet been written are lost if the server stops
+	 * unexpectedly, leaving their chunks IN_PROGRESS. The first maintenance pass after the server
+	 * restarts sends any chunk which was started before the restart to the workers again, so those
+	 * chunks are processed a second time. Because a chunk that is still running on another server
+	 * would also be sent again, this setting should only be enabled on single-node deployments which
+	 * use an in-memory batch work channel.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public boolean isJobInMemoryWorkChunksEnabled() {
+		return myJobInMemoryWorkChunksEnabled;
+	}
+
+	/**
+	 * If enabled (default is <code>false</code>), batch jobs hand the work chunks produced by one step
+	 * directly to the local workers for the next step instead of having each worker load the chunk back
+	 * from the database, and work chunk completions are buffered in memory and written to the database
+	 * in batches. Buffered completions are written at least every few seconds, whenever enough
+	 * completions have accumulated, and by the batch maintenance pass.
+	 * <p>
+	 * Work chunks are still stored when they are created, so the stored chunks act as a checkpoint of
+	 * the job progress. Completions which have not yet been written are lost if the server stops
+	 * unexpectedly, leaving their chunks IN_PROGRESS. The first maintenance pass after the server
+	 * restarts sends any chunk which was started before the restart to the workers again, so those
+	 * chunks are processed a second time. Because a chunk that is still running on another server
+	 * would also be sent again, this setting should only be enabled on single-node deployments which
+	 * use an in-memory batch work channel.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	public void setJobInMemoryWorkChunksEnabled(boolean theJobInMemoryWorkChunksEnabled) {
+		myJobInMemoryWorkChunksEnabled = theJobInMemoryWorkChunksEnabled;
+	}
+
 	public void setPreventInvalidatingConditionalMatchCriteria(boolean theCriteria) {
 		myPreventInvalidatingConditionalMatchCriteria = theCriteria;
 	}
@@ -25,6 +25,7 @@ import ca.uhn.fhir.jpa.api.model.ExpungeOutcome;
 import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.api.server.storage.IResourcePersistentId;
+import ca.uhn.fhir.rest.api.server.storage.TransactionDetails;
 import jakarta.annotation.Nullable;
 import org.hl7.fhir.instance.model.api.IBaseBundle;
 import org.springframework.transaction.annotation.Transactional;
@@ -94,4 +95,36 @@ public interface IFhirSystemDao<T, MT> extends IDao {
 			List<P> theResolvedIds, boolean thePreFetchIndexes) {
 		// nothing by default
 	}
+
+	/**
+	 * Preload resources from the database in batch. This method is purely
+	 * a performance optimization and must be purely idempotent.
+	 *
+	 * @param thePreFetchIndexes       Should resource indexes be loaded
+	 * @param thePreFetchResourceLinks Should resource links be loaded (they are always loaded if
+	 *                                 <code>thePreFetchIndexes</code> is <code>true</code>)
+	 * @since 7.2.0
+	 */
+	default <P extends IResourcePersistentId> void preFetchResources(
+			List<P> theResolvedIds, boolean thePreFetchIndexes, boolean thePreFetchResourceLinks) {
+		preFetchResources(theResolvedIds, thePreFetchIndexes);
+	}
+
+	/**
+	 * Starts parsing the given resources and extracting their search parameter indexes in the background,
+	 * so that this work can overlap with other work in the current transaction. The resources must already
+	 * have been loaded using {@link #preFetchResources(List, boolean)}. Subsequent calls to
+	 * {@link IFhirResourceDao#reindex(IResourcePersistentId, ReindexParameters, RequestDetails, TransactionDetails)}
+	 * using the same {@link TransactionDetails} use the result, waiting for it if necessary.
+	 * <p>
+	 * This method is purely a performance optimization. It does nothing unless background
+	 * preparation is enabled on the server.
+	 * </p>
+	 *
+	 * @since 7.2.0
+	 */
+	default <P extends IResourcePersistentId> void prepareResourcesForReindex(
+			List<P> theResolvedIds, RequestDetails theRequestDetails, TransactionDetails theTransactionDetails) {
+		// nothing by default
+	}
 }
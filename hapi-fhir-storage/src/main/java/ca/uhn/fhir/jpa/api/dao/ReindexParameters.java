@@ -23,11 +23,13 @@ public class ReindexParameters {
 	public static final ReindexSearchParametersEnum REINDEX_SEARCH_PARAMETERS_DEFAULT = ReindexSearchParametersEnum.ALL;
 	public static final String REINDEX_SEARCH_PARAMETERS_DEFAULT_STRING = "ALL";
 	public static final boolean OPTIMISTIC_LOCK_DEFAULT = true;
+	public static final boolean SKIP_UNCHANGED_INDEXES_DEFAULT = false;
 	public static final OptimizeStorageModeEnum OPTIMIZE_STORAGE_DEFAULT = OptimizeStorageModeEnum.NONE;
 	public static final String OPTIMIZE_STORAGE_DEFAULT_STRING = "NONE";
 	private ReindexSearchParametersEnum myReindexSearchParameters = REINDEX_SEARCH_PARAMETERS_DEFAULT;
 	private OptimizeStorageModeEnum myOptimizeStorage = OPTIMIZE_STORAGE_DEFAULT;
 	private boolean myOptimisticLock = OPTIMISTIC_LOCK_DEFAULT;
+	private boolean mySkipUnchangedIndexes = SKIP_UNCHANGED_INDEXES_DEFAULT;
 
 	public boolean isOptimisticLock() {
 		return myOptimisticLock;
@@ -38,6 +40,25 @@ public class ReindexParameters {
 		return this;
 	}
 
+	public boolean isSkipUnchangedIndexes() {
+		return mySkipUnchangedIndexes;
+	}
+
+	/**
+	 * If set to <code>true</code> (default is <code>false</code>), resources whose search parameter indexes
+	 * would not change are not written when their search parameters are reindexed. This is determined by
+	 * comparing the new indexes with a digest stored by the last reindex in this mode, so the existing index
+	 * rows don't need to be loaded. Resources without a stored digest (including any resource which has been
+	 * written since) are reindexed normally, and their digest is stored. Note that index rows which were
+	 * modified outside of the server are not detected in this mode.
+	 *
+	 * @since 7.2.0
+	 */
+	public ReindexParameters setSkipUnchangedIndexes(boolean theSkipUnchangedIndexes) {
+		mySkipUnchangedIndexes = theSkipUnchangedIndexes;
+		return this;
+	}
+
 	public ReindexSearchParametersEnum getReindexSearchParameters() {
 		return myReindexSearchParameters;
 	}
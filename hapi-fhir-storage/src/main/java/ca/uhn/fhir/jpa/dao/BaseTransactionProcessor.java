@@ -86,6 +86,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.hl7.fhir.dstu3.model.Bundle;
@@ -123,6 +124,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -196,7 +198,8 @@ public abstract class BaseTransactionProcessor {
 			myExecutor = myThreadPoolFactory.newThreadPool(
 					myStorageSettings.getBundleBatchPoolSize(),
 					myStorageSettings.getBundleBatchMaxPoolSize(),
-					"bundle-batch-");
+					"bundle-batch-",
+					myStorageSettings.isVirtualThreadsEnabled());
 		}
 		return myExecutor;
 	}
@@ -404,8 +407,12 @@ public abstract class BaseTransactionProcessor {
 				nonGetCalls.add(retriableBundleTask);
 			}
 		}
-		// Execute all non-gets on calling thread.
-		nonGetCalls.forEach(RetriableBundleTask::run);
+		// Execute all non-gets on calling thread, or in parallel if enabled
+		if (myStorageSettings.isBundleBatchParallelWritesEnabled() && nonGetCalls.size() > 1) {
+			executeBatchWritesInParallel(theRequestDetails, nonGetCalls);
+		} else {
+			nonGetCalls.forEach(RetriableBundleTask::run);
+		}
 		// Execute all gets (potentially in a pool)
 		if (myStorageSettings.getBundleBatchPoolSize() == 1) {
 			getCalls.forEach(RetriableBundleTask::run);
@@ -440,6 +447,96 @@ public abstract class BaseTransactionProcessor {
 		return response;
 	}
 
+	/**
+	 * Runs the write entries of a batch Bundle on the executor. Entries which touch the same resource ID
+	 * or conditional URL are placed in the same group and run sequentially in their original order, and
+	 * the groups run concurrently. At most {@link StorageSettings#getBundleBatchMaxPoolSize()} groups are
+	 * in flight at once, whatever kind of executor is used. Returns once all of the write entries have
+	 * completed.
+	 */
+	private void executeBatchWritesInParallel(
+			RequestDetails theRequestDetails, List<RetriableBundleTask> theWriteCalls) {
+		// All entries share the request, and the hooks they invoke may write to its user data
+		// concurrently. The user data map is synchronized, but it is created lazily, so make
+		// sure it exists before any entry is handed to another thread.
+		if (theRequestDetails != null) {
+			theRequestDetails.getUserData();
+		}
+
+		List<List<RetriableBundleTask>> groups = new ArrayList<>();
+		Map<String, List<RetriableBundleTask>> conflictKeyToGroup = new HashMap<>();
+		for (RetriableBundleTask next : theWriteCalls) {
+			String conflictKey = toBatchWriteConflictKey(next.myNextReqEntry);
+			List<RetriableBundleTask> group = conflictKey != null ? conflictKeyToGroup.get(conflictKey) : null;
+			if (group == null) {
+				group = new ArrayList<>();
+				groups.add(group);
+				if (conflictKey != null) {
+					conflictKeyToGroup.put(conflictKey, group);
+				}
+			}
+			group.add(next);
+		}
+
+		ourLog.debug("Processing {} batch write entries in {} groups", theWriteCalls.size(), groups.size());
+
+		CountDownLatch groupsLatch = new CountDownLatch(groups.size());
+		Semaphore inFlightGroups = new Semaphore(Math.max(1, myStorageSettings.getBundleBatchMaxPoolSize()));
+		for (List<RetriableBundleTask> nextGroup : groups) {
+			inFlightGroups.acquireUninterruptibly();
+			try {
+				getTaskExecutor().execute(() -> {
+					try {
+						nextGroup.forEach(RetriableBundleTask::run);
+					} finally {
+						inFlightGroups.release();
+						groupsLatch.countDown();
+					}
+				});
+			} catch (RuntimeException e) {
+				inFlightGroups.release();
+				groupsLatch.countDown();
+				throw e;
+			}
+		}
+		AsyncUtil.awaitLatchAndIgnoreInterrupt(groupsLatch, 300L, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Returns a key identifying the resource (or conditional URL) a batch write entry applies to, or
+	 * <code>null</code> if the entry can't conflict with other entries (e.g. an unconditional create)
+	 */
+	@Nullable
+	private String toBatchWriteConflictKey(IBase theEntry) {
+		String verb = myVersionAdapter.getEntryRequestVerb(myContext, theEntry);
+		String url;
+		if ("POST".equals(verb)) {
+			String ifNoneExist = myVersionAdapter.getEntryRequestIfNoneExist(theEntry);
+			IBaseResource resource = myVersionAdapter.getResource(theEntry);
+			if (isBlank(ifNoneExist) || resource == null) {
+				return null;
+			}
+			if (ifNoneExist.startsWith("?")) {
+				url = myContext.getResourceType(resource) + ifNoneExist;
+			} else if (!ifNoneExist.contains("?")) {
+				url = myContext.getResourceType(resource) + "?" + ifNoneExist;
+			} else {
+				url = ifNoneExist;
+			}
+		} else {
+			url = myVersionAdapter.getEntryRequestUrl(theEntry);
+			if (isBlank(url)) {
+				return null;
+			}
+		}
+
+		UrlUtil.UrlParts parts = UrlUtil.parseUrl(url);
+		if (isNotBlank(parts.getResourceId())) {
+			return parts.getResourceType() + "/" + parts.getResourceId();
+		}
+		return parts.getResourceType() + "?" + defaultString(parts.getParams());
+	}
+
 	@VisibleForTesting
 	public void setHapiTransactionService(HapiTransactionService theHapiTransactionService) {
 		myHapiTransactionService = theHapiTransactionService;
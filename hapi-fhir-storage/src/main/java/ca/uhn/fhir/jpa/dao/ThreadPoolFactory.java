@@ -20,15 +20,44 @@
 package ca.uhn.fhir.jpa.dao;
 
 import ca.uhn.fhir.util.ThreadPoolUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.task.AsyncTaskExecutor;
 
 /**
  * Basic bean which will create a Task Executor
  */
 public class ThreadPoolFactory {
+	private static final Logger ourLog = LoggerFactory.getLogger(ThreadPoolFactory.class);
 
 	public AsyncTaskExecutor newThreadPool(
 			Integer theBundleBatchPoolSize, Integer theBundleBatchMaxPoolSize, String theThreadPrefix) {
 		return ThreadPoolUtil.newThreadPool(theBundleBatchPoolSize, theBundleBatchMaxPoolSize, theThreadPrefix);
 	}
+
+	/**
+	 * Creates a new task executor. If <code>theVirtualThreads</code> is <code>true</code> and the
+	 * JVM supports virtual threads, each task runs in its own virtual thread and at most
+	 * <code>theBundleBatchMaxPoolSize</code> tasks run at the same time. Otherwise a platform thread
+	 * pool is created as per {@link #newThreadPool(Integer, Integer, String)}.
+	 *
+	 * @since 7.2.0
+	 */
+	public AsyncTaskExecutor newThreadPool(
+			Integer theBundleBatchPoolSize,
+			Integer theBundleBatchMaxPoolSize,
+			String theThreadPrefix,
+			boolean theVirtualThreads) {
+		if (theVirtualThreads) {
+			if (ThreadPoolUtil.isVirtualThreadsSupported()) {
+				ourLog.info("Creating virtual thread executor with prefix: {}", theThreadPrefix);
+				return ThreadPoolUtil.newVirtualThreadExecutor(theThreadPrefix, theBundleBatchMaxPoolSize, null);
+			}
+			ourLog.warn(
+					"Virtual threads were requested for thread pool with prefix {} but are not supported on Java {}, using platform threads",
+					theThreadPrefix,
+					Runtime.version().feature());
+		}
+		return newThreadPool(theBundleBatchPoolSize, theBundleBatchMaxPoolSize, theThreadPrefix);
+	}
 }
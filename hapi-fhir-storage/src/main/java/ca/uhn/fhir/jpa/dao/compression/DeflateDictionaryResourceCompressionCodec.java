@@ -0,0 +1,237 @@
+/*
+ * #%L
+ * HAPI FHIR Storage api
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.dao.compression;
+
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.util.ClasspathUtil;
+import org.apache.commons.lang3.Validate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses resource bodies using Deflate with a preset dictionary. Serialized FHIR
+ * resources are very repetitive (element names, code system URLs, etc.) but individual
+ * resources are typically small, so a dictionary containing the common fragments lets
+ * the compressor reference them right from the start of each resource instead of having
+ * to learn them within every row.
+ * <p>
+ * A general purpose dictionary is included (see {@link #withDefaultDictionary()}), but a
+ * dictionary trained on a sample of the actual data in a given repository using
+ * {@link #trainDictionary(Iterable, int)} will usually perform better.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public class DeflateDictionaryResourceCompressionCodec implements IResourceCompressionCodec {
+
+	/**
+	 * The ID of the codec returned by {@link #withDefaultDictionary()}
+	 */
+	public static final String DEFAULT_ID = "deflate-fhir-v1";
+
+	/**
+	 * Deflate can only reference the last 32KB of the dictionary
+	 */
+	public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+	private static final String DEFAULT_DICTIONARY = "/ca/uhn/fhir/jpa/dao/compression/fhir-json-dictionary.txt";
+	private static final int MAX_TOKEN_LENGTH = 128;
+
+	private final String myId;
+	private final byte[] myDictionary;
+	private final int myLevel;
+
+	/**
+	 * Constructor
+	 *
+	 * @param theId         The codec ID. This must change if the dictionary changes.
+	 * @param theDictionary The preset dictionary
+	 */
+	public DeflateDictionaryResourceCompressionCodec(String theId, byte[] theDictionary) {
+		this(theId, theDictionary, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param theId         The codec ID. This must change if the dictionary changes.
+	 * @param theDictionary The preset dictionary
+	 * @param theLevel      The compression level (0-9)
+	 */
+	public DeflateDictionaryResourceCompressionCodec(String theId, byte[] theDictionary, int theLevel) {
+		Validate.notBlank(theId, "theId must not be blank");
+		Validate.notNull(theDictionary, "theDictionary must not be null");
+		Validate.isTrue(
+				theDictionary.length <= MAX_DICTIONARY_SIZE,
+				"theDictionary must not be larger than %d bytes",
+				MAX_DICTIONARY_SIZE);
+		myId = theId;
+		myDictionary = theDictionary.clone();
+		myLevel = theLevel;
+	}
+
+	@Override
+	public String getId() {
+		return myId;
+	}
+
+	@Override
+	public byte[] compress(String theResourceText) {
+		byte[] input = theResourceText.getBytes(StandardCharsets.UTF_8);
+		Deflater deflater = new Deflater(myLevel);
+		try {
+			deflater.setDictionary(myDictionary);
+			deflater.setInput(input);
+			deflater.finish();
+
+			ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+			byte[] buffer = new byte[4096];
+			while (!deflater.finished()) {
+				int count = deflater.deflate(buffer);
+				output.write(buffer, 0, count);
+			}
+			return output.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	@Override
+	public String decompress(byte[] theCompressed) {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(theCompressed);
+
+			ByteArrayOutputStream output = new ByteArrayOutputStream(theCompressed.length * 4);
+			byte[] buffer = new byte[4096];
+			while (!inflater.finished()) {
+				int count = inflater.inflate(buffer);
+				if (count == 0) {
+					if (inflater.needsDictionary()) {
+						inflater.setDictionary(myDictionary);
+					} else if (inflater.needsInput()) {
+						throw new ca.uhn.fhir.parser.DataFormatException(
+								Msg.code(2479) + "Failed to decompress contents: Unexpected end of data");
+					}
+				}
+				output.write(buffer, 0, count);
+			}
+			return output.toString(StandardCharsets.UTF_8);
+		} catch (DataFormatException | IllegalArgumentException e) {
+			throw new ca.uhn.fhir.parser.DataFormatException(
+					Msg.code(2480) + "Failed to decompress contents: " + e.getMessage(), e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Creates a codec using the general purpose FHIR JSON dictionary which is bundled with HAPI FHIR
+	 */
+	public static DeflateDictionaryResourceCompressionCodec withDefaultDictionary() {
+		byte[] dictionary = ClasspathUtil.loadResource(DEFAULT_DICTIONARY).getBytes(StandardCharsets.UTF_8);
+		return new DeflateDictionaryResourceCompressionCodec(DEFAULT_ID, dictionary);
+	}
+
+	/**
+	 * Builds a dictionary from a sample of serialized resources. The dictionary is made up of
+	 * the JSON property names and short string values which contribute the most bytes across
+	 * the samples, with the most valuable fragments placed at the end of the dictionary where
+	 * they are cheapest for Deflate to reference.
+	 *
+	 * @param theSamples A representative sample of serialized (JSON) resources
+	 * @param theMaxSize The maximum dictionary size, which must not exceed {@link #MAX_DICTIONARY_SIZE}
+	 */
+	public static byte[] trainDictionary(Iterable<String> theSamples, int theMaxSize) {
+		Validate.isTrue(
+				theMaxSize > 0 && theMaxSize <= MAX_DICTIONARY_SIZE,
+				"theMaxSize must be between 1 and %d",
+				MAX_DICTIONARY_SIZE);
+
+		Map<String, Integer> counts = new HashMap<>();
+		for (String next : theSamples) {
+			countFragments(next, counts);
+		}
+
+		List<Map.Entry<String, Integer>> candidates = new ArrayList<>(counts.entrySet());
+		candidates.removeIf(t -> t.getValue() < 2);
+		Comparator<Map.Entry<String, Integer>> byScore =
+				Comparator.comparingLong(t -> (long) t.getValue() * t.getKey().length());
+		candidates.sort(byScore.reversed().thenComparing(Map.Entry::getKey));
+
+		List<byte[]> selected = new ArrayList<>();
+		int size = 0;
+		for (Map.Entry<String, Integer> next : candidates) {
+			byte[] bytes = next.getKey().getBytes(StandardCharsets.UTF_8);
+			if (size + bytes.length > theMaxSize) {
+				continue;
+			}
+			selected.add(bytes);
+			size += bytes.length;
+		}
+
+		ByteArrayOutputStream retVal = new ByteArrayOutputStream(size);
+		for (int i = selected.size() - 1; i >= 0; i--) {
+			retVal.writeBytes(selected.get(i));
+		}
+		return retVal.toByteArray();
+	}
+
+	/**
+	 * Counts the string literals (including a trailing colon for property names) in a JSON document
+	 */
+	private static void countFragments(String theJson, Map<String, Integer> theCounts) {
+		int length = theJson.length();
+		int i = 0;
+		while (i < length) {
+			if (theJson.charAt(i) != '"') {
+				i++;
+				continue;
+			}
+			int end = i + 1;
+			while (end < length && theJson.charAt(end) != '"') {
+				if (theJson.charAt(end) == '\\') {
+					end++;
+				}
+				end++;
+			}
+			if (end >= length) {
+				return;
+			}
+			end++;
+			if (end < length && theJson.charAt(end) == ':') {
+				end++;
+			}
+			if (end - i <= MAX_TOKEN_LENGTH) {
+				theCounts.merge(theJson.substring(i, end), 1, Integer::sum);
+			}
+			i = end;
+		}
+	}
+}
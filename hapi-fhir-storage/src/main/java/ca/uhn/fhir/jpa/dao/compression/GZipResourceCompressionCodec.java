@@ -0,0 +1,48 @@
+/*
+ * #%L
+ * HAPI FHIR Storage api
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.dao.compression;
+
+import ca.uhn.fhir.jpa.dao.GZipUtil;
+
+/**
+ * Compresses resource bodies using GZip. This is the same format that is used for
+ * the legacy {@link ca.uhn.fhir.jpa.model.entity.ResourceEncodingEnum#JSONC} encoding.
+ *
+ * @since 7.2.0
+ */
+public class GZipResourceCompressionCodec implements IResourceCompressionCodec {
+
+	public static final String ID = "gzip";
+
+	@Override
+	public String getId() {
+		return ID;
+	}
+
+	@Override
+	public byte[] compress(String theResourceText) {
+		return GZipUtil.compress(theResourceText);
+	}
+
+	@Override
+	public String decompress(byte[] theCompressed) {
+		return GZipUtil.decompress(theCompressed);
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * #%L
+ * HAPI FHIR Storage api
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.dao.compression;
+
+/**
+ * A codec which is used to compress the serialized resource body that is stored in the
+ * <code>HFJ_RES_VER</code> table when resources are stored using the
+ * {@link ca.uhn.fhir.jpa.model.entity.ResourceEncodingEnum#JSONZ} encoding.
+ * <p>
+ * Every stored row records the {@link #getId() ID} of the codec which produced it, so
+ * once any data has been written using a codec, the codec must remain registered in the
+ * {@link ResourceCompressionCodecRegistry} (with the same ID and settings) for as long as
+ * that data exists.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public interface IResourceCompressionCodec {
+
+	/**
+	 * Returns a unique ID for this codec. The ID must be between 1 and 255 ASCII characters
+	 * long, and must change if the codec is changed in any way which makes it incompatible
+	 * with previously stored data (e.g. if a different dictionary is used).
+	 */
+	String getId();
+
+	/**
+	 * Compresses the given serialized resource
+	 */
+	byte[] compress(String theResourceText);
+
+	/**
+	 * Decompresses a serialized resource which was previously compressed by {@link #compress(String)}
+	 */
+	String decompress(byte[] theCompressed);
+}
@@ -0,0 +1,128 @@
+/*
+ * #%L
+ * HAPI FHIR Storage api
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.dao.compression;
+
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.parser.DataFormatException;
+import org.apache.commons.lang3.Validate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link IResourceCompressionCodec codecs} which are available for storing resource
+ * bodies using the {@link ca.uhn.fhir.jpa.model.entity.ResourceEncodingEnum#JSONZ} encoding.
+ * <p>
+ * Data written by this registry is prefixed by a small header identifying the codec which
+ * was used to produce it, so rows compressed by different codecs can coexist in the same
+ * table. The header consists of a single byte containing the length of the codec ID,
+ * followed by the codec ID itself (ASCII).
+ * </p>
+ * <p>
+ * The {@link GZipResourceCompressionCodec GZip} codec and the
+ * {@link DeflateDictionaryResourceCompressionCodec#withDefaultDictionary() default dictionary}
+ * codec are always registered.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public class ResourceCompressionCodecRegistry {
+
+	private static final int MAX_ID_LENGTH = 255;
+
+	private final Map<String, IResourceCompressionCodec> myCodecs = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor
+	 */
+	public ResourceCompressionCodecRegistry() {
+		registerCodec(new GZipResourceCompressionCodec());
+		registerCodec(DeflateDictionaryResourceCompressionCodec.withDefaultDictionary());
+	}
+
+	/**
+	 * Registers a codec, replacing any previously registered codec with the same ID
+	 */
+	public void registerCodec(IResourceCompressionCodec theCodec) {
+		Validate.notNull(theCodec, "theCodec must not be null");
+		String id = theCodec.getId();
+		Validate.notBlank(id, "Codec ID must not be blank");
+		Validate.isTrue(
+				StandardCharsets.US_ASCII.newEncoder().canEncode(id) && id.length() <= MAX_ID_LENGTH,
+				"Codec ID must be no more than %d ASCII characters: %s",
+				MAX_ID_LENGTH,
+				id);
+		myCodecs.put(id, theCodec);
+	}
+
+	/**
+	 * Returns <code>true</code> if a codec with the given ID is registered
+	 */
+	public boolean hasCodec(String theCodecId) {
+		return myCodecs.containsKey(theCodecId);
+	}
+
+	/**
+	 * Compresses a serialized resource using the given codec, prefixing the result with
+	 * the codec header
+	 */
+	public byte[] compress(String theCodecId, String theResourceText) {
+		IResourceCompressionCodec codec = getCodecOrThrow(theCodecId);
+		byte[] id = theCodecId.getBytes(StandardCharsets.US_ASCII);
+		byte[] payload = codec.compress(theResourceText);
+
+		byte[] retVal = new byte[1 + id.length + payload.length];
+		retVal[0] = (byte) id.length;
+		System.arraycopy(id, 0, retVal, 1, id.length);
+		System.arraycopy(payload, 0, retVal, 1 + id.length, payload.length);
+		return retVal;
+	}
+
+	/**
+	 * Decompresses a serialized resource which was produced by {@link #compress(String, String)}
+	 */
+	public String decompress(byte[] theData) {
+		String codecId = getCodecId(theData);
+		int headerLength = 1 + codecId.length();
+		byte[] payload = new byte[theData.length - headerLength];
+		System.arraycopy(theData, headerLength, payload, 0, payload.length);
+		return getCodecOrThrow(codecId).decompress(payload);
+	}
+
+	/**
+	 * Returns the ID of the codec which was used to produce the given data
+	 */
+	public static String getCodecId(byte[] theData) {
+		int idLength = theData != null && theData.length > 0 ? theData[0] & 0xFF : 0;
+		if (idLength == 0 || theData.length < 1 + idLength) {
+			throw new DataFormatException(Msg.code(2481) + "Failed to decompress contents: Missing codec header");
+		}
+		return new String(theData, 1, idLength, StandardCharsets.US_ASCII);
+	}
+
+	private IResourceCompressionCodec getCodecOrThrow(String theCodecId) {
+		IResourceCompressionCodec retVal = myCodecs.get(theCodecId);
+		if (retVal == null) {
+			throw new DataFormatException(Msg.code(2482) + "Unknown resource compression codec: " + theCodecId);
+		}
+		return retVal;
+	}
+}
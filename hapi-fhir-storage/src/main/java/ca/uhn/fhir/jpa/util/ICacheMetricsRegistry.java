@@ -0,0 +1,69 @@
+/*-
+ * #%L
+ * HAPI FHIR Storage api
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.util;
+
+import ca.uhn.fhir.sl.cache.CacheStats;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Receives the caches held by {@link MemoryCacheService} so that their statistics can be
+ * published to a metrics system. Each cache is registered once, when it is created, and
+ * implementations are expected to poll the supplied functions whenever metrics are collected.
+ * <p>
+ * This maps directly onto the function based meters provided by Micrometer. For example,
+ * an implementation backed by a Micrometer <code>MeterRegistry</code> could register:
+ * </p>
+ * <pre>
+ * FunctionCounter.builder("cache.gets", theStats, s -> s.get().getHitCount())
+ *    .tags("cache", theCacheName, "result", "hit")
+ *    .register(myMeterRegistry);
+ * FunctionCounter.builder("cache.evictions", theStats, s -> s.get().getEvictionCount())
+ *    .tag("cache", theCacheName)
+ *    .register(myMeterRegistry);
+ * Gauge.builder("cache.size", theSize, LongSupplier::getAsLong)
+ *    .tag("cache", theCacheName)
+ *    .register(myMeterRegistry);
+ * </pre>
+ * <p>
+ * If no implementation is registered as a bean, a {@link NoOpCacheMetricsRegistry} is used.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public interface ICacheMetricsRegistry {
+
+	/**
+	 * Invoked once for each cache when it is created
+	 *
+	 * @param theCacheName                The cache name (the name of the {@link MemoryCacheService.CacheEnum} constant)
+	 * @param theMaximumSize              The maximum number of entries the cache will hold
+	 * @param theExpireAfterWriteMillis   The time after which cache entries expire
+	 * @param theStats                    Supplies a snapshot of the statistics recorded by the cache (hits, misses, load time, evictions)
+	 * @param theSize                     Supplies the approximate number of entries currently in the cache
+	 */
+	void registerCache(
+			String theCacheName,
+			long theMaximumSize,
+			long theExpireAfterWriteMillis,
+			Supplier<CacheStats> theStats,
+			LongSupplier theSize);
+}
@@ -24,6 +24,7 @@ import ca.uhn.fhir.jpa.api.model.TranslationQuery;
 import ca.uhn.fhir.jpa.model.entity.TagTypeEnum;
 import ca.uhn.fhir.sl.cache.Cache;
 import ca.uhn.fhir.sl.cache.CacheFactory;
+import ca.uhn.fhir.sl.cache.CacheStats;
 import jakarta.annotation.Nonnull;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -42,17 +43,37 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 /**
  * This class acts as a central spot for all of the many Caffeine caches we use in HAPI FHIR.
  * <p>
- * The API is super simplistic, and caches are all 1-minute, max 10000 entries for starters. We could definitely add nuance to this,
- * which will be much easier now that this is being centralized. Some logging/monitoring would be good too.
+ * The API is super simplistic, and caches are all 1-minute, max 10000 entries for starters. The size
+ * and expiry of individual caches can be overridden using
+ * {@link JpaStorageSettings#setMemoryCacheMaximumSize(CacheEnum, Integer)} and
+ * {@link JpaStorageSettings#setMemoryCacheExpireAfterWriteSeconds(CacheEnum, Long)}.
+ * </p>
+ * <p>
+ * All caches record statistics, which are available via {@link #getStats(CacheEnum)} and are
+ * published to the {@link ICacheMetricsRegistry} supplied at construction time.
+ * </p>
  */
 // TODO: JA2 extract an interface for this class and use it everywhere
 public class MemoryCacheService {
 
 	private final JpaStorageSettings myStorageSettings;
+	private final ICacheMetricsRegistry myCacheMetricsRegistry;
 	private final EnumMap<CacheEnum, Cache<?, ?>> myCaches = new EnumMap<>(CacheEnum.class);
 
 	public MemoryCacheService(JpaStorageSettings theStorageSettings) {
+		this(theStorageSettings, new NoOpCacheMetricsRegistry());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param theStorageSettings     The storage settings, used to size the caches
+	 * @param theCacheMetricsRegistry Each cache is registered with this registry as it is created
+	 * @since 7.2.0
+	 */
+	public MemoryCacheService(JpaStorageSettings theStorageSettings, ICacheMetricsRegistry theCacheMetricsRegistry) {
 		myStorageSettings = theStorageSettings;
+		myCacheMetricsRegistry = theCacheMetricsRegistry;
 
 		populateCaches();
 	}
@@ -87,9 +108,21 @@ public class MemoryCacheService {
 					break;
 			}
 
-			Cache<Object, Object> nextCache = CacheFactory.build(SECONDS.toMillis(timeoutSeconds), maximumSize);
+			Integer maximumSizeOverride = myStorageSettings.getMemoryCacheMaximumSize(next);
+			if (maximumSizeOverride != null) {
+				maximumSize = maximumSizeOverride;
+			}
+			Long timeoutSecondsOverride = myStorageSettings.getMemoryCacheExpireAfterWriteSeconds(next);
+			if (timeoutSecondsOverride != null) {
+				timeoutSeconds = timeoutSecondsOverride;
+			}
+
+			long timeoutMillis = SECONDS.toMillis(timeoutSeconds);
+			Cache<Object, Object> nextCache = CacheFactory.build(timeoutMillis, maximumSize, true);
 
 			myCaches.put(next, nextCache);
+			myCacheMetricsRegistry.registerCache(
+					next.name(), maximumSize, timeoutMillis, nextCache::stats, nextCache::estimatedSize);
 		}
 	}
 
@@ -183,6 +216,16 @@ public class MemoryCacheService {
 		return getCache(theCache).estimatedSize();
 	}
 
+	/**
+	 * Returns a snapshot of the statistics (hits, misses, load time and evictions) recorded
+	 * by the given cache
+	 *
+	 * @since 7.2.0
+	 */
+	public CacheStats getStats(CacheEnum theCache) {
+		return getCache(theCache).stats();
+	}
+
 	public void invalidateCaches(CacheEnum... theCaches) {
 		for (CacheEnum next : theCaches) {
 			getCache(next).invalidateAll();
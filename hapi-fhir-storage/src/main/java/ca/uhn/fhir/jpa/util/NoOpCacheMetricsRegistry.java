@@ -0,0 +1,43 @@
+/*-
+ * #%L
+ * HAPI FHIR Storage api
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.jpa.util;
+
+import ca.uhn.fhir.sl.cache.CacheStats;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The default {@link ICacheMetricsRegistry}, which does not publish any metrics
+ *
+ * @since 7.2.0
+ */
+public class NoOpCacheMetricsRegistry implements ICacheMetricsRegistry {
+
+	@Override
+	public void registerCache(
+			String theCacheName,
+			long theMaximumSize,
+			long theExpireAfterWriteMillis,
+			Supplier<CacheStats> theStats,
+			LongSupplier theSize) {
+		// nothing
+	}
+}
@@ -0,0 +1,185 @@
+/*-
+ * #%L
+ * HAPI FHIR Storage api
+ * %%
+ * Copyright (C) 2014 - 2024 Smile CDR, Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package ca.uhn.fhir.util;
+
+import jakarta.annotation.Nonnull;
+import org.apache.commons.lang3.Validate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * A lazily created, fixed size thread pool whose size is read from a setting (e.g. a
+ * <code>JpaStorageSettings</code> thread count) each time it is used. If the setting has changed,
+ * a new pool is created for new work.
+ * <p>
+ * Work is submitted through a {@link Lease}. A pool which has been replaced is only shut down once
+ * every lease on it has been closed, and is shut down gracefully, so tasks which were submitted to it
+ * (including ones the lease holder doesn't wait for) still run to completion.
+ * </p>
+ *
+ * @since 7.2.0
+ */
+public class ResizableThreadPool {
+
+	private final String myThreadNamePrefix;
+	private final IntSupplier myThreadCountSupplier;
+	private Pool myPool;
+
+	/**
+	 * Constructor
+	 *
+	 * @param theThreadNamePrefix   The thread name prefix, which must end with a hyphen
+	 * @param theThreadCountSupplier Supplies the number of threads, which must be greater than 0 whenever a lease is taken
+	 */
+	public ResizableThreadPool(String theThreadNamePrefix, IntSupplier theThreadCountSupplier) {
+		Validate.isTrue(theThreadNamePrefix.endsWith("-"), "Thread pool prefix name must end with a hyphen");
+		myThreadNamePrefix = theThreadNamePrefix;
+		myThreadCountSupplier = theThreadCountSupplier;
+	}
+
+	/**
+	 * Takes a lease on the current pool, creating it (or replacing it, if the thread count has
+	 * changed) first. The lease must be closed once all tasks have been submitted.
+	 */
+	@Nonnull
+	public synchronized Lease lease() {
+		int threadCount = myThreadCountSupplier.getAsInt();
+		Validate.isTrue(threadCount > 0, "Thread count must be greater than 0");
+		if (myPool == null || myPool.myThreadCount != threadCount) {
+			Pool previous = myPool;
+			myPool = new Pool(
+					ThreadPoolUtil.newThreadPool(threadCount, threadCount, myThreadNamePrefix, Integer.MAX_VALUE),
+					threadCount);
+			if (previous != null) {
+				previous.retire();
+			}
+		}
+		myPool.myLeaseCount++;
+		return new Lease(myPool);
+	}
+
+	/**
+	 * Shuts down the current pool (once any open leases on it have been closed)
+	 */
+	public synchronized void shutdown() {
+		if (myPool != null) {
+			myPool.retire();
+			myPool = null;
+		}
+	}
+
+	/**
+	 * Waits for the given task to complete and returns its result. If the task failed with a
+	 * {@link RuntimeException} or {@link Error}, that is rethrown unchanged. Any other failure
+	 * (an {@link ExecutionException} with a checked cause, or an {@link InterruptedException}) is
+	 * converted using <code>theFailureHandler</code>. The interrupted flag is restored before
+	 * <code>theFailureHandler</code> is called for an interrupt.
+	 */
+	public static <T> T getResult(Future<T> theFuture, Function<Exception, RuntimeException> theFailureHandler) {
+		try {
+			return theFuture.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw theFailureHandler.apply(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw theFailureHandler.apply(e);
+		}
+	}
+
+	private class Pool {
+
+		private final ThreadPoolTaskExecutor myExecutor;
+		private final int myThreadCount;
+		private int myLeaseCount;
+		private boolean myRetired;
+
+		private Pool(ThreadPoolTaskExecutor theExecutor, int theThreadCount) {
+			myExecutor = theExecutor;
+			myThreadCount = theThreadCount;
+			myExecutor.setWaitForTasksToCompleteOnShutdown(true);
+		}
+
+		private void retire() {
+			synchronized (ResizableThreadPool.this) {
+				myRetired = true;
+				shutdownIfUnused();
+			}
+		}
+
+		private void release() {
+			synchronized (ResizableThreadPool.this) {
+				myLeaseCount--;
+				shutdownIfUnused();
+			}
+		}
+
+		private void shutdownIfUnused() {
+			if (myRetired && myLeaseCount == 0) {
+				myExecutor.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * A lease on a pool, which keeps the pool from being shut down until it is closed
+	 */
+	public static class Lease implements AutoCloseable {
+
+		private final ResizableThreadPool.Pool myPool;
+		private boolean myClosed;
+
+		private Lease(ResizableThreadPool.Pool thePool) {
+			myPool = thePool;
+		}
+
+		public <T> Future<T> submit(Callable<T> theTask) {
+			Validate.isTrue(!myClosed, "Lease has been closed");
+			return myPool.myExecutor.submit(theTask);
+		}
+
+		/**
+		 * Runs a task whose result is not needed. Unlike {@link #submit(Callable)}, any exception
+		 * thrown by the task is not captured, so the task should handle its own failures.
+		 */
+		public void execute(Runnable theTask) {
+			Validate.isTrue(!myClosed, "Lease has been closed");
+			myPool.myExecutor.execute(theTask);
+		}
+
+		@Override
+		public void close() {
+			if (!myClosed) {
+				myClosed = true;
+				myPool.release();
+			}
+		}
+	}
+}
@@ -22,6 +22,8 @@ package ca.uhn.fhir.util;
 import ca.uhn.fhir.jpa.search.reindex.BlockPolicy;
 import jakarta.annotation.Nonnull;
 import org.apache.commons.lang3.Validate;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -62,4 +64,31 @@ public final class ThreadPoolUtil {
 		asyncTaskExecutor.initialize();
 		return asyncTaskExecutor;
 	}
+
+	/**
+	 * Returns <code>true</code> if the running JVM supports virtual threads (Java 21+)
+	 */
+	public static boolean isVirtualThreadsSupported() {
+		return Runtime.version().feature() >= 21;
+	}
+
+	/**
+	 * Creates an executor which runs each submitted task in a new virtual thread. At most
+	 * <code>theConcurrencyLimit</code> tasks run at the same time; once that many are running,
+	 * submitting another task blocks the caller until one of them completes, in the same way
+	 * as the pools created by {@link #newThreadPool(int, int, String)}.
+	 *
+	 * @throws UnsupportedOperationException If the JVM does not support virtual threads, see {@link #isVirtualThreadsSupported()}
+	 */
+	@Nonnull
+	public static AsyncTaskExecutor newVirtualThreadExecutor(
+			String theThreadNamePrefix, int theConcurrencyLimit, TaskDecorator theTaskDecorator) {
+		Validate.isTrue(theThreadNamePrefix.endsWith("-"), "Thread pool prefix name must end with a hyphen");
+		Validate.isTrue(theConcurrencyLimit > 0, "theConcurrencyLimit must be greater than 0");
+		SimpleAsyncTaskExecutor asyncTaskExecutor = new SimpleAsyncTaskExecutor(theThreadNamePrefix);
+		asyncTaskExecutor.setVirtualThreads(true);
+		asyncTaskExecutor.setConcurrencyLimit(theConcurrencyLimit);
+		asyncTaskExecutor.setTaskDecorator(theTaskDecorator);
+		return asyncTaskExecutor;
+	}
 }
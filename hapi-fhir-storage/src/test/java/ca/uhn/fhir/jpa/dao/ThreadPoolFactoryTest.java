@@ -0,0 +1,50 @@
+package ca.uhn.fhir.jpa.dao;
+
+import ca.uhn.fhir.util.ThreadPoolUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ThreadPoolFactoryTest {
+
+	private final ThreadPoolFactory mySvc = new ThreadPoolFactory();
+
+	@Test
+	public void testPlatformThreads() throws Exception {
+		AsyncTaskExecutor executor = mySvc.newThreadPool(1, 2, "platform-", false);
+		assertThat(executor, instanceOf(ThreadPoolTaskExecutor.class));
+
+		Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+		assertThat(name.get(), startsWith("platform-"));
+		((ThreadPoolTaskExecutor) executor).shutdown();
+	}
+
+	@Test
+	public void testVirtualThreads() throws Exception {
+		AsyncTaskExecutor executor = mySvc.newThreadPool(1, 2, "virtual-", true);
+
+		Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+		assertThat(name.get(), startsWith("virtual-"));
+
+		Future<String> threadType = executor.submit(() -> Thread.currentThread().toString());
+		if (ThreadPoolUtil.isVirtualThreadsSupported()) {
+			assertThat(executor, instanceOf(SimpleAsyncTaskExecutor.class));
+			// Concurrency is still limited by the max pool size
+			assertEquals(2, ((SimpleAsyncTaskExecutor) executor).getConcurrencyLimit());
+			assertThat(threadType.get(), startsWith("VirtualThread"));
+		} else {
+			// Falls back to a platform thread pool on older JVMs
+			assertThat(executor, instanceOf(ThreadPoolTaskExecutor.class));
+			assertEquals(2, ((ThreadPoolTaskExecutor) executor).getMaxPoolSize());
+			((ThreadPoolTaskExecutor) executor).shutdown();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package ca.uhn.fhir.jpa.dao.compression;
+
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.jpa.dao.GZipUtil;
+import ca.uhn.fhir.parser.DataFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ResourceCompressionCodecRegistryTest {
+
+	private static final String PATIENT = "{\"resourceType\":\"Patient\",\"id\":\"123\",\"meta\":{\"versionId\":\"1\","
+		+ "\"lastUpdated\":\"2024-01-01T10:00:00.000-05:00\"},\"identifier\":[{\"system\":\"http://example.com/mrn\","
+		+ "\"value\":\"ABC123\"}],\"active\":true,\"name\":[{\"use\":\"official\",\"family\":\"Simpson\",\"given\":[\"Homer\"]}],"
+		+ "\"gender\":\"male\",\"birthDate\":\"1956-05-12\"}";
+
+	private final ResourceCompressionCodecRegistry mySvc = new ResourceCompressionCodecRegistry();
+
+	@Test
+	public void testRoundTripBuiltInCodecs() {
+		for (String codecId : List.of(GZipResourceCompressionCodec.ID, DeflateDictionaryResourceCompressionCodec.DEFAULT_ID)) {
+			byte[] compressed = mySvc.compress(codecId, PATIENT);
+			assertEquals(codecId, ResourceCompressionCodecRegistry.getCodecId(compressed));
+			assertEquals(PATIENT, mySvc.decompress(compressed));
+		}
+	}
+
+	@Test
+	public void testDictionaryCompressesSmallResourcesBetterThanGZip() {
+		byte[] gzip = GZipUtil.compress(PATIENT);
+		byte[] deflate = mySvc.compress(DeflateDictionaryResourceCompressionCodec.DEFAULT_ID, PATIENT);
+		assertThat(deflate.length, lessThan(gzip.length));
+	}
+
+	@Test
+	public void testTrainedDictionary() {
+		List<String> samples = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			samples.add(PATIENT.replace("123", "P" + i).replace("ABC123", "MRN" + i));
+		}
+		byte[] dictionary = DeflateDictionaryResourceCompressionCodec.trainDictionary(samples, 1024);
+		assertThat(dictionary.length, lessThan(1025));
+
+		DeflateDictionaryResourceCompressionCodec trained = new DeflateDictionaryResourceCompressionCodec("deflate-trained", dictionary);
+		mySvc.registerCodec(trained);
+
+		String resource = PATIENT.replace("123", "P999");
+		byte[] compressed = mySvc.compress("deflate-trained", resource);
+		assertEquals(resource, mySvc.decompress(compressed));
+		assertThat(trained.compress(resource).length, lessThan(GZipUtil.compress(resource).length));
+	}
+
+	@Test
+	public void testUnknownCodec() {
+		byte[] compressed = mySvc.compress(GZipResourceCompressionCodec.ID, PATIENT);
+		compressed[1] = 'x';
+
+		DataFormatException e = assertThrows(DataFormatException.class, () -> mySvc.decompress(compressed));
+		assertEquals(Msg.code(2482) + "Unknown resource compression codec: xzip", e.getMessage());
+	}
+
+	@Test
+	public void testWrongDictionary() {
+		byte[] compressed = new DeflateDictionaryResourceCompressionCodec("a", new byte[]{1, 2, 3}).compress(PATIENT);
+		DeflateDictionaryResourceCompressionCodec other = new DeflateDictionaryResourceCompressionCodec("b", new byte[]{4, 5, 6});
+
+		DataFormatException e = assertThrows(DataFormatException.class, () -> other.decompress(compressed));
+		assertThat(e.getMessage(), startsWith(Msg.code(2480)));
+	}
+
+	@Test
+	public void testMissingHeader() {
+		DataFormatException e = assertThrows(DataFormatException.class, () -> mySvc.decompress(new byte[0]));
+		assertEquals(Msg.code(2481) + "Failed to decompress contents: Missing codec header", e.getMessage());
+	}
+}
@@ -0,0 +1,99 @@
+package ca.uhn.fhir.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResizableThreadPoolTest {
+
+	private final AtomicInteger myThreadCount = new AtomicInteger(1);
+	private final ResizableThreadPool mySvc = new ResizableThreadPool("resizable-", myThreadCount::get);
+
+	@AfterEach
+	public void after() {
+		mySvc.shutdown();
+	}
+
+	@Test
+	public void testResizeWhileLeased() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (ResizableThreadPool.Lease oldLease = mySvc.lease()) {
+			Future<String> running = oldLease.submit(() -> {
+				release.await(10, TimeUnit.SECONDS);
+				return Thread.currentThread().getName();
+			});
+
+			// Resizing replaces the pool for new leases...
+			myThreadCount.set(2);
+			try (ResizableThreadPool.Lease newLease = mySvc.lease()) {
+				assertThat(newLease.submit(() -> Thread.currentThread().getName()).get(), startsWith("resizable-"));
+			}
+
+			// ...but the old pool still accepts and runs work from its lease
+			Future<String> queued = oldLease.submit(() -> "queued");
+			release.countDown();
+			assertThat(running.get(10, TimeUnit.SECONDS), startsWith("resizable-"));
+			assertEquals("queued", queued.get(10, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	public void testTasksSubmittedBeforeCloseStillRun() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> future;
+		try (ResizableThreadPool.Lease lease = mySvc.lease()) {
+			lease.submit(() -> release.await(10, TimeUnit.SECONDS));
+			future = lease.submit(() -> "done");
+		}
+
+		// The pool is retired while the tasks are still waiting
+		myThreadCount.set(2);
+		mySvc.lease().close();
+		release.countDown();
+		assertEquals("done", future.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testExecute() throws InterruptedException {
+		CountDownLatch ran = new CountDownLatch(1);
+		ResizableThreadPool.Lease lease = mySvc.lease();
+		lease.execute(ran::countDown);
+		assertTrue(ran.await(10, TimeUnit.SECONDS));
+
+		lease.close();
+		assertThrows(IllegalArgumentException.class, () -> lease.execute(() -> {}));
+	}
+
+	@Test
+	public void testGetResult() {
+		IllegalStateException failure = new IllegalStateException("failed");
+		try (ResizableThreadPool.Lease lease = mySvc.lease()) {
+			Future<String> future = lease.submit(() -> {
+				throw failure;
+			});
+			IllegalStateException thrown = assertThrows(
+					IllegalStateException.class, () -> ResizableThreadPool.getResult(future, e -> new RuntimeException(e)));
+			assertSame(failure, thrown);
+
+			Future<String> checked = lease.submit(() -> {
+				throw new Exception("checked");
+			});
+			RuntimeException wrapped = assertThrows(
+					RuntimeException.class, () -> ResizableThreadPool.getResult(checked, e -> new RuntimeException("wrapped", e)));
+			assertEquals("wrapped", wrapped.getMessage());
+			assertTrue(wrapped.getCause().getCause().getMessage().contains("checked"));
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package ca.uhn.fhir.parser;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.i18n.Msg;
+import ca.uhn.fhir.util.ClasspathUtil;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonParserStreamingR4Test {
+
+	private static final FhirContext ourTreeCtx = FhirContext.forR4Cached();
+	private static final FhirContext ourStreamingCtx = FhirContext.forR4();
+
+	static {
+		ourStreamingCtx.getParserOptions().setStreamingJsonParsingEnabled(true);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"/bundle-circ-ref.json",
+		"/bundle-with-two-patient-resources.json",
+		"/entities-from-cerner.json",
+		"/multi-thread-parsing-issue-bundle.json",
+		"/static-capabilitystatement.json"
+	})
+	public void testParseMatchesTreeParser(String theResource) {
+		String input = ClasspathUtil.loadResource(theResource);
+		assertParsesSame(input);
+	}
+
+	@Test
+	public void testParsePrimitiveExtensionsInAnyOrder() {
+		String input = "{" +
+			"\"resourceType\":\"Patient\"," +
+			"\"_birthDate\":{\"id\":\"bd\",\"extension\":[{\"url\":\"http://foo\",\"valueString\":\"A\"}]}," +
+			"\"birthDate\":\"2020-01-01\"," +
+			"\"active\":true," +
+			"\"_active\":{\"extension\":[{\"url\":\"http://bar\",\"valueDecimal\":1.500}]}," +
+			"\"_gender\":{\"extension\":[{\"url\":\"http://absent\",\"valueCode\":\"unknown\"}]}," +
+			"\"name\":[{\"given\":[\"A\",\"B\"],\"_given\":[null,{\"extension\":[{\"url\":\"http://baz\",\"valueInteger\":-0}]}]}]" +
+			"}";
+		String encoded = assertParsesSame(input);
+		assertThat(encoded, containsString("1.500"));
+		assertThat(encoded, containsString("http://absent"));
+	}
+
+	@Test
+	public void testParseContainedAndNestedResources() {
+		String input = "{" +
+			"\"resourceType\":\"Bundle\"," +
+			"\"type\":\"collection\"," +
+			"\"entry\":[" +
+			"{\"fullUrl\":\"http://example.com/Patient/1\",\"resource\":{\"resourceType\":\"Patient\",\"id\":\"1\"," +
+			"\"contained\":[{\"resourceType\":\"Organization\",\"id\":\"org\",\"name\":\"ORG\"}]," +
+			"\"managingOrganization\":{\"reference\":\"#org\"}}}," +
+			// resourceType is not the first property of this resource
+			"{\"resource\":{\"id\":\"2\",\"resourceType\":\"Patient\",\"active\":false}}" +
+			"]}";
+		assertParsesSame(input);
+
+		Bundle bundle = ourStreamingCtx.newJsonParser().parseResource(Bundle.class, input);
+		Patient patient = (Patient) bundle.getEntry().get(0).getResource();
+		assertEquals("ORG", ((Organization) patient.getManagingOrganization().getResource()).getName());
+	}
+
+	@Test
+	public void testParseUnusualPropertyOrder() {
+		String input = "{" +
+			"\"id\":\"1\"," +
+			"\"resourceType\":\"Patient\"," +
+			"\"extension\":[" +
+			"{\"valueString\":\"URL_LAST\",\"url\":\"http://foo\"}," +
+			"{\"url\":\"http://bar\",\"extension\":[{\"url\":\"http://bar/child\",\"valueBoolean\":true}]}" +
+			"]}";
+		assertParsesSame(input);
+	}
+
+	@Test
+	public void testParseMissingResourceType() {
+		String input = "{\"id\":\"1\"}";
+		DataFormatException e = assertThrows(DataFormatException.class, () -> ourStreamingCtx.newJsonParser().parseResource(input));
+		assertEquals(Msg.code(1838) + "Invalid JSON content detected, missing required element: 'resourceType'", e.getMessage());
+	}
+
+	@Test
+	public void testParseTrailingContent() {
+		String input = "{\"resourceType\":\"Patient\"} {}";
+		DataFormatException e = assertThrows(DataFormatException.class, () -> ourStreamingCtx.newJsonParser().parseResource(input));
+		assertThat(e.getMessage(), containsString(Msg.code(2477)));
+	}
+
+	@Test
+	public void testParseInvalidJson() {
+		String input = "{\"resourceType\":\"Patient\", \"active\": }";
+		DataFormatException e = assertThrows(DataFormatException.class, () -> ourStreamingCtx.newJsonParser().parseResource(input));
+		assertThat(e.getMessage(), containsString(Msg.code(1861)));
+	}
+
+	private static String assertParsesSame(String theInput) {
+		IBaseResource tree = ourTreeCtx.newJsonParser().parseResource(theInput);
+		IBaseResource streamed = ourStreamingCtx.newJsonParser().parseResource(theInput);
+
+		String expected = ourTreeCtx.newJsonParser().setPrettyPrint(true).encodeResourceToString(tree);
+		String actual = ourTreeCtx.newJsonParser().setPrettyPrint(true).encodeResourceToString(streamed);
+		assertEquals(expected, actual);
+		return actual;
+	}
+}
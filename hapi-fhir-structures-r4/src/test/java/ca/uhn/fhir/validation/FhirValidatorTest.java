@@ -7,8 +7,16 @@ import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.StringType;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class FhirValidatorTest {
@@ -35,4 +43,54 @@ public class FhirValidatorTest {
 		assertThat(patient.getContained(), hasSize(1));
 		assertEquals("heavy", ((Observation)patient.getContained().get(0)).getValue().toString());
 	}
+
+	@Test
+	public void testValidateWithResults_Concurrent() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			FhirValidator validator = new FhirValidator(ourFhirContext);
+			validator.setConcurrentBundleValidation(true);
+			validator.setExecutorService(pool);
+			Set<String> threadNames = ConcurrentHashMap.newKeySet();
+			validator.registerValidatorModule(theCtx -> {
+				threadNames.add(Thread.currentThread().getName());
+				SingleValidationMessage message = new SingleValidationMessage();
+				message.setSeverity(ResultSeverityEnum.INFORMATION);
+				message.setMessage(theCtx.getResource().getIdElement().getIdPart());
+				theCtx.addValidationMessage(message);
+			});
+
+			List<Patient> patients = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				patients.add((Patient) new Patient().setId("P" + i));
+			}
+
+			List<ValidationResult> results = validator.validateWithResults(patients, null);
+
+			assertThat(results, hasSize(100));
+			for (int i = 0; i < 100; i++) {
+				assertEquals("P" + i, results.get(i).getMessages().get(0).getMessage());
+			}
+			assertThat(threadNames, not(hasItem(Thread.currentThread().getName())));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testValidateWithResults_NotConcurrent() {
+		FhirValidator validator = new FhirValidator(ourFhirContext);
+		validator.registerValidatorModule(theCtx -> {
+			SingleValidationMessage message = new SingleValidationMessage();
+			message.setSeverity(ResultSeverityEnum.INFORMATION);
+			message.setMessage(Thread.currentThread().getName());
+			theCtx.addValidationMessage(message);
+		});
+
+		List<ValidationResult> results = validator.validateWithResults(List.of(new Patient(), new Patient()), null);
+
+		assertThat(results, hasSize(2));
+		assertEquals(Thread.currentThread().getName(), results.get(0).getMessages().get(0).getMessage());
+		assertEquals(Thread.currentThread().getName(), results.get(1).getMessages().get(0).getMessage());
+	}
 }
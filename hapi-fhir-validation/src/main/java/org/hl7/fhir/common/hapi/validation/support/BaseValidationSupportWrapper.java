@@ -97,6 +97,26 @@ public abstract class BaseValidationSupportWrapper extends BaseValidationSupport
 				theValidationSupportContext, theValidationOptions, theCodeSystem, theCode, theDisplay, theValueSet);
 	}
 
+	@Nonnull
+	@Override
+	public List<CodeValidationResult> validateCodeBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			String theValueSetUrl) {
+		return myWrap.validateCodeBatch(theValidationSupportContext, theOptions, theRequests, theValueSetUrl);
+	}
+
+	@Nonnull
+	@Override
+	public List<CodeValidationResult> validateCodeInValueSetBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			@Nonnull IBaseResource theValueSet) {
+		return myWrap.validateCodeInValueSetBatch(theValidationSupportContext, theOptions, theRequests, theValueSet);
+	}
+
 	@Override
 	public LookupCodeResult lookupCode(
 			ValidationSupportContext theValidationSupportContext, @Nonnull LookupCodeRequest theLookupCodeRequest) {
@@ -18,6 +18,7 @@ import org.hl7.fhir.instance.model.api.IPrimitiveType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -185,8 +186,7 @@ public class CachingValidationSupport extends BaseValidationSupportWrapper imple
 			String theCode,
 			String theDisplay,
 			String theValueSetUrl) {
-		String key = "validateCode " + theCodeSystem + " " + theCode + " " + defaultString(theDisplay) + " "
-				+ defaultIfBlank(theValueSetUrl, "NO_VS");
+		String key = getValidateCodeKey(theCodeSystem, theCode, theDisplay, theValueSetUrl);
 		return loadFromCache(
 				myValidateCodeCache,
 				key,
@@ -214,16 +214,10 @@ public class CachingValidationSupport extends BaseValidationSupportWrapper imple
 			String theDisplay,
 			@Nonnull IBaseResource theValueSet) {
 
-		BaseRuntimeChildDefinition urlChild =
-				myCtx.getResourceDefinition(theValueSet).getChildByName("url");
-		Optional<String> valueSetUrl = urlChild.getAccessor().getValues(theValueSet).stream()
-				.map(t -> ((IPrimitiveType<?>) t).getValueAsString())
-				.filter(t -> isNotBlank(t))
-				.findFirst();
+		Optional<String> valueSetUrl = getValueSetUrl(theValueSet);
 		if (valueSetUrl.isPresent()) {
-			String key =
-					"validateCodeInValueSet " + theValidationOptions.toString() + " " + defaultString(theCodeSystem)
-							+ " " + defaultString(theCode) + " " + defaultString(theDisplay) + " " + valueSetUrl.get();
+			String key = getValidateCodeInValueSetKey(
+					theValidationOptions, theCodeSystem, theCode, theDisplay, valueSetUrl.get());
 			return loadFromCache(
 					myValidateCodeCache,
 					key,
@@ -240,6 +234,73 @@ public class CachingValidationSupport extends BaseValidationSupportWrapper imple
 				theValidationSupportContext, theValidationOptions, theCodeSystem, theCode, theDisplay, theValueSet);
 	}
 
+	@Nonnull
+	@Override
+	public List<CodeValidationResult> validateCodeBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			String theValueSetUrl) {
+		List<String> keys = new ArrayList<>(theRequests.size());
+		for (CodeValidationRequest next : theRequests) {
+			keys.add(getValidateCodeKey(next.getSystem(), next.getCode(), next.getDisplay(), theValueSetUrl));
+		}
+		return loadBatchFromCache(
+				myValidateCodeCache,
+				keys,
+				theRequests,
+				t -> super.validateCodeBatch(theValidationSupportContext, theOptions, t, theValueSetUrl));
+	}
+
+	@Nonnull
+	@Override
+	public List<CodeValidationResult> validateCodeInValueSetBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			@Nonnull IBaseResource theValueSet) {
+		Optional<String> valueSetUrl = getValueSetUrl(theValueSet);
+		if (valueSetUrl.isEmpty()) {
+			return super.validateCodeInValueSetBatch(theValidationSupportContext, theOptions, theRequests, theValueSet);
+		}
+
+		List<String> keys = new ArrayList<>(theRequests.size());
+		for (CodeValidationRequest next : theRequests) {
+			keys.add(getValidateCodeInValueSetKey(
+					theOptions, next.getSystem(), next.getCode(), next.getDisplay(), valueSetUrl.get()));
+		}
+		return loadBatchFromCache(
+				myValidateCodeCache,
+				keys,
+				theRequests,
+				t -> super.validateCodeInValueSetBatch(theValidationSupportContext, theOptions, t, theValueSet));
+	}
+
+	private Optional<String> getValueSetUrl(IBaseResource theValueSet) {
+		BaseRuntimeChildDefinition urlChild =
+				myCtx.getResourceDefinition(theValueSet).getChildByName("url");
+		return urlChild.getAccessor().getValues(theValueSet).stream()
+				.map(t -> ((IPrimitiveType<?>) t).getValueAsString())
+				.filter(t -> isNotBlank(t))
+				.findFirst();
+	}
+
+	private static String getValidateCodeKey(
+			String theCodeSystem, String theCode, String theDisplay, String theValueSetUrl) {
+		return "validateCode " + theCodeSystem + " " + theCode + " " + defaultString(theDisplay) + " "
+				+ defaultIfBlank(theValueSetUrl, "NO_VS");
+	}
+
+	private static String getValidateCodeInValueSetKey(
+			ConceptValidationOptions theValidationOptions,
+			String theCodeSystem,
+			String theCode,
+			String theDisplay,
+			String theValueSetUrl) {
+		return "validateCodeInValueSet " + theValidationOptions.toString() + " " + defaultString(theCodeSystem) + " "
+				+ defaultString(theCode) + " " + defaultString(theDisplay) + " " + theValueSetUrl;
+	}
+
 	@Override
 	public TranslateConceptResults translateConcept(TranslateCodeRequest theRequest) {
 		return loadFromCache(myTranslateCodeCache, theRequest, k -> super.translateConcept(theRequest));
@@ -257,6 +318,43 @@ public class CachingValidationSupport extends BaseValidationSupportWrapper imple
 		return result.orElse(null);
 	}
 
+	/**
+	 * Looks up each of the given keys in the cache, and passes the requests which were not found to
+	 * the loader as a single batch. The loaded results are added to the cache.
+	 */
+	private <R, T> List<T> loadBatchFromCache(
+			Cache<String, Object> theCache,
+			List<String> theKeys,
+			List<R> theRequests,
+			Function<List<R>, List<T>> theLoader) {
+		List<T> retVal = new ArrayList<>(theKeys.size());
+		List<Integer> missIndexes = new ArrayList<>();
+		List<R> misses = new ArrayList<>();
+		for (int i = 0; i < theKeys.size(); i++) {
+			Optional<T> cached = (Optional<T>) theCache.getIfPresent(theKeys.get(i));
+			if (cached != null) {
+				retVal.add(cached.orElse(null));
+			} else {
+				retVal.add(null);
+				missIndexes.add(i);
+				misses.add(theRequests.get(i));
+			}
+		}
+		ourLog.trace("Fetched {} of {} entries from cache", theKeys.size() - misses.size(), theKeys.size());
+
+		if (!misses.isEmpty()) {
+			List<T> loaded = theLoader.apply(misses);
+			for (int i = 0; i < missIndexes.size(); i++) {
+				int index = missIndexes.get(i);
+				T nextLoaded = loaded.get(i);
+				theCache.put(theKeys.get(index), Optional.ofNullable(nextLoaded));
+				retVal.set(index, nextLoaded);
+			}
+		}
+
+		return retVal;
+	}
+
 	/**
 	 * The Caffeine cache uses ConcurrentHashMap which is not reentrant, so if we get unlucky and the hashtable
 	 * needs to grow at the same time as we are in a reentrant cache lookup, the thread will deadlock.  Use this
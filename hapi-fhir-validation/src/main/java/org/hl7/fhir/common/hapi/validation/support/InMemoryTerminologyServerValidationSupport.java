@@ -284,6 +284,91 @@ public class InMemoryTerminologyServerValidationSupport implements IValidationSu
 				vsUrl);
 	}
 
+	/**
+	 * If the ValueSet can be expanded completely in memory, it is expanded once and all codes in the
+	 * batch are validated against that expansion. Otherwise each code is validated separately.
+	 */
+	@Nonnull
+	@Override
+	public List<CodeValidationResult> validateCodeInValueSetBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			@Nonnull IBaseResource theValueSet) {
+		List<FhirVersionIndependentConcept> expansionCodes = null;
+		if (theRequests.size() > 1 && !theOptions.isInferSystem()) {
+			expansionCodes = expandValueSetForBatchValidation(theValidationSupportContext, theValueSet);
+		}
+		if (expansionCodes == null) {
+			return IValidationSupport.super.validateCodeInValueSetBatch(
+					theValidationSupportContext, theOptions, theRequests, theValueSet);
+		}
+
+		String vsUrl = CommonCodeSystemsTerminologyService.getValueSetUrl(getFhirContext(), theValueSet);
+		List<CodeValidationResult> retVal = new ArrayList<>(theRequests.size());
+		for (CodeValidationRequest next : theRequests) {
+			retVal.add(validateCodeInExpansionCodes(
+					theValidationSupportContext,
+					theOptions,
+					next.getSystem(),
+					next.getCode(),
+					next.getDisplay(),
+					expansionCodes,
+					vsUrl));
+		}
+		return retVal;
+	}
+
+	/**
+	 * Expands the given ValueSet without looking for any specific code. This is only equivalent to the
+	 * per-code expansions performed by {@link #validateCodeInValueSet} if every CodeSystem used by the
+	 * ValueSet has its content available in memory (otherwise individual codes are looked up), so
+	 * <code>null</code> is returned if this isn't the case or if the expansion fails.
+	 */
+	@Nullable
+	private List<FhirVersionIndependentConcept> expandValueSetForBatchValidation(
+			ValidationSupportContext theValidationSupportContext, IBaseResource theValueSet) {
+		FhirVersionEnum version = myCtx.getVersion().getVersion();
+		if (theValueSet.getStructureFhirVersionEnum() != version
+				|| !version.isEqualOrNewerThan(FhirVersionEnum.DSTU3)) {
+			return null;
+		}
+
+		org.hl7.fhir.r5.model.ValueSet valueSet = myVersionCanonicalizer.valueSetToValidatorCanonical(theValueSet);
+		Function<String, CodeSystem> codeSystemLoader = newCodeSystemLoader(theValidationSupportContext);
+		List<org.hl7.fhir.r5.model.ValueSet.ConceptSetComponent> includesAndExcludes = new ArrayList<>();
+		includesAndExcludes.addAll(valueSet.getCompose().getInclude());
+		includesAndExcludes.addAll(valueSet.getCompose().getExclude());
+		for (org.hl7.fhir.r5.model.ValueSet.ConceptSetComponent next : includesAndExcludes) {
+			if (isBlank(next.getSystem()) || !next.getValueSet().isEmpty()) {
+				return null;
+			}
+			String systemVersion = optionallyPopulateVersionFromUrl(next.getSystem(), next.getVersion());
+			String systemUrl = substringBefore(next.getSystem(), OUR_PIPE_CHARACTER);
+			if (systemVersion != null) {
+				systemUrl += OUR_PIPE_CHARACTER + systemVersion;
+			}
+			CodeSystem codeSystem = codeSystemLoader.apply(systemUrl);
+			if (codeSystem == null || codeSystem.getContent() == Enumerations.CodeSystemContentMode.NOTPRESENT) {
+				return null;
+			}
+		}
+
+		org.hl7.fhir.r5.model.ValueSet expansion;
+		try {
+			expansion = expandValueSetR5(theValidationSupportContext, valueSet);
+		} catch (ExpansionCouldNotBeCompletedInternallyException e) {
+			return null;
+		}
+		if (expansion == null) {
+			return null;
+		}
+
+		List<FhirVersionIndependentConcept> retVal = new ArrayList<>();
+		flattenAndConvertCodesR5(expansion.getExpansion().getContains(), retVal);
+		return retVal;
+	}
+
 	@Override
 	@Nullable
 	public CodeValidationResult validateCode(
@@ -407,14 +492,6 @@ public class InMemoryTerminologyServerValidationSupport implements IValidationSu
 			String theValueSetUrl) {
 		assert theExpansion != null;
 
-		boolean caseSensitive = true;
-		IBaseResource codeSystemToValidateResource = null;
-		if (!theOptions.isInferSystem() && isNotBlank(theCodeSystemUrlAndVersionToValidate)) {
-			codeSystemToValidateResource = theValidationSupportContext
-					.getRootValidationSupport()
-					.fetchCodeSystem(theCodeSystemUrlAndVersionToValidate);
-		}
-
 		List<FhirVersionIndependentConcept> codes = new ArrayList<>();
 		switch (getFhirVersionEnum(
 				theValidationSupportContext.getRootValidationSupport().getFhirContext(), theExpansion)) {
@@ -467,6 +544,32 @@ public class InMemoryTerminologyServerValidationSupport implements IValidationSu
 						+ myCtx.getVersion().getVersion());
 		}
 
+		return validateCodeInExpansionCodes(
+				theValidationSupportContext,
+				theOptions,
+				theCodeSystemUrlAndVersionToValidate,
+				theCodeToValidate,
+				theDisplayToValidate,
+				codes,
+				theValueSetUrl);
+	}
+
+	private CodeValidationResult validateCodeInExpansionCodes(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			String theCodeSystemUrlAndVersionToValidate,
+			String theCodeToValidate,
+			String theDisplayToValidate,
+			List<FhirVersionIndependentConcept> theCodes,
+			String theValueSetUrl) {
+		boolean caseSensitive = true;
+		IBaseResource codeSystemToValidateResource = null;
+		if (!theOptions.isInferSystem() && isNotBlank(theCodeSystemUrlAndVersionToValidate)) {
+			codeSystemToValidateResource = theValidationSupportContext
+					.getRootValidationSupport()
+					.fetchCodeSystem(theCodeSystemUrlAndVersionToValidate);
+		}
+
 		String codeSystemResourceName = null;
 		String codeSystemResourceVersion = null;
 		String codeSystemResourceContentMode = null;
@@ -534,7 +637,7 @@ public class InMemoryTerminologyServerValidationSupport implements IValidationSu
 				codeSystemUrlToValidate = theCodeSystemUrlAndVersionToValidate;
 			}
 		}
-		for (FhirVersionIndependentConcept nextExpansionCode : codes) {
+		for (FhirVersionIndependentConcept nextExpansionCode : theCodes) {
 
 			boolean codeMatches;
 			if (caseSensitive) {
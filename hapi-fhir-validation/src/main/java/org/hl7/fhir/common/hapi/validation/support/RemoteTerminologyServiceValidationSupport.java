@@ -12,13 +12,18 @@ import ca.uhn.fhir.i18n.Msg;
 import ca.uhn.fhir.rest.api.SummaryEnum;
 import ca.uhn.fhir.rest.client.api.IGenericClient;
 import ca.uhn.fhir.rest.gclient.IQuery;
+import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
 import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
+import ca.uhn.fhir.util.BundleBuilder;
 import ca.uhn.fhir.util.BundleUtil;
+import ca.uhn.fhir.util.FhirTerser;
 import ca.uhn.fhir.util.ParametersUtil;
+import ca.uhn.fhir.util.bundle.BundleEntryParts;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.hl7.fhir.instance.model.api.IBase;
 import org.hl7.fhir.instance.model.api.IBaseBundle;
 import org.hl7.fhir.instance.model.api.IBaseDatatype;
 import org.hl7.fhir.instance.model.api.IBaseParameters;
@@ -37,6 +42,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -117,6 +123,50 @@ public class RemoteTerminologyServiceValidationSupport extends BaseValidationSup
 		return invokeRemoteValidateCode(codeSystem, theCode, theDisplay, valueSetUrl, valueSet);
 	}
 
+	@Nonnull
+	@Override
+	public List<CodeValidationResult> validateCodeBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			String theValueSetUrl) {
+		return invokeRemoteValidateCodeBatch(theRequests, theValueSetUrl, null);
+	}
+
+	@Nonnull
+	@Override
+	public List<CodeValidationResult> validateCodeInValueSetBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			@Nonnull IBaseResource theValueSet) {
+
+		// Same rules as validateCodeInValueSet(..) for each code
+		List<CodeValidationRequest> requests = new ArrayList<>(theRequests.size());
+		for (CodeValidationRequest next : theRequests) {
+			String codeSystem = next.getSystem();
+			if (isNotBlank(next.getCode()) && isBlank(codeSystem)) {
+				codeSystem = extractCodeSystemForCode((ValueSet) theValueSet, next.getCode());
+			}
+			if (isBlank(codeSystem)) {
+				requests.add(null);
+			} else if (!Objects.equals(codeSystem, next.getSystem())) {
+				requests.add(new CodeValidationRequest(codeSystem, next.getCode(), next.getDisplay()));
+			} else {
+				requests.add(next);
+			}
+		}
+
+		IBaseResource valueSet = theValueSet;
+		String valueSetUrl = DefaultProfileValidationSupport.getConformanceResourceUrl(myCtx, valueSet);
+		if (isNotBlank(valueSetUrl)) {
+			valueSet = null;
+		} else {
+			valueSetUrl = null;
+		}
+		return invokeRemoteValidateCodeBatch(requests, valueSetUrl, valueSet);
+	}
+
 	/**
 	 * Try to obtain the codeSystem of the received code from the received ValueSet
 	 */
@@ -598,7 +648,84 @@ public class RemoteTerminologyServiceValidationSupport extends BaseValidationSup
 				.withParameters(input)
 				.execute();
 
-		List<String> resultValues = ParametersUtil.getNamedParameterValuesAsString(getFhirContext(), output, "result");
+		return createCodeValidationResult(theCode, output);
+	}
+
+	/**
+	 * Validates several codes using a single batch Bundle containing one <code>$validate-code</code>
+	 * invocation per code. Entries in the input list may be <code>null</code>, in which case the
+	 * corresponding result is also <code>null</code>.
+	 */
+	private List<CodeValidationResult> invokeRemoteValidateCodeBatch(
+			List<CodeValidationRequest> theRequests, String theValueSetUrl, IBaseResource theValueSet) {
+		CodeValidationResult[] retVal = new CodeValidationResult[theRequests.size()];
+		List<Integer> indexes = new ArrayList<>(theRequests.size());
+		for (int i = 0; i < theRequests.size(); i++) {
+			CodeValidationRequest next = theRequests.get(i);
+			if (next != null && isNotBlank(next.getCode())) {
+				indexes.add(i);
+			}
+		}
+
+		if (indexes.size() > 1 && myCtx.getVersion().getVersion().isEqualOrNewerThan(FhirVersionEnum.DSTU3)) {
+			String resourceType = "ValueSet";
+			if (theValueSet == null && theValueSetUrl == null) {
+				resourceType = "CodeSystem";
+			}
+
+			BundleBuilder bundleBuilder = new BundleBuilder(myCtx);
+			bundleBuilder.setType("batch");
+			FhirTerser terser = myCtx.newTerser();
+			for (Integer next : indexes) {
+				CodeValidationRequest request = theRequests.get(next);
+				IBaseParameters input = buildValidateCodeInputParameters(
+						request.getSystem(), request.getCode(), request.getDisplay(), theValueSetUrl, theValueSet);
+				IBase entry = bundleBuilder.addEntry();
+				bundleBuilder.addToEntry(entry, "resource", input);
+				terser.setElement(entry, "request.method", "POST");
+				terser.setElement(entry, "request.url", resourceType + "/$validate-code");
+			}
+
+			try {
+				IBaseBundle output = provideClient()
+						.transaction()
+						.withBundle(bundleBuilder.getBundle())
+						.execute();
+				List<BundleEntryParts> entries = BundleUtil.toListOfEntries(myCtx, output);
+				Validate.isTrue(
+						entries.size() == indexes.size(),
+						"Response contained %d entries for %d requests",
+						entries.size(),
+						indexes.size());
+				for (int i = 0; i < indexes.size(); i++) {
+					IBaseResource nextOutput = entries.get(i).getResource();
+					if (nextOutput instanceof IBaseParameters) {
+						int index = indexes.get(i);
+						retVal[index] = createCodeValidationResult(
+								theRequests.get(index).getCode(), (IBaseParameters) nextOutput);
+					}
+				}
+				return Arrays.asList(retVal);
+			} catch (BaseServerResponseException e) {
+				ourLog.warn(
+						"Failed to validate {} codes using a batch request, validating them individually instead: {}",
+						indexes.size(),
+						e.toString());
+			}
+		}
+
+		for (Integer next : indexes) {
+			CodeValidationRequest request = theRequests.get(next);
+			retVal[next] = invokeRemoteValidateCode(
+					request.getSystem(), request.getCode(), request.getDisplay(), theValueSetUrl, theValueSet);
+		}
+		return Arrays.asList(retVal);
+	}
+
+	@Nullable
+	private CodeValidationResult createCodeValidationResult(String theCode, IBaseParameters theOutput) {
+		List<String> resultValues =
+				ParametersUtil.getNamedParameterValuesAsString(getFhirContext(), theOutput, "result");
 		if (resultValues.isEmpty() || isBlank(resultValues.get(0))) {
 			return null;
 		}
@@ -611,7 +738,7 @@ public class RemoteTerminologyServiceValidationSupport extends BaseValidationSup
 
 			retVal.setCode(theCode);
 			List<String> displayValues =
-					ParametersUtil.getNamedParameterValuesAsString(getFhirContext(), output, "display");
+					ParametersUtil.getNamedParameterValuesAsString(getFhirContext(), theOutput, "display");
 			if (!displayValues.isEmpty()) {
 				retVal.setDisplay(displayValues.get(0));
 			}
@@ -620,7 +747,7 @@ public class RemoteTerminologyServiceValidationSupport extends BaseValidationSup
 
 			retVal.setSeverity(IssueSeverity.ERROR);
 			List<String> messageValues =
-					ParametersUtil.getNamedParameterValuesAsString(getFhirContext(), output, "message");
+					ParametersUtil.getNamedParameterValuesAsString(getFhirContext(), theOutput, "message");
 			if (!messageValues.isEmpty()) {
 				retVal.setMessage(messageValues.get(0));
 			}
@@ -18,6 +18,8 @@ import org.hl7.fhir.instance.model.api.IPrimitiveType;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -415,6 +417,133 @@ public class ValidationSupportChain implements IValidationSupport {
 		return null;
 	}
 
+	@Nonnull
+	@Override
+	public List<CodeValidationResult> validateCodeBatch(
+			@Nonnull ValidationSupportContext theValidationSupportContext,
+			@Nonnull ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			String theValueSetUrl) {
+		CodeValidationResult[] retVal = new CodeValidationResult[theRequests.size()];
+		List<Integer> pending = new ArrayList<>(theRequests.size());
+		for (int i = 0; i < theRequests.size(); i++) {
+			pending.add(i);
+		}
+
+		for (IValidationSupport next : myChain) {
+			if (pending.isEmpty()) {
+				break;
+			}
+
+			List<Integer> supported;
+			if (isNotBlank(theValueSetUrl)) {
+				supported = next.isValueSetSupported(theValidationSupportContext, theValueSetUrl)
+						? pending
+						: Collections.emptyList();
+			} else {
+				supported = new ArrayList<>(pending.size());
+				for (Integer nextIndex : pending) {
+					String system = theRequests.get(nextIndex).getSystem();
+					if (next.isCodeSystemSupported(theValidationSupportContext, system)) {
+						supported.add(nextIndex);
+					}
+				}
+			}
+			if (supported.isEmpty()) {
+				continue;
+			}
+
+			List<CodeValidationResult> outcome = next.validateCodeBatch(
+					theValidationSupportContext, theOptions, toRequests(theRequests, supported), theValueSetUrl);
+			pending = applyBatchOutcome(pending, supported, outcome, retVal, next, theValueSetUrl);
+		}
+
+		return Arrays.asList(retVal);
+	}
+
+	@Nonnull
+	@Override
+	public List<CodeValidationResult> validateCodeInValueSetBatch(
+			ValidationSupportContext theValidationSupportContext,
+			ConceptValidationOptions theOptions,
+			List<CodeValidationRequest> theRequests,
+			@Nonnull IBaseResource theValueSet) {
+		CodeValidationResult[] retVal = new CodeValidationResult[theRequests.size()];
+		List<Integer> pending = new ArrayList<>(theRequests.size());
+		for (int i = 0; i < theRequests.size(); i++) {
+			pending.add(i);
+		}
+
+		String url = CommonCodeSystemsTerminologyService.getValueSetUrl(getFhirContext(), theValueSet);
+		for (IValidationSupport next : myChain) {
+			if (pending.isEmpty()) {
+				break;
+			}
+			if (isBlank(url) || next.isValueSetSupported(theValidationSupportContext, url)) {
+				List<CodeValidationResult> outcome = next.validateCodeInValueSetBatch(
+						theValidationSupportContext, theOptions, toRequests(theRequests, pending), theValueSet);
+				pending = applyBatchOutcome(pending, pending, outcome, retVal, next, theValueSet.getIdElement());
+			}
+		}
+
+		return Arrays.asList(retVal);
+	}
+
+	/**
+	 * Stores the results returned by a module for the given subset of the pending requests, and
+	 * returns the requests which are still pending afterward
+	 */
+	private List<Integer> applyBatchOutcome(
+			List<Integer> thePending,
+			List<Integer> theSubmitted,
+			List<CodeValidationResult> theOutcome,
+			CodeValidationResult[] theResults,
+			IValidationSupport theModule,
+			Object theValueSet) {
+		Validate.isTrue(
+				theOutcome.size() == theSubmitted.size(),
+				"%s returned %d results for %d requests",
+				theModule.getName(),
+				theOutcome.size(),
+				theSubmitted.size());
+
+		int validatedCount = 0;
+		for (int i = 0; i < theSubmitted.size(); i++) {
+			CodeValidationResult nextResult = theOutcome.get(i);
+			if (nextResult != null) {
+				theResults[theSubmitted.get(i)] = nextResult;
+				validatedCount++;
+			}
+		}
+		if (validatedCount == 0) {
+			return thePending;
+		}
+
+		if (ourLog.isDebugEnabled()) {
+			ourLog.debug("{} codes in ValueSet {} validated by {}", validatedCount, theValueSet, theModule.getName());
+		}
+
+		List<Integer> retVal = new ArrayList<>(thePending.size() - validatedCount);
+		for (Integer next : thePending) {
+			if (theResults[next] == null) {
+				retVal.add(next);
+			}
+		}
+		return retVal;
+	}
+
+	private static List<CodeValidationRequest> toRequests(
+			List<CodeValidationRequest> theRequests, List<Integer> theIndexes) {
+		if (theIndexes.size() == theRequests.size()) {
+			return theRequests;
+		}
+		List<CodeValidationRequest> retVal = new ArrayList<>(theIndexes.size());
+		for (Integer next : theIndexes) {
+			retVal.add(theRequests.get(next));
+		}
+		return retVal;
+	}
+
 	@Override
 	public LookupCodeResult lookupCode(
 			ValidationSupportContext theValidationSupportContext, @Nonnull LookupCodeRequest theLookupCodeRequest) {
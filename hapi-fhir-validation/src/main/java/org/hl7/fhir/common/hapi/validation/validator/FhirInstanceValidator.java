@@ -239,14 +239,23 @@ public class FhirInstanceValidator extends BaseValidatorBridge implements IInsta
 				.validate(wrappedWorkerContext, theValidationCtx);
 	}
 
+	/**
+	 * Returns the worker context, creating it if needed. The worker context is shared by all threads using
+	 * this validator (e.g. when Bundle entries are validated concurrently), so it is only ever created once.
+	 */
 	@Nonnull
 	protected VersionSpecificWorkerContextWrapper provideWorkerContext() {
 		VersionSpecificWorkerContextWrapper wrappedWorkerContext = myWrappedWorkerContext;
 		if (wrappedWorkerContext == null) {
-			wrappedWorkerContext =
-					VersionSpecificWorkerContextWrapper.newVersionSpecificWorkerContextWrapper(myValidationSupport);
+			synchronized (this) {
+				wrappedWorkerContext = myWrappedWorkerContext;
+				if (wrappedWorkerContext == null) {
+					wrappedWorkerContext = VersionSpecificWorkerContextWrapper.newVersionSpecificWorkerContextWrapper(
+							myValidationSupport);
+					myWrappedWorkerContext = wrappedWorkerContext;
+				}
+			}
 		}
-		myWrappedWorkerContext = wrappedWorkerContext;
 		return wrappedWorkerContext;
 	}
 
@@ -0,0 +1,164 @@
+package org.hl7.fhir.common.hapi.validation.validator;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.util.FhirTerser;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r5.context.IWorkerContext;
+import org.hl7.fhir.r5.model.ElementDefinition;
+import org.hl7.fhir.r5.model.StructureDefinition;
+import org.hl7.fhir.r5.utils.FHIRPathEngine;
+import org.hl7.fhir.validation.instance.utils.FHIRPathExpressionFixer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.apache.commons.lang3.StringUtils.defaultString;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Caches the compiled form of each StructureDefinition used for validation, keyed by profile URL and version.
+ * A compiled profile is the validator canonical (R5) StructureDefinition, including a generated snapshot if the
+ * source didn't have one, with the FHIRPath expressions for all of its constraints already parsed.
+ * <p>
+ * The worker context only caches fetched resources for a short time, so that changes to profiles are picked up.
+ * Without this cache, every profile would be converted (and possibly have its snapshot generated) again each time
+ * that cache expired, and the core validator would have to parse all of its constraint expressions again. Instead,
+ * a compiled profile is reused for as long as the validation support keeps returning the same source resource
+ * (either the same instance, or a resource with the same ID, version ID and last updated date), and is only
+ * compiled again if the source resource changes or {@link #invalidateCaches()} is called.
+ * </p>
+ */
+class ValidationPlanCache {
+
+	/**
+	 * The user data key used by the core InstanceValidator to store the parsed FHIRPath expression of a constraint
+	 */
+	static final String EXPRESSION_CACHE_USER_DATA_KEY = "validator.expression.cache";
+
+	private static final Logger ourLog = LoggerFactory.getLogger(ValidationPlanCache.class);
+
+	private final ConcurrentHashMap<String, ValidationPlan> myPlans = new ConcurrentHashMap<>();
+	private final FhirContext myFhirContext;
+	private final IWorkerContext myWorkerContext;
+	private FHIRPathEngine myFhirPathEngine;
+
+	ValidationPlanCache(FhirContext theFhirContext, IWorkerContext theWorkerContext) {
+		myFhirContext = theFhirContext;
+		myWorkerContext = theWorkerContext;
+	}
+
+	/**
+	 * Returns the compiled form of the given source StructureDefinition, compiling it using the given
+	 * supplier if it hasn't been compiled yet or if the source has changed since it was compiled.
+	 *
+	 * @param theSource   The StructureDefinition returned by the validation support, in the validation support's FHIR version
+	 * @param theCompiler Converts the source into a validator canonical StructureDefinition with a snapshot
+	 */
+	StructureDefinition getOrCompile(IBaseResource theSource, Supplier<StructureDefinition> theCompiler) {
+		String key = toKey(theSource);
+		ValidationPlan plan = myPlans.get(key);
+		if (plan != null && plan.isCompiledFrom(theSource)) {
+			return plan.getStructureDefinition();
+		}
+
+		StructureDefinition structureDefinition = theCompiler.get();
+		int constraintCount = compileConstraints(structureDefinition);
+		ourLog.debug("Compiled validation plan for {} with {} constraints", key, constraintCount);
+
+		myPlans.put(key, new ValidationPlan(theSource, structureDefinition));
+		return structureDefinition;
+	}
+
+	void invalidateCaches() {
+		myPlans.clear();
+	}
+
+	int size() {
+		return myPlans.size();
+	}
+
+	/**
+	 * Parses the FHIRPath expression of each constraint in the snapshot in the same way that the core validator
+	 * does the first time it evaluates the constraint, and stores the result where the core validator looks for it.
+	 * Doing this before the StructureDefinition is shared also means that concurrent validations never have to
+	 * modify it. Expressions that can't be parsed are left alone, so that the core validator reports them.
+	 */
+	private synchronized int compileConstraints(StructureDefinition theStructureDefinition) {
+		if (myFhirPathEngine == null) {
+			myFhirPathEngine = new FHIRPathEngine(myWorkerContext);
+		}
+
+		int retVal = 0;
+		for (ElementDefinition nextElement :
+				theStructureDefinition.getSnapshot().getElement()) {
+			for (ElementDefinition.ElementDefinitionConstraintComponent nextConstraint : nextElement.getConstraint()) {
+				if (!nextConstraint.hasExpression()
+						|| nextConstraint.getUserData(EXPRESSION_CACHE_USER_DATA_KEY) != null) {
+					continue;
+				}
+				try {
+					String expression = FHIRPathExpressionFixer.fixExpr(
+							nextConstraint.getExpression(), nextConstraint.getKey(), myWorkerContext.getVersion());
+					nextConstraint.setUserData(EXPRESSION_CACHE_USER_DATA_KEY, myFhirPathEngine.parse(expression));
+					retVal++;
+				} catch (Exception e) {
+					ourLog.debug(
+							"Failed to compile constraint {} in {}: {}",
+							nextConstraint.getKey(),
+							theStructureDefinition.getUrl(),
+							e.toString());
+				}
+			}
+		}
+		return retVal;
+	}
+
+	private String toKey(IBaseResource theSource) {
+		FhirTerser terser = myFhirContext.newTerser();
+		String url = terser.getSinglePrimitiveValueOrNull(theSource, "url");
+		String version = terser.getSinglePrimitiveValueOrNull(theSource, "version");
+		return defaultString(url) + "|" + defaultString(version);
+	}
+
+	private static class ValidationPlan {
+		private final IBaseResource mySource;
+		private final String mySourceId;
+		private final String mySourceVersionId;
+		private final Date mySourceLastUpdated;
+		private final StructureDefinition myStructureDefinition;
+
+		private ValidationPlan(IBaseResource theSource, StructureDefinition theStructureDefinition) {
+			mySource = theSource;
+			mySourceId = theSource.getIdElement().getIdPart();
+			mySourceVersionId = getVersionId(theSource);
+			mySourceLastUpdated = theSource.getMeta().getLastUpdated();
+			myStructureDefinition = theStructureDefinition;
+		}
+
+		private boolean isCompiledFrom(IBaseResource theSource) {
+			if (theSource == mySource) {
+				return true;
+			}
+			return isNotBlank(mySourceVersionId)
+					&& mySourceVersionId.equals(getVersionId(theSource))
+					&& Objects.equals(mySourceId, theSource.getIdElement().getIdPart())
+					&& Objects.equals(mySourceLastUpdated, theSource.getMeta().getLastUpdated());
+		}
+
+		private StructureDefinition getStructureDefinition() {
+			return myStructureDefinition;
+		}
+
+		private static String getVersionId(IBaseResource theSource) {
+			String retVal = theSource.getMeta().getVersionId();
+			if (isNotBlank(retVal)) {
+				return retVal;
+			}
+			return theSource.getIdElement().getVersionIdPart();
+		}
+	}
+}
@@ -59,6 +59,7 @@ public class VersionSpecificWorkerContextWrapper extends I18nBase implements IWo
 	private final ValidationSupportContext myValidationSupportContext;
 	private final VersionCanonicalizer myVersionCanonicalizer;
 	private final LoadingCache<ResourceKey, IBaseResource> myFetchResourceCache;
+	private final ValidationPlanCache myValidationPlanCache;
 	private volatile List<StructureDefinition> myAllStructures;
 	private org.hl7.fhir.r5.model.Parameters myExpansionProfile;
 
@@ -67,6 +68,9 @@ public class VersionSpecificWorkerContextWrapper extends I18nBase implements IWo
 		myValidationSupportContext = theValidationSupportContext;
 		myVersionCanonicalizer = theVersionCanonicalizer;
 
+		myValidationPlanCache = new ValidationPlanCache(
+				theValidationSupportContext.getRootValidationSupport().getFhirContext(), this);
+
 		long timeoutMillis = HapiSystemProperties.getTestValidationResourceCachesMs();
 
 		myFetchResourceCache = CacheFactory.build(timeoutMillis, 10000, key -> {
@@ -97,29 +101,40 @@ public class VersionSpecificWorkerContextWrapper extends I18nBase implements IWo
 					.getRootValidationSupport()
 					.fetchResource(fetchResourceType, key.getUri());
 
-			Resource canonical = myVersionCanonicalizer.resourceToValidatorCanonical(fetched);
-
-			if (canonical instanceof StructureDefinition) {
-				StructureDefinition canonicalSd = (StructureDefinition) canonical;
-				if (canonicalSd.getSnapshot().isEmpty()) {
-					ourLog.info("Generating snapshot for StructureDefinition: {}", canonicalSd.getUrl());
-					fetched = myValidationSupportContext
-							.getRootValidationSupport()
-							.generateSnapshot(theValidationSupportContext, fetched, "", null, "");
-					Validate.isTrue(
-							fetched != null,
-							"StructureDefinition %s has no snapshot, and no snapshot generator is configured",
-							key.getUri());
-					canonical = myVersionCanonicalizer.resourceToValidatorCanonical(fetched);
-				}
+			if (fetched != null && "StructureDefinition".equals(fetchResourceName)) {
+				return myValidationPlanCache.getOrCompile(
+						fetched, () -> toCanonicalStructureDefinition(fetched, key.getUri()));
 			}
 
+			Resource canonical = myVersionCanonicalizer.resourceToValidatorCanonical(fetched);
+			if (canonical instanceof StructureDefinition
+					&& ((StructureDefinition) canonical).getSnapshot().isEmpty()) {
+				canonical = toCanonicalStructureDefinition(fetched, key.getUri());
+			}
 			return canonical;
 		});
 
 		setValidationMessageLanguage(getLocale());
 	}
 
+	private StructureDefinition toCanonicalStructureDefinition(IBaseResource theFetched, String theUri) {
+		IBaseResource fetched = theFetched;
+		StructureDefinition canonicalSd =
+				(StructureDefinition) myVersionCanonicalizer.resourceToValidatorCanonical(fetched);
+		if (canonicalSd.getSnapshot().isEmpty()) {
+			ourLog.info("Generating snapshot for StructureDefinition: {}", canonicalSd.getUrl());
+			fetched = myValidationSupportContext
+					.getRootValidationSupport()
+					.generateSnapshot(myValidationSupportContext, fetched, "", null, "");
+			Validate.isTrue(
+					fetched != null,
+					"StructureDefinition %s has no snapshot, and no snapshot generator is configured",
+					theUri);
+			canonicalSd = (StructureDefinition) myVersionCanonicalizer.resourceToValidatorCanonical(fetched);
+		}
+		return canonicalSd;
+	}
+
 	@Override
 	public Set<String> getBinaryKeysAsSet() {
 		throw new UnsupportedOperationException(Msg.code(2118));
@@ -614,9 +629,40 @@ public class VersionSpecificWorkerContextWrapper extends I18nBase implements IWo
 	@Override
 	public void validateCodeBatch(
 			ValidationOptions options, List<? extends CodingValidationRequest> codes, ValueSet vs) {
+		if (codes.isEmpty()) {
+			return;
+		}
+
+		IBaseResource convertedVs = null;
+		try {
+			if (vs != null) {
+				convertedVs = myVersionCanonicalizer.valueSetFromValidatorCanonical(vs);
+			}
+		} catch (FHIRException e) {
+			throw new InternalErrorException(Msg.code(2490) + e);
+		}
+
+		List<IValidationSupport.CodeValidationRequest> requests = new ArrayList<>(codes.size());
 		for (CodingValidationRequest next : codes) {
-			ValidationResult outcome = validateCode(options, next.getCoding(), vs);
-			next.setResult(outcome);
+			Coding coding = next.getCoding();
+			requests.add(new IValidationSupport.CodeValidationRequest(
+					coding.getSystem(), coding.getCode(), coding.getDisplay()));
+		}
+
+		ConceptValidationOptions validationOptions = convertConceptValidationOptions(options);
+		IValidationSupport rootValidationSupport = myValidationSupportContext.getRootValidationSupport();
+		List<IValidationSupport.CodeValidationResult> results;
+		if (convertedVs != null) {
+			results = rootValidationSupport.validateCodeInValueSetBatch(
+					myValidationSupportContext, validationOptions, requests, convertedVs);
+		} else {
+			results = rootValidationSupport.validateCodeBatch(
+					myValidationSupportContext, validationOptions, requests, null);
+		}
+
+		for (int i = 0; i < codes.size(); i++) {
+			CodingValidationRequest next = codes.get(i);
+			next.setResult(convertValidationResult(next.getCoding().getSystem(), results.get(i)));
 		}
 	}
 
@@ -681,6 +727,7 @@ public class VersionSpecificWorkerContextWrapper extends I18nBase implements IWo
 
 	public void invalidateCaches() {
 		myFetchResourceCache.invalidateAll();
+		myValidationPlanCache.invalidateCaches();
 	}
 
 	@Override
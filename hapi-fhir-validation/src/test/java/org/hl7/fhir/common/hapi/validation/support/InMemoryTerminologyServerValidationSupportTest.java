@@ -21,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.containsString;
@@ -434,6 +435,51 @@ public class InMemoryTerminologyServerValidationSupportTest extends BaseValidati
 		assertEquals("MODERNA COVID-19 mRNA-1273", valueSet.getExpansion().getContains().get(0).getDisplay());
 	}
 
+	@Test
+	public void testValidateCodeInValueSetBatch() {
+		CodeSystem cs = new CodeSystem();
+		cs.setStatus(Enumerations.PublicationStatus.ACTIVE);
+		cs.setContent(CodeSystem.CodeSystemContentMode.COMPLETE);
+		cs.setUrl("http://cs");
+		cs.addConcept().setCode("A").setDisplay("Code A");
+		cs.addConcept().setCode("B").setDisplay("Code B");
+		cs.addConcept().setCode("C").setDisplay("Code C");
+		myPrePopulated.addCodeSystem(cs);
+
+		ValueSet vs = new ValueSet();
+		vs.setUrl("http://vs");
+		vs.getCompose().addInclude().setSystem("http://cs");
+		vs.getCompose().addExclude().setSystem("http://cs").addConcept().setCode("C");
+
+		ValidationSupportContext valCtx = new ValidationSupportContext(myChain);
+		ConceptValidationOptions options = new ConceptValidationOptions().setValidateDisplay(true);
+		List<IValidationSupport.CodeValidationRequest> requests = List.of(
+			new IValidationSupport.CodeValidationRequest("http://cs", "A", null),
+			new IValidationSupport.CodeValidationRequest("http://cs", "B", "Wrong Display"),
+			new IValidationSupport.CodeValidationRequest("http://cs", "C", null),
+			new IValidationSupport.CodeValidationRequest("http://cs", "Z", null));
+
+		List<IValidationSupport.CodeValidationResult> outcomes = mySvc.validateCodeInValueSetBatch(valCtx, options, requests, vs);
+		assertEquals(4, outcomes.size());
+
+		// Each outcome should match the outcome of validating the code on its own
+		for (int i = 0; i < requests.size(); i++) {
+			IValidationSupport.CodeValidationRequest request = requests.get(i);
+			IValidationSupport.CodeValidationResult expected = mySvc.validateCodeInValueSet(valCtx, options, request.getSystem(), request.getCode(), request.getDisplay(), vs);
+			IValidationSupport.CodeValidationResult actual = outcomes.get(i);
+			assertNotNull(actual, request.toString());
+			assertEquals(expected.isOk(), actual.isOk(), request.toString());
+			assertEquals(expected.getCode(), actual.getCode(), request.toString());
+			assertEquals(expected.getDisplay(), actual.getDisplay(), request.toString());
+			assertEquals(expected.getMessage(), actual.getMessage(), request.toString());
+		}
+		assertTrue(outcomes.get(0).isOk());
+		assertEquals("Code A", outcomes.get(0).getDisplay());
+		assertThat(outcomes.get(1).getMessage(), containsString("Wrong Display"));
+		assertFalse(outcomes.get(2).isOk());
+		assertFalse(outcomes.get(3).isOk());
+	}
+
     @ParameterizedTest
 	 @ValueSource(strings = {"http://terminology.hl7.org/CodeSystem/v2-0360|2.7","http://terminology.hl7.org/CodeSystem/v2-0360"})
     void testValidateCodeInValueSet_VsExpandedWithIncludes(String theCodeSystemUri) {
@@ -3,16 +3,25 @@ package org.hl7.fhir.common.hapi.validation.support;
 import ca.uhn.fhir.context.ConfigurationException;
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.context.FhirVersionEnum;
+import ca.uhn.fhir.context.support.ConceptValidationOptions;
 import ca.uhn.fhir.context.support.DefaultProfileValidationSupport;
 import ca.uhn.fhir.context.support.IValidationSupport;
+import ca.uhn.fhir.context.support.ValidationSupportContext;
 import ca.uhn.fhir.fhirpath.BaseValidationTestWithInlineMocks;
 import ca.uhn.fhir.i18n.Msg;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ValidationSupportChainTest extends BaseValidationTestWithInlineMocks {
@@ -64,6 +73,44 @@ public class ValidationSupportChainTest extends BaseValidationTestWithInlineMock
 	}
 
 
+	@Test
+	public void testValidateCodeBatch_EachRequestHandledByFirstCapableModule() {
+		IValidationSupport validationSupport1 = createMockValidationSupport();
+		when(validationSupport1.isCodeSystemSupported(any(), eq("http://a"))).thenReturn(true);
+		when(validationSupport1.validateCodeBatch(any(), any(), anyList(), any())).thenAnswer(t -> {
+			List<IValidationSupport.CodeValidationRequest> requests = t.getArgument(2);
+			return requests.stream()
+				.map(r -> r.getCode().equals("1") ? new IValidationSupport.CodeValidationResult().setCode("1") : null)
+				.collect(Collectors.toList());
+		});
+		IValidationSupport validationSupport2 = createMockValidationSupport();
+		when(validationSupport2.isCodeSystemSupported(any(), any())).thenReturn(true);
+		when(validationSupport2.validateCodeBatch(any(), any(), anyList(), any())).thenAnswer(t -> {
+			List<IValidationSupport.CodeValidationRequest> requests = t.getArgument(2);
+			return requests.stream()
+				.map(r -> new IValidationSupport.CodeValidationResult().setCode(r.getCode()).setDisplay("from 2"))
+				.collect(Collectors.toList());
+		});
+
+		ValidationSupportChain chain = new ValidationSupportChain(validationSupport1, validationSupport2);
+		List<IValidationSupport.CodeValidationRequest> requests = List.of(
+			new IValidationSupport.CodeValidationRequest("http://a", "1", null),
+			new IValidationSupport.CodeValidationRequest("http://a", "2", null),
+			new IValidationSupport.CodeValidationRequest("http://b", "3", null));
+		List<IValidationSupport.CodeValidationResult> outcomes = chain.validateCodeBatch(new ValidationSupportContext(chain), new ConceptValidationOptions(), requests, null);
+
+		assertEquals(3, outcomes.size());
+		assertEquals("1", outcomes.get(0).getCode());
+		assertNull(outcomes.get(0).getDisplay());
+		assertEquals("2", outcomes.get(1).getCode());
+		assertEquals("from 2", outcomes.get(1).getDisplay());
+		assertEquals("3", outcomes.get(2).getCode());
+		assertEquals("from 2", outcomes.get(2).getDisplay());
+
+		// The second module only sees the requests the first module couldn't handle
+		verify(validationSupport2).validateCodeBatch(any(), any(), eq(requests.subList(1, 3)), any());
+	}
+
 	private static IValidationSupport createMockValidationSupport() {
 		IValidationSupport validationSupport;
 		validationSupport = mock(IValidationSupport.class);
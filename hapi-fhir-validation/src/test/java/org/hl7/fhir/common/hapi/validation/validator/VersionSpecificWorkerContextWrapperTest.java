@@ -6,14 +6,21 @@ import ca.uhn.fhir.context.support.IValidationSupport;
 import ca.uhn.fhir.context.support.ValidationSupportContext;
 import ca.uhn.fhir.fhirpath.BaseValidationTestWithInlineMocks;
 import ca.uhn.fhir.i18n.HapiLocalizer;
+import ca.uhn.fhir.system.HapiSystemProperties;
 import ca.uhn.hapi.converters.canonical.VersionCanonicalizer;
+import org.hl7.fhir.common.hapi.validation.support.PrePopulatedValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.ValidationSupportChain;
 import org.hl7.fhir.r5.model.Resource;
+import org.hl7.fhir.r5.model.StructureDefinition;
 import org.junit.jupiter.api.Test;
 import org.mockito.quality.Strictness;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -71,6 +78,46 @@ public class VersionSpecificWorkerContextWrapperTest extends BaseValidationTestW
 		wrapper.cacheResource(mock(Resource.class));
 	}
 
+	@Test
+	public void fetchStructureDefinition_reusesCompiledProfileUntilSourceChanges() {
+		String url = "http://example.com/StructureDefinition/my-patient";
+		org.hl7.fhir.r4.model.StructureDefinition sd = new org.hl7.fhir.r4.model.StructureDefinition();
+		sd.setUrl(url);
+		sd.setVersion("1");
+		sd.getSnapshot()
+			.addElement()
+			.setPath("Patient")
+			.addConstraint()
+			.setKey("my-1")
+			.setSeverity(org.hl7.fhir.r4.model.ElementDefinition.ConstraintSeverity.ERROR)
+			.setHuman("Must have a name")
+			.setExpression("name.exists()");
+		PrePopulatedValidationSupport prePopulated = new PrePopulatedValidationSupport(FhirContext.forR4Cached());
+		prePopulated.addStructureDefinition(sd);
+
+		// Expire fetched resources immediately so that every fetch goes back to the validation support
+		VersionSpecificWorkerContextWrapper wrapper;
+		HapiSystemProperties.setTestValidationResourceCachesMs(0);
+		try {
+			wrapper = VersionSpecificWorkerContextWrapper.newVersionSpecificWorkerContextWrapper(new ValidationSupportChain(prePopulated));
+		} finally {
+			HapiSystemProperties.setTestValidationResourceCachesMs(10000);
+		}
+
+		StructureDefinition compiled = wrapper.fetchResource(StructureDefinition.class, url);
+		assertNotNull(compiled.getSnapshot().getElementFirstRep().getConstraintFirstRep().getUserData(ValidationPlanCache.EXPRESSION_CACHE_USER_DATA_KEY));
+		assertSame(compiled, wrapper.fetchResource(StructureDefinition.class, url));
+
+		// A changed source is compiled again
+		prePopulated.addStructureDefinition(sd.copy());
+		StructureDefinition recompiled = wrapper.fetchResource(StructureDefinition.class, url);
+		assertNotSame(compiled, recompiled);
+		assertSame(recompiled, wrapper.fetchResource(StructureDefinition.class, url));
+
+		wrapper.invalidateCaches();
+		assertNotSame(recompiled, wrapper.fetchResource(StructureDefinition.class, url));
+	}
+
 	private IValidationSupport mockValidationSupportWithTwoBinaries() {
 		IValidationSupport validationSupport;
 		validationSupport = mockValidationSupport();
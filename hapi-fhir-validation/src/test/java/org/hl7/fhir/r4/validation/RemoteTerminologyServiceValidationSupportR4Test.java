@@ -13,6 +13,8 @@ import ca.uhn.fhir.rest.annotation.Operation;
 import ca.uhn.fhir.rest.annotation.OperationParam;
 import ca.uhn.fhir.rest.annotation.RequiredParam;
 import ca.uhn.fhir.rest.annotation.Search;
+import ca.uhn.fhir.rest.annotation.Transaction;
+import ca.uhn.fhir.rest.annotation.TransactionParam;
 import ca.uhn.fhir.rest.api.SummaryEnum;
 import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.client.api.IClientInterceptor;
@@ -30,6 +32,7 @@ import org.hl7.fhir.instance.model.api.IBaseCoding;
 import org.hl7.fhir.instance.model.api.IBaseParameters;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.BooleanType;
+import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.CodeSystem;
 import org.hl7.fhir.r4.model.CodeType;
 import org.hl7.fhir.r4.model.CodeableConcept;
@@ -470,6 +473,36 @@ public class RemoteTerminologyServiceValidationSupportR4Test extends BaseValidat
 
 
 
+	@Test
+	public void testValidateCodeBatch_forValueSet_usesSingleBatchRequest() {
+		MyTransactionProvider transactionProvider = new MyTransactionProvider();
+		myRestfulServerExtension.getRestfulServer().registerProvider(transactionProvider);
+		try {
+			List<IValidationSupport.CodeValidationRequest> requests = List.of(
+				new IValidationSupport.CodeValidationRequest(CODE_SYSTEM, "GOOD-1", DISPLAY),
+				new IValidationSupport.CodeValidationRequest(CODE_SYSTEM, "", null),
+				new IValidationSupport.CodeValidationRequest(CODE_SYSTEM, "BAD-1", null),
+				new IValidationSupport.CodeValidationRequest(CODE_SYSTEM, "GOOD-2", null));
+
+			List<IValidationSupport.CodeValidationResult> outcomes = mySvc.validateCodeBatch(null, null, requests, VALUE_SET_URL);
+			assertEquals(4, outcomes.size());
+			assertEquals("GOOD-1", outcomes.get(0).getCode());
+			assertEquals(DISPLAY, outcomes.get(0).getDisplay());
+			assertNull(outcomes.get(0).getSeverity());
+			assertNull(outcomes.get(1));
+			assertEquals(IValidationSupport.IssueSeverity.ERROR, outcomes.get(2).getSeverity());
+			assertEquals(ERROR_MESSAGE, outcomes.get(2).getMessage());
+			assertEquals("GOOD-2", outcomes.get(3).getCode());
+
+			assertEquals(1, transactionProvider.myInvocationCount);
+			assertEquals(3, transactionProvider.myLastRequestUrls.size());
+			assertEquals("ValueSet/$validate-code", transactionProvider.myLastRequestUrls.get(0));
+			assertEquals(0, myValueSetProvider.myInvocationCount);
+		} finally {
+			myRestfulServerExtension.getRestfulServer().unregisterProvider(transactionProvider);
+		}
+	}
+
 	@Test
 	public void testIsValueSetSupported_False() {
 		myValueSetProvider.myNextReturnValueSets = new ArrayList<>();
@@ -555,6 +588,37 @@ public class RemoteTerminologyServiceValidationSupportR4Test extends BaseValidat
 	}
 
 
+	/**
+	 * Answers each <code>$validate-code</code> entry in a batch: codes starting with "GOOD" are valid
+	 */
+	private static class MyTransactionProvider {
+		private int myInvocationCount;
+		private List<String> myLastRequestUrls;
+
+		@Transaction
+		public Bundle transaction(@TransactionParam Bundle theInput) {
+			myInvocationCount++;
+			myLastRequestUrls = new ArrayList<>();
+			Bundle retVal = new Bundle();
+			retVal.setType(Bundle.BundleType.BATCHRESPONSE);
+			for (Bundle.BundleEntryComponent next : theInput.getEntry()) {
+				myLastRequestUrls.add(next.getRequest().getUrl());
+				Parameters input = (Parameters) next.getResource();
+				String code = input.getParameterValue("code").primitiveValue();
+				Parameters output = new Parameters();
+				if (code.startsWith("GOOD")) {
+					output.addParameter("result", true);
+					output.addParameter("display", DISPLAY);
+				} else {
+					output.addParameter("result", false);
+					output.addParameter("message", ERROR_MESSAGE);
+				}
+				retVal.addEntry().setResource(output).getResponse().setStatus("200 OK");
+			}
+			return retVal;
+		}
+	}
+
 	private static class MyValueSetProvider implements IResourceProvider {
 		private Parameters myNextReturnParams;
 		private List<ValueSet> myNextReturnValueSets;